@@ -0,0 +1,28 @@
+package br.com.benchmarks;
+
+import br.com.models.TipoMensagem;
+import br.com.utils.CodecBinarioMensagem;
+import br.com.utils.CodecMensagem;
+import br.com.utils.CodecSerializacaoJava;
+
+import java.io.IOException;
+
+/**
+ * Imprime o tamanho em bytes de cada tipo de mensagem nos dois codecs
+ * Uso: mvn -f benchmarks/pom.xml exec:java -Dexec.mainClass=br.com.benchmarks.ComparacaoTamanhoCodecs
+ */
+public class ComparacaoTamanhoCodecs {
+
+    public static void main(String[] args) throws IOException {
+        CodecMensagem binario = new CodecBinarioMensagem();
+        CodecMensagem java = new CodecSerializacaoJava();
+
+        System.out.println(String.format("%-20s %10s %10s %10s", "Tipo", "binario", "java", "redução"));
+        for (TipoMensagem tipo : TipoMensagem.values()) {
+            int tamanhoBinario = binario.codificar(MensagensExemplo.criar(tipo)).length;
+            int tamanhoJava = java.codificar(MensagensExemplo.criar(tipo)).length;
+            System.out.println(String.format("%-20s %10d %10d %9.1fx",
+                tipo, tamanhoBinario, tamanhoJava, (double) tamanhoJava / tamanhoBinario));
+        }
+    }
+}
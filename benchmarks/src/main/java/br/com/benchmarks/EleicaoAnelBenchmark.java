@@ -0,0 +1,119 @@
+package br.com.benchmarks;
+
+import br.com.grupo2.GerenciadorEleicaoSocket;
+import br.com.grupo2.MembrosAnel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Eleição completa no anel do grupo 2 (GerenciadorEleicaoSocket) em loopback, do iniciarEleicao
+ * até o líder voltar ao iniciador, para anéis de tamanhos diferentes
+ * Depois do aquecimento cada salto é um frame nas conexões persistentes entre vizinhos, então o
+ * tempo cresce com o número de saltos e não com handshakes TCP
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EleicaoAnelBenchmark {
+
+    private static final int PORTA_BASE = 14000;
+    private static final long PRAZO_ELEICAO_MS = 30000;
+
+    @Param({"5", "10", "25", "50"})
+    public int membros;
+
+    private final List<GerenciadorEleicaoSocket> gerenciadores = new ArrayList<>();
+    private volatile CompletableFuture<Integer> lider;
+
+    @Setup
+    public void preparar() throws InterruptedException {
+        for (int id = 1; id <= membros; id++) {
+            GerenciadorEleicaoSocket.Participante participante = id == 1 ? new Iniciador() : new Participante();
+            gerenciadores.add(new GerenciadorEleicaoSocket(id, id * 10,
+                    MembrosAnel.localhost(membros, PORTA_BASE + 1000, PORTA_BASE), participante));
+        }
+        aguardarPortas();
+    }
+
+    @TearDown
+    public void encerrar() {
+        for (GerenciadorEleicaoSocket gerenciador : gerenciadores) {
+            gerenciador.finalizar();
+        }
+        gerenciadores.clear();
+    }
+
+    @Benchmark
+    public int eleicao() throws Exception {
+        lider = new CompletableFuture<>();
+        gerenciadores.get(0).iniciarEleicao();
+        return lider.get(PRAZO_ELEICAO_MS, TimeUnit.MILLISECONDS);
+    }
+
+    private void aguardarPortas() throws InterruptedException {
+        long limite = System.currentTimeMillis() + 10000;
+        for (int id = 1; id <= membros && System.currentTimeMillis() < limite; id++) {
+            while (!aceita(PORTA_BASE + id) && System.currentTimeMillis() < limite) {
+                Thread.sleep(20);
+            }
+        }
+    }
+
+    private static boolean aceita(int porta) {
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress("localhost", porta), 200);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Membro comum: sem líder conhecido, para cada chamada forçar uma eleição nova
+     */
+    private static class Participante implements GerenciadorEleicaoSocket.Participante {
+        @Override
+        public int getLiderAtual() {
+            return -1;
+        }
+
+        @Override
+        public void definirNovoLider(int novoLider) {
+        }
+
+        @Override
+        public void anunciarLiderViaMulticast(int novoLider) {
+        }
+    }
+
+    /**
+     * O iniciador entrega o líder eleito para o benchmark
+     */
+    private final class Iniciador extends Participante {
+        @Override
+        public void definirNovoLider(int novoLider) {
+            lider.complete(novoLider);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package br.com.benchmarks;
+
+import br.com.grpc.HeartbeatClient;
+import br.com.grpc.HeartbeatServiceImpl;
+import io.grpc.Server;
+import io.grpc.ServerBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HeartbeatClient contra um HeartbeatServiceImpl em loopback: chamada unária (sendPing)
+ * contra ping + pong no stream bidirecional (sendStreamPing)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GrpcHeartbeatBenchmark {
+
+    private static final int PORTA = 9111;
+
+    private Server server;
+    private HeartbeatClient client;
+
+    @Setup
+    public void preparar() throws IOException {
+        server = ServerBuilder.forPort(PORTA)
+                .addService(new HeartbeatServiceImpl("Processo2"))
+                .build()
+                .start();
+        client = new HeartbeatClient("localhost", PORTA, "Processo2", "Processo3");
+        
+        // Abre o stream antes das medições; os primeiros pings saem só quando o stream está pronto
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!client.isAlive()) {
+            if (System.nanoTime() - limite > 0) {
+                throw new IllegalStateException("Stream de heartbeat não abriu");
+            }
+            client.sendStreamPing();
+            Thread.onSpinWait();
+        }
+    }
+
+    @TearDown
+    public void encerrar() throws InterruptedException {
+        client.shutdown();
+        server.shutdown().awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    public boolean sendPing() {
+        return client.sendPing();
+    }
+
+    @Benchmark
+    public int sendStreamPing() {
+        int seq;
+        while ((seq = client.sendStreamPing()) < 0) {
+            Thread.onSpinWait();
+        }
+        while (client.getLastAckedSequence() < seq) {
+            Thread.onSpinWait();
+        }
+        return seq;
+    }
+}
@@ -0,0 +1,89 @@
+package br.com.benchmarks;
+
+import br.com.grpc.HeartbeatClient;
+import br.com.grpc.HeartbeatManager;
+import br.com.grpc.HeartbeatServiceImpl;
+import io.grpc.Deadline;
+import io.grpc.Server;
+import io.grpc.ServerBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Uma rodada de heartbeat para N seguidores em loopback: o mesmo ping silencioso
+ * (sendPingAsync, prazo de PRAZO_MS) esperado um a um contra HeartbeatManager.probeAll com
+ * todos os pings ao mesmo tempo
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HeartbeatFanoutBenchmark {
+
+    private static final int PORTA_BASE = 9121;
+    private static final long PRAZO_MS = 5000;
+
+    @Param({"1", "4", "16"})
+    public int seguidores;
+
+    private final List<Server> servers = new ArrayList<>();
+    private final List<HeartbeatClient> clients = new ArrayList<>();
+
+    @Setup
+    public void preparar() throws IOException {
+        for (int i = 0; i < seguidores; i++) {
+            String nome = "Seguidor" + i;
+            servers.add(ServerBuilder.forPort(PORTA_BASE + i)
+                    .addService(new HeartbeatServiceImpl(nome))
+                    .build()
+                    .start());
+            clients.add(new HeartbeatClient("localhost", PORTA_BASE + i, nome, "Lider"));
+        }
+    }
+
+    @TearDown
+    public void encerrar() throws InterruptedException {
+        for (HeartbeatClient client : clients) {
+            client.shutdown();
+        }
+        for (Server server : servers) {
+            server.shutdown().awaitTermination(5, TimeUnit.SECONDS);
+        }
+        clients.clear();
+        servers.clear();
+    }
+
+    @Benchmark
+    public int rodadaSequencial() {
+        int ativos = 0;
+        for (HeartbeatClient client : clients) {
+            if (client.sendPingAsync(Deadline.after(PRAZO_MS, TimeUnit.MILLISECONDS)).join()) {
+                ativos++;
+            }
+        }
+        return ativos;
+    }
+
+    @Benchmark
+    public Map<String, Boolean> rodadaConcorrente() {
+        return HeartbeatManager.probeAll(clients, PRAZO_MS).join();
+    }
+}
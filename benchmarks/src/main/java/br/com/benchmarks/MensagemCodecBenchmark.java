@@ -0,0 +1,60 @@
+package br.com.benchmarks;
+
+import br.com.models.Mensagem;
+import br.com.models.TipoMensagem;
+import br.com.utils.CodecMensagem;
+import br.com.utils.FramesMensagem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latência de codificação/decodificação de Mensagem: codec binário x serialização Java
+ * O tamanho em bytes de cada formato é impresso por ComparacaoTamanhoCodecs
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MensagemCodecBenchmark {
+
+    @Param({"binario", "java"})
+    public String codec;
+
+    @Param({"INTERACAO", "PING", "ELEICAO"})
+    public String tipo;
+
+    private CodecMensagem implementacao;
+    private Mensagem mensagem;
+    private byte[] codificada;
+
+    @Setup
+    public void preparar() throws IOException {
+        implementacao = FramesMensagem.criarCodec(codec);
+        mensagem = MensagensExemplo.criar(TipoMensagem.valueOf(tipo));
+        codificada = implementacao.codificar(mensagem);
+    }
+
+    @Benchmark
+    public byte[] codificar() throws IOException {
+        return implementacao.codificar(mensagem);
+    }
+
+    @Benchmark
+    public Mensagem decodificar() throws IOException {
+        return implementacao.decodificar(codificada);
+    }
+}
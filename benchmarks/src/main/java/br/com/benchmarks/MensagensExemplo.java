@@ -0,0 +1,45 @@
+package br.com.benchmarks;
+
+import br.com.models.Mensagem;
+import br.com.models.TipoMensagem;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Mensagens representativas do tráfego real, usadas pelos benchmarks
+ */
+public final class MensagensExemplo {
+
+    private MensagensExemplo() {}
+
+    /**
+     * Cria uma mensagem do tipo informado com conteúdo típico daquele tipo
+     */
+    public static Mensagem criar(TipoMensagem tipo) {
+        Mensagem mensagem = new Mensagem();
+        mensagem.setIdMensagem(UUID.randomUUID());
+        mensagem.setDataMensagem(LocalDateTime.now());
+        mensagem.setTipoMensagem(tipo);
+
+        switch (tipo) {
+            case PING:
+                mensagem.setProcessoRemetente("3");
+                mensagem.setConteudoMensagem("PING do líder");
+                break;
+            case ELEICAO:
+                mensagem.setProcessoRemetente("Processo1");
+                mensagem.setProcessoDestinatario("Processo3");
+                mensagem.setClockMensagem(42);
+                mensagem.setConteudoMensagem("ELEICAO");
+                break;
+            default:
+                mensagem.setProcessoRemetente("Processo1");
+                mensagem.setProcessoDestinatario("Processo2");
+                mensagem.setClockMensagem(1337);
+                mensagem.setConteudoMensagem("Olá, esta é uma mensagem de interação entre processos do grupo 1");
+                break;
+        }
+        return mensagem;
+    }
+}
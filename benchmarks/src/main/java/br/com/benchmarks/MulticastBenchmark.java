@@ -0,0 +1,80 @@
+package br.com.benchmarks;
+
+import br.com.utils.GerenciadorMulticast;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.MulticastSocket;
+import java.net.NetworkInterface;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GerenciadorMulticast.enviarMensagem até a chegada do datagrama em um receptor do mesmo grupo
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MulticastBenchmark {
+
+    private static final String ENDERECO_MULTICAST = "230.0.0.1";
+    private static final int PORTA = 50099;
+    private static final int TIMEOUT_RECEBIMENTO = 1000;
+
+    private GerenciadorMulticast gerenciador;
+    private MulticastSocket receptor;
+    private InetSocketAddress grupo;
+    private NetworkInterface interfaceRede;
+    private DatagramPacket pacote;
+    private long sequencia;
+
+    @Setup
+    public void preparar() throws IOException {
+        gerenciador = new GerenciadorMulticast(PORTA);
+
+        grupo = new InetSocketAddress(InetAddress.getByName(ENDERECO_MULTICAST), PORTA);
+        interfaceRede = NetworkInterface.getByInetAddress(InetAddress.getLocalHost());
+        receptor = new MulticastSocket(PORTA);
+        receptor.setSoTimeout(TIMEOUT_RECEBIMENTO);
+        receptor.joinGroup(grupo, interfaceRede);
+        pacote = new DatagramPacket(new byte[1024], 1024);
+    }
+
+    @TearDown
+    public void encerrar() throws IOException {
+        receptor.leaveGroup(grupo, interfaceRede);
+        receptor.close();
+        gerenciador.fechar();
+    }
+
+    @Benchmark
+    public String enviarEReceber() throws IOException {
+        String esperado = "MENSAGEM_LIDER:Benchmark:" + (++sequencia);
+        gerenciador.enviarMensagem(esperado);
+
+        // Descarta datagramas antigos até encontrar o que acabou de ser enviado
+        while (true) {
+            receptor.receive(pacote);
+            String recebido = new String(pacote.getData(), 0, pacote.getLength(), StandardCharsets.UTF_8);
+            if (recebido.equals(esperado)) {
+                return recebido;
+            }
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package br.com.benchmarks;
+
+import br.com.grupo2.ProcessoRMIInterface;
+import br.com.models.Mensagem;
+import br.com.models.TipoMensagem;
+import br.com.utils.FramesMensagem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.rmi.Naming;
+import java.rmi.NoSuchObjectException;
+import java.rmi.RemoteException;
+import java.rmi.registry.LocateRegistry;
+import java.rmi.registry.Registry;
+import java.rmi.server.UnicastRemoteObject;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chamada ProcessoRMIInterface.receberMensagem através de um registry RMI local
+ * Mede o custo de marshalling + TCP de cada chamada, com e sem o codec binário,
+ * e o de fazer um Naming.lookup antes de cada chamada em vez de reaproveitar o stub.
+ * Os métodos de lote medem o custo por mensagem quando LOTE mensagens vão em uma chamada
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RmiReceberMensagemBenchmark {
+
+    private static final int PORTA_REGISTRY = 11199;
+    private static final String NOME = "ProcessoRMIBenchmark";
+    private static final int LOTE = 32;
+
+    private Registry registry;
+    private ProcessoRMIReceptor receptor;
+    private ProcessoRMIInterface stub;
+    private Mensagem mensagem;
+    private byte[] mensagemCodificada;
+    private List<Mensagem> lote;
+    private List<byte[]> loteCodificado;
+
+    @Setup
+    public void preparar() throws Exception {
+        registry = LocateRegistry.createRegistry(PORTA_REGISTRY);
+        receptor = new ProcessoRMIReceptor();
+        registry.rebind(NOME, receptor);
+
+        stub = (ProcessoRMIInterface) LocateRegistry.getRegistry("localhost", PORTA_REGISTRY).lookup(NOME);
+        mensagem = MensagensExemplo.criar(TipoMensagem.INTERACAO);
+        mensagemCodificada = FramesMensagem.codificar(mensagem);
+        lote = Collections.nCopies(LOTE, mensagem);
+        loteCodificado = new ArrayList<>(Collections.nCopies(LOTE, mensagemCodificada));
+    }
+
+    @TearDown
+    public void encerrar() throws Exception {
+        registry.unbind(NOME);
+        UnicastRemoteObject.unexportObject(receptor, true);
+        UnicastRemoteObject.unexportObject(registry, true);
+    }
+
+    @Benchmark
+    public void receberMensagem() throws RemoteException {
+        stub.receberMensagem(mensagem);
+    }
+
+    @Benchmark
+    public void receberMensagemCodificada() throws IOException {
+        stub.receberMensagemCodificada(FramesMensagem.codificar(mensagem));
+    }
+
+    @Benchmark
+    public void receberMensagemPreCodificada() throws RemoteException {
+        stub.receberMensagemCodificada(mensagemCodificada);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOTE)
+    public void receberLote() throws RemoteException {
+        stub.receberMensagens(lote);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOTE)
+    public void receberLotePreCodificado() throws RemoteException {
+        stub.receberMensagensCodificadas(loteCodificado);
+    }
+
+    @Benchmark
+    public void lookupPorChamada() throws Exception {
+        ProcessoRMIInterface destino = (ProcessoRMIInterface) Naming.lookup("rmi://localhost:" + PORTA_REGISTRY + "/" + NOME);
+        destino.receberMensagemCodificada(mensagemCodificada);
+    }
+
+    /**
+     * Processo RMI mínimo: só recebe mensagens, sem eleição nem multicast
+     */
+    public static class ProcessoRMIReceptor extends UnicastRemoteObject implements ProcessoRMIInterface {
+
+        private volatile long recebidas;
+
+        public ProcessoRMIReceptor() throws RemoteException {
+            super();
+        }
+
+        @Override
+        public void receberMensagem(Mensagem mensagem) {
+            recebidas++;
+        }
+
+        @Override
+        public void receberMensagemCodificada(byte[] conteudo) throws RemoteException {
+            try {
+                receberMensagem(FramesMensagem.decodificar(conteudo));
+            } catch (IOException e) {
+                throw new RemoteException("Mensagem codificada inválida", e);
+            }
+        }
+
+        @Override
+        public void receberMensagens(List<Mensagem> mensagens) {
+            recebidas += mensagens.size();
+        }
+
+        @Override
+        public void receberMensagensCodificadas(List<byte[]> conteudos) throws RemoteException {
+            for (byte[] conteudo : conteudos) {
+                receberMensagemCodificada(conteudo);
+            }
+        }
+
+        @Override
+        public void iniciarEleicao(int processoIniciador, List<Integer> candidatos) {}
+
+        @Override
+        public void propagarEleicao(List<Integer> candidatos) {}
+
+        @Override
+        public void propagarEleicaoComParametro(int iniciador, int parametroRecebido) {}
+
+        @Override
+        public void anunciarLider(int novoLider) {}
+
+        @Override
+        public boolean assumirLideranca(int liderAnterior, long epoca) {
+            return false;
+        }
+
+        @Override
+        public List<String> entrarNoAnel(String membro) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public void sairDoAnel(int processoId) {}
+
+        @Override
+        public boolean estaAtivo() {
+            return true;
+        }
+
+        @Override
+        public int getProcessoId() {
+            return 99;
+        }
+
+        @Override
+        public int getLiderAtual() {
+            return 99;
+        }
+
+        @Override
+        public void setProximoProcesso(ProcessoRMIInterface proximoProcesso) {}
+
+        @Override
+        public void enviarHeartbeat() {}
+
+        @Override
+        public void receberHeartbeat(int remetenteId) {}
+    }
+}
@@ -0,0 +1,65 @@
+package br.com.benchmarks;
+
+import br.com.utils.SnapshotManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.Socket;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SnapshotManager.collectSnapshotFromProcess contra o servidor de snapshot de um processo local
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SnapshotRoundTripBenchmark {
+
+    private static final String PROCESSO = "Processo1";
+
+    private SnapshotManager snapshotManager;
+
+    @Setup
+    public void preparar() throws InterruptedException {
+        snapshotManager = new SnapshotManager(PROCESSO, () -> PROCESSO + " - Clock: 42");
+        snapshotManager.startSnapshotServer();
+        aguardarServidor(SnapshotManager.getSnapshotPort(PROCESSO));
+    }
+
+    @TearDown
+    public void encerrar() {
+        snapshotManager.stopSnapshotServer();
+    }
+
+    @Benchmark
+    public String collectSnapshotFromProcess() {
+        return SnapshotManager.collectSnapshotFromProcess(PROCESSO);
+    }
+
+    /**
+     * O servidor de snapshot sobe de forma assíncrona; espera a porta aceitar conexões
+     */
+    static void aguardarServidor(int porta) throws InterruptedException {
+        for (int tentativa = 0; tentativa < 50; tentativa++) {
+            try (Socket socket = new Socket("localhost", porta)) {
+                return;
+            } catch (IOException e) {
+                Thread.sleep(100);
+            }
+        }
+        throw new IllegalStateException("Servidor não respondeu na porta " + porta);
+    }
+}
@@ -0,0 +1,102 @@
+package br.com.benchmarks;
+
+import br.com.models.Mensagem;
+import br.com.models.TipoMensagem;
+import br.com.utils.CanalSocket;
+import br.com.utils.TransporteNio;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ida e volta de uma mensagem INTERACAO no caminho de sockets do grupo 1
+ * (enviarMensagem + resposta "Mensagem recebida com sucesso"), tanto com leitura
+ * bloqueante quanto com requisições correlacionadas em andamento ao mesmo tempo
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SocketRoundTripBenchmark {
+
+    private static final int PORTA = 50151;
+    private static final int EM_ANDAMENTO = 16;
+    private static final long TIMEOUT_RESPOSTA = 5000;
+
+    private TransporteNio transporte;
+    private CanalSocket canal;
+    private CanalSocket canalCorrelacionado;
+    private Mensagem mensagem;
+
+    @Setup
+    public void preparar() throws IOException {
+        // Mesmo formato de resposta do manipulador INTERACAO dos processos do grupo 1
+        transporte = new TransporteNio("Benchmark", PORTA, (recebida, canalResposta) -> {
+            Mensagem resposta = new Mensagem();
+            resposta.setConteudoMensagem("Mensagem recebida com sucesso");
+            resposta.setProcessoRemetente("Processo2");
+            resposta.setProcessoDestinatario(recebida.getProcessoRemetente());
+            resposta.setTipoMensagem(TipoMensagem.INTERACAO);
+            resposta.setClockMensagem(recebida.getClockMensagem() + 1);
+            resposta.setDataMensagem(LocalDateTime.now());
+            resposta.setIdMensagem(UUID.randomUUID());
+            resposta.setIdMensagemOrigem(recebida.getIdMensagem());
+            try {
+                canalResposta.enviar(resposta);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        transporte.iniciar();
+
+        canal = CanalSocket.conectar("localhost", PORTA);
+        canalCorrelacionado = CanalSocket.conectar("localhost", PORTA);
+        canalCorrelacionado.iniciarLeitura((naoSolicitada, origem) -> {}, () -> {});
+        mensagem = MensagensExemplo.criar(TipoMensagem.INTERACAO);
+    }
+
+    @TearDown
+    public void encerrar() {
+        canal.fechar();
+        canalCorrelacionado.fechar();
+        transporte.parar();
+    }
+
+    @Benchmark
+    public Mensagem enviarMensagemEResposta() throws IOException {
+        canal.enviar(mensagem);
+        return canal.receber();
+    }
+
+    @Benchmark
+    public Mensagem enviarRequisicao() throws IOException {
+        return canalCorrelacionado.enviarRequisicao(MensagensExemplo.criar(TipoMensagem.INTERACAO), TIMEOUT_RESPOSTA).join();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EM_ANDAMENTO)
+    public void enviarRequisicoesEmAndamento() throws IOException {
+        CompletableFuture<?>[] futuros = new CompletableFuture<?>[EM_ANDAMENTO];
+        for (int i = 0; i < EM_ANDAMENTO; i++) {
+            futuros[i] = canalCorrelacionado.enviarRequisicao(MensagensExemplo.criar(TipoMensagem.INTERACAO), TIMEOUT_RESPOSTA);
+        }
+        CompletableFuture.allOf(futuros).join();
+    }
+}
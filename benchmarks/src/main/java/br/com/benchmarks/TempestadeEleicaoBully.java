@@ -0,0 +1,342 @@
+package br.com.benchmarks;
+
+import br.com.grupo1.CoordenadorEleicao;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Contagem de mensagens da eleição Bully do grupo 1 com N processos simulados em memória
+ * O líder (maior parâmetro) cai e todos os outros detectam a falha quase ao mesmo tempo. A rede
+ * só entrega ELEICAO, ELEICAO_OK e NOVO_LIDER com latência aleatória de até 1 ms. Dois
+ * protocolos são comparados:
+ * - original: o de antes do CoordenadorEleicao, modelado à parte. Toda ELEICAO de um processo
+ *   menor responde OK e dispara iniciarEleicao numa thread própria; a flag eleicaoEmAndamento
+ *   só barra uma segunda rodada até o próximo NOVO_LIDER (aceito sempre), e quem enviou
+ *   ELEICAO fica em eleição até o anúncio;
+ * - com termos: o CoordenadorEleicao de verdade com eleicaoRecebida, que entra no termo do
+ *   remetente ou absorve o pedido, NOVO_LIDER de termo antigo ignorado e detecção atrasada
+ *   (líder já trocado) descartada.
+ * Uso: mvn -f benchmarks/pom.xml exec:java -Dexec.mainClass=br.com.benchmarks.TempestadeEleicaoBully [-Dexec.args="10 50 100"]
+ */
+public class TempestadeEleicaoBully {
+
+    private static final long TIMEOUT_NOVO_LIDER_MS = 2000;
+    private static final long PRAZO_SIMULACAO_MS = 20000;
+    private static final long LIMITE_MENSAGENS = 2_000_000;
+    private static final int REPETICOES = 3;
+
+    /**
+     * Contadores e entrega de uma simulação
+     */
+    private static final class Rede {
+        final ScheduledExecutorService entregas = Executors.newScheduledThreadPool(4, r -> {
+            Thread thread = new Thread(r, "RedeSimulada");
+            thread.setDaemon(true);
+            return thread;
+        });
+        final AtomicLong eleicao = new AtomicLong();
+        final AtomicLong ok = new AtomicLong();
+        final AtomicLong novoLider = new AtomicLong();
+        final AtomicLong rodadas = new AtomicLong();
+        final AtomicInteger emTransito = new AtomicInteger();
+
+        void entregar(Runnable entrega) {
+            emTransito.incrementAndGet();
+            entregas.schedule(() -> {
+                try {
+                    entrega.run();
+                } finally {
+                    emTransito.decrementAndGet();
+                }
+            }, ThreadLocalRandom.current().nextLong(50, 1000), TimeUnit.MICROSECONDS);
+        }
+
+        long total() {
+            return eleicao.get() + ok.get() + novoLider.get();
+        }
+    }
+
+    /**
+     * Um processo simulado; parâmetro = id * 10, como no grupo 1
+     */
+    private abstract static class No {
+        final int id;
+        final List<No> nos;
+        final Rede rede;
+        volatile boolean vivo = true;
+        volatile int liderAtual;
+
+        No(int id, int lider, List<No> nos, Rede rede) {
+            this.id = id;
+            this.nos = nos;
+            this.rede = rede;
+            this.liderAtual = lider;
+        }
+
+        /**
+         * Falha do líder percebida por este processo
+         */
+        abstract void detectouFalha(String liderCaido);
+
+        abstract boolean isEmAndamento();
+
+        No no(String processo) {
+            return nos.get(Integer.parseInt(processo.substring(1)) - 1);
+        }
+    }
+
+    /**
+     * Protocolo original: thread por ELEICAO recebida, flag eleicaoEmAndamento e espera fixa
+     */
+    private static final class NoOriginal extends No {
+        private boolean eleicaoEmAndamento;
+
+        NoOriginal(int id, int lider, List<No> nos, Rede rede) {
+            super(id, lider, nos, rede);
+        }
+
+        @Override
+        void detectouFalha(String liderCaido) {
+            iniciarEleicao();
+        }
+
+        @Override
+        synchronized boolean isEmAndamento() {
+            return eleicaoEmAndamento;
+        }
+
+        void iniciarEleicao() {
+            synchronized (this) {
+                if (eleicaoEmAndamento) {
+                    return;
+                }
+                eleicaoEmAndamento = true;
+            }
+            rede.rodadas.incrementAndGet();
+            List<NoOriginal> maiores = new ArrayList<>();
+            for (No outro : nos) {
+                if (outro.id > id && outro.id != liderAtual) {
+                    maiores.add((NoOriginal) outro);
+                }
+            }
+            if (maiores.isEmpty()) {
+                tornarSeLider();
+                return;
+            }
+            boolean enviada = false;
+            for (NoOriginal destino : maiores) {
+                // Escrita no stream de um processo caído falha na hora
+                if (destino.vivo) {
+                    enviada = true;
+                    rede.eleicao.incrementAndGet();
+                    rede.entregar(destino::eleicaoRecebida);
+                }
+            }
+            if (!enviada) {
+                tornarSeLider();
+            }
+            // Senão fica em eleição até um NOVO_LIDER, sem prazo
+        }
+
+        void eleicaoRecebida() {
+            if (!vivo) {
+                return;
+            }
+            // O OK só é impresso por quem o recebe; a thread nova entra na eleição depois dele
+            rede.ok.incrementAndGet();
+            rede.entregar(this::iniciarEleicao);
+        }
+
+        void tornarSeLider() {
+            synchronized (this) {
+                liderAtual = id;
+                eleicaoEmAndamento = false;
+            }
+            for (No outro : nos) {
+                if (outro != this && outro.vivo) {
+                    NoOriginal destino = (NoOriginal) outro;
+                    rede.novoLider.incrementAndGet();
+                    rede.entregar(() -> destino.novoLider(id));
+                }
+            }
+        }
+
+        void novoLider(int lider) {
+            if (!vivo) {
+                return;
+            }
+            synchronized (this) {
+                liderAtual = lider;
+                eleicaoEmAndamento = false;
+            }
+        }
+    }
+
+    /**
+     * CoordenadorEleicao de verdade com termos
+     */
+    private static final class NoComTermos extends No implements CoordenadorEleicao.Participante {
+        final CoordenadorEleicao coordenador;
+
+        NoComTermos(int id, int lider, List<No> nos, Rede rede) {
+            super(id, lider, nos, rede);
+            this.coordenador = new CoordenadorEleicao(nome(id), this, TIMEOUT_NOVO_LIDER_MS);
+        }
+
+        @Override
+        void detectouFalha(String liderCaido) {
+            coordenador.liderFalhou(liderCaido);
+        }
+
+        @Override
+        boolean isEmAndamento() {
+            return coordenador.isEmAndamento();
+        }
+
+        @Override
+        public List<String> candidatos() {
+            rede.rodadas.incrementAndGet();
+            List<String> candidatos = new ArrayList<>();
+            for (No outro : nos) {
+                if (outro.id > id && outro.vivo && outro.id != liderAtual) {
+                    candidatos.add(nome(outro.id));
+                }
+            }
+            return candidatos;
+        }
+
+        @Override
+        public CompletableFuture<?> enviarEleicao(String processo, long termo) {
+            NoComTermos destino = (NoComTermos) no(processo);
+            CompletableFuture<Object> resposta = new CompletableFuture<>();
+            rede.eleicao.incrementAndGet();
+            rede.entregar(() -> destino.eleicaoRecebida(this, termo, resposta));
+            return resposta;
+        }
+
+        void eleicaoRecebida(No remetente, long termo, CompletableFuture<Object> resposta) {
+            if (!vivo) {
+                resposta.completeExceptionally(new IllegalStateException("Conexão fechada"));
+                return;
+            }
+            rede.ok.incrementAndGet();
+            rede.entregar(() -> resposta.complete("OK"));
+            coordenador.eleicaoRecebida(nome(remetente.id), termo);
+        }
+
+        @Override
+        public void tornarSeLider(long termo) {
+            liderAtual = id;
+            for (No outro : nos) {
+                if (outro != this && outro.vivo) {
+                    anunciar(outro, termo);
+                }
+            }
+        }
+
+        @Override
+        public void reenviarLider(String processo, long termo) {
+            anunciar(no(processo), termo);
+        }
+
+        private void anunciar(No destino, long termo) {
+            NoComTermos anunciado = (NoComTermos) destino;
+            rede.novoLider.incrementAndGet();
+            rede.entregar(() -> anunciado.novoLider(id, termo));
+        }
+
+        void novoLider(int lider, long termo) {
+            if (vivo && coordenador.liderDefinido(nome(lider), termo)) {
+                liderAtual = lider;
+            }
+        }
+    }
+
+    private static String nome(int id) {
+        return "P" + id;
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<Integer> tamanhos = new ArrayList<>();
+        for (String arg : args) {
+            tamanhos.add(Integer.parseInt(arg));
+        }
+        if (tamanhos.isEmpty()) {
+            Collections.addAll(tamanhos, 10, 50, 100);
+        }
+
+        // Os coordenadores escrevem no console a cada passo; a tabela sai em stderr
+        System.err.println(String.format("%-6s %-11s %10s %10s %10s %10s %8s %s",
+                "nós", "tratamento", "ELEICAO", "OK", "NOVO_LIDER", "total", "rodadas", "resultado"));
+        for (int tamanho : tamanhos) {
+            for (boolean comTermos : new boolean[]{false, true}) {
+                long eleicao = 0, ok = 0, novoLider = 0, rodadas = 0;
+                Set<String> resultados = new HashSet<>();
+                for (int repeticao = 0; repeticao < REPETICOES; repeticao++) {
+                    Rede rede = new Rede();
+                    resultados.add(simular(tamanho, comTermos, rede));
+                    eleicao += rede.eleicao.get();
+                    ok += rede.ok.get();
+                    novoLider += rede.novoLider.get();
+                    rodadas += rede.rodadas.get();
+                    rede.entregas.shutdownNow();
+                }
+                System.err.println(String.format("%-6d %-11s %10d %10d %10d %10d %8d %s",
+                        tamanho, comTermos ? "com termos" : "original", eleicao / REPETICOES, ok / REPETICOES,
+                        novoLider / REPETICOES, (eleicao + ok + novoLider) / REPETICOES, rodadas / REPETICOES, resultados));
+            }
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Derruba o líder, dispara a detecção em todos e espera a rede ficar quieta
+     * Devolve o líder em que os vivos concordam, ou o motivo de não ter convergido
+     */
+    private static String simular(int tamanho, boolean comTermos, Rede rede) throws InterruptedException {
+        List<No> nos = new ArrayList<>();
+        for (int id = 1; id <= tamanho; id++) {
+            nos.add(comTermos ? new NoComTermos(id, tamanho, nos, rede) : new NoOriginal(id, tamanho, nos, rede));
+        }
+        nos.get(tamanho - 1).vivo = false;
+        String liderCaido = nome(tamanho);
+        for (No no : nos) {
+            if (no.vivo) {
+                rede.entregar(() -> no.detectouFalha(liderCaido));
+            }
+        }
+
+        long limite = System.currentTimeMillis() + PRAZO_SIMULACAO_MS;
+        int quietas = 0;
+        while (quietas < 5) {
+            if (System.currentTimeMillis() > limite || rede.total() > LIMITE_MENSAGENS) {
+                return "não convergiu";
+            }
+            Thread.sleep(20);
+            boolean quieta = rede.emTransito.get() == 0;
+            for (No no : nos) {
+                quieta &= !no.vivo || !no.isEmAndamento();
+            }
+            quietas = quieta ? quietas + 1 : 0;
+        }
+
+        Set<Integer> lideres = new HashSet<>();
+        for (No no : nos) {
+            if (no.vivo) {
+                lideres.add(no.liderAtual);
+            }
+        }
+        return lideres.size() == 1 ? "líder " + nome(lideres.iterator().next()) : "líderes divergentes " + lideres;
+    }
+}
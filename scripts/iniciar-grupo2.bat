@@ -18,15 +18,15 @@ if %errorlevel% neq 0 (
 )
 
 echo [3/4] Iniciando ProcessoRMI1 (porta 1101)...
-start "ProcessoRMI1" cmd /k "cd /d %~dp0\.. && mvn exec:java -Dexec.mainClass=br.com.grupo2.ProcessoRMI1 -Dexec.args=1101"
+start "ProcessoRMI1" cmd /k "cd /d %~dp0\.. && mvn -pl app exec:java -Dexec.mainClass=br.com.grupo2.ProcessoRMI1 -Dexec.args=1101"
 timeout /t 2 /nobreak >nul
 
 echo [4/4] Iniciando ProcessoRMI2 (porta 1102)...
-start "ProcessoRMI2" cmd /k "cd /d %~dp0\.. && mvn exec:java -Dexec.mainClass=br.com.grupo2.ProcessoRMI2 -Dexec.args=1102"
+start "ProcessoRMI2" cmd /k "cd /d %~dp0\.. && mvn -pl app exec:java -Dexec.mainClass=br.com.grupo2.ProcessoRMI2 -Dexec.args=1102"
 timeout /t 2 /nobreak >nul
 
 echo [5/4] Iniciando ProcessoRMI3 (porta 1103)...
-start "ProcessoRMI3" cmd /k "cd /d %~dp0\.. && mvn exec:java -Dexec.mainClass=br.com.grupo2.ProcessoRMI3 -Dexec.args=1103"
+start "ProcessoRMI3" cmd /k "cd /d %~dp0\.. && mvn -pl app exec:java -Dexec.mainClass=br.com.grupo2.ProcessoRMI3 -Dexec.args=1103"
 
 echo.
 echo ========================================
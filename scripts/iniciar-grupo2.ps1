@@ -30,15 +30,15 @@ if ($LASTEXITCODE -ne 0) {
 Write-Host "[2/5] Compilação concluída com sucesso" -ForegroundColor Green
 
 Write-Host "[3/5] Iniciando ProcessoRMI1 (porta 1101)..." -ForegroundColor Yellow
-Start-Process -FilePath "powershell" -ArgumentList "-Command", "cd '$projectDir'; mvn exec:java -Dexec.mainClass=br.com.grupo2.ProcessoRMI1; Read-Host 'Pressione Enter para fechar'"
+Start-Process -FilePath "powershell" -ArgumentList "-Command", "cd '$projectDir'; mvn -pl app exec:java -Dexec.mainClass=br.com.grupo2.ProcessoRMI1; Read-Host 'Pressione Enter para fechar'"
 Start-Sleep -Seconds 2
 
 Write-Host "[4/5] Iniciando ProcessoRMI2 (porta 1102)..." -ForegroundColor Yellow
-Start-Process -FilePath "powershell" -ArgumentList "-Command", "cd '$projectDir'; mvn exec:java -Dexec.mainClass=br.com.grupo2.ProcessoRMI2; Read-Host 'Pressione Enter para fechar'"
+Start-Process -FilePath "powershell" -ArgumentList "-Command", "cd '$projectDir'; mvn -pl app exec:java -Dexec.mainClass=br.com.grupo2.ProcessoRMI2; Read-Host 'Pressione Enter para fechar'"
 Start-Sleep -Seconds 2
 
 Write-Host "[5/5] Iniciando ProcessoRMI3 (porta 1103)..." -ForegroundColor Yellow
-Start-Process -FilePath "powershell" -ArgumentList "-Command", "cd '$projectDir'; mvn exec:java -Dexec.mainClass=br.com.grupo2.ProcessoRMI3; Read-Host 'Pressione Enter para fechar'"
+Start-Process -FilePath "powershell" -ArgumentList "-Command", "cd '$projectDir'; mvn -pl app exec:java -Dexec.mainClass=br.com.grupo2.ProcessoRMI3; Read-Host 'Pressione Enter para fechar'"
 Start-Sleep -Seconds 2
 
 Write-Host ""
@@ -1,29 +1,58 @@
 package br.com.grpc;
 
+import io.grpc.Deadline;
 import io.grpc.ManagedChannel;
 import io.grpc.ManagedChannelBuilder;
+import io.grpc.Status;
 import io.grpc.StatusRuntimeException;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import io.grpc.stub.StreamObserver;
+import br.com.utils.DetectorPhiAccrual;
 import br.com.utils.TerminalColors;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 
 public class HeartbeatClient {
     
+    /** Pings do stream ainda sem pong a partir dos quais o seguidor é considerado inativo, sem detector */
+    private static final int MAXIMO_PINGS_SEM_RESPOSTA = 3;
+    private static final long BACKOFF_INICIAL_MS = 500;
+    private static final long BACKOFF_MAXIMO_MS = 5000;
+    
     private final ManagedChannel channel;
     private final HeartbeatServiceGrpc.HeartbeatServiceBlockingStub blockingStub;
+    private final HeartbeatServiceGrpc.HeartbeatServiceStub asyncStub;
     private final String targetProcess;
     private final String senderProcess;
     private final AtomicInteger sequenceNumber;
     
+    // Estado do stream de heartbeat; builder, sequência e abertura do stream são protegidos por this
+    private final PingRequest.Builder pingStream;
+    private int sequenciaStream;
+    private volatile ClientCallStreamObserver<PingRequest> stream;
+    private volatile int ultimaSequenciaEnviada;
+    private volatile int ultimaSequenciaConfirmada;
+    private volatile boolean ultimoPongOk;
+    private volatile String motivoFalha = "stream ainda não aberto";
+    private final AtomicInteger lacunas = new AtomicInteger();
+    private volatile long backoffMs = BACKOFF_INICIAL_MS;
+    private long proximaTentativaNanos;
+    private volatile DetectorPhiAccrual detector;
+    private volatile long epocaLider;
+    
     public HeartbeatClient(String host, int port, String targetProcess, String senderProcess) {
         this.channel = ManagedChannelBuilder.forAddress(host, port)
                 .usePlaintext()
                 .build();
         this.blockingStub = HeartbeatServiceGrpc.newBlockingStub(channel);
+        this.asyncStub = HeartbeatServiceGrpc.newStub(channel);
         this.targetProcess = targetProcess;
         this.senderProcess = senderProcess;
         this.sequenceNumber = new AtomicInteger(0);
+        this.pingStream = PingRequest.newBuilder().setSenderProcess(senderProcess);
     }
     
     public boolean sendPing() {
@@ -38,6 +67,7 @@ public class HeartbeatClient {
                     .setSenderProcess(senderProcess)
                     .setTimestamp(System.currentTimeMillis())
                     .setSequenceNumber(currentSeq)
+                    .setLeaderEpoch(epocaLider)
                     .build();
             
             System.out.println(TerminalColors.successMessage(
@@ -70,7 +100,201 @@ public class HeartbeatClient {
         }
     }
     
+    /**
+     * Ping unário pelo stub assíncrono, sem bloquear a thread que chama
+     * Vários pings podem compartilhar o mesmo prazo para terminar juntos
+     * @return future com true se o pong chegou com sucesso antes do prazo; nunca completa com exceção
+     */
+    public CompletableFuture<Boolean> sendPingAsync(Deadline prazo) {
+        CompletableFuture<Boolean> resultado = new CompletableFuture<>();
+        try {
+            int currentSeq = sequenceNumber.incrementAndGet();
+            
+            PingRequest request = PingRequest.newBuilder()
+                    .setSenderProcess(senderProcess)
+                    .setTimestamp(System.currentTimeMillis())
+                    .setSequenceNumber(currentSeq)
+                    .setLeaderEpoch(epocaLider)
+                    .build();
+            
+            asyncStub.withDeadline(prazo).ping(request, new StreamObserver<PongResponse>() {
+                @Override
+                public void onNext(PongResponse response) {
+                    resultado.complete(response.getSuccess() && response.getSequenceNumber() == currentSeq);
+                }
+                
+                @Override
+                public void onError(Throwable t) {
+                    resultado.complete(false);
+                }
+                
+                @Override
+                public void onCompleted() {
+                    resultado.complete(false);
+                }
+            });
+        } catch (Exception e) {
+            resultado.complete(false);
+        }
+        return resultado;
+    }
+    
+    /**
+     * Envia um ping pelo stream de heartbeat, abrindo o stream se preciso
+     * Não bloqueia: o pong chega de forma assíncrona e só atualiza a sequência confirmada
+     * @return número de sequência enviado, ou -1 se o stream está fechado ou sem espaço no buffer
+     */
+    public synchronized int sendStreamPing() {
+        if (stream == null) {
+            if (System.nanoTime() - proximaTentativaNanos < 0) {
+                return -1;
+            }
+            abrirStream();
+        }
+        
+        ClientCallStreamObserver<PingRequest> atual = stream;
+        if (atual == null || !atual.isReady()) {
+            // Seguidor sem consumir os pings: a diferença de sequência já denuncia a falha
+            return -1;
+        }
+        
+        int seq = ++sequenciaStream;
+        ultimaSequenciaEnviada = seq;
+        try {
+            atual.onNext(pingStream
+                    .setTimestamp(System.currentTimeMillis())
+                    .setSequenceNumber(seq)
+                    .build());
+        } catch (RuntimeException e) {
+            encerrarStream(atual, e.getMessage());
+            return -1;
+        }
+        return seq;
+    }
+    
+    private void abrirStream() {
+        int base = sequenciaStream;
+        ultimaSequenciaEnviada = base;
+        ultimaSequenciaConfirmada = base;
+        ultimoPongOk = false;
+        // stream é atribuído em beforeStart, antes de qualquer callback do novo stream
+        asyncStub.heartbeat(new ObservadorStream());
+    }
+    
+    private synchronized void encerrarStream(ClientCallStreamObserver<PingRequest> requisicoes, String motivo) {
+        if (stream != requisicoes) {
+            return;
+        }
+        stream = null;
+        ultimoPongOk = false;
+        motivoFalha = motivo;
+        proximaTentativaNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoffMs);
+        backoffMs = Math.min(backoffMs * 2, BACKOFF_MAXIMO_MS);
+    }
+    
+    /**
+     * Pongs do stream; pongs de um stream anterior têm sequência já ultrapassada e são ignorados
+     */
+    private final class ObservadorStream implements ClientResponseObserver<PingRequest, PongResponse> {
+        
+        private ClientCallStreamObserver<PingRequest> requisicoes;
+        
+        @Override
+        public void beforeStart(ClientCallStreamObserver<PingRequest> requisicoes) {
+            this.requisicoes = requisicoes;
+            stream = requisicoes;
+        }
+        
+        @Override
+        public void onNext(PongResponse pong) {
+            int seq = pong.getSequenceNumber();
+            int esperado = ultimaSequenciaConfirmada + 1;
+            if (seq < esperado) {
+                return;
+            }
+            if (seq > esperado) {
+                lacunas.addAndGet(seq - esperado);
+            }
+            ultimaSequenciaConfirmada = seq;
+            ultimoPongOk = pong.getSuccess();
+            if (!ultimoPongOk) {
+                motivoFalha = "seguidor marcado como inativo";
+            } else if (detector != null) {
+                detector.heartbeat(targetProcess);
+            }
+            backoffMs = BACKOFF_INICIAL_MS;
+        }
+        
+        @Override
+        public void onError(Throwable t) {
+            Status status = Status.fromThrowable(t);
+            encerrarStream(requisicoes, status.getCode() + (status.getDescription() != null ? " - " + status.getDescription() : ""));
+        }
+        
+        @Override
+        public void onCompleted() {
+            encerrarStream(requisicoes, "stream encerrado por " + targetProcess);
+        }
+    }
+    
+    /**
+     * Época do líder levada em todo ping; o seguidor que já conhece uma época maior o rejeita
+     */
+    public synchronized void setEpocaLider(long epocaLider) {
+        this.epocaLider = epocaLider;
+        pingStream.setLeaderEpoch(epocaLider);
+    }
+    
+    /**
+     * Passa a alimentar o detector com cada pong recebido pelo stream; com ele, o atraso
+     * tolerado dos pongs vem do histórico de chegadas e não mais de um número fixo de pings
+     */
+    public void setDetector(DetectorPhiAccrual detector) {
+        this.detector = detector;
+    }
+    
+    /**
+     * Seguidor vivo segundo o stream: aberto, último pong com sucesso e pongs em dia
+     * (phi abaixo do limiar, ou no máximo MAXIMO_PINGS_SEM_RESPOSTA pendentes sem detector)
+     */
+    public boolean isAlive() {
+        if (stream == null || !ultimoPongOk) {
+            return false;
+        }
+        DetectorPhiAccrual atual = detector;
+        if (atual != null) {
+            return atual.isDisponivel(targetProcess);
+        }
+        return ultimaSequenciaEnviada - ultimaSequenciaConfirmada <= MAXIMO_PINGS_SEM_RESPOSTA;
+    }
+    
+    /**
+     * Motivo legível de isAlive() ser false
+     */
+    public String getFailureReason() {
+        if (stream == null || !ultimoPongOk) {
+            return motivoFalha;
+        }
+        DetectorPhiAccrual atual = detector;
+        if (atual != null) {
+            return atual.descrever(targetProcess);
+        }
+        return (ultimaSequenciaEnviada - ultimaSequenciaConfirmada) + " ping(s) sem resposta";
+    }
+    
+    public int getLastAckedSequence() {
+        return ultimaSequenciaConfirmada;
+    }
+    
+    /**
+     * Pongs que nunca chegaram entre dois pongs recebidos
+     */
+    public int getMissedPongs() {
+        return lacunas.get();
+    }
+    
     public void shutdown() {
+        encerrarStream();
         try {
             channel.shutdown().awaitTermination(5, TimeUnit.SECONDS);
 
@@ -81,6 +305,27 @@ public class HeartbeatClient {
         }
     }
     
+    /**
+     * Encerra sem esperar as chamadas em andamento terminarem; usado ao deixar a liderança,
+     * a partir das threads que tratam mensagens, que não podem ficar presas no awaitTermination
+     */
+    public void shutdownNow() {
+        encerrarStream();
+        channel.shutdownNow();
+    }
+    
+    private synchronized void encerrarStream() {
+        ClientCallStreamObserver<PingRequest> atual = stream;
+        stream = null;
+        if (atual != null) {
+            try {
+                atual.onCompleted();
+            } catch (RuntimeException e) {
+                // stream já encerrado pelo outro lado
+            }
+        }
+    }
+    
     public boolean isChannelActive() {
         return !channel.isShutdown() && !channel.isTerminated();
     }
@@ -1,16 +1,26 @@
 package br.com.grpc;
 
 import br.com.models.ConexaoOutrosProcessos;
+import br.com.utils.ConcessaoLider;
+import br.com.utils.DetectorPhiAccrual;
 import br.com.utils.GerenciadorMulticast;
 import br.com.utils.TerminalColors;
+import io.grpc.Deadline;
 import io.grpc.Server;
 import io.grpc.ServerBuilder;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
-import java.util.ArrayList;
+import java.util.function.Consumer;
 
 
 public class HeartbeatManager {
@@ -20,13 +30,25 @@ public class HeartbeatManager {
     private final List<ConexaoOutrosProcessos> processos;
     private Server server;
     private ScheduledExecutorService scheduler;
-    private boolean isLeader;
+    private volatile boolean isLeader;
     private boolean serverStarted;
     private GerenciadorMulticast multicastManager;
     private List<HeartbeatClient> heartbeatClients;
+    private final Map<String, Boolean> estadoSeguidores = new ConcurrentHashMap<>();
+    private final DetectorPhiAccrual detector = new DetectorPhiAccrual(STREAM_INTERVAL);
+    private final ConcessaoLider concessaoLider = new ConcessaoLider(LEASE_DURATION);
+    private volatile Consumer<String> aoExpirarConcessao;
+    private final List<ScheduledFuture<?>> tarefasLider = new CopyOnWriteArrayList<>();
+    private volatile long epocaLider;
     
+    /** Intervalo do status via multicast */
     private static final long HEARTBEAT_INTERVAL = 5000;
-    private static final long HEARTBEAT_TIMEOUT = 15000;
+    /** Intervalo entre pings no stream de cada seguidor */
+    private static final long STREAM_INTERVAL = 250;
+    /** Prazo único da rodada de confirmação por ping unário */
+    private static final long ROUND_DEADLINE = 1000;
+    /** Concessão do líder nos seguidores: 8 pings do stream sem nenhum chegar */
+    private static final long LEASE_DURATION = STREAM_INTERVAL * 8;
     
     public HeartbeatManager(String processName, int grpcPort, List<ConexaoOutrosProcessos> processos) {
         this.processName = processName;
@@ -35,7 +57,7 @@ public class HeartbeatManager {
         this.scheduler = Executors.newScheduledThreadPool(3);
         this.isLeader = false;
         this.serverStarted = false;
-        this.heartbeatClients = new ArrayList<>();
+        this.heartbeatClients = new CopyOnWriteArrayList<>();
         
 
         this.multicastManager = null;
@@ -52,13 +74,15 @@ public class HeartbeatManager {
         }
         
         server = ServerBuilder.forPort(grpcPort)
-                .addService(new HeartbeatServiceImpl(processName))
+                .addService(new HeartbeatServiceImpl(processName, concessaoLider))
                 .build()
                 .start();
         
         serverStarted = true;
         System.out.println(TerminalColors.successMessage("[HEARTBEAT] Servidor gRPC iniciado na porta " + grpcPort + " para " + processName));
         
+        scheduler.scheduleAtFixedRate(this::verificarConcessao, STREAM_INTERVAL, STREAM_INTERVAL, TimeUnit.MILLISECONDS);
+        
 
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
             System.out.println(TerminalColors.warningMessage("[HEARTBEAT] Parando servidor gRPC..."));
@@ -67,30 +91,115 @@ public class HeartbeatManager {
     }
     
     public void startAsLeader() {
+        startAsLeader(0);
+    }
+    
+    /**
+     * @param epocaLider termo em que este processo venceu; vai em todos os pings como token de fencing
+     * Sincronizado com stopAsLeader: um início e uma parada concorrentes não deixam tarefas nem
+     * clientes de um líder antigo para trás
+     */
+    public synchronized void startAsLeader(long epocaLider) {
+        this.epocaLider = epocaLider;
         if (isLeader) {
+            for (HeartbeatClient client : heartbeatClients) {
+                client.setEpocaLider(epocaLider);
+            }
             return;
         }
         
         isLeader = true;
+        concessaoLider.suspender();
         System.out.println(TerminalColors.successMessage("[HEARTBEAT] " + processName + " iniciado como líder"));
         
         initializeHeartbeatClients();
         
-        scheduler.scheduleAtFixedRate(() -> {
+        tarefasLider.add(scheduler.scheduleAtFixedRate(() -> {
+            if (isLeader) {
+                sendStreamPings();
+            }
+        }, 0, STREAM_INTERVAL, TimeUnit.MILLISECONDS));
+        
+        tarefasLider.add(scheduler.scheduleAtFixedRate(() -> {
             if (isLeader) {
                 sendHeartbeatToAll();
             }
-        }, 2, HEARTBEAT_INTERVAL, TimeUnit.MILLISECONDS);
+        }, STREAM_INTERVAL * 4, HEARTBEAT_INTERVAL, TimeUnit.MILLISECONDS));
+    }
+    
+    /**
+     * Deixa de ser líder: para os pings e fecha os clientes, mas mantém o servidor no ar para
+     * receber os heartbeats do novo líder e renovar a concessão dele
+     * Não bloqueia: é chamado pelo laço NIO e pelas threads leitoras ao chegar NOVO_LIDER, e
+     * esperar cada canal gRPC terminar seguraria o tratamento das mensagens
+     */
+    public synchronized void stopAsLeader() {
+        isLeader = false;
+        for (ScheduledFuture<?> tarefa : tarefasLider) {
+            tarefa.cancel(false);
+        }
+        tarefasLider.clear();
+        
+        for (HeartbeatClient client : heartbeatClients) {
+            try {
+                client.shutdownNow();
+            } catch (Exception e) {
+                System.err.println(TerminalColors.errorMessage("[HEARTBEAT] Erro ao parar cliente: " + e.getMessage()));
+            }
+        }
+        heartbeatClients.clear();
+        estadoSeguidores.clear();
+    }
+    
+    /**
+     * Líder conhecido a partir de agora (NOVO_LIDER ou LIDER_ELEITO): a concessão dele começa
+     * a contar já, sem esperar o primeiro heartbeat; sendo este processo, nada é acompanhado
+     */
+    public void seguirLider(String lider, long epoca) {
+        if (processName.equals(lider)) {
+            concessaoLider.suspender();
+        } else {
+            concessaoLider.renovar(lider, epoca);
+        }
+    }
+    
+    /**
+     * Chamado com o nome do líder quando a concessão dele expira sem heartbeat
+     */
+    public void setAoExpirarConcessao(Consumer<String> aoExpirarConcessao) {
+        this.aoExpirarConcessao = aoExpirarConcessao;
+    }
+    
+    private void verificarConcessao() {
+        if (isLeader) {
+            return;
+        }
+        String lider = concessaoLider.verificarExpiracao();
+        Consumer<String> callback = aoExpirarConcessao;
+        if (lider == null || callback == null) {
+            return;
+        }
+        System.out.println(TerminalColors.warningMessage("[HEARTBEAT] Concessão do líder " + lider + " expirou: nenhum heartbeat em " + LEASE_DURATION + " ms"));
+        try {
+            callback.accept(lider);
+        } catch (RuntimeException e) {
+            // Uma exceção aqui cancelaria a verificação periódica
+            System.err.println(TerminalColors.errorMessage("[HEARTBEAT] Erro ao tratar expiração da concessão: " + e.getMessage()));
+        }
     }
     
     private void initializeHeartbeatClients() {
         heartbeatClients.clear();
+        estadoSeguidores.clear();
         
         for (ConexaoOutrosProcessos processo : processos) {
             try {
                 int targetPort = getGrpcPortForProcess(processo.getNomeProcesso());
                 HeartbeatClient client = new HeartbeatClient("localhost", targetPort, 
                                                            processo.getNomeProcesso(), processName);
+                detector.remover(processo.getNomeProcesso());
+                client.setDetector(detector);
+                client.setEpocaLider(epocaLider);
                 heartbeatClients.add(client);
                 System.out.println(TerminalColors.successMessage("[HEARTBEAT] Cliente criado para " + processo.getNomeProcesso() + " na porta " + targetPort));
             } catch (Exception e) {
@@ -99,24 +208,93 @@ public class HeartbeatManager {
         }
     }
     
+    /**
+     * Um ping no stream de cada seguidor; mudanças de estado são anunciadas na hora,
+     * sem esperar o próximo status periódico
+     */
+    private void sendStreamPings() {
+        boolean mudou = false;
+        
+        for (HeartbeatClient client : heartbeatClients) {
+            try {
+                client.sendStreamPing();
+            } catch (Exception e) {
+                System.err.println(TerminalColors.errorMessage("[HEARTBEAT] Erro ao enviar heartbeat: " + e.getMessage()));
+            }
+            
+            boolean vivo = client.isAlive();
+            Boolean anterior = estadoSeguidores.put(client.getTargetProcess(), vivo);
+            if (anterior != null && anterior != vivo) {
+                mudou = true;
+                if (vivo) {
+                    System.out.println(TerminalColors.successMessage("[HEARTBEAT] " + client.getTargetProcess() + " respondendo no stream"));
+                } else {
+                    System.out.println(TerminalColors.warningMessage("[HEARTBEAT] Falha detectada em " + client.getTargetProcess() + ": " + client.getFailureReason()));
+                }
+            }
+        }
+        
+        if (mudou) {
+            sendHeartbeatToAll();
+        }
+    }
+    
+    /**
+     * Status agregado via multicast
+     * Seguidores com stream saudável contam como ativos; os demais são confirmados por uma
+     * rodada de pings unários simultâneos antes de entrar como FALHA. Não bloqueia: o status
+     * é publicado quando a rodada termina
+     */
     private void sendHeartbeatToAll() {
+        List<HeartbeatClient> suspeitos = new ArrayList<>();
+        for (HeartbeatClient client : heartbeatClients) {
+            if (!client.isAlive()) {
+                suspeitos.add(client);
+            }
+        }
+        
+        if (suspeitos.isEmpty()) {
+            publishStatus(Map.of());
+            return;
+        }
+        probeAll(suspeitos, ROUND_DEADLINE).thenAccept(this::publishStatus);
+    }
+    
+    /**
+     * Dispara um ping unário para cada cliente ao mesmo tempo, todos com o mesmo prazo
+     * A rodada leva cerca de um RTT independente do número de seguidores, e no máximo prazoMs
+     * @return processo -> respondeu com sucesso, na ordem dos clientes
+     */
+    public static CompletableFuture<Map<String, Boolean>> probeAll(List<HeartbeatClient> clients, long prazoMs) {
+        Deadline prazo = Deadline.after(prazoMs, TimeUnit.MILLISECONDS);
+        Map<String, CompletableFuture<Boolean>> pings = new LinkedHashMap<>();
+        for (HeartbeatClient client : clients) {
+            pings.put(client.getTargetProcess(), client.sendPingAsync(prazo));
+        }
+        
+        return CompletableFuture.allOf(pings.values().toArray(new CompletableFuture[0]))
+                .thenApply(v -> {
+                    Map<String, Boolean> resultado = new LinkedHashMap<>();
+                    pings.forEach((processo, ping) -> resultado.put(processo, ping.join()));
+                    return resultado;
+                });
+    }
+    
+    private synchronized void publishStatus(Map<String, Boolean> confirmados) {
+        if (!isLeader) {
+            return;
+        }
+        
         int processosAtivos = 0;
         int totalProcessos = heartbeatClients.size();
         StringBuilder statusProcessos = new StringBuilder();
         
         for (HeartbeatClient client : heartbeatClients) {
-            try {
-                boolean success = client.sendPing();
-                if (success) {
-                    processosAtivos++;
-                    statusProcessos.append(client.getTargetProcess()).append(":OK ");
-                } else {
-                    statusProcessos.append(client.getTargetProcess()).append(":FALHA ");
-                    System.out.println(TerminalColors.warningMessage("[HEARTBEAT] Falha ao enviar heartbeat para " + client.getTargetProcess()));
-                }
-            } catch (Exception e) {
-                statusProcessos.append(client.getTargetProcess()).append(":ERRO ");
-                System.err.println(TerminalColors.errorMessage("[HEARTBEAT] Erro ao enviar heartbeat: " + e.getMessage()));
+            if (client.isAlive() || confirmados.getOrDefault(client.getTargetProcess(), false)) {
+                processosAtivos++;
+                statusProcessos.append(client.getTargetProcess()).append(":OK ");
+            } else {
+                statusProcessos.append(client.getTargetProcess()).append(":FALHA ");
             }
         }
         
@@ -163,6 +341,7 @@ public class HeartbeatManager {
             }
         }
         heartbeatClients.clear();
+        estadoSeguidores.clear();
         
 
         if (scheduler != null && !scheduler.isShutdown()) {
@@ -194,6 +373,20 @@ public class HeartbeatManager {
         System.out.println(TerminalColors.warningMessage("[HEARTBEAT] HeartbeatManager parado para " + processName));
     }
     
+    /**
+     * Nível de suspeita (phi) de cada seguidor, alimentado pelos pongs do stream
+     */
+    public DetectorPhiAccrual getDetector() {
+        return detector;
+    }
+    
+    /**
+     * Concessão do líder neste processo enquanto seguidor, renovada pelos pings recebidos
+     */
+    public ConcessaoLider getConcessaoLider() {
+        return concessaoLider;
+    }
+    
     public boolean isLeader() {
         return isLeader;
     }
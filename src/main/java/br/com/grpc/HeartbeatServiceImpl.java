@@ -1,6 +1,7 @@
 package br.com.grpc;
 
 import io.grpc.stub.StreamObserver;
+import br.com.utils.ConcessaoLider;
 import br.com.utils.TerminalColors;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -9,21 +10,32 @@ import java.time.format.DateTimeFormatter;
 public class HeartbeatServiceImpl extends HeartbeatServiceGrpc.HeartbeatServiceImplBase {
     
     private final String nomeProcesso;
+    private final ConcessaoLider concessaoLider;
     private volatile boolean ativo = true;
     
     public HeartbeatServiceImpl(String nomeProcesso) {
+        this(nomeProcesso, null);
+    }
+    
+    /**
+     * @param concessaoLider renovada a cada ping recebido do líder; null para não acompanhar.
+     *                       Pings de época anterior à conhecida recebem pong sem sucesso
+     */
+    public HeartbeatServiceImpl(String nomeProcesso, ConcessaoLider concessaoLider) {
         this.nomeProcesso = nomeProcesso;
+        this.concessaoLider = concessaoLider;
     }
     
     @Override
     public void ping(PingRequest request, StreamObserver<PongResponse> responseObserver) {
         try {
+            boolean aceito = renovarConcessao(request);
 
             PongResponse response = PongResponse.newBuilder()
                     .setResponderProcess(nomeProcesso)
                     .setTimestamp(System.currentTimeMillis())
                     .setSequenceNumber(request.getSequenceNumber())
-                    .setSuccess(ativo)
+                    .setSuccess(ativo && aceito)
                     .build();
             
 
@@ -44,6 +56,48 @@ public class HeartbeatServiceImpl extends HeartbeatServiceGrpc.HeartbeatServiceI
         }
     }
     
+    /**
+     * Um pong por ping recebido no stream, com o mesmo número de sequência
+     * O gRPC entrega os pings de uma chamada em sequência, então o builder é reaproveitado
+     */
+    @Override
+    public StreamObserver<PingRequest> heartbeat(StreamObserver<PongResponse> responseObserver) {
+        PongResponse.Builder pong = PongResponse.newBuilder().setResponderProcess(nomeProcesso);
+
+        return new StreamObserver<PingRequest>() {
+            @Override
+            public void onNext(PingRequest request) {
+                boolean aceito = renovarConcessao(request);
+                responseObserver.onNext(pong
+                        .setTimestamp(System.currentTimeMillis())
+                        .setSequenceNumber(request.getSequenceNumber())
+                        .setSuccess(ativo && aceito)
+                        .build());
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                // O líder caiu ou cancelou o stream; ele reabre quando voltar
+            }
+
+            @Override
+            public void onCompleted() {
+                responseObserver.onCompleted();
+            }
+        };
+    }
+
+    /**
+     * Só o líder envia pings: cada um renova a concessão dele neste seguidor
+     * @return false se o ping veio de um líder com época já superada
+     */
+    private boolean renovarConcessao(PingRequest request) {
+        if (concessaoLider == null || !ativo) {
+            return true;
+        }
+        return concessaoLider.renovar(request.getSenderProcess(), request.getLeaderEpoch());
+    }
+
     public boolean responderPing(String remetente) {
         return ativo;
     }
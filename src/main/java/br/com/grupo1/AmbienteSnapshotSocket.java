@@ -0,0 +1,73 @@
+package br.com.grupo1;
+
+import br.com.models.ConexaoOutrosProcessos;
+import br.com.models.Mensagem;
+import br.com.models.Processo;
+import br.com.utils.CanalMensagem;
+import br.com.utils.CanalSocket;
+import br.com.utils.SnapshotDistribuido;
+import br.com.utils.TransporteNio;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Liga o SnapshotDistribuido aos canais TCP do grupo 1
+ * Cada conexão (aceita pelo TransporteNio ou aberta pelo PoolConexoes) leva os marcadores
+ * nos dois sentidos
+ */
+class AmbienteSnapshotSocket implements SnapshotDistribuido.Ambiente {
+
+    private final Processo processo;
+    private final TransporteNio transporte;
+    private final Supplier<String> estadoLocal;
+
+    AmbienteSnapshotSocket(Processo processo, TransporteNio transporte, Supplier<String> estadoLocal) {
+        this.processo = processo;
+        this.transporte = transporte;
+        this.estadoLocal = estadoLocal;
+    }
+
+    @Override
+    public String capturarEstadoLocal() {
+        return estadoLocal.get();
+    }
+
+    @Override
+    public Collection<? extends CanalMensagem> canais() {
+        List<CanalMensagem> canais = new ArrayList<>(transporte.getCanais());
+        for (ConexaoOutrosProcessos conexao : processo.getConexaoOutrosProcessos()) {
+            CanalSocket canal = conexao.getCanal();
+            if (canal != null && canal.isAberto()) {
+                canais.add(canal);
+            }
+        }
+        return canais;
+    }
+
+    @Override
+    public Collection<String> participantes() {
+        List<String> participantes = new ArrayList<>();
+        for (ConexaoOutrosProcessos conexao : processo.getConexaoOutrosProcessos()) {
+            if (conexao.isConectado()) {
+                participantes.add(conexao.getNomeProcesso());
+            }
+        }
+        return participantes;
+    }
+
+    @Override
+    public void enviarResultado(String iniciador, Mensagem resultado) throws IOException {
+        for (ConexaoOutrosProcessos conexao : processo.getConexaoOutrosProcessos()) {
+            CanalSocket canal = conexao.getCanal();
+            if (conexao.getNomeProcesso().equals(iniciador) && canal != null) {
+                canal.enviar(resultado);
+                return;
+            }
+        }
+        throw new IOException("Sem conexão com " + iniciador);
+    }
+}
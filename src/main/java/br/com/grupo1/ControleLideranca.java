@@ -0,0 +1,371 @@
+package br.com.grupo1;
+
+import br.com.models.ConexaoOutrosProcessos;
+import br.com.models.Mensagem;
+import br.com.models.Processo;
+import br.com.models.TipoMensagem;
+import br.com.utils.CanalMensagem;
+import br.com.utils.CanalSocket;
+import br.com.utils.PoolConexoes;
+import br.com.utils.TerminalColors;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+/**
+ * Liderança de um processo do grupo 1: trata as mensagens da eleição Bully e da saída planejada
+ * do líder, conduz o CoordenadorEleicao pelos canais do PoolConexoes e guarda o líder atual
+ * Processo1, Processo2 e Processo3 entregam aqui as mensagens de liderança que recebem; o
+ * heartbeat gRPC continua com o processo, que acompanha as trocas de líder pelo Ouvinte
+ */
+class ControleLideranca implements CoordenadorEleicao.Participante {
+
+    /**
+     * O que o processo faz quando a liderança muda
+     */
+    interface Ouvinte {
+        /**
+         * Este processo assumiu no termo: supercoordenador, aviso intergrupos e heartbeat de líder
+         */
+        void assumiu(long termo);
+
+        /**
+         * Este processo deixou de ser o líder: para o heartbeat de líder
+         */
+        void deixou();
+
+        /**
+         * Líder conhecido a partir de agora: a concessão dele começa a contar
+         */
+        void seguir(String lider, long termo);
+
+        /**
+         * true se o líder renovou a concessão dentro do prazo
+         */
+        boolean concessaoValida(String lider);
+    }
+
+    private final Processo processo;
+    private final CoordenadorEleicao coordenadorEleicao;
+    private final Ouvinte ouvinte;
+    // Prazo de cada pedido ELEICAO e TRANSFERIR_LIDERANCA: sem resposta nesse tempo o processo é dado como falho
+    private final long timeoutEleicaoMs;
+    // Escrito pelo laço NIO, pelas threads leitoras, pelos callbacks gRPC e pelas threads da eleição; lido pelo menu
+    private volatile String liderAtual;
+    private volatile PoolConexoes poolConexoes;
+
+    ControleLideranca(Processo processo, String liderInicial, long timeoutEleicaoMs, Ouvinte ouvinte) {
+        this.processo = processo;
+        this.liderAtual = liderInicial;
+        this.timeoutEleicaoMs = timeoutEleicaoMs;
+        this.ouvinte = ouvinte;
+        this.coordenadorEleicao = new CoordenadorEleicao(processo.getNomeProcesso(), this);
+    }
+
+    /**
+     * O pool sobe depois do transporte; até lá uma falha de envio só fecha o canal
+     */
+    void setPoolConexoes(PoolConexoes poolConexoes) {
+        this.poolConexoes = poolConexoes;
+    }
+
+    String getLiderAtual() {
+        return liderAtual;
+    }
+
+    boolean isLider() {
+        return liderAtual.equals(processo.getNomeProcesso());
+    }
+
+    CoordenadorEleicao getCoordenadorEleicao() {
+        return coordenadorEleicao;
+    }
+
+    /**
+     * Trata ELEICAO, ELEICAO_OK, LIDER_ELEITO, NOVO_LIDER e TRANSFERIR_LIDERANCA
+     * @return false se a mensagem não é de liderança e fica com o processo
+     */
+    boolean processar(Mensagem mensagem, CanalMensagem canal) throws IOException {
+        TipoMensagem tipo = mensagem.getTipoMensagem();
+        if (tipo == TipoMensagem.ELEICAO) {
+            System.out.println(TerminalColors.multicastMessage("\n[ELEIÇÃO] Mensagem de eleição recebida de: " + mensagem.getProcessoRemetente()));
+            processarEleicao(mensagem, canal);
+        } else if (tipo == TipoMensagem.ELEICAO_OK) {
+            System.out.println(TerminalColors.multicastMessage("\n[ELEIÇÃO] " + mensagem.getProcessoRemetente() + " respondeu OK à eleição!"));
+        } else if (tipo == TipoMensagem.LIDER_ELEITO || tipo == TipoMensagem.NOVO_LIDER) {
+            if (!coordenadorEleicao.liderDefinido(mensagem.getProcessoRemetente(), mensagem.getTermoEleicao())) {
+                System.out.println(TerminalColors.warningMessage("\n[ELEIÇÃO] " + tipo + " de " + mensagem.getProcessoRemetente()
+                        + " ignorado: termo " + mensagem.getTermoEleicao() + " já superado"));
+                return true;
+            }
+            seguirNovoLider(mensagem.getProcessoRemetente());
+        } else if (tipo == TipoMensagem.TRANSFERIR_LIDERANCA) {
+            System.out.println(TerminalColors.multicastMessage("\n[ELEIÇÃO] " + mensagem.getProcessoRemetente() + " está saindo e transferiu a liderança"));
+            // Fora da thread leitora: assumir anuncia a liderança para todos
+            new Thread(() -> transferencia().receber(mensagem, canal)).start();
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    private void seguirNovoLider(String lider) {
+        if (isLider() && !lider.equals(processo.getNomeProcesso())) {
+            ouvinte.deixou();
+            processo.setLider(false);
+        }
+        liderAtual = lider;
+        System.out.println(TerminalColors.successMessage("\n[ELEIÇÃO] " + lider + " foi eleito como NOVO LÍDER!"));
+        ouvinte.seguir(lider, coordenadorEleicao.getTermoLider());
+    }
+
+    /**
+     * ELEICAO de um processo menor. Se este processo ainda recebe o heartbeat do líder, o
+     * remetente só perdeu contato com ele: em vez de OK (que o faria esperar um NOVO_LIDER que
+     * não vem), responde LIDER_VIVO e não entra na eleição
+     */
+    private void processarEleicao(Mensagem mensagem, CanalMensagem canal) throws IOException {
+        if (getParametroEleicao(mensagem.getProcessoRemetente()) >= processo.getParametroEleicao()) {
+            return;
+        }
+        String lider = liderAtual;
+        boolean liderVivo = !lider.equals(processo.getNomeProcesso()) && ouvinte.concessaoValida(lider);
+
+        Mensagem resposta = new Mensagem();
+        resposta.setIdMensagem(UUID.randomUUID());
+        resposta.setProcessoRemetente(processo.getNomeProcesso());
+        resposta.setProcessoDestinatario(mensagem.getProcessoRemetente());
+        resposta.setDataMensagem(LocalDateTime.now());
+        resposta.setClockMensagem(processo.getRelogio().tick());
+        resposta.setIdMensagemOrigem(mensagem.getIdMensagem());
+        if (liderVivo) {
+            resposta.setConteudoMensagem(lider);
+            resposta.setTipoMensagem(TipoMensagem.LIDER_VIVO);
+            resposta.setTermoEleicao(coordenadorEleicao.getTermoLider());
+        } else {
+            resposta.setConteudoMensagem("OK");
+            resposta.setTipoMensagem(TipoMensagem.ELEICAO_OK);
+            resposta.setTermoEleicao(mensagem.getTermoEleicao());
+        }
+        canal.enviar(resposta);
+
+        if (liderVivo) {
+            System.out.println(TerminalColors.warningMessage("[ELEIÇÃO] Concessão do líder " + lider + " ainda válida - "
+                    + mensagem.getProcessoRemetente() + " avisado e eleição não iniciada"));
+            return;
+        }
+        System.out.println(TerminalColors.multicastMessage("[ELEIÇÃO] Enviado OK para " + mensagem.getProcessoRemetente()));
+
+        // Entra no termo do remetente, a menos que já participe dele ou já conheça o líder
+        new Thread(() -> coordenadorEleicao.eleicaoRecebida(mensagem.getProcessoRemetente(), mensagem.getTermoEleicao())).start();
+    }
+
+    private int getParametroEleicao(String nomeProcesso) {
+        return processo.getConexaoOutrosProcessos().stream()
+                .filter(p -> p.getNomeProcesso().equals(nomeProcesso))
+                .findFirst()
+                .map(ConexaoOutrosProcessos::getParametroEleicao)
+                .orElse(0);
+    }
+
+    /**
+     * Falha do líder percebida por este processo (envio recusado ou concessão expirada)
+     */
+    void iniciarEleicao(String liderQueFalhou) {
+        if (coordenadorEleicao.isEmAndamento()) {
+            return; // Já há uma eleição em andamento
+        }
+        if (ouvinte.concessaoValida(liderQueFalhou)) {
+            System.out.println(TerminalColors.warningMessage("[ELEIÇÃO] " + liderQueFalhou + " não respondeu, mas a concessão dele ainda vale"
+                    + " - eleição adiada; se ela expirar sem heartbeat, a eleição começa sozinha"));
+            return;
+        }
+
+        System.out.println(TerminalColors.warningMessage("\n[ELEIÇÃO] " + processo.getNomeProcesso() + " detectou falha do líder " + liderQueFalhou + " - INICIANDO ELEIÇÃO!"));
+        System.out.println(TerminalColors.multicastMessage("[ELEIÇÃO] Enviando mensagens de eleição para processos com parâmetro maior..."));
+
+        // A rodada termina no primeiro OK ou quando todos os processos maiores falharem
+        coordenadorEleicao.liderFalhou(liderQueFalhou);
+    }
+
+    /**
+     * Concessão do líder expirou sem heartbeat: a falha é detectada num tempo limitado,
+     * sem depender de uma mensagem da aplicação para o líder falhar
+     */
+    void concessaoExpirou(String lider) {
+        if (!lider.equals(liderAtual) || lider.equals(processo.getNomeProcesso())) {
+            return; // Líder já trocado, ou heartbeat atrasado de um líder antigo
+        }
+        System.out.println(TerminalColors.errorMessage("\n[FALHA] Nenhum heartbeat do líder " + lider + " dentro da concessão! Iniciando eleição..."));
+        new Thread(() -> iniciarEleicao(lider)).start();
+    }
+
+    /**
+     * Ping de um líder com época maior que a conhecida, por exemplo depois de uma partição:
+     * adota esse líder e, se este processo ainda se achava líder, deixa a liderança
+     */
+    void liderObservado(String lider, long epoca) {
+        if (lider.equals(liderAtual) || !coordenadorEleicao.liderDefinido(lider, epoca)) {
+            return;
+        }
+        if (isLider()) {
+            ouvinte.deixou();
+            processo.setLider(false);
+        }
+        liderAtual = lider;
+        System.out.println(TerminalColors.successMessage("\n[HEARTBEAT] Heartbeat de " + lider + " com época " + epoca + " - líder atual atualizado"));
+    }
+
+    /**
+     * Saída planejada (opção 0 do menu): se este processo é o líder, passa a liderança ao
+     * processo conectado de maior parâmetro antes de sair e só então para o heartbeat
+     * @return o processo que assumiu, ou null se este não era o líder ou ninguém aceitou
+     */
+    String transferirLideranca() throws InterruptedException {
+        if (!isLider()) {
+            return null;
+        }
+        String sucessor = transferencia().transferir();
+        if (sucessor != null) {
+            ouvinte.deixou();
+            processo.setLider(false);
+        }
+        return sucessor;
+    }
+
+    /**
+     * Opção 0 do menu: transfere a liderança, se for o caso, e só então executa a saída
+     */
+    void encerrar(Runnable saida) {
+        try {
+            transferirLideranca();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        saida.run();
+    }
+
+    private TransferenciaLideranca transferencia() {
+        return new TransferenciaLideranca(processo, coordenadorEleicao, poolConexoes, timeoutEleicaoMs);
+    }
+
+    /**
+     * Processos ativos com parâmetro maior, exceto o líder que falhou
+     */
+    @Override
+    public List<String> candidatos() {
+        return processo.getConexaoOutrosProcessos().stream()
+                .filter(c -> c.getParametroEleicao() > processo.getParametroEleicao())
+                .filter(ConexaoOutrosProcessos::isConectado)
+                .filter(c -> !c.getNomeProcesso().equals(liderAtual))
+                .map(ConexaoOutrosProcessos::getNomeProcesso)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Envia ELEICAO como requisição: a resposta volta correlacionada pelo idMensagemOrigem
+     * Um LIDER_VIVO vira CoordenadorEleicao.LiderVivo e a concessão do líder volta a contar
+     */
+    @Override
+    public CompletableFuture<?> enviarEleicao(String nomeProcesso, long termo) throws IOException {
+        ConexaoOutrosProcessos conexao = conexao(nomeProcesso);
+        CanalSocket canal = conexao != null ? conexao.getCanal() : null;
+        if (canal == null) {
+            throw new IOException("Conexão fechada");
+        }
+
+        Mensagem mensagemEleicao = new Mensagem();
+        mensagemEleicao.setIdMensagem(UUID.randomUUID());
+        mensagemEleicao.setProcessoRemetente(processo.getNomeProcesso());
+        mensagemEleicao.setProcessoDestinatario(nomeProcesso);
+        mensagemEleicao.setDataMensagem(LocalDateTime.now());
+        mensagemEleicao.setClockMensagem(processo.getRelogio().tick());
+        mensagemEleicao.setConteudoMensagem("ELEICAO");
+        mensagemEleicao.setTipoMensagem(TipoMensagem.ELEICAO);
+        mensagemEleicao.setTermoEleicao(termo);
+
+        CompletableFuture<Mensagem> resposta;
+        try {
+            resposta = canal.enviarRequisicao(mensagemEleicao, timeoutEleicaoMs);
+        } catch (IOException e) {
+            marcarFalha(conexao);
+            throw e;
+        }
+        return resposta.thenApply(mensagem -> {
+            if (mensagem.getTipoMensagem() != TipoMensagem.LIDER_VIVO) {
+                return mensagem;
+            }
+            ouvinte.seguir(mensagem.getConteudoMensagem(), mensagem.getTermoEleicao());
+            return new CoordenadorEleicao.LiderVivo(mensagem.getConteudoMensagem(), mensagem.getTermoEleicao());
+        });
+    }
+
+    @Override
+    public void tornarSeLider(long termo) {
+        liderAtual = processo.getNomeProcesso();
+        processo.setLider(true);
+
+        System.out.println(TerminalColors.successMessage("\n[ELEIÇÃO] " + processo.getNomeProcesso() + " SE TORNOU O NOVO LÍDER!"));
+        ouvinte.assumiu(termo);
+
+        System.out.println(TerminalColors.successMessage("[ELEIÇÃO] Enviando anúncio de liderança para todos os processos..."));
+        for (ConexaoOutrosProcessos conexao : processo.getConexaoOutrosProcessos()) {
+            if (conexao.isConectado()) {
+                anunciar(conexao, termo);
+            }
+        }
+        System.out.println(TerminalColors.successMessage("[ELEIÇÃO] Eleição finalizada - " + processo.getNomeProcesso() + " é o novo líder do sistema!"));
+    }
+
+    /**
+     * NOVO_LIDER do termo só para o processo informado, que pediu eleição depois do anúncio
+     */
+    @Override
+    public void reenviarLider(String nomeProcesso, long termo) {
+        ConexaoOutrosProcessos conexao = conexao(nomeProcesso);
+        if (conexao != null && conexao.isConectado()) {
+            anunciar(conexao, termo);
+        }
+    }
+
+    private void anunciar(ConexaoOutrosProcessos conexao, long termo) {
+        Mensagem anuncio = new Mensagem();
+        anuncio.setIdMensagem(UUID.randomUUID());
+        anuncio.setProcessoRemetente(processo.getNomeProcesso());
+        anuncio.setProcessoDestinatario(conexao.getNomeProcesso());
+        anuncio.setDataMensagem(LocalDateTime.now());
+        anuncio.setClockMensagem(processo.getRelogio().tick());
+        anuncio.setConteudoMensagem(processo.getNomeProcesso());
+        anuncio.setTipoMensagem(TipoMensagem.NOVO_LIDER);
+        anuncio.setTermoEleicao(termo);
+
+        try {
+            conexao.getCanal().enviar(anuncio);
+            processo.getMensagensEnviadas().add(anuncio);
+            System.out.println(TerminalColors.successMessage("[ELEIÇÃO] Anúncio de liderança enviado para " + conexao.getNomeProcesso()));
+        } catch (IOException e) {
+            marcarFalha(conexao);
+            System.err.println(TerminalColors.errorMessage("[ELEIÇÃO] Erro ao anunciar liderança para " + conexao.getNomeProcesso()));
+        }
+    }
+
+    private ConexaoOutrosProcessos conexao(String nomeProcesso) {
+        return processo.getConexaoOutrosProcessos().stream()
+                .filter(c -> c.getNomeProcesso().equals(nomeProcesso))
+                .findFirst()
+                .orElse(null);
+    }
+
+    private void marcarFalha(ConexaoOutrosProcessos conexao) {
+        PoolConexoes pool = poolConexoes;
+        if (pool != null) {
+            pool.marcarFalha(conexao);
+        } else {
+            conexao.desconectar();
+        }
+    }
+}
@@ -0,0 +1,354 @@
+package br.com.grupo1;
+
+import br.com.utils.TerminalColors;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coordenador da eleição Bully do grupo 1
+ * Cada rodada acompanha os pedidos ELEICAO ainda sem resposta. Ela termina assim que:
+ * - chega o primeiro ELEICAO_OK: um processo maior assume, e a rodada passa a esperar o
+ *   NOVO_LIDER por no máximo TIMEOUT_NOVO_LIDER_MS (sem anúncio, a eleição recomeça);
+ * - um processo maior responde LIDER_VIVO: ele ainda recebe o heartbeat do líder, e a rodada
+ *   termina sem eleger ninguém;
+ * - todos os processos maiores falharam (canal fechado, envio recusado ou sem resposta no
+ *   prazo do pedido): este processo se torna o líder na hora.
+ * Nenhuma espera fixa: num grupo saudável a eleição custa uma ida e volta
+ *
+ * Termos: toda eleição tem um termo crescente que viaja em ELEICAO, ELEICAO_OK e NOVO_LIDER.
+ * Quem detecta a falha abre o termo seguinte ao maior já visto; quem recebe ELEICAO entra no
+ * termo do remetente em vez de abrir outro. Uma ELEICAO é absorvida, sem nova rodada, quando
+ * o processo já participa de uma rodada (inclusive esperando o NOVO_LIDER dela) ou quando já
+ * conhece o líder daquele termo; um NOVO_LIDER de termo antigo é ignorado. Assim a queda de
+ * um líder vira uma única eleição por termo, e não uma cascata de reeleições
+ */
+public class CoordenadorEleicao {
+
+    public static final long TIMEOUT_NOVO_LIDER_MS = 8000;
+
+    /**
+     * O que o coordenador precisa do processo: quem consultar e como enviar o pedido
+     */
+    public interface Participante {
+        /**
+         * Processos com parâmetro maior que ainda podem responder à eleição
+         */
+        List<String> candidatos();
+
+        /**
+         * Envia ELEICAO do termo; o futuro completa com o OK (ou com um LiderVivo, se o processo
+         * ainda recebe o heartbeat do líder) e falha se o processo não responder
+         */
+        CompletableFuture<?> enviarEleicao(String processo, long termo) throws IOException;
+
+        /**
+         * Assume a liderança e anuncia NOVO_LIDER com o termo para todos
+         */
+        void tornarSeLider(long termo);
+
+        /**
+         * Reenvia o NOVO_LIDER do termo a um processo que pediu eleição sem ter recebido o anúncio
+         */
+        void reenviarLider(String processo, long termo);
+    }
+
+    /**
+     * Resposta a ELEICAO de um processo que ainda tem a concessão do líder válida: não há o que
+     * eleger, só este processo perdeu contato com o líder
+     */
+    public static final class LiderVivo {
+        final String lider;
+        final long termo;
+
+        public LiderVivo(String lider, long termo) {
+            this.lider = lider;
+            this.termo = termo;
+        }
+    }
+
+    /**
+     * Uma rodada de eleição; o estado é protegido pelo monitor do coordenador
+     */
+    private final class Rodada {
+        final long termo;
+        final Set<String> pendentes;
+        final CompletableFuture<String> lider = new CompletableFuture<>();
+        String respondeu;
+
+        Rodada(long termo, List<String> candidatos) {
+            this.termo = termo;
+            this.pendentes = new HashSet<>(candidatos);
+        }
+    }
+
+    private final String nomeProcesso;
+    private final Participante participante;
+    private final long timeoutNovoLiderMs;
+    private Rodada atual;
+    private long termo;
+    private long termoLider;
+    private String lider;
+
+    public CoordenadorEleicao(String nomeProcesso, Participante participante) {
+        this(nomeProcesso, participante, TIMEOUT_NOVO_LIDER_MS);
+    }
+
+    public CoordenadorEleicao(String nomeProcesso, Participante participante, long timeoutNovoLiderMs) {
+        this.nomeProcesso = nomeProcesso;
+        this.participante = participante;
+        this.timeoutNovoLiderMs = timeoutNovoLiderMs;
+    }
+
+    /**
+     * Falha do líder detectada aqui: abre o termo seguinte ao maior já visto, ou devolve a
+     * rodada que já está em andamento. O futuro completa com o nome do líder eleito
+     */
+    public CompletableFuture<String> iniciar() {
+        return iniciar(0, null);
+    }
+
+    /**
+     * Falha de liderSuspeito detectada aqui; ignorada se outro líder já foi definido depois dele
+     * Uma detecção que chega atrasada, depois do NOVO_LIDER, abriria um termo novo sem o líder
+     * vivo entre os candidatos e elegeria um segundo líder
+     */
+    public CompletableFuture<String> liderFalhou(String liderSuspeito) {
+        return iniciar(0, liderSuspeito);
+    }
+
+    /**
+     * ELEICAO recebida de um processo menor (o OK já foi respondido pelo processo)
+     * Entra no termo do remetente, a não ser que a eleição já esteja coberta
+     */
+    public void eleicaoRecebida(String remetente, long termoRecebido) {
+        long termoConhecido;
+        synchronized (this) {
+            observar(termoRecebido);
+            if (atual != null) {
+                return; // Já participa de uma rodada; o anúncio dela chega ao remetente
+            }
+            if (termoRecebido == 0 || termoRecebido > termoLider) {
+                termoConhecido = -1;
+            } else if (nomeProcesso.equals(lider)) {
+                termoConhecido = termoLider;
+            } else {
+                return; // Líder do termo já conhecido: o anúncio dele cobre o remetente
+            }
+        }
+        if (termoConhecido >= 0) {
+            System.out.println(TerminalColors.multicastMessage("[ELEIÇÃO] " + remetente + " pediu eleição do termo " + termoRecebido
+                    + ", já decidido - reenviando NOVO_LIDER do termo " + termoConhecido));
+            participante.reenviarLider(remetente, termoConhecido);
+            return;
+        }
+        iniciar(termoRecebido, null);
+    }
+
+    private CompletableFuture<String> iniciar(long termoRecebido, String liderSuspeito) {
+        Rodada rodada;
+        List<String> candidatos;
+        synchronized (this) {
+            if (atual != null) {
+                return atual.lider;
+            }
+            if (liderSuspeito != null && lider != null && !lider.equals(liderSuspeito)) {
+                return CompletableFuture.completedFuture(lider);
+            }
+            termo = termoRecebido > 0 ? Math.max(termo, termoRecebido) : termo + 1;
+            candidatos = participante.candidatos();
+            rodada = new Rodada(termo, candidatos);
+            atual = rodada;
+        }
+
+        if (candidatos.isEmpty()) {
+            System.out.println(TerminalColors.successMessage("[ELEIÇÃO] Nenhum processo com parâmetro maior encontrado - " + nomeProcesso
+                    + " se tornará líder (termo " + rodada.termo + ")!"));
+            vencer(rodada);
+            return rodada.lider;
+        }
+
+        for (String candidato : candidatos) {
+            try {
+                // Fora da thread leitora do canal: vencer aqui anuncia a liderança para todos
+                participante.enviarEleicao(candidato, rodada.termo).whenCompleteAsync((ok, erro) -> {
+                    if (erro == null && ok instanceof LiderVivo) {
+                        liderVivo(rodada, candidato, (LiderVivo) ok);
+                    } else if (erro == null) {
+                        respondeu(rodada, candidato);
+                    } else {
+                        falhou(rodada, candidato);
+                    }
+                });
+                System.out.println(TerminalColors.multicastMessage("[ELEIÇÃO] Mensagem de eleição (termo " + rodada.termo + ") enviada para " + candidato));
+            } catch (IOException e) {
+                System.err.println(TerminalColors.errorMessage("[ELEIÇÃO] Erro ao enviar mensagem de eleição para " + candidato));
+                falhou(rodada, candidato);
+            }
+        }
+        return rodada.lider;
+    }
+
+    /**
+     * Primeiro OK da rodada: quem respondeu conduz a eleição; espera o anúncio dele por tempo limitado
+     */
+    private void respondeu(Rodada rodada, String processo) {
+        synchronized (this) {
+            rodada.pendentes.remove(processo);
+            if (atual != rodada || rodada.respondeu != null) {
+                return;
+            }
+            rodada.respondeu = processo;
+        }
+        System.out.println(TerminalColors.multicastMessage("[ELEIÇÃO] " + processo + " respondeu OK à eleição! Aguardando NOVO_LIDER"));
+        CompletableFuture.delayedExecutor(timeoutNovoLiderMs, TimeUnit.MILLISECONDS).execute(() -> expirou(rodada));
+    }
+
+    /**
+     * Um processo maior ainda ouve o líder: a rodada termina sem esperar NOVO_LIDER, e a próxima
+     * só começa se a concessão expirar de novo
+     */
+    private void liderVivo(Rodada rodada, String processo, LiderVivo vivo) {
+        synchronized (this) {
+            if (atual != rodada) {
+                return;
+            }
+            atual = null;
+        }
+        System.out.println(TerminalColors.warningMessage("[ELEIÇÃO] " + processo + " ainda recebe heartbeat de " + vivo.lider
+                + " (termo " + vivo.termo + ") - eleição do termo " + rodada.termo + " encerrada"));
+        rodada.lider.complete(vivo.lider);
+    }
+
+    /**
+     * Um processo maior não vai responder; sem nenhum pendente e sem OK, este processo vence
+     */
+    private void falhou(Rodada rodada, String processo) {
+        synchronized (this) {
+            rodada.pendentes.remove(processo);
+            if (atual != rodada || rodada.respondeu != null || !rodada.pendentes.isEmpty()) {
+                return;
+            }
+        }
+        System.out.println(TerminalColors.successMessage("[ELEIÇÃO] Nenhum processo com parâmetro maior respondeu. " + nomeProcesso + " se tornará líder!"));
+        vencer(rodada);
+    }
+
+    private void expirou(Rodada rodada) {
+        synchronized (this) {
+            if (atual != rodada) {
+                return;
+            }
+            atual = null;
+        }
+        System.out.println(TerminalColors.warningMessage("[ELEIÇÃO] " + rodada.respondeu + " respondeu OK mas não anunciou liderança em "
+                + timeoutNovoLiderMs + " ms - reiniciando eleição"));
+        iniciar().whenComplete((lider, erro) -> {
+            if (erro == null) {
+                rodada.lider.complete(lider);
+            }
+        });
+    }
+
+    /**
+     * Anuncia no maior termo já visto: um ELEICAO de termo maior pode ter chegado durante a
+     * rodada, e um NOVO_LIDER do termo da rodada seria ignorado por quem já o viu
+     */
+    private void vencer(Rodada rodada) {
+        long termoAnuncio;
+        synchronized (this) {
+            if (atual != rodada) {
+                return;
+            }
+            atual = null;
+            termoAnuncio = Math.max(rodada.termo, termo);
+            termo = termoAnuncio;
+            termoLider = Math.max(termoLider, termoAnuncio);
+            lider = nomeProcesso;
+        }
+        participante.tornarSeLider(termoAnuncio);
+        rodada.lider.complete(nomeProcesso);
+    }
+
+    /**
+     * Líder anunciado (NOVO_LIDER ou LIDER_ELEITO): encerra a rodada em andamento, se houver
+     * false se o anúncio é de um termo anterior ao do líder conhecido ou ao da rodada em
+     * andamento e deve ser ignorado; anúncios sem termo (0) são sempre aceitos
+     */
+    public boolean liderDefinido(String novoLider, long termoAnuncio) {
+        Rodada rodada;
+        synchronized (this) {
+            if (termoAnuncio != 0 && (termoAnuncio < termoLider || (atual != null && termoAnuncio < atual.termo))) {
+                return false;
+            }
+            observar(termoAnuncio);
+            termoLider = Math.max(termoLider, termoAnuncio);
+            lider = novoLider;
+            rodada = atual;
+            atual = null;
+        }
+        if (rodada != null) {
+            rodada.lider.complete(novoLider);
+        }
+        return true;
+    }
+
+    /**
+     * Termo para o líder passar a liderança antes de uma saída planejada: o seguinte ao maior já visto
+     */
+    public synchronized long abrirTermoTransferencia() {
+        return ++termo;
+    }
+
+    /**
+     * O líder que está saindo passou a liderança a este processo: assume no termo recebido, como
+     * se tivesse vencido a eleição, e encerra a rodada em andamento, se houver
+     * false se um líder do mesmo termo ou de um termo maior já foi definido
+     */
+    public boolean liderancaTransferida(String liderAnterior, long termoTransferencia) {
+        Rodada rodada;
+        synchronized (this) {
+            if (termoTransferencia <= termoLider) {
+                return false;
+            }
+            observar(termoTransferencia);
+            termoLider = termoTransferencia;
+            lider = nomeProcesso;
+            rodada = atual;
+            atual = null;
+        }
+        System.out.println(TerminalColors.successMessage("[ELEIÇÃO] " + liderAnterior + " está saindo e passou a liderança para "
+                + nomeProcesso + " (termo " + termoTransferencia + ")"));
+        participante.tornarSeLider(termoTransferencia);
+        if (rodada != null) {
+            rodada.lider.complete(nomeProcesso);
+        }
+        return true;
+    }
+
+    private void observar(long termoVisto) {
+        termo = Math.max(termo, termoVisto);
+    }
+
+    public synchronized boolean isEmAndamento() {
+        return atual != null;
+    }
+
+    /**
+     * Maior termo visto por este processo
+     */
+    public synchronized long getTermo() {
+        return termo;
+    }
+
+    /**
+     * Termo do líder conhecido
+     */
+    public synchronized long getTermoLider() {
+        return termoLider;
+    }
+}
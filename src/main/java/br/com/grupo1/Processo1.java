@@ -4,20 +4,23 @@ import br.com.models.ConexaoOutrosProcessos;
 import br.com.models.Mensagem;
 import br.com.models.Processo;
 import br.com.models.TipoMensagem;
+import br.com.utils.ArmazemSnapshots;
+import br.com.utils.CanalMensagem;
+import br.com.utils.CanalSocket;
 import br.com.utils.TerminalColors;
+import br.com.utils.PoolConexoes;
+import br.com.utils.TransporteNio;
 import br.com.utils.SupercoordenadorCallback;
 import br.com.utils.GerenciadorComunicacaoIntergrupos;
 import br.com.utils.GerenciadorMulticast;
+import br.com.utils.SnapshotDistribuido;
 import br.com.utils.SnapshotManager;
 import br.com.grpc.HeartbeatManager;
 
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
-import java.net.*;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
 
 public class Processo1 {
 
@@ -26,14 +29,18 @@ public class Processo1 {
     private static HeartbeatManager heartbeatManager;
     private static GerenciadorMulticast gerenciadorMulticast;
     private static SnapshotManager snapshotManager;
+    private static TransporteNio transporte;
+    private static PoolConexoes poolConexoes;
+    private static SnapshotDistribuido snapshotDistribuido;
     private static final int GRPC_PORT = 9011;
     
     private static GerenciadorComunicacaoIntergrupos gerenciadorIntergrupos;
     private static SupercoordenadorCallbackImpl callbackImpl;
     
-    private static String liderAtual = "Processo3";
-    private static boolean eleicaoEmAndamento = false;
+    private static ControleLideranca controleLideranca;
+    // Prazo de cada pedido ELEICAO e TRANSFERIR_LIDERANCA: sem resposta nesse tempo o processo é dado como falho
     private static final int TIMEOUT_ELEICAO = 3000;
+    private static final int TIMEOUT_RESPOSTA = 5000;
 
     public static void main(String[] args) {
         processo = new Processo(UUID.randomUUID(), "Processo1", 0, 10, 50051, false, null);
@@ -50,6 +57,8 @@ public class Processo1 {
         conexaoProcesso3.setPorta(50053);
         processo.getConexaoOutrosProcessos().add(conexaoProcesso3);
         
+        controleLideranca = new ControleLideranca(processo, "Processo3", TIMEOUT_ELEICAO, new OuvinteLiderancaImpl());
+        
         callbackImpl = new SupercoordenadorCallbackImpl();
         gerenciadorIntergrupos = new GerenciadorComunicacaoIntergrupos(1, processo.getNomeProcesso(), callbackImpl);
         gerenciadorIntergrupos.iniciar();
@@ -62,84 +71,20 @@ public class Processo1 {
             System.err.println(TerminalColors.errorMessage("[ERRO] Erro ao iniciar multicast: " + e.getMessage()));
         }
 
-        new Thread(() -> {
-            try (ServerSocket serverSocket = new ServerSocket(processo.getPorta())) {
-                System.out.println(TerminalColors.successMessage("[SERVIDOR] " + processo.getNomeProcesso() + " iniciado na porta " + processo.getPorta()));
-                
-                while (true) {
-                    Socket socket = serverSocket.accept();
-
-                    new Thread(() -> {
-                        try {
-                            ObjectInputStream in = new ObjectInputStream(socket.getInputStream());
-                            ObjectOutputStream out = new ObjectOutputStream(socket.getOutputStream());
-
-                            while (true) {
-                                Mensagem mensagem = (Mensagem) in.readObject();
-
-                                processo.setClockProcesso(Math.max(processo.getClockProcesso(), mensagem.getClockMensagem()) + 1);
-
-                                if (mensagem.getTipoMensagem().equals(TipoMensagem.ELEICAO)) {
-                                    System.out.println(TerminalColors.multicastMessage("\n[ELEIÇÃO] Mensagem de eleição recebida de: " + mensagem.getProcessoRemetente()));
-                                    processarMensagemEleicao(mensagem, out);
-                                } else if (mensagem.getTipoMensagem().equals(TipoMensagem.LIDER_ELEITO)) {
-                                    System.out.println(TerminalColors.multicastMessage("\n[ELEIÇÃO] Novo líder eleito: " + mensagem.getProcessoRemetente()));
-                                    
-                                    if (liderAtual.equals(processo.getNomeProcesso()) && !mensagem.getProcessoRemetente().equals(processo.getNomeProcesso())) {
-                                        pararHeartbeat();
-                                    }
-                                    
-                                    liderAtual = mensagem.getProcessoRemetente();
-                                    eleicaoEmAndamento = false;
-                                } else if (mensagem.getTipoMensagem().equals(TipoMensagem.ELEICAO_OK)) {
-                                    System.out.println(TerminalColors.multicastMessage("\n[ELEIÇÃO] " + mensagem.getProcessoRemetente() + " respondeu OK à eleição!"));
-                                } else if (mensagem.getTipoMensagem().equals(TipoMensagem.NOVO_LIDER)) {
-                                    liderAtual = mensagem.getProcessoRemetente();
-                                    eleicaoEmAndamento = false;
-                                    System.out.println(TerminalColors.successMessage("\n[ELEIÇÃO] " + mensagem.getProcessoRemetente() + " foi eleito como NOVO LÍDER!"));
-                                    System.out.println(TerminalColors.successMessage("[ELEIÇÃO] Líder atual atualizado para: " + liderAtual));
-                                } else if (mensagem.getTipoMensagem().equals(TipoMensagem.PROCESSO_FALHOU)) {
-                                    String processoFalhou = mensagem.getConteudoMensagem();
-                                    System.out.println(TerminalColors.warningMessage("\n[NOTIFICAÇÃO] Processo falhou: " + processoFalhou));
-                                    processo.getConexaoOutrosProcessos().removeIf(c -> c.getNomeProcesso().equals(processoFalhou));
-                                } else if (mensagem.getTipoMensagem().equals(TipoMensagem.INTERACAO)) {
-                                    processo.getMensagensRecebidas().add(mensagem);
-
-                                    System.out.println("\n" + TerminalColors.multicastMessage("====================================="));
-                                    System.out.println(TerminalColors.multicastMessage("Mensagem Recebida no " + processo.getNomeProcesso() + ":"));
-                                    System.out.println(TerminalColors.multicastMessage("CLOCK: " + mensagem.getClockMensagem()));
-                                    System.out.println(TerminalColors.multicastMessage("Remetente: " + mensagem.getProcessoRemetente()));
-                                    System.out.println(TerminalColors.multicastMessage("Conteudo: " + mensagem.getConteudoMensagem()));
-                                    System.out.println(TerminalColors.multicastMessage("====================================="));
-
-                                    String resposta = "Mensagem recebida com sucesso";
-                                    
-                                    processo.setClockProcesso(processo.getClockProcesso() + 1);
-                                    
-                                    Mensagem respostaMensagem = new Mensagem();
-                                    respostaMensagem.setConteudoMensagem(resposta);
-                                    respostaMensagem.setProcessoRemetente(processo.getNomeProcesso());
-                                    respostaMensagem.setProcessoDestinatario(mensagem.getProcessoRemetente());
-                                    respostaMensagem.setTipoMensagem(TipoMensagem.INTERACAO);
-                                    respostaMensagem.setClockMensagem(processo.getClockProcesso());
-                                    respostaMensagem.setDataMensagem(LocalDateTime.now());
-                                    respostaMensagem.setIdMensagem(UUID.randomUUID());
-                                    
-                                    out.writeObject(respostaMensagem);
-                                    out.flush();
-                                    
-                                    processo.getMensagensEnviadas().add(respostaMensagem);
-                                }
-                            }
-                        } catch (IOException | ClassNotFoundException e) {
-                            System.err.println(TerminalColors.errorMessage("[ERRO] Erro na comunicação: " + e.getMessage()));
-                        }
-                    }).start();
-                }
-            } catch (IOException e) {
-                System.err.println(TerminalColors.errorMessage("[ERRO] Erro ao iniciar servidor: " + e.getMessage()));
-            }
-        }).start();
+        transporte = new TransporteNio(processo.getNomeProcesso(), processo.getPorta(), Processo1::processarMensagemRecebida);
+        snapshotDistribuido = new SnapshotDistribuido(processo.getNomeProcesso(),
+                new AmbienteSnapshotSocket(processo, transporte, () -> processo.getNomeProcesso()
+                        + " - Clock: " + processo.getClockProcesso() + " | Líder: " + controleLideranca.getLiderAtual()
+                        + " | Recebidas: " + processo.getMensagensRecebidas().getTotalAdicionadas()
+                        + " | Enviadas: " + processo.getMensagensEnviadas().getTotalAdicionadas()));
+        snapshotDistribuido.setArmazem(ArmazemSnapshots.criar(processo.getNomeProcesso(), processo.getRelogio(),
+                processo.getMensagensRecebidas(), processo.getMensagensEnviadas()));
+        transporte.setInterceptador(snapshotDistribuido);
+        try {
+            transporte.iniciar();
+        } catch (IOException e) {
+            System.err.println(TerminalColors.errorMessage("[ERRO] Erro ao iniciar servidor: " + e.getMessage()));
+        }
 
         try {
             Thread.sleep(3000);
@@ -147,36 +92,11 @@ public class Processo1 {
             Thread.currentThread().interrupt();
         }
 
-        for (ConexaoOutrosProcessos conexao : processo.getConexaoOutrosProcessos()) {
-            new Thread(() -> {
-                long inicioTentativa = System.currentTimeMillis();
-                while (true) {
-                    try {
-                        Socket socket = new Socket("localhost", conexao.getPorta());
-
-                        ObjectOutputStream objectOutputStream = new ObjectOutputStream(socket.getOutputStream());
-                        ObjectInputStream objectInputStream = new ObjectInputStream(socket.getInputStream());
-
-                        conexao.setObjectOutputStream(objectOutputStream);
-                        conexao.setObjectInputStream(objectInputStream);
-
-                        System.out.println(TerminalColors.successMessage("Conexão estabelecida com: " + conexao.getNomeProcesso()));
-                        break;
-                    } catch (IOException e) {
-                        if (System.currentTimeMillis() - inicioTentativa >= 10000) {
-                            System.err.println(TerminalColors.errorMessage("Não foi possível conectar ao " + conexao.getNomeProcesso()));
-                            break;
-                        }
-                        try {
-                            Thread.sleep(1000);
-                        } catch (InterruptedException ie) {
-                            Thread.currentThread().interrupt();
-                            break;
-                        }
-                    }
-                }
-            }).start();
-        }
+        poolConexoes = new PoolConexoes(processo.getNomeProcesso(), processo.getConexaoOutrosProcessos(),
+                Processo1::processarMensagemRecebida);
+        poolConexoes.setInterceptador(snapshotDistribuido);
+        controleLideranca.setPoolConexoes(poolConexoes);
+        poolConexoes.iniciar();
 
         try {
             Thread.sleep(5000);
@@ -191,7 +111,7 @@ public class Processo1 {
         });
         snapshotManager.startSnapshotServer();
         
-        if (liderAtual.equals(processo.getNomeProcesso())) {
+        if (controleLideranca.isLider()) {
             System.out.println(TerminalColors.successMessage("[LIDERANÇA] " + processo.getNomeProcesso() + " é o líder inicial - iniciando heartbeat"));
             iniciarHeartbeatComoLider();
         }
@@ -199,6 +119,53 @@ public class Processo1 {
         exibirMenu();
     }
     
+    /**
+     * Processa uma mensagem recebida pelo transporte NIO
+     */
+    private static void processarMensagemRecebida(Mensagem mensagem, CanalMensagem canal) {
+        try {
+            processo.getRelogio().merge(mensagem.getClockMensagem());
+
+            if (controleLideranca.processar(mensagem, canal)) {
+                return;
+            }
+            if (mensagem.getTipoMensagem() == TipoMensagem.PROCESSO_FALHOU) {
+                String processoFalhou = mensagem.getConteudoMensagem();
+                System.out.println(TerminalColors.warningMessage("\n[NOTIFICAÇÃO] Processo falhou: " + processoFalhou));
+                poolConexoes.marcarFalha(processoFalhou);
+            } else if (mensagem.getTipoMensagem() == TipoMensagem.INTERACAO) {
+                processo.getMensagensRecebidas().add(mensagem);
+
+                System.out.println("\n" + TerminalColors.multicastMessage("====================================="));
+                System.out.println(TerminalColors.multicastMessage("Mensagem Recebida no " + processo.getNomeProcesso() + ":"));
+                System.out.println(TerminalColors.multicastMessage("CLOCK: " + mensagem.getClockMensagem()));
+                System.out.println(TerminalColors.multicastMessage("Remetente: " + mensagem.getProcessoRemetente()));
+                System.out.println(TerminalColors.multicastMessage("Conteudo: " + mensagem.getConteudoMensagem()));
+                System.out.println(TerminalColors.multicastMessage("====================================="));
+
+                String resposta = "Mensagem recebida com sucesso";
+            
+                long clockEnvio = processo.getRelogio().tick();
+            
+                Mensagem respostaMensagem = new Mensagem();
+                respostaMensagem.setConteudoMensagem(resposta);
+                respostaMensagem.setProcessoRemetente(processo.getNomeProcesso());
+                respostaMensagem.setProcessoDestinatario(mensagem.getProcessoRemetente());
+                respostaMensagem.setTipoMensagem(TipoMensagem.INTERACAO);
+                respostaMensagem.setClockMensagem(clockEnvio);
+                respostaMensagem.setDataMensagem(LocalDateTime.now());
+                respostaMensagem.setIdMensagem(UUID.randomUUID());
+                respostaMensagem.setIdMensagemOrigem(mensagem.getIdMensagem());
+            
+                canal.enviar(respostaMensagem);
+            
+                processo.getMensagensEnviadas().add(respostaMensagem);
+            }
+        } catch (IOException e) {
+            System.err.println(TerminalColors.errorMessage("[ERRO] Erro na comunicação: " + e.getMessage()));
+        }
+    }
+    
     private static void exibirMenu() {
         while (true) {
             System.out.println("\n" + TerminalColors.successMessage("=== " + processo.getNomeProcesso() + " - Menu ==="));
@@ -210,6 +177,8 @@ public class Processo1 {
             if (processo.isSupercoordenador()) {
                 System.out.println("6. [SUPERCOORDENADOR] Print geral do sistema");
             }
+            System.out.println("7. Snapshot consistente (Chandy-Lamport)");
+            System.out.println("8. Reconstruir snapshot armazenado");
             System.out.println("0. Sair");
             System.out.print("Escolha uma opção: ");
             
@@ -239,9 +208,15 @@ public class Processo1 {
                         System.out.println(TerminalColors.errorMessage("Apenas o supercoordenador pode executar esta opção!"));
                     }
                     break;
+                case 7:
+                    executarSnapshotConsistente();
+                    break;
+                case 8:
+                    reconstruirSnapshot();
+                    break;
                 case 0:
                     System.out.println(TerminalColors.warningMessage("Encerrando " + processo.getNomeProcesso() + "..."));
-                    System.exit(0);
+                    controleLideranca.encerrar(() -> System.exit(0));
                     break;
                 default:
                     System.out.println(TerminalColors.errorMessage("Opção inválida!"));
@@ -278,12 +253,12 @@ public class Processo1 {
         System.out.print("Digite a mensagem: ");
         String conteudo = scanner.nextLine();
         
-        if (conexaoEscolhida == null || conexaoEscolhida.getObjectOutputStream() == null) {
+        if (conexaoEscolhida == null || !conexaoEscolhida.isConectado()) {
             System.out.println(TerminalColors.warningMessage("Processo " + nomeProcessoDestinatario + " está inativo."));
             
-            if (nomeProcessoDestinatario.equals(liderAtual)) {
-                System.out.println(TerminalColors.errorMessage("[FALHA] O líder " + liderAtual + " falhou! Iniciando eleição..."));
-                new Thread(() -> iniciarEleicao()).start();
+            if (nomeProcessoDestinatario.equals(controleLideranca.getLiderAtual())) {
+                System.out.println(TerminalColors.errorMessage("[FALHA] O líder " + controleLideranca.getLiderAtual() + " falhou! Iniciando eleição..."));
+                new Thread(() -> controleLideranca.iniciarEleicao(nomeProcessoDestinatario)).start();
             } else {
                 System.out.println(TerminalColors.warningMessage("[FALHA] Processo " + nomeProcessoDestinatario + " falhou. Notificando outros processos..."));
                 notificarFalhaProcesso(nomeProcessoDestinatario);
@@ -292,49 +267,57 @@ public class Processo1 {
         }
         
         try {
-            processo.setClockProcesso(processo.getClockProcesso() + 1);
+            long clockEnvio = processo.getRelogio().tick();
             
             Mensagem mensagem = new Mensagem();
             mensagem.setIdMensagem(UUID.randomUUID());
             mensagem.setProcessoRemetente(processo.getNomeProcesso());
             mensagem.setProcessoDestinatario(conexaoEscolhida.getNomeProcesso());
             mensagem.setDataMensagem(LocalDateTime.now());
-            mensagem.setClockMensagem(processo.getClockProcesso());
+            mensagem.setClockMensagem(clockEnvio);
             mensagem.setConteudoMensagem(conteudo);
             mensagem.setTipoMensagem(TipoMensagem.INTERACAO);
             
-            conexaoEscolhida.getObjectOutputStream().writeObject(mensagem);
-            conexaoEscolhida.getObjectOutputStream().flush();
+            CanalSocket canal = conexaoEscolhida.getCanal();
+            if (canal == null) {
+                throw new IOException("Conexão fechada");
+            }
+            CompletableFuture<Mensagem> futuroResposta = canal.enviarRequisicao(mensagem, TIMEOUT_RESPOSTA);
             
             processo.getMensagensEnviadas().add(mensagem);
             
             System.out.println(TerminalColors.successMessage("Mensagem enviada para " + conexaoEscolhida.getNomeProcesso() + "!"));
             
-            try {
-                Mensagem resposta = (Mensagem) conexaoEscolhida.getObjectInputStream().readObject();
-                processo.setClockProcesso(Math.max(processo.getClockProcesso(), resposta.getClockMensagem()) + 1);
-                processo.getMensagensRecebidas().add(resposta);
-                System.out.println(TerminalColors.multicastMessage("Resposta recebida: " + resposta.getConteudoMensagem()));
-            } catch (Exception e) {
-                System.out.println(TerminalColors.warningMessage("Não foi possível receber resposta do " + conexaoEscolhida.getNomeProcesso()));
+            // A resposta chega pela thread leitora do canal; o menu fica livre para novos envios
+            ConexaoOutrosProcessos conexaoDestino = conexaoEscolhida;
+            futuroResposta.whenComplete((resposta, erro) -> {
+                if (erro == null) {
+                    processo.getRelogio().merge(resposta.getClockMensagem());
+                    processo.getMensagensRecebidas().add(resposta);
+                    System.out.println(TerminalColors.multicastMessage("Resposta recebida: " + resposta.getConteudoMensagem()));
+                    return;
+                }
+                
+                System.out.println(TerminalColors.warningMessage("Não foi possível receber resposta do " + conexaoDestino.getNomeProcesso()));
                 
-                if (nomeProcessoDestinatario.equals(liderAtual)) {
-                    System.out.println(TerminalColors.errorMessage("[FALHA] O líder " + liderAtual + " falhou! Iniciando eleição..."));
-                    new Thread(() -> iniciarEleicao()).start();
+                if (nomeProcessoDestinatario.equals(controleLideranca.getLiderAtual())) {
+                    System.out.println(TerminalColors.errorMessage("[FALHA] O líder " + controleLideranca.getLiderAtual() + " falhou! Iniciando eleição..."));
+                    new Thread(() -> controleLideranca.iniciarEleicao(nomeProcessoDestinatario)).start();
                 } else {
                     System.out.println(TerminalColors.warningMessage("[FALHA] Processo " + nomeProcessoDestinatario + " falhou. Notificando outros processos..."));
                     notificarFalhaProcesso(nomeProcessoDestinatario);
                 }
                 
-                processo.getConexaoOutrosProcessos().removeIf(c -> c.getNomeProcesso().equals(nomeProcessoDestinatario));
-            }
+                poolConexoes.marcarFalha(conexaoDestino);
+            });
             
         } catch (IOException e) {
+            poolConexoes.marcarFalha(conexaoEscolhida);
             System.out.println(TerminalColors.warningMessage("Processo " + nomeProcessoDestinatario + " está inativo."));
             
-            if (nomeProcessoDestinatario.equals(liderAtual)) {
-                System.out.println(TerminalColors.errorMessage("[FALHA] O líder " + liderAtual + " falhou! Iniciando eleição..."));
-                new Thread(() -> iniciarEleicao()).start();
+            if (nomeProcessoDestinatario.equals(controleLideranca.getLiderAtual())) {
+                System.out.println(TerminalColors.errorMessage("[FALHA] O líder " + controleLideranca.getLiderAtual() + " falhou! Iniciando eleição..."));
+                new Thread(() -> controleLideranca.iniciarEleicao(nomeProcessoDestinatario)).start();
             } else {
                 System.out.println(TerminalColors.warningMessage("[FALHA] Processo " + nomeProcessoDestinatario + " falhou. Notificando outros processos..."));
                 notificarFalhaProcesso(nomeProcessoDestinatario);
@@ -348,7 +331,7 @@ public class Processo1 {
         String mensagem = scanner.nextLine();
         
         try {
-            boolean isLider = liderAtual.equals(processo.getNomeProcesso());
+            boolean isLider = controleLideranca.isLider();
             
             if (heartbeatManager != null && heartbeatManager.getMulticastManager() != null) {
                 heartbeatManager.getMulticastManager().enviarMensagemComoLider(mensagem, processo.getNomeProcesso(), isLider);
@@ -382,16 +365,45 @@ public class Processo1 {
         }
     }
 
+    /**
+     * Inicia um snapshot Chandy-Lamport do grupo e exibe o corte consistente
+     */
+    private static void executarSnapshotConsistente() {
+        System.out.println(snapshotDistribuido.iniciar().join().format());
+    }
+
+    /**
+     * Reconstrói um snapshot persistido a partir dos deltas do armazém
+     */
+    private static void reconstruirSnapshot() {
+        ArmazemSnapshots armazem = snapshotDistribuido.getArmazem();
+        List<String> ids = armazem != null ? armazem.getIds() : Collections.emptyList();
+        if (ids.isEmpty()) {
+            System.out.println(TerminalColors.warningMessage("Nenhum snapshot armazenado."));
+            return;
+        }
+        System.out.println("Snapshots armazenados: " + String.join(", ", ids.subList(Math.max(0, ids.size() - 10), ids.size())));
+        System.out.print("Id do snapshot (Enter para o mais recente): ");
+        String id = scanner.nextLine().trim();
+        try {
+            System.out.println(armazem.reconstruir(id.isEmpty() ? ids.get(ids.size() - 1) : id).format());
+        } catch (IOException e) {
+            System.out.println(TerminalColors.errorMessage("[ERRO] " + e.getMessage()));
+        }
+    }
+
     private static void exibirStatusProcesso() {
         System.out.println("\n" + TerminalColors.successMessage("=== Status do Processo ==="));
         System.out.println("Nome: " + TerminalColors.autoMessage(processo.getNomeProcesso()));
         System.out.println("Clock: " + TerminalColors.autoMessage(String.valueOf(processo.getClockProcesso())));
         System.out.println("Porta: " + TerminalColors.autoMessage(String.valueOf(processo.getPorta())));
-        System.out.println("Líder atual: " + TerminalColors.autoMessage(liderAtual));
+        System.out.println("Líder atual: " + TerminalColors.autoMessage(controleLideranca.getLiderAtual()));
         System.out.println("É Supercoordenador: " + TerminalColors.autoMessage(String.valueOf(processo.isSupercoordenador())));
-        System.out.println("Eleição em andamento: " + TerminalColors.autoMessage(String.valueOf(eleicaoEmAndamento)));
+        System.out.println("Eleição em andamento: " + TerminalColors.autoMessage(String.valueOf(controleLideranca.getCoordenadorEleicao().isEmAndamento())));
+        System.out.println("Termo da eleição: " + TerminalColors.autoMessage(String.valueOf(controleLideranca.getCoordenadorEleicao().getTermo())));
+        System.out.println("Concessão do líder: " + TerminalColors.autoMessage(descreverConcessao()));
         int conexoesAtivas = processo.getConexaoOutrosProcessos().stream()
-                .mapToInt(c -> c.getObjectOutputStream() != null ? 1 : 0).sum();
+                .mapToInt(c -> c.isConectado() ? 1 : 0).sum();
         System.out.println("Conexões ativas: " + TerminalColors.autoMessage(String.valueOf(conexoesAtivas)));
         
         // Exibir parâmetro de eleição
@@ -419,176 +431,13 @@ public class Processo1 {
         }
     }
     
-    private static void processarMensagemEleicao(Mensagem mensagem, ObjectOutputStream out) {
-        try {
-            // Obtém o parâmetro de eleição do processo remetente
-            int parametroRemetente = getParametroEleicao(mensagem.getProcessoRemetente());
-            int meuParametro = processo.getParametroEleicao();
-            
-            if (parametroRemetente < meuParametro) {
-                // Envia resposta OK
-                processo.setClockProcesso(processo.getClockProcesso() + 1);
-                
-                Mensagem resposta = new Mensagem();
-                resposta.setIdMensagem(UUID.randomUUID());
-                resposta.setProcessoRemetente(processo.getNomeProcesso());
-                resposta.setProcessoDestinatario(mensagem.getProcessoRemetente());
-                resposta.setDataMensagem(LocalDateTime.now());
-                resposta.setClockMensagem(processo.getClockProcesso());
-                resposta.setConteudoMensagem("OK");
-                resposta.setTipoMensagem(TipoMensagem.ELEICAO_OK);
-                
-                out.writeObject(resposta);
-                out.flush();
-                
-                System.out.println(TerminalColors.multicastMessage("[ELEIÇÃO] Enviado OK para " + mensagem.getProcessoRemetente()));
-                
-                // Inicia própria eleição após um pequeno delay para garantir que a resposta OK seja processada
-                new Thread(() -> {
-                    try {
-                        Thread.sleep(100); // Pequeno delay para evitar condição de corrida
-                    } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt();
-                    }
-                    iniciarEleicao();
-                }).start();
-            }
-        } catch (IOException e) {
-            System.err.println(TerminalColors.errorMessage("[ERRO] Erro ao processar mensagem de eleição: " + e.getMessage()));
-        }
-    }
-    
-    private static int getParametroEleicao(String nomeProcesso) {
-        return processo.getConexaoOutrosProcessos().stream()
-                .filter(p -> p.getNomeProcesso().equals(nomeProcesso))
-                .findFirst()
-                .map(ConexaoOutrosProcessos::getParametroEleicao)
-                .orElse(0);
-    }
-    
-    private static void iniciarEleicao() {
-        synchronized (Processo1.class) {
-            if (eleicaoEmAndamento) {
-                return; // Já há uma eleição em andamento
-            }
-            eleicaoEmAndamento = true;
-        }
-        
-        System.out.println(TerminalColors.warningMessage("\n[ELEIÇÃO] " + processo.getNomeProcesso() + " detectou falha do líder " + liderAtual + " - INICIANDO ELEIÇÃO!"));
-        System.out.println(TerminalColors.multicastMessage("[ELEIÇÃO] Enviando mensagens de eleição para processos com parâmetro maior..."));
-        
-        // Envia mensagem de eleição para processos com parâmetro maior que estão ativos
-        List<ConexaoOutrosProcessos> processosComParametroMaior = processo.getConexaoOutrosProcessos().stream()
-                .filter(c -> c.getParametroEleicao() > processo.getParametroEleicao())
-                .filter(c -> c.getObjectOutputStream() != null)
-                .filter(c -> !c.getNomeProcesso().equals(liderAtual))
-                .collect(Collectors.toList());
-        
-        // Se não há processos com parâmetro maior, torna-se líder
-        if (processosComParametroMaior.isEmpty()) {
-            System.out.println(TerminalColors.successMessage("[ELEIÇÃO] Nenhum processo com parâmetro maior encontrado - " + processo.getNomeProcesso() + " se tornará líder!"));
-            tornarSeLider();
-            return;
-        }
-        
-        // Envia mensagem de eleição para processos ativos com parâmetro maior
-        boolean mensagemEnviadaComSucesso = false;
-        
-        for (ConexaoOutrosProcessos conexao : processosComParametroMaior) {
-            try {
-                processo.setClockProcesso(processo.getClockProcesso() + 1);
-                
-                Mensagem mensagemEleicao = new Mensagem();
-                mensagemEleicao.setIdMensagem(UUID.randomUUID());
-                mensagemEleicao.setProcessoRemetente(processo.getNomeProcesso());
-                mensagemEleicao.setProcessoDestinatario(conexao.getNomeProcesso());
-                mensagemEleicao.setDataMensagem(LocalDateTime.now());
-                mensagemEleicao.setClockMensagem(processo.getClockProcesso());
-                mensagemEleicao.setConteudoMensagem("ELEICAO");
-                mensagemEleicao.setTipoMensagem(TipoMensagem.ELEICAO);
-                
-                conexao.getObjectOutputStream().writeObject(mensagemEleicao);
-                conexao.getObjectOutputStream().flush();
-                
-                System.out.println(TerminalColors.multicastMessage("[ELEIÇÃO] Mensagem de eleição enviada para " + conexao.getNomeProcesso()));
-                mensagemEnviadaComSucesso = true;
-            } catch (IOException e) {
-                System.err.println(TerminalColors.errorMessage("[ELEIÇÃO] Erro ao enviar mensagem de eleição para " + conexao.getNomeProcesso()));
-            }
-        }
-        
-        // Aguarda respostas por um tempo determinado
-        try {
-            Thread.sleep(TIMEOUT_ELEICAO);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
-
-        if (!mensagemEnviadaComSucesso) {
-            // Nenhuma mensagem enviada com sucesso, torna-se líder
-            System.out.println(TerminalColors.successMessage("[ELEIÇÃO] Nenhuma mensagem de eleição enviada com sucesso. " + processo.getNomeProcesso() + " se tornará líder!"));
-            tornarSeLider();
-        } 
-    }
-    
-    private static void tornarSeLider() {
-        liderAtual = processo.getNomeProcesso();
-        eleicaoEmAndamento = false;
-        processo.setLider(true);
-        
-        System.out.println(TerminalColors.successMessage("\n[ELEIÇÃO] " + processo.getNomeProcesso() + " SE TORNOU O NOVO LÍDER!"));
-        
-        // Definir como supercoordenador (grupo 1 tem prioridade)
-        processo.setSupercoordenador(true);
-        System.out.println(TerminalColors.successMessage("[SUPERCOORDENADOR] " + processo.getNomeProcesso() + " definido como SUPERCOORDENADOR!"));
-        
-        // Notificar mudança de liderança para comunicação intergrupos
-        if (gerenciadorIntergrupos != null) {
-            gerenciadorIntergrupos.notificarNovoLider(processo.getNomeProcesso());
-        }
-        
-        // Inicializar HeartbeatManager quando se tornar líder
-        iniciarHeartbeatComoLider();
-        
-        System.out.println(TerminalColors.successMessage("[ELEIÇÃO] Enviando anúncio de liderança para todos os processos..."));
-        
-        // Anuncia liderança para todos os processos
-        for (ConexaoOutrosProcessos conexao : processo.getConexaoOutrosProcessos()) {
-            if (conexao.getObjectOutputStream() != null) {
-                try {
-                    processo.setClockProcesso(processo.getClockProcesso() + 1);
-                    
-                    Mensagem anuncio = new Mensagem();
-                    anuncio.setIdMensagem(UUID.randomUUID());
-                    anuncio.setProcessoRemetente(processo.getNomeProcesso());
-                    anuncio.setProcessoDestinatario(conexao.getNomeProcesso());
-                    anuncio.setDataMensagem(LocalDateTime.now());
-                    anuncio.setClockMensagem(processo.getClockProcesso());
-                    anuncio.setConteudoMensagem(processo.getNomeProcesso());
-                    anuncio.setTipoMensagem(TipoMensagem.NOVO_LIDER);
-                    
-                    conexao.getObjectOutputStream().writeObject(anuncio);
-                    conexao.getObjectOutputStream().flush();
-                    
-                    System.out.println(TerminalColors.successMessage("[ELEIÇÃO] Anúncio de liderança enviado para " + conexao.getNomeProcesso()));
-                    
-                    processo.getMensagensEnviadas().add(anuncio);
-                } catch (IOException e) {
-                    System.err.println(TerminalColors.errorMessage("[ELEIÇÃO] Erro ao anunciar liderança para " + conexao.getNomeProcesso()));
-                }
-            }
-        }
-        
-        System.out.println(TerminalColors.successMessage("[ELEIÇÃO] Eleição finalizada - " + processo.getNomeProcesso() + " é o novo líder do sistema!"));
-    }
-    
     /**
       * Inicia o heartbeat quando o processo se torna líder
       */
      private static void iniciarHeartbeatComoLider() {
          try {
              if (heartbeatManager != null) {
-                 heartbeatManager.startAsLeader();
+                 heartbeatManager.startAsLeader(controleLideranca.getCoordenadorEleicao().getTermoLider());
                  System.out.println(TerminalColors.successMessage("[HEARTBEAT] Iniciado como líder - monitorando outros processos"));
              }
          } catch (Exception e) {
@@ -596,27 +445,6 @@ public class Processo1 {
          }
      }
      
-     /**
-      * Envia heartbeat para outros processos quando é líder
-      */
-     private static void enviarHeartbeat() {
-         try {
-             if (heartbeatManager == null) {
-                 // Inicializa HeartbeatManager se ainda não foi criado
-                 List<ConexaoOutrosProcessos> outrosProcessos = processo.getConexaoOutrosProcessos();
-                 heartbeatManager = new HeartbeatManager(processo.getNomeProcesso(), GRPC_PORT, outrosProcessos);
-                 heartbeatManager.startServer();
-             }
-             
-             if (!heartbeatManager.isLeader()) {
-                 heartbeatManager.startAsLeader();
-                 System.out.println(TerminalColors.successMessage("[HEARTBEAT] Iniciado como líder - monitorando outros processos"));
-             }
-         } catch (Exception e) {
-             System.err.println(TerminalColors.errorMessage("[HEARTBEAT] Erro ao enviar heartbeat: " + e.getMessage()));
-         }
-     }
-     
      /**
       * Inicializa o HeartbeatManager para todos os processos
       */
@@ -635,6 +463,10 @@ public class Processo1 {
                  heartbeatManager.setMulticastManager(gerenciadorMulticast);
              }
              
+             // Sem heartbeat do líder dentro da concessão, a eleição começa sozinha
+             heartbeatManager.setAoExpirarConcessao(controleLideranca::concessaoExpirou);
+             heartbeatManager.getConcessaoLider().setAoTrocarLider(controleLideranca::liderObservado);
+             
              heartbeatManager.startServer();
              
              System.out.println(TerminalColors.successMessage("[HEARTBEAT] Servidor gRPC iniciado na porta " + portaGrpc));
@@ -654,43 +486,96 @@ public class Processo1 {
      private static void pararHeartbeat() {
          try {
              if (heartbeatManager != null) {
-                 heartbeatManager.stop();
+                 heartbeatManager.stopAsLeader();
                  System.out.println(TerminalColors.warningMessage("[HEARTBEAT] Heartbeat parado - não sou mais o líder"));
              }
          } catch (Exception e) {
              System.err.println(TerminalColors.errorMessage("[HEARTBEAT] Erro ao parar heartbeat: " + e.getMessage()));
          }
      }
+    
+    /**
+     * true se o líder renovou a concessão dentro do prazo: uma chamada que falhou não basta para eleição
+     */
+    private static boolean concessaoValida(String lider) {
+        return heartbeatManager != null && heartbeatManager.getConcessaoLider().isValida()
+                && lider.equals(heartbeatManager.getConcessaoLider().getLider());
+    }
+    
+    private static String descreverConcessao() {
+        if (controleLideranca.isLider()) {
+            return "este processo é o líder (época " + controleLideranca.getCoordenadorEleicao().getTermoLider() + ")";
+        }
+        if (heartbeatManager == null || !heartbeatManager.getConcessaoLider().isValida()) {
+            return "expirada ou ainda sem heartbeat";
+        }
+        return "válida por " + heartbeatManager.getConcessaoLider().getRestanteMs() + " ms (época " + heartbeatManager.getConcessaoLider().getEpoca() + ")";
+    }
      
      private static void notificarFalhaProcesso(String processoFalhou) {
         System.out.println(TerminalColors.warningMessage("\n[NOTIFICAÇÃO] Notificando falha do processo: " + processoFalhou));
         
         // Envia notificação para todos os processos conectados
         for (ConexaoOutrosProcessos conexao : processo.getConexaoOutrosProcessos()) {
-            if (conexao.getObjectOutputStream() != null && !conexao.getNomeProcesso().equals(processoFalhou)) {
+            if (conexao.isConectado() && !conexao.getNomeProcesso().equals(processoFalhou)) {
                 try {
-                    processo.setClockProcesso(processo.getClockProcesso() + 1);
+                    long clockEnvio = processo.getRelogio().tick();
                     
                     Mensagem notificacao = new Mensagem();
                     notificacao.setIdMensagem(UUID.randomUUID());
                     notificacao.setProcessoRemetente(processo.getNomeProcesso());
                     notificacao.setProcessoDestinatario(conexao.getNomeProcesso());
                     notificacao.setDataMensagem(LocalDateTime.now());
-                    notificacao.setClockMensagem(processo.getClockProcesso());
+                    notificacao.setClockMensagem(clockEnvio);
                     notificacao.setConteudoMensagem(processoFalhou);
                     notificacao.setTipoMensagem(TipoMensagem.PROCESSO_FALHOU);
                     
-                    conexao.getObjectOutputStream().writeObject(notificacao);
-                    conexao.getObjectOutputStream().flush();
+                    conexao.getCanal().enviar(notificacao);
                     
                     System.out.println(TerminalColors.warningMessage("[NOTIFICAÇÃO] Falha notificada para " + conexao.getNomeProcesso()));
                 } catch (IOException e) {
+                    poolConexoes.marcarFalha(conexao);
                     System.err.println(TerminalColors.errorMessage("[ERRO] Erro ao notificar falha para " + conexao.getNomeProcesso()));
                 }
             }
         }
     }
     
+    /**
+     * Liga as trocas de liderança ao supercoordenador, à comunicação intergrupos e ao heartbeat gRPC
+     */
+    private static class OuvinteLiderancaImpl implements ControleLideranca.Ouvinte {
+        
+        @Override
+        public void assumiu(long termo) {
+            // Definir como supercoordenador (grupo 1 tem prioridade)
+            processo.setSupercoordenador(true);
+            System.out.println(TerminalColors.successMessage("[SUPERCOORDENADOR] " + processo.getNomeProcesso() + " definido como SUPERCOORDENADOR!"));
+            
+            if (gerenciadorIntergrupos != null) {
+                gerenciadorIntergrupos.notificarNovoLider(processo.getNomeProcesso());
+            }
+            iniciarHeartbeatComoLider();
+        }
+        
+        @Override
+        public void deixou() {
+            pararHeartbeat();
+        }
+        
+        @Override
+        public void seguir(String lider, long termo) {
+            if (heartbeatManager != null) {
+                heartbeatManager.seguirLider(lider, termo);
+            }
+        }
+        
+        @Override
+        public boolean concessaoValida(String lider) {
+            return Processo1.concessaoValida(lider);
+        }
+    }
+    
     /**
      * Implementação da interface SupercoordenadorCallback para comunicação intergrupos
      */
@@ -710,13 +595,13 @@ public class Processo1 {
         @Override
         public String obterStatusGrupo() {
             StringBuilder sb = new StringBuilder();
-            sb.append("Líder: ").append(liderAtual);
+            sb.append("Líder: ").append(controleLideranca.getLiderAtual());
             sb.append(", Clock: ").append(processo.getClockProcesso());
             sb.append(", Processos ativos: ");
             
             // Conta processos ativos baseado nas conexões
             long processosAtivos = processo.getConexaoOutrosProcessos().stream()
-                .filter(c -> c.getObjectOutputStream() != null)
+                .filter(c -> c.isConectado())
                 .count() + 1; // +1 para incluir este processo
             
             sb.append(processosAtivos);
@@ -730,7 +615,7 @@ public class Processo1 {
         
         @Override
         public boolean isLiderGrupo() {
-            return liderAtual.equals(processo.getNomeProcesso());
+            return controleLideranca.isLider();
         }
         
         @Override
@@ -0,0 +1,109 @@
+package br.com.grupo1;
+
+import br.com.models.ConexaoOutrosProcessos;
+import br.com.models.Mensagem;
+import br.com.models.Processo;
+import br.com.models.TipoMensagem;
+import br.com.utils.CanalMensagem;
+import br.com.utils.CanalSocket;
+import br.com.utils.PoolConexoes;
+import br.com.utils.TerminalColors;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
+
+/**
+ * Saída planejada do líder do grupo 1, dos dois lados da conexão
+ * O líder passa a liderança ao processo conectado de maior parâmetro, no termo seguinte, antes
+ * de sair. O sucessor assume na hora e anuncia NOVO_LIDER, então os seguidores não esperam a
+ * concessão expirar nem uma eleição. A resposta é LIDERANCA_ACEITA ou LIDERANCA_RECUSADA,
+ * correlacionada pelo idMensagemOrigem; recusa ou silêncio dentro do prazo passa para o
+ * próximo candidato
+ */
+class TransferenciaLideranca {
+
+    private final Processo processo;
+    private final CoordenadorEleicao coordenadorEleicao;
+    private final PoolConexoes poolConexoes;
+    private final long timeoutMs;
+
+    TransferenciaLideranca(Processo processo, CoordenadorEleicao coordenadorEleicao, PoolConexoes poolConexoes, long timeoutMs) {
+        this.processo = processo;
+        this.coordenadorEleicao = coordenadorEleicao;
+        this.poolConexoes = poolConexoes;
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * Lado do líder que está saindo: devolve o processo que assumiu, ou null se nenhum aceitou
+     */
+    String transferir() throws InterruptedException {
+        List<ConexaoOutrosProcessos> candidatos = processo.getConexaoOutrosProcessos().stream()
+                .filter(ConexaoOutrosProcessos::isConectado)
+                .sorted(Comparator.comparingInt(ConexaoOutrosProcessos::getParametroEleicao).reversed())
+                .collect(Collectors.toList());
+        long termo = coordenadorEleicao.abrirTermoTransferencia();
+        long inicio = System.nanoTime();
+
+        for (ConexaoOutrosProcessos conexao : candidatos) {
+            CanalSocket canal = conexao.getCanal();
+            if (canal == null) {
+                continue;
+            }
+            Mensagem pedido = new Mensagem();
+            pedido.setIdMensagem(UUID.randomUUID());
+            pedido.setProcessoRemetente(processo.getNomeProcesso());
+            pedido.setProcessoDestinatario(conexao.getNomeProcesso());
+            pedido.setDataMensagem(LocalDateTime.now());
+            pedido.setClockMensagem(processo.getRelogio().tick());
+            pedido.setConteudoMensagem("TRANSFERIR_LIDERANCA");
+            pedido.setTipoMensagem(TipoMensagem.TRANSFERIR_LIDERANCA);
+            pedido.setTermoEleicao(termo);
+
+            try {
+                Mensagem resposta = canal.enviarRequisicao(pedido, timeoutMs).get();
+                if (resposta.getTipoMensagem() == TipoMensagem.LIDERANCA_ACEITA) {
+                    System.out.println(TerminalColors.successMessage("[ELEIÇÃO] Liderança transferida para " + conexao.getNomeProcesso()
+                            + " (termo " + termo + ") em " + (System.nanoTime() - inicio) / 1_000_000 + " ms"));
+                    return conexao.getNomeProcesso();
+                }
+                System.out.println(TerminalColors.warningMessage("[ELEIÇÃO] " + conexao.getNomeProcesso() + " recusou a liderança do termo " + termo));
+            } catch (IOException | ExecutionException e) {
+                poolConexoes.marcarFalha(conexao);
+                System.err.println(TerminalColors.errorMessage("[ELEIÇÃO] " + conexao.getNomeProcesso() + " não recebeu a liderança: " + e.getMessage()));
+            }
+        }
+        System.out.println(TerminalColors.warningMessage("[ELEIÇÃO] Nenhum processo assumiu a liderança - o grupo vai eleger após a concessão expirar"));
+        return null;
+    }
+
+    /**
+     * Lado do sucessor: assume se o termo ainda não foi superado e responde ao líder que está
+     * saindo. Assumir anuncia a liderança para todos, então não deve rodar na thread leitora
+     */
+    void receber(Mensagem pedido, CanalMensagem canal) {
+        boolean aceita = coordenadorEleicao.liderancaTransferida(pedido.getProcessoRemetente(), pedido.getTermoEleicao());
+
+        Mensagem resposta = new Mensagem();
+        resposta.setIdMensagem(UUID.randomUUID());
+        resposta.setProcessoRemetente(processo.getNomeProcesso());
+        resposta.setProcessoDestinatario(pedido.getProcessoRemetente());
+        resposta.setDataMensagem(LocalDateTime.now());
+        resposta.setClockMensagem(processo.getRelogio().tick());
+        resposta.setConteudoMensagem(processo.getNomeProcesso());
+        resposta.setTipoMensagem(aceita ? TipoMensagem.LIDERANCA_ACEITA : TipoMensagem.LIDERANCA_RECUSADA);
+        resposta.setIdMensagemOrigem(pedido.getIdMensagem());
+        resposta.setTermoEleicao(pedido.getTermoEleicao());
+
+        try {
+            canal.enviar(resposta);
+        } catch (IOException e) {
+            System.err.println(TerminalColors.errorMessage("[ELEIÇÃO] Erro ao responder transferência de liderança: " + e.getMessage()));
+        }
+    }
+}
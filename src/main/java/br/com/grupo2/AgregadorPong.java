@@ -0,0 +1,142 @@
+package br.com.grupo2;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rodadas de PING/PONG do líder do grupo 2
+ * Cada rodada tem um id que vai no PING e volta no PONG. A rodada fecha assim que todos os
+ * esperados responderam (ou falharam no envio) ou quando o prazo vence, o que vier primeiro;
+ * ninguém fica dormindo à espera dos PONGs
+ */
+class AgregadorPong {
+
+    /**
+     * Resultado de uma rodada fechada
+     */
+    static final class Resultado {
+        private final long rodada;
+        private final Set<Integer> responderam;
+        private final Set<Integer> faltando;
+        private final long duracaoMs;
+
+        Resultado(long rodada, Set<Integer> responderam, Set<Integer> faltando, long duracaoMs) {
+            this.rodada = rodada;
+            this.responderam = Collections.unmodifiableSet(new TreeSet<>(responderam));
+            this.faltando = Collections.unmodifiableSet(new TreeSet<>(faltando));
+            this.duracaoMs = duracaoMs;
+        }
+
+        long getRodada() {
+            return rodada;
+        }
+
+        Set<Integer> getResponderam() {
+            return responderam;
+        }
+
+        Set<Integer> getFaltando() {
+            return faltando;
+        }
+
+        int getTotal() {
+            return responderam.size() + faltando.size();
+        }
+
+        long getDuracaoMs() {
+            return duracaoMs;
+        }
+    }
+
+    /**
+     * Rodada em andamento; pendentes e respondidos são protegidos pelo monitor da rodada
+     */
+    final class Rodada {
+        private final long id;
+        private final long inicioNanos = System.nanoTime();
+        private final Set<Integer> esperados;
+        private final Set<Integer> pendentes;
+        private final Set<Integer> responderam = new TreeSet<>();
+        private final CompletableFuture<Resultado> resultado = new CompletableFuture<>();
+
+        private Rodada(long id, Collection<Integer> esperados) {
+            this.id = id;
+            this.esperados = new TreeSet<>(esperados);
+            this.pendentes = new TreeSet<>(esperados);
+        }
+
+        long getId() {
+            return id;
+        }
+
+        CompletableFuture<Resultado> getResultado() {
+            return resultado;
+        }
+
+        /**
+         * O PING para o processo nem saiu; não adianta esperar o PONG dele
+         */
+        void falhou(int processo) {
+            synchronized (this) {
+                pendentes.remove(processo);
+            }
+            fecharSeCompleta(false);
+        }
+
+        private void pong(int processo) {
+            synchronized (this) {
+                if (pendentes.remove(processo)) {
+                    responderam.add(processo);
+                }
+            }
+            fecharSeCompleta(false);
+        }
+
+        private void fecharSeCompleta(boolean prazoVencido) {
+            Resultado fechado;
+            synchronized (this) {
+                if (resultado.isDone() || (!prazoVencido && !pendentes.isEmpty())) {
+                    return;
+                }
+                Set<Integer> faltando = new TreeSet<>(esperados);
+                faltando.removeAll(responderam);
+                fechado = new Resultado(id, responderam, faltando,
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicioNanos));
+            }
+            rodadas.remove(id, this);
+            resultado.complete(fechado);
+        }
+    }
+
+    private final AtomicLong proximaRodada = new AtomicLong();
+    private final ConcurrentMap<Long, Rodada> rodadas = new ConcurrentHashMap<>();
+
+    /**
+     * Abre uma rodada esperando PONG de cada processo informado
+     * O fechamento por prazo roda no executor atrasado do CompletableFuture, fora do scheduler
+     */
+    Rodada iniciar(Collection<Integer> esperados, long prazoMs) {
+        Rodada rodada = new Rodada(proximaRodada.incrementAndGet(), esperados);
+        rodadas.put(rodada.getId(), rodada);
+        CompletableFuture.delayedExecutor(prazoMs, TimeUnit.MILLISECONDS).execute(() -> rodada.fecharSeCompleta(true));
+        rodada.fecharSeCompleta(false);
+        return rodada;
+    }
+
+    /**
+     * PONG recebido; rodadas já fechadas ou desconhecidas são ignoradas
+     */
+    void registrarPong(long rodada, int processo) {
+        Rodada aberta = rodadas.get(rodada);
+        if (aberta != null) {
+            aberta.pong(processo);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package br.com.grupo2;
+
+import br.com.utils.FramesMensagem;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Conexão TCP persistente de um processo para um vizinho do anel do grupo 2
+ * Todas as mensagens de eleição, sondas de líder e keepalives para o mesmo destino seguem pela
+ * mesma conexão, em frames com 4 bytes de tamanho (mesmo cabeçalho dos FramesMensagem). Cada
+ * frame é confirmado com um frame OK; sem a confirmação o envio falha, então uma mensagem
+ * nunca se perde em silêncio numa conexão que o outro lado já fechou.
+ * A conexão só é aberta no primeiro envio e, se estava ociosa e caiu, é refeita uma vez
+ */
+class CanalEleicao {
+
+    static final String ELEICAO = "ELEICAO";
+    static final String SONDA = "SONDA";
+    static final String OK = "OK";
+
+    private final MembrosAnel.Membro destino;
+    private volatile Socket socket;
+    private DataInputStream entrada;
+    private DataOutputStream saida;
+    private volatile long ultimoUso = System.nanoTime();
+    private volatile boolean aberto = true;
+
+    CanalEleicao(MembrosAnel.Membro destino) {
+        this.destino = destino;
+    }
+
+    MembrosAnel.Membro getDestino() {
+        return destino;
+    }
+
+    /**
+     * Envia o frame e espera a confirmação; IOException se o destino não recebeu
+     * Um timeout de resposta não é repetido: o frame pode ter chegado e só a confirmação atrasou
+     */
+    synchronized void enviar(String frame, int timeout) throws IOException {
+        if (!aberto) {
+            throw new IOException("Canal para Processo " + destino.getId() + " fechado");
+        }
+        boolean reaproveitada = socket != null;
+        try {
+            trocar(frame, timeout);
+        } catch (IOException e) {
+            fecharConexao();
+            if (!reaproveitada || e instanceof SocketTimeoutException) {
+                throw e;
+            }
+            try {
+                trocar(frame, timeout);
+            } catch (IOException novaFalha) {
+                fecharConexao();
+                throw novaFalha;
+            }
+        }
+    }
+
+    private void trocar(String frame, int timeout) throws IOException {
+        if (socket == null) {
+            conectar(timeout);
+        }
+        socket.setSoTimeout(timeout);
+        escreverFrame(saida, frame);
+        String resposta = lerFrame(entrada);
+        if (resposta == null) {
+            throw new IOException("Processo " + destino.getId() + " fechou a conexão");
+        }
+        if (!OK.equals(resposta)) {
+            throw new IOException("Resposta inesperada do Processo " + destino.getId() + ": " + resposta);
+        }
+        ultimoUso = System.nanoTime();
+    }
+
+    private void conectar(int timeout) throws IOException {
+        Socket novo = new Socket();
+        try {
+            novo.setTcpNoDelay(true);
+            novo.setKeepAlive(true);
+            novo.connect(new InetSocketAddress(destino.getHost(), destino.getPortaEleicao()), timeout);
+            entrada = new DataInputStream(new BufferedInputStream(novo.getInputStream()));
+            saida = new DataOutputStream(new BufferedOutputStream(novo.getOutputStream()));
+            socket = novo;
+        } catch (IOException e) {
+            novo.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Nanossegundos desde o último frame confirmado
+     */
+    long ociosoNanos() {
+        return System.nanoTime() - ultimoUso;
+    }
+
+    boolean isConectado() {
+        return socket != null;
+    }
+
+    private void fecharConexao() {
+        if (socket != null) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Ignora erro ao fechar socket
+            }
+        }
+        socket = null;
+        entrada = null;
+        saida = null;
+    }
+
+    /**
+     * Fecha o socket antes de pegar o monitor, para não esperar um envio parado na confirmação
+     */
+    void fechar() {
+        aberto = false;
+        Socket atual = socket;
+        if (atual != null) {
+            try {
+                atual.close();
+            } catch (IOException e) {
+                // Ignora erro ao fechar socket
+            }
+        }
+        synchronized (this) {
+            fecharConexao();
+        }
+    }
+
+    static void escreverFrame(DataOutputStream saida, String frame) throws IOException {
+        byte[] conteudo = frame.getBytes(StandardCharsets.UTF_8);
+        saida.writeInt(conteudo.length);
+        saida.write(conteudo);
+        saida.flush();
+    }
+
+    /**
+     * Próximo frame da conexão, ou null se o outro lado fechou
+     */
+    static String lerFrame(DataInputStream entrada) throws IOException {
+        int tamanho;
+        try {
+            tamanho = entrada.readInt();
+        } catch (EOFException e) {
+            return null;
+        }
+        FramesMensagem.validarTamanho(tamanho);
+        byte[] conteudo = new byte[tamanho];
+        entrada.readFully(conteudo);
+        return new String(conteudo, StandardCharsets.UTF_8);
+    }
+}
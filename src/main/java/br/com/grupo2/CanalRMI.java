@@ -0,0 +1,230 @@
+package br.com.grupo2;
+
+import br.com.models.Mensagem;
+import br.com.utils.CanalMensagem;
+import br.com.utils.InterceptadorCanais;
+import br.com.utils.TerminalColors;
+
+import java.io.IOException;
+import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Canal FIFO de mensagens para um processo RMI do grupo 2
+ * Todas as chamadas para o mesmo destino passam por uma única thread, então a ordem
+ * de chegada é a ordem de envio; é o que o snapshot Chandy-Lamport exige dos canais.
+ * Mensagens enfileiradas juntas seguem em lote (receberMensagensCodificadas): o envio
+ * assíncrono espera até JANELA_LOTE_MS por companhia, ou sai na hora ao completar LOTE_MAXIMO.
+ * A fila é limitada a LIMITE_FILA: acima disso o envio é recusado com RemoteException, sem
+ * entrar no canal, em vez de acumular memória atrás de um destino travado
+ */
+class CanalRMI implements CanalMensagem {
+
+    static final long JANELA_LOTE_MS = 2;
+    static final int LOTE_MAXIMO = 64;
+    static final int LIMITE_FILA = 1024;
+
+    /**
+     * Mensagem aguardando o próximo lote e o aviso de entrega para quem a enviou
+     */
+    private static final class Pendente {
+        final Mensagem mensagem;
+        final CompletableFuture<Void> entregue = new CompletableFuture<>();
+
+        Pendente(Mensagem mensagem) {
+            this.mensagem = mensagem;
+        }
+    }
+
+    private final int processoDestino;
+    private final RegistroStubsRMI stubs;
+    private final ScheduledExecutorService envios;
+    private final InterceptadorCanais interceptador;
+    private final Queue<Pendente> fila = new ConcurrentLinkedQueue<>();
+    // Vagas reservadas na fila (enfileiradas ou em entrega); nunca fica abaixo do tamanho da fila
+    private final AtomicInteger pendentes = new AtomicInteger();
+    // Há uma descarga agendada ou rodando que ainda vai olhar a fila
+    private final AtomicBoolean agendado = new AtomicBoolean();
+    private volatile boolean aberto = true;
+
+    CanalRMI(int processoOrigem, int processoDestino, RegistroStubsRMI stubs, InterceptadorCanais interceptador) {
+        this.processoDestino = processoDestino;
+        this.stubs = stubs;
+        this.interceptador = interceptador;
+        this.envios = Executors.newSingleThreadScheduledExecutor(
+                DespachanteRMI.fabricaThreads("CanalRMI-" + processoOrigem + "-" + processoDestino));
+    }
+
+    int getProcessoDestino() {
+        return processoDestino;
+    }
+
+    /**
+     * Envio assíncrono, usado pelos marcadores e resultados do snapshot
+     * Pode aguardar alguns milissegundos para seguir em lote; falhas são apenas registradas
+     */
+    @Override
+    public void enviar(Mensagem mensagem) throws IOException {
+        enfileirar(mensagem, false).whenComplete((ok, erro) -> {
+            if (erro != null) {
+                System.err.println(TerminalColors.errorMessage("[ERRO] Falha ao enviar " + mensagem.getTipoMensagem()
+                        + " para ProcessoRMI" + processoDestino + ": " + erro.getMessage()));
+            }
+        });
+    }
+
+    /**
+     * Envia sem esperar a janela do lote nem a chamada remota; o future avisa a entrega ou a falha
+     */
+    CompletableFuture<Void> enviarAssincrono(Mensagem mensagem) {
+        return enfileirar(mensagem, true);
+    }
+
+    /**
+     * Envia e aguarda a chamada remota terminar, propagando a falha como antes
+     * Não espera a janela do lote: sai na hora junto com o que já estiver na fila
+     */
+    void enviarEAguardar(Mensagem mensagem) throws RemoteException {
+        try {
+            enfileirar(mensagem, true).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RemoteException("Envio interrompido");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RemoteException) {
+                throw (RemoteException) e.getCause();
+            }
+            throw new RemoteException("Erro ao enviar mensagem", e.getCause());
+        }
+    }
+
+    /**
+     * A posição na fila define a ordem do canal, por isso é tomada sob a trava de envio
+     * A vaga é reservada no contador antes de a mensagem entrar na fila (e devolvida se
+     * passar do limite), então o limite vale mesmo com várias threads enviando
+     */
+    private CompletableFuture<Void> enfileirar(Mensagem mensagem, boolean imediato) {
+        Pendente pendente = new Pendente(mensagem);
+        int total;
+        Lock trava = interceptador.getTravaEnvio().readLock();
+        trava.lock();
+        try {
+            if (!aberto) {
+                pendente.entregue.completeExceptionally(canalFechado());
+                return pendente.entregue;
+            }
+            total = pendentes.incrementAndGet();
+            if (total > LIMITE_FILA) {
+                pendentes.decrementAndGet();
+                pendente.entregue.completeExceptionally(new RemoteException("Fila para ProcessoRMI" + processoDestino
+                        + " cheia (" + LIMITE_FILA + " mensagens)"));
+                return pendente.entregue;
+            }
+            fila.add(pendente);
+        } finally {
+            trava.unlock();
+        }
+
+        // Só quem liga o agendado agenda a descarga da janela; as seguintes pegam carona
+        boolean primeiro = agendado.compareAndSet(false, true);
+        try {
+            if (imediato || total % LOTE_MAXIMO == 0) {
+                envios.execute(this::descarregar);
+            } else if (primeiro) {
+                envios.schedule(this::descarregar, JANELA_LOTE_MS, TimeUnit.MILLISECONDS);
+            }
+        } catch (RejectedExecutionException e) {
+            // Canal fechando: a mensagem não pode ficar na fila sem ninguém para levá-la
+            if (fila.remove(pendente)) {
+                pendentes.decrementAndGet();
+            }
+            pendente.entregue.completeExceptionally(canalFechado());
+        }
+        return pendente.entregue;
+    }
+
+    /**
+     * Esvazia a fila em lotes de até LOTE_MAXIMO, sempre na thread do canal
+     * Depois de desligar o agendado olha a fila de novo: uma mensagem que entrou enquanto ele
+     * ainda estava ligado (e por isso não agendou nada) é levada por esta mesma descarga
+     */
+    private void descarregar() {
+        do {
+            while (aberto) {
+                List<Pendente> lote = new ArrayList<>();
+                Pendente pendente;
+                while (lote.size() < LOTE_MAXIMO && (pendente = fila.poll()) != null) {
+                    lote.add(pendente);
+                }
+                if (lote.isEmpty()) {
+                    break;
+                }
+                entregar(lote);
+                pendentes.addAndGet(-lote.size());
+            }
+            agendado.set(false);
+        } while (aberto && !fila.isEmpty() && agendado.compareAndSet(false, true));
+    }
+
+    private void entregar(List<Pendente> lote) {
+        List<Mensagem> mensagens = new ArrayList<>(lote.size());
+        for (Pendente pendente : lote) {
+            mensagens.add(pendente.mensagem);
+        }
+        try {
+            stubs.chamar(processoDestino, destino -> {
+                ProcessoRMIBase.enviarMensagensRemotas(destino, mensagens);
+                return null;
+            });
+            for (Pendente pendente : lote) {
+                pendente.entregue.complete(null);
+            }
+        } catch (Exception e) {
+            // O canal continua aberto: só a saída do membro o fecha
+            interceptador.entregaFalhou(this, mensagens);
+            RemoteException erro = e instanceof RemoteException ? (RemoteException) e : new RemoteException(e.getMessage(), e);
+            for (Pendente pendente : lote) {
+                pendente.entregue.completeExceptionally(erro);
+            }
+        }
+    }
+
+    private RemoteException canalFechado() {
+        return new RemoteException("Canal para ProcessoRMI" + processoDestino + " fechado");
+    }
+
+    /**
+     * Mensagens na fila aguardando o próximo lote
+     */
+    int getPendentes() {
+        return pendentes.get();
+    }
+
+    @Override
+    public boolean isAberto() {
+        return aberto;
+    }
+
+    @Override
+    public void fechar() {
+        aberto = false;
+        envios.shutdownNow();
+        Pendente pendente;
+        while ((pendente = fila.poll()) != null) {
+            pendentes.decrementAndGet();
+            pendente.entregue.completeExceptionally(canalFechado());
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package br.com.grupo2;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Despacho assíncrono das chamadas RMI do anel (heartbeat e afins)
+ * Cada destino tem sua fila limitada, executada em ordem por um trabalhador próprio, então um
+ * processo lento ou travado só atrasa as chamadas para ele. Quem despacha nunca espera a
+ * chamada remota: recebe um CompletableFuture
+ */
+class DespachanteRMI {
+
+    /**
+     * O que fazer quando a fila de um destino está cheia
+     */
+    enum Sobrecarga {
+        /**
+         * Descarta a tarefa pendente mais antiga também despachada com esta política; para sinais
+         * periódicos em que só o mais novo importa. Sem nenhuma, a nova é recusada como em REJEITAR
+         */
+        DESCARTAR_MAIS_ANTIGA,
+        /** Recusa a nova tarefa; o future dela falha com RejectedExecutionException */
+        REJEITAR
+    }
+
+    static final int CAPACIDADE_PADRAO = 32;
+
+    private static final class Tarefa<T> {
+        final String chave;
+        final Callable<T> chamada;
+        // Só um sinal periódico pode ser descartado para dar lugar a outro; saídas e entradas nunca
+        final boolean descartavel;
+        final CompletableFuture<T> resultado = new CompletableFuture<>();
+
+        Tarefa(String chave, Callable<T> chamada, boolean descartavel) {
+            this.chave = chave;
+            this.chamada = chamada;
+            this.descartavel = descartavel;
+        }
+
+        void executar() {
+            try {
+                resultado.complete(chamada.call());
+            } catch (Exception e) {
+                resultado.completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * Tarefas pendentes de um destino; no máximo um trabalhador a drena por vez
+     */
+    private static final class Fila {
+        final ArrayDeque<Tarefa<?>> tarefas = new ArrayDeque<>();
+        boolean emExecucao;
+
+        void drenar() {
+            while (true) {
+                Tarefa<?> tarefa;
+                synchronized (this) {
+                    tarefa = tarefas.poll();
+                    if (tarefa == null) {
+                        emExecucao = false;
+                        return;
+                    }
+                }
+                tarefa.executar();
+            }
+        }
+    }
+
+    private final String nome;
+    private final int capacidade;
+    private final ExecutorService trabalhadores;
+    private final ConcurrentMap<Object, Fila> filas = new ConcurrentHashMap<>();
+    private final AtomicLong despachadas = new AtomicLong();
+    private final AtomicLong coalescidas = new AtomicLong();
+    private final AtomicLong descartadas = new AtomicLong();
+    private final AtomicLong rejeitadas = new AtomicLong();
+
+    DespachanteRMI(String nome) {
+        this(nome, CAPACIDADE_PADRAO);
+    }
+
+    DespachanteRMI(String nome, int capacidade) {
+        this.nome = nome;
+        this.capacidade = capacidade;
+        this.trabalhadores = Executors.newCachedThreadPool(fabricaThreads(nome));
+    }
+
+    /**
+     * Threads virtuais quando a JVM tem (Java 21+), senão threads daemon comuns
+     * Resolvido por reflexão porque o projeto compila para Java 11
+     */
+    static ThreadFactory fabricaThreads(String prefixo) {
+        try {
+            Object construtor = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> tipo = Class.forName("java.lang.Thread$Builder");
+            construtor = tipo.getMethod("name", String.class, long.class).invoke(construtor, prefixo + "-", 0L);
+            return (ThreadFactory) tipo.getMethod("factory").invoke(construtor);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            AtomicInteger contador = new AtomicInteger();
+            return r -> {
+                Thread thread = new Thread(r, prefixo + "-" + contador.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            };
+        }
+    }
+
+    <T> CompletableFuture<T> despachar(Object destino, Sobrecarga politica, Callable<T> chamada) {
+        return despachar(destino, null, politica, chamada);
+    }
+
+    /**
+     * Enfileira a chamada para o destino e devolve sem esperar
+     * Com chave, uma tarefa ainda não iniciada com a mesma chave é reaproveitada: o chamador
+     * recebe o future dela e nada novo entra na fila
+     */
+    @SuppressWarnings("unchecked")
+    <T> CompletableFuture<T> despachar(Object destino, String chave, Sobrecarga politica, Callable<T> chamada) {
+        Fila fila = filas.computeIfAbsent(destino, d -> new Fila());
+        Tarefa<T> tarefa = new Tarefa<>(chave, chamada, politica == Sobrecarga.DESCARTAR_MAIS_ANTIGA);
+        Tarefa<?> descartada = null;
+        boolean iniciar;
+
+        synchronized (fila) {
+            if (chave != null) {
+                for (Tarefa<?> pendente : fila.tarefas) {
+                    if (chave.equals(pendente.chave)) {
+                        coalescidas.incrementAndGet();
+                        return (CompletableFuture<T>) pendente.resultado;
+                    }
+                }
+            }
+            if (fila.tarefas.size() >= capacidade) {
+                if (politica == Sobrecarga.DESCARTAR_MAIS_ANTIGA) {
+                    descartada = removerDescartavelMaisAntiga(fila);
+                }
+                if (descartada == null) {
+                    rejeitadas.incrementAndGet();
+                    tarefa.resultado.completeExceptionally(new RejectedExecutionException("Fila de " + nome + " cheia"));
+                    return tarefa.resultado;
+                }
+                descartadas.incrementAndGet();
+            }
+            fila.tarefas.add(tarefa);
+            iniciar = !fila.emExecucao;
+            fila.emExecucao = true;
+        }
+        despachadas.incrementAndGet();
+
+        if (descartada != null) {
+            descartada.resultado.completeExceptionally(new RejectedExecutionException("Descartada por sobrecarga da fila de " + nome));
+        }
+        if (iniciar) {
+            try {
+                trabalhadores.execute(fila::drenar);
+            } catch (RejectedExecutionException e) {
+                synchronized (fila) {
+                    fila.tarefas.remove(tarefa);
+                    fila.emExecucao = false;
+                }
+                tarefa.resultado.completeExceptionally(e);
+            }
+        }
+        return tarefa.resultado;
+    }
+
+    /**
+     * Chamado com o monitor da fila
+     */
+    private static Tarefa<?> removerDescartavelMaisAntiga(Fila fila) {
+        Iterator<Tarefa<?>> pendentes = fila.tarefas.iterator();
+        while (pendentes.hasNext()) {
+            Tarefa<?> pendente = pendentes.next();
+            if (pendente.descartavel) {
+                pendentes.remove();
+                return pendente;
+            }
+        }
+        return null;
+    }
+
+    String format() {
+        return "Despacho RMI: " + despachadas.get() + " despachadas | " + coalescidas.get() + " coalescidas | "
+                + descartadas.get() + " descartadas | " + rejeitadas.get() + " rejeitadas";
+    }
+
+    void fechar() {
+        trabalhadores.shutdownNow();
+    }
+}
@@ -4,8 +4,14 @@ import br.com.utils.TerminalColors;
 
 import java.io.*;
 import java.net.*;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Gerenciador de eleição em anel usando sockets TCP
@@ -13,32 +19,112 @@ import java.util.concurrent.Executors;
  * - O processo que detecta falha inicia a eleição
  * - Mensagem circula pelo anel com parâmetros de eleição
  * - Quando volta ao iniciador, ele determina o líder
+ * A ordem do anel, os hosts e as portas vêm da visão de membros (MembrosAnel). O próximo
+ * destino sai da lista de sucessores vivos (SucessoresAnel): membros já suspeitos são pulados
+ * sem tentar conexão, e uma conexão que falha torna o destino suspeito na hora. Os suspeitos
+ * são testados de novo em segundo plano e voltam à lista quando aceitam conexão
+ * Cada vizinho tem uma conexão persistente (CanalEleicao) por onde passam todas as eleições,
+ * sondas do líder e keepalives, então um salto da eleição custa um frame e não um handshake TCP
+ * A mensagem de eleição leva a maior época de líder vista no caminho; o iniciador anuncia o
+ * vencedor com a época seguinte, que serve de token de fencing contra líderes antigos
  */
 public class GerenciadorEleicaoSocket {
     
+    /**
+     * O que o gerenciador precisa do processo: o líder conhecido e onde entregar o resultado
+     */
+    public interface Participante {
+        int getLiderAtual() throws java.rmi.RemoteException;
+        
+        void definirNovoLider(int novoLider);
+        
+        void anunciarLiderViaMulticast(int novoLider);
+        
+        /**
+         * Época do líder conhecido; 0 se o processo não acompanha épocas
+         */
+        default long getEpocaLider() {
+            return 0;
+        }
+        
+        default void definirNovoLider(int novoLider, long epoca) {
+            definirNovoLider(novoLider);
+        }
+        
+        default void anunciarLiderViaMulticast(int novoLider, long epoca) {
+            anunciarLiderViaMulticast(novoLider);
+        }
+    }
+    
     private final int processoId;
     private final int parametroEleicao;
     private final int portaSocket;
-    private boolean iniciouEleicao = false;
-    private int maiorParametroRecebido = 0;
-    private ServerSocket serverSocket;
+    private final MembrosAnel membros;
+    private final SucessoresAnel sucessores;
+    private final ScheduledExecutorService revalidador;
+    private final AtomicLong conexoesFalhas = new AtomicLong();
+    private final AtomicLong conexoesRecebidas = new AtomicLong();
+    private final ConcurrentMap<Integer, CanalEleicao> canais = new ConcurrentHashMap<>();
+    private final Set<Socket> conexoesAceitas = ConcurrentHashMap.newKeySet();
+    private final ExecutorService leitores;
+    private final MembrosAnel.Ouvinte ouvinteMembros;
+    private volatile boolean iniciouEleicao = false;
+    private volatile ServerSocket serverSocket;
     private ExecutorService executor;
-    private ProcessoRMIBase processoBase;
-    
-    // Portas para comunicação de eleição via socket
-    private static final int PORTA_BASE_ELEICAO = 2100;
+    private Participante processoBase;
     
-    // Lista de todos os processos no anel (em ordem)
-    private static final int[] PROCESSOS_ANEL = {1, 2, 3};
     private static final int TIMEOUT_CONEXAO = 3000; // 3 segundos
     private static final int MAX_TENTATIVAS = 2; // Máximo 2 tentativas por processo
+    private static final long INTERVALO_REVALIDACAO_MS = 1000;
+    private static final int TIMEOUT_REVALIDACAO = 500;
+    private static final long INTERVALO_KEEPALIVE_MS = 2000;
+    // Conexão recebida sem nenhum frame nesse tempo é dada como morta (o vizinho manda keepalive antes)
+    private static final int TIMEOUT_OCIOSO = (int) (3 * INTERVALO_KEEPALIVE_MS);
     
-    public GerenciadorEleicaoSocket(int processoId, int parametroEleicao, ProcessoRMIBase processoBase) {
+    public GerenciadorEleicaoSocket(int processoId, int parametroEleicao, MembrosAnel membros, Participante processoBase) {
+        this(processoId, parametroEleicao, membros, new SucessoresAnel(processoId, membros), processoBase);
+    }
+    
+    /**
+     * Compartilha a lista de sucessores com quem mais detecta falhas no processo (heartbeat RMI, PONGs)
+     */
+    public GerenciadorEleicaoSocket(int processoId, int parametroEleicao, MembrosAnel membros, SucessoresAnel sucessores,
+                                    Participante processoBase) {
         this.processoId = processoId;
         this.parametroEleicao = parametroEleicao;
-        this.portaSocket = PORTA_BASE_ELEICAO + processoId;
+        this.membros = membros;
+        this.sucessores = sucessores;
+        this.portaSocket = membros.getOuPadrao(processoId).getPortaEleicao();
         this.executor = Executors.newFixedThreadPool(2);
         this.processoBase = processoBase;
+        this.revalidador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "RevalidadorAnel-" + processoId);
+            thread.setDaemon(true);
+            return thread;
+        });
+        revalidador.scheduleWithFixedDelay(this::revalidarSuspeitos, INTERVALO_REVALIDACAO_MS, INTERVALO_REVALIDACAO_MS, TimeUnit.MILLISECONDS);
+        revalidador.scheduleWithFixedDelay(this::manterConexoes, INTERVALO_KEEPALIVE_MS, INTERVALO_KEEPALIVE_MS, TimeUnit.MILLISECONDS);
+        this.leitores = Executors.newCachedThreadPool(DespachanteRMI.fabricaThreads("LeitorEleicao-" + processoId));
+        
+        // Membro que sai ou muda de endereço perde a conexão guardada
+        this.ouvinteMembros = new MembrosAnel.Ouvinte() {
+            @Override
+            public void membroEntrou(MembrosAnel.Membro membro) {
+                CanalEleicao canal = canais.get(membro.getId());
+                if (canal != null && !canal.getDestino().equals(membro) && canais.remove(membro.getId(), canal)) {
+                    canal.fechar();
+                }
+            }
+            
+            @Override
+            public void membroSaiu(MembrosAnel.Membro membro) {
+                CanalEleicao canal = canais.remove(membro.getId());
+                if (canal != null) {
+                    canal.fechar();
+                }
+            }
+        };
+        membros.adicionarOuvinte(ouvinteMembros);
         
         iniciarServidorSocket();
     }
@@ -56,7 +142,9 @@ public class GerenciadorEleicaoSocket {
                 while (!serverSocket.isClosed()) {
                     try {
                         Socket clientSocket = serverSocket.accept();
-                        executor.submit(() -> processarMensagemEleicao(clientSocket));
+                        conexoesRecebidas.incrementAndGet();
+                        conexoesAceitas.add(clientSocket);
+                        leitores.execute(() -> atenderConexao(clientSocket));
                     } catch (IOException e) {
                         if (!serverSocket.isClosed()) {
                             System.err.println("Erro ao aceitar conexão de eleição: " + e.getMessage());
@@ -82,7 +170,8 @@ public class GerenciadorEleicaoSocket {
         // Verifica se o líder atual ainda está ativo antes de iniciar eleição
         try {
             int liderAtual = processoBase.getLiderAtual();
-            if (liderAtual != -1 && liderAtual != processoId && verificarSeProcessoEstaAtivo(liderAtual)) {
+            if (liderAtual != -1 && liderAtual != processoId && !sucessores.isSuspeito(liderAtual)
+                    && verificarSeProcessoEstaAtivo(liderAtual)) {
                 System.out.println(TerminalColors.YELLOW + "[ELEIÇÃO-SOCKET] Líder atual (Processo " + liderAtual + 
                                  ") ainda está ativo, não iniciando eleição" + TerminalColors.RESET);
                 return;
@@ -93,107 +182,177 @@ public class GerenciadorEleicaoSocket {
         }
         
         iniciouEleicao = true;
-        maiorParametroRecebido = parametroEleicao;
         
         System.out.println(TerminalColors.BLUE + "[ELEIÇÃO-SOCKET] Processo " + processoId + 
                          " iniciando eleição com parâmetro " + parametroEleicao + TerminalColors.RESET);
         
         // Envia mensagem para o próximo processo no anel
-        enviarMensagemEleicao(processoId, parametroEleicao);
+        enviarMensagemEleicao(processoId, parametroEleicao, processoBase.getEpocaLider());
     }
     
     /**
      * Verifica se um processo específico está ativo
      */
     private boolean verificarSeProcessoEstaAtivo(int processoId) {
-        int portaDestino = PORTA_BASE_ELEICAO + processoId;
+        return sondar(processoId, 1000); // Timeout rápido de 1s
+    }
+    
+    /**
+     * Frame SONDA pela conexão persistente com o processo; true se ele confirmou
+     */
+    private boolean sondar(int processoId, int timeout) {
         try {
-            Socket socket = new Socket();
-            socket.connect(new java.net.InetSocketAddress("localhost", portaDestino), 1000); // Timeout rápido de 1s
-            socket.close();
+            canal(processoId).enviar(CanalEleicao.SONDA, timeout);
             return true;
         } catch (IOException e) {
             return false;
         }
     }
     
+    /**
+     * Conexão persistente com o processo, refeita se o endereço dele mudou na visão
+     */
+    private CanalEleicao canal(int processoId) {
+        MembrosAnel.Membro membro = membros.getOuPadrao(processoId);
+        return canais.compute(processoId, (id, atual) -> {
+            if (atual != null && atual.getDestino().equals(membro)) {
+                return atual;
+            }
+            if (atual != null) {
+                atual.fechar();
+            }
+            return new CanalEleicao(membro);
+        });
+    }
+    
+    /**
+     * Keepalive: sonda as conexões ociosas; uma que não confirma torna o vizinho suspeito
+     */
+    private void manterConexoes() {
+        for (CanalEleicao canal : canais.values()) {
+            int id = canal.getDestino().getId();
+            if (!canal.isConectado() || canal.ociosoNanos() < TimeUnit.MILLISECONDS.toNanos(INTERVALO_KEEPALIVE_MS)
+                    || sucessores.isSuspeito(id)) {
+                continue;
+            }
+            try {
+                canal.enviar(CanalEleicao.SONDA, TIMEOUT_CONEXAO);
+            } catch (IOException e) {
+                if (sucessores.marcarSuspeito(id)) {
+                    System.out.println(TerminalColors.YELLOW + "[ELEIÇÃO-SOCKET] Keepalive sem resposta do Processo " + id +
+                                     "; suspeito" + TerminalColors.RESET);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Testa de novo os suspeitos; quem aceita conexão volta para a lista de sucessores
+     */
+    private void revalidarSuspeitos() {
+        for (int suspeito : new java.util.ArrayList<>(sucessores.getSuspeitos())) {
+            if (sondar(suspeito, TIMEOUT_REVALIDACAO) && sucessores.marcarAtivo(suspeito)) {
+                System.out.println(TerminalColors.GREEN + "[ELEIÇÃO-SOCKET] Processo " + suspeito +
+                                 " voltou a aceitar conexões; de volta à lista de sucessores" + TerminalColors.RESET);
+            }
+        }
+    }
+    
     /**
      * Envia mensagem de eleição para o próximo processo no anel
      */
-    private void enviarMensagemEleicao(int iniciador, int parametro) {
-        enviarMensagemEleicaoParaProcesso(iniciador, parametro, obterProximoProcessoId(), new java.util.HashSet<>());
+    private void enviarMensagemEleicao(int iniciador, int parametro, long epoca) {
+        enviarMensagemEleicaoParaProcesso(iniciador, parametro, epoca, obterProximoProcessoId(), new java.util.HashSet<>());
     }
     
     /**
      * Envia mensagem de eleição para um processo específico
      */
-    private void enviarMensagemEleicaoParaProcesso(int iniciador, int parametro, int processoDestino, java.util.Set<Integer> processosTentados) {
-        // Evita tentar o mesmo processo múltiplas vezes
-        if (processosTentados.contains(processoDestino)) {
+    private void enviarMensagemEleicaoParaProcesso(int iniciador, int parametro, long epoca, int processoDestino, java.util.Set<Integer> processosTentados) {
+        // Evita tentar o mesmo processo múltiplas vezes, e nem tenta quem já é suspeito
+        if (processosTentados.contains(processoDestino) || sucessores.isSuspeito(processoDestino)) {
             System.out.println(TerminalColors.YELLOW + "[ELEIÇÃO-SOCKET] Processo " + processoDestino + " já foi tentado, pulando..." + TerminalColors.RESET);
-            tentarProximoProcessoAtivo(iniciador, parametro, processoDestino, processosTentados);
+            tentarProximoProcessoAtivo(iniciador, parametro, epoca, processoDestino, processosTentados);
             return;
         }
         
         // Evita enviar para si mesmo (exceto se for o único processo ativo)
-        if (processoDestino == processoId && processosTentados.size() < PROCESSOS_ANEL.length - 1) {
+        if (processoDestino == processoId && processosTentados.size() < membros.tamanho() - 1) {
             System.out.println(TerminalColors.YELLOW + "[ELEIÇÃO-SOCKET] Evitando enviar para si mesmo, tentando próximo..." + TerminalColors.RESET);
-            tentarProximoProcessoAtivo(iniciador, parametro, processoDestino, processosTentados);
+            tentarProximoProcessoAtivo(iniciador, parametro, epoca, processoDestino, processosTentados);
             return;
         }
         
         processosTentados.add(processoDestino);
-        int portaDestino = PORTA_BASE_ELEICAO + processoDestino;
         
         executor.submit(() -> {
             try {
-                Socket socket = new Socket();
-                socket.connect(new java.net.InetSocketAddress("localhost", portaDestino), TIMEOUT_CONEXAO);
+                // Formato da mensagem: ELEICAO:iniciador:parametro:epoca, confirmada pelo destino
+                String mensagem = CanalEleicao.ELEICAO + ":" + iniciador + ":" + parametro + ":" + epoca;
+                canal(processoDestino).enviar(mensagem, TIMEOUT_CONEXAO);
                 
-                try (PrintWriter out = new PrintWriter(socket.getOutputStream(), true);
-                     BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream()))) {
-                    
-                    // Formato da mensagem: ELEICAO:iniciador:parametro
-                    String mensagem = "ELEICAO:" + iniciador + ":" + parametro;
-                    out.println(mensagem);
-                    
-                    System.out.println(TerminalColors.CYAN + "[ELEIÇÃO-SOCKET] Processo " + processoId + 
-                                     " enviou eleição para Processo " + processoDestino + 
-                                     " (iniciador=" + iniciador + ", parâmetro=" + parametro + ")" + TerminalColors.RESET);
-                    
-                } finally {
-                    socket.close();
-                }
+                System.out.println(TerminalColors.CYAN + "[ELEIÇÃO-SOCKET] Processo " + processoId + 
+                                 " enviou eleição para Processo " + processoDestino + 
+                                 " (iniciador=" + iniciador + ", parâmetro=" + parametro + ")" + TerminalColors.RESET);
                 
             } catch (IOException e) {
                 System.err.println("[ELEIÇÃO-SOCKET] Erro ao enviar mensagem de eleição para Processo " + 
                                  processoDestino + ": " + e.getMessage());
+                conexoesFalhas.incrementAndGet();
+                sucessores.marcarSuspeito(processoDestino);
                 
                 // Tenta próximo processo ativo
-                tentarProximoProcessoAtivo(iniciador, parametro, processoDestino, processosTentados);
+                tentarProximoProcessoAtivo(iniciador, parametro, epoca, processoDestino, processosTentados);
             }
         });
     }
     
     /**
-     * Processa mensagem de eleição recebida
+     * Lê os frames de uma conexão recebida até o vizinho fechá-la
+     * Cada frame é confirmado antes de ser processado, para o remetente não esperar a propagação
      */
-    private void processarMensagemEleicao(Socket clientSocket) {
-        try (BufferedReader in = new BufferedReader(new InputStreamReader(clientSocket.getInputStream()));
-             PrintWriter out = new PrintWriter(clientSocket.getOutputStream(), true)) {
+    private void atenderConexao(Socket clientSocket) {
+        try (Socket conexao = clientSocket;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(conexao.getInputStream()));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(conexao.getOutputStream()))) {
+            conexao.setTcpNoDelay(true);
+            conexao.setSoTimeout(TIMEOUT_OCIOSO);
             
-            String mensagem = in.readLine();
-            if (mensagem != null && mensagem.startsWith("ELEICAO:")) {
+            String frame;
+            while ((frame = CanalEleicao.lerFrame(in)) != null) {
+                CanalEleicao.escreverFrame(out, CanalEleicao.OK);
+                processarMensagemEleicao(frame);
+            }
+        } catch (SocketTimeoutException e) {
+            System.out.println(TerminalColors.YELLOW + "[ELEIÇÃO-SOCKET] Conexão de eleição sem keepalive em " +
+                             TIMEOUT_OCIOSO + " ms; fechando" + TerminalColors.RESET);
+        } catch (IOException e) {
+            if (!serverSocket.isClosed()) {
+                System.err.println("Erro na conexão de eleição: " + e.getMessage());
+            }
+        } finally {
+            conexoesAceitas.remove(clientSocket);
+        }
+    }
+    
+    /**
+     * Processa mensagem de eleição recebida; sondas e keepalives só precisam da confirmação
+     */
+    private void processarMensagemEleicao(String mensagem) {
+        try {
+            if (mensagem.startsWith(CanalEleicao.ELEICAO + ":")) {
                 String[] partes = mensagem.split(":");
                 int iniciador = Integer.parseInt(partes[1]);
                 int parametroRecebido = Integer.parseInt(partes[2]);
+                long epocaRecebida = partes.length > 3 ? Long.parseLong(partes[3]) : 0;
+                long epoca = Math.max(epocaRecebida, processoBase.getEpocaLider());
                 
                 System.out.println(TerminalColors.BLUE + "[ELEIÇÃO-SOCKET] Processo " + processoId + 
                                  " recebeu eleição (iniciador=" + iniciador + ", parâmetro=" + parametroRecebido + ")" + TerminalColors.RESET);
                 
                 // Se a mensagem voltou para o iniciador, determina o líder
                 if (iniciador == processoId && iniciouEleicao) {
-                    determinarLider(parametroRecebido);
+                    determinarLider(parametroRecebido, epoca);
                     return;
                 }
                 
@@ -204,24 +363,20 @@ public class GerenciadorEleicaoSocket {
                                  " propagando eleição (parâmetro=" + parametroParaPropagar + ")" + TerminalColors.RESET);
                 
                 // Propaga para o próximo processo
-                enviarMensagemEleicao(iniciador, parametroParaPropagar);
+                enviarMensagemEleicao(iniciador, parametroParaPropagar, epoca);
             }
             
-        } catch (IOException | NumberFormatException e) {
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
             System.err.println("Erro ao processar mensagem de eleição: " + e.getMessage());
-        } finally {
-            try {
-                clientSocket.close();
-            } catch (IOException e) {
-                // Ignora erro ao fechar socket
-            }
         }
     }
     
     /**
-     * Determina o líder baseado no maior parâmetro recebido
+     * Determina o líder baseado no maior parâmetro recebido; ele vale a partir da época
+     * seguinte à maior vista na volta do anel
      */
-    private void determinarLider(int parametroRecebido) {
+    private void determinarLider(int parametroRecebido, long epocaVista) {
+        long epoca = epocaVista + 1;
         int maiorParametro = Math.max(parametroRecebido, parametroEleicao);
         int novoLider;
         
@@ -234,54 +389,47 @@ public class GerenciadorEleicaoSocket {
         }
         
         System.out.println(TerminalColors.GREEN + "[ELEIÇÃO-SOCKET] Processo " + processoId + 
-                         " determinou líder: Processo " + novoLider + " (parâmetro=" + maiorParametro + ")" + TerminalColors.RESET);
+                         " determinou líder: Processo " + novoLider + " (parâmetro=" + maiorParametro + ", época=" + epoca + ")" + TerminalColors.RESET);
         
         // Reseta estado da eleição
         iniciouEleicao = false;
-        maiorParametroRecebido = 0;
         
         // Notifica o processo base sobre o novo líder
         try {
-            processoBase.definirNovoLider(novoLider);
+            processoBase.definirNovoLider(novoLider, epoca);
         } catch (Exception e) {
             System.err.println("Erro ao definir novo líder: " + e.getMessage());
         }
         
         // Anuncia o novo líder via multicast
-        processoBase.anunciarLiderViaMulticast(novoLider);
+        processoBase.anunciarLiderViaMulticast(novoLider, epoca);
     }
     
     /**
-     * Obtém o ID do próximo processo no anel
+     * Obtém o ID do próximo processo vivo no anel, direto do cache de sucessores
      */
     private int obterProximoProcessoId() {
-        // Anel: 1 -> 2 -> 3 -> 1
-        switch (processoId) {
-            case 1: return 2;
-            case 2: return 3;
-            case 3: return 1;
-            default: return 1;
-        }
+        return sucessores.primeiro();
     }
     
     /**
      * Tenta enviar para o próximo processo ativo quando há falha
      */
-    private void tentarProximoProcessoAtivo(int iniciador, int parametro, int processoFalhou, java.util.Set<Integer> processosTentados) {
+    private void tentarProximoProcessoAtivo(int iniciador, int parametro, long epoca, int processoFalhou, java.util.Set<Integer> processosTentados) {
         int proximoTentativa = obterProximoProcessoAtivo(processoFalhou, processosTentados);
         
         if (proximoTentativa == -1) {
             // Todos os processos foram tentados ou sou o único ativo - assumo liderança
             System.out.println(TerminalColors.PURPLE + "[ELEIÇÃO-SOCKET] Processo " + processoId + 
                              " é o único ativo ou todos foram tentados - assumindo liderança" + TerminalColors.RESET);
-            determinarLider(parametro);
+            determinarLider(parametro, epoca);
             return;
         }
         
         if (proximoTentativa == processoId) {
             // A mensagem voltou para mim - determino o líder
             System.out.println(TerminalColors.PURPLE + "[ELEIÇÃO-SOCKET] Mensagem voltou para o iniciador - determinando líder" + TerminalColors.RESET);
-            determinarLider(parametro);
+            determinarLider(parametro, epoca);
             return;
         }
         
@@ -289,73 +437,42 @@ public class GerenciadorEleicaoSocket {
                          proximoTentativa + TerminalColors.RESET);
         
         // Tenta enviar para o próximo processo
-        enviarMensagemEleicaoParaProcesso(iniciador, parametro, proximoTentativa, processosTentados);
-    }
-    
-    /**
-     * Método de compatibilidade para chamadas antigas
-     */
-    private void tentarProximoProcessoAtivo(int iniciador, int parametro, int processoFalhou) {
-        tentarProximoProcessoAtivo(iniciador, parametro, processoFalhou, new java.util.HashSet<>());
+        enviarMensagemEleicaoParaProcesso(iniciador, parametro, epoca, proximoTentativa, processosTentados);
     }
     
     /**
      * Obtém o próximo processo ativo no anel, evitando os que falharam ou já foram tentados
      */
     private int obterProximoProcessoAtivo(int processoFalhou, java.util.Set<Integer> processosTentados) {
-        // Encontra a posição atual no anel
-        int posicaoAtual = -1;
-        for (int i = 0; i < PROCESSOS_ANEL.length; i++) {
-            if (PROCESSOS_ANEL[i] == processoId) {
-                posicaoAtual = i;
-                break;
-            }
-        }
-        
-        if (posicaoAtual == -1) {
-            return -1; // Erro: processo não encontrado no anel
-        }
-        
-        // Procura o próximo processo ativo no anel
-        for (int i = 1; i < PROCESSOS_ANEL.length; i++) {
-            int proximaPosicao = (posicaoAtual + i) % PROCESSOS_ANEL.length;
-            int proximoProcesso = PROCESSOS_ANEL[proximaPosicao];
-            
-            // Pula processos que falharam ou já foram tentados
-            if (proximoProcesso != processoFalhou && !processosTentados.contains(proximoProcesso)) {
-                return proximoProcesso;
-            }
-        }
-        
-        // Se chegou aqui, todos os outros processos falharam ou foram tentados
-        return -1;
-    }
-    
-    /**
-     * Obtém o próximo processo no anel, pulando o que falhou (método de compatibilidade)
-     */
-    private int obterProximoProcessoId(int processoFalhou) {
-        int proximo = obterProximoProcessoId();
-        if (proximo == processoFalhou) {
-            // Pula o processo que falhou
-            switch (proximo) {
-                case 1: return 2;
-                case 2: return 3;
-                case 3: return 1;
-                default: return processoId;
-            }
-        }
-        return proximo;
+        // Pula processos que falharam, já foram tentados ou estão suspeitos;
+        // -1 se todos os outros processos falharam ou foram tentados
+        java.util.Set<Integer> excluidos = new java.util.HashSet<>(processosTentados);
+        excluidos.add(processoFalhou);
+        return sucessores.proximoVivo(excluidos);
     }
     
     /**
      * Finaliza o gerenciador de eleição
      */
     public void finalizar() {
+        revalidador.shutdownNow();
+        membros.removerOuvinte(ouvinteMembros);
         try {
             if (serverSocket != null && !serverSocket.isClosed()) {
                 serverSocket.close();
             }
+            for (CanalEleicao canal : canais.values()) {
+                canal.fechar();
+            }
+            canais.clear();
+            for (Socket conexao : conexoesAceitas) {
+                try {
+                    conexao.close();
+                } catch (IOException e) {
+                    // Ignora erro ao fechar socket
+                }
+            }
+            leitores.shutdownNow();
             if (executor != null && !executor.isShutdown()) {
                 executor.shutdown();
             }
@@ -364,6 +481,26 @@ public class GerenciadorEleicaoSocket {
         }
     }
     
+    public SucessoresAnel getSucessores() {
+        return sucessores;
+    }
+    
+    /**
+     * Conexões de eleição que falharam; com a lista de sucessores em dia, cada membro caído
+     * custa no máximo uma
+     */
+    public long getConexoesFalhas() {
+        return conexoesFalhas.get();
+    }
+    
+    /**
+     * Conexões TCP aceitas pelo servidor de eleição; com as conexões persistentes cresce por
+     * vizinho, não por mensagem
+     */
+    public long getConexoesRecebidas() {
+        return conexoesRecebidas.get();
+    }
+    
     /**
      * Verifica se este processo iniciou a eleição atual
      */
@@ -3,7 +3,6 @@ package br.com.grupo2;
 import br.com.utils.GerenciadorMulticast;
 import br.com.utils.TerminalColors;
 
-import java.rmi.Naming;
 import java.rmi.RemoteException;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
@@ -21,15 +20,28 @@ public class HeartbeatManagerRMI {
     private GerenciadorMulticast multicastManager;
     private ScheduledExecutorService scheduler;
     private boolean heartbeatAtivo;
-    private List<String> processosConhecidos;
+    private final RegistroStubsRMI stubs;
+    private final boolean stubsProprios;
     private static final long INTERVALO_HEARTBEAT = 3000; // 3 segundos
     private static final long TIMEOUT_HEARTBEAT = 10000; // 10 segundos
     
     public HeartbeatManagerRMI(ProcessoRMIInterface processoLocal) {
+        this(processoLocal, new RegistroStubsRMI(MembrosAnel.carregar()), true);
+    }
+    
+    /**
+     * Usa o cache de stubs do processo em vez de um lookup por heartbeat
+     */
+    HeartbeatManagerRMI(ProcessoRMIInterface processoLocal, RegistroStubsRMI stubs) {
+        this(processoLocal, stubs, false);
+    }
+    
+    private HeartbeatManagerRMI(ProcessoRMIInterface processoLocal, RegistroStubsRMI stubs, boolean stubsProprios) {
         this.processoLocal = processoLocal;
+        this.stubs = stubs;
+        this.stubsProprios = stubsProprios;
         this.scheduler = Executors.newScheduledThreadPool(3);
         this.heartbeatAtivo = false;
-        this.processosConhecidos = new ArrayList<>();
         
         // Inicializa o gerenciador multicast para comunicação adicional
         try {
@@ -39,11 +51,17 @@ public class HeartbeatManagerRMI {
         } catch (Exception e) {
             System.err.println("Erro ao inicializar multicast: " + e.getMessage());
         }
-        
-        // Adiciona processos conhecidos
-        processosConhecidos.add("rmi://localhost:1101/ProcessoRMI1");
-        processosConhecidos.add("rmi://localhost:1102/ProcessoRMI2");
-        processosConhecidos.add("rmi://localhost:1103/ProcessoRMI3");
+    }
+    
+    /**
+     * URLs dos processos conhecidos, tiradas da visão atual do anel
+     */
+    private List<String> processosConhecidos() {
+        List<String> urls = new ArrayList<>();
+        for (MembrosAnel.Membro membro : stubs.getMembros().getMembros()) {
+            urls.add(membro.urlRmi());
+        }
+        return urls;
     }
     
     /**
@@ -107,9 +125,9 @@ public class HeartbeatManagerRMI {
         try {
             int processoId = processoLocal.getProcessoId();
             
-            for (String urlProcesso : processosConhecidos) {
+            for (String urlProcesso : processosConhecidos()) {
                 // Não envia heartbeat para si mesmo
-                if (urlProcesso.contains("ProcessoRMI" + processoId)) {
+                if (urlProcesso.endsWith("/ProcessoRMI" + processoId)) {
                     continue;
                 }
                 
@@ -138,8 +156,10 @@ public class HeartbeatManagerRMI {
         
         for (int tentativa = 1; tentativa <= maxTentativas; tentativa++) {
             try {
-                ProcessoRMIInterface processo = (ProcessoRMIInterface) Naming.lookup(urlProcesso);
-                processo.receberHeartbeat(processoId);
+                stubs.chamar(extrairIdProcesso(urlProcesso), processo -> {
+                    processo.receberHeartbeat(processoId);
+                    return null;
+                });
                 
                 // Sucesso - processo respondeu
                 if (tentativa > 1) {
@@ -176,15 +196,14 @@ public class HeartbeatManagerRMI {
         try {
             int processoId = processoLocal.getProcessoId();
             
-            for (String urlProcesso : processosConhecidos) {
+            for (String urlProcesso : processosConhecidos()) {
                 // Não monitora a si mesmo
-                if (urlProcesso.contains("ProcessoRMI" + processoId)) {
+                if (urlProcesso.endsWith("/ProcessoRMI" + processoId)) {
                     continue;
                 }
                 
                 try {
-                    ProcessoRMIInterface processo = (ProcessoRMIInterface) Naming.lookup(urlProcesso);
-                    boolean ativo = processo.estaAtivo();
+                    boolean ativo = stubs.chamar(extrairIdProcesso(urlProcesso), ProcessoRMIInterface::estaAtivo);
                     
                     if (!ativo) {
                         String nomeProcesso = extrairNomeProcesso(urlProcesso);
@@ -243,8 +262,7 @@ public class HeartbeatManagerRMI {
      */
     public boolean verificarProcessoAtivo(String urlProcesso) {
         try {
-            ProcessoRMIInterface processo = (ProcessoRMIInterface) Naming.lookup(urlProcesso);
-            return processo.estaAtivo();
+            return stubs.chamar(extrairIdProcesso(urlProcesso), ProcessoRMIInterface::estaAtivo);
         } catch (Exception e) {
             return false;
         }
@@ -256,7 +274,7 @@ public class HeartbeatManagerRMI {
     public List<String> obterProcessosAtivos() {
         List<String> processosAtivos = new ArrayList<>();
         
-        for (String urlProcesso : processosConhecidos) {
+        for (String urlProcesso : processosConhecidos()) {
             if (verificarProcessoAtivo(urlProcesso)) {
                 processosAtivos.add(extrairNomeProcesso(urlProcesso));
             }
@@ -314,6 +332,10 @@ public class HeartbeatManagerRMI {
             }
         }
         
+        if (stubsProprios) {
+            stubs.fechar();
+        }
+        
         if (multicastManager != null) {
             // Finaliza o multicast se necessário
             System.out.println(TerminalColors.YELLOW + "[HEARTBEAT-RMI] HeartbeatManager finalizado" + TerminalColors.RESET);
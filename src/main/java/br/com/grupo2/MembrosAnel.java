@@ -0,0 +1,319 @@
+package br.com.grupo2;
+
+import br.com.utils.TerminalColors;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Visão de membros do anel do grupo 2
+ * Guarda id, host, porta RMI e porta de eleição de cada membro. A ordem do anel é a ordem
+ * crescente dos ids da visão, então o sucessor de um processo muda sozinho quando alguém entra
+ * ou sai. A visão inicial vem de um arquivo de configuração (anel.properties):
+ * <pre>
+ * processo.1=localhost:1101:2101
+ * processo.2=localhost:1102:2102
+ * </pre>
+ * O arquivo é procurado na propriedade de sistema anel.config e depois no classpath; sem ele o
+ * anel padrão 1..3 em localhost é usado
+ */
+public class MembrosAnel {
+
+    public static final String PROPRIEDADE_CONFIG = "anel.config";
+    public static final String RECURSO_CONFIG = "anel.properties";
+    public static final int PORTA_BASE_RMI = 1100;
+    public static final int PORTA_BASE_ELEICAO = 2100;
+    private static final String PREFIXO = "processo.";
+
+    /**
+     * Um membro do anel; imutável
+     */
+    public static final class Membro {
+        private final int id;
+        private final String host;
+        private final int portaRmi;
+        private final int portaEleicao;
+
+        public Membro(int id, String host, int portaRmi, int portaEleicao) {
+            if (id <= 0) {
+                throw new IllegalArgumentException("Id de membro inválido: " + id);
+            }
+            this.id = id;
+            this.host = host;
+            this.portaRmi = portaRmi;
+            this.portaEleicao = portaEleicao;
+        }
+
+        /**
+         * Membro com as portas convencionais (1100 + id e 2100 + id) em localhost
+         */
+        public static Membro padrao(int id) {
+            return new Membro(id, "localhost", PORTA_BASE_RMI + id, PORTA_BASE_ELEICAO + id);
+        }
+
+        /**
+         * Lê "id=host:portaRmi:portaEleicao", o mesmo formato de descrever()
+         */
+        public static Membro parse(String descricao) {
+            String[] idEndereco = descricao.trim().split("=", 2);
+            if (idEndereco.length != 2) {
+                throw new IllegalArgumentException("Membro inválido: " + descricao);
+            }
+            return parse(Integer.parseInt(idEndereco[0].trim()), idEndereco[1]);
+        }
+
+        static Membro parse(int id, String endereco) {
+            String[] partes = endereco.trim().split(":");
+            if (partes.length != 3) {
+                throw new IllegalArgumentException("Endereço inválido para o processo " + id + ": " + endereco);
+            }
+            return new Membro(id, partes[0].trim(), Integer.parseInt(partes[1].trim()), Integer.parseInt(partes[2].trim()));
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public String getHost() {
+            return host;
+        }
+
+        public int getPortaRmi() {
+            return portaRmi;
+        }
+
+        public int getPortaEleicao() {
+            return portaEleicao;
+        }
+
+        public String getNome() {
+            return "ProcessoRMI" + id;
+        }
+
+        public String urlRmi() {
+            return "rmi://" + host + ":" + portaRmi + "/" + getNome();
+        }
+
+        public String descrever() {
+            return id + "=" + host + ":" + portaRmi + ":" + portaEleicao;
+        }
+
+        @Override
+        public boolean equals(Object outro) {
+            if (!(outro instanceof Membro)) {
+                return false;
+            }
+            Membro membro = (Membro) outro;
+            return id == membro.id && portaRmi == membro.portaRmi && portaEleicao == membro.portaEleicao
+                    && host.equals(membro.host);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * (31 * id + host.hashCode()) + portaRmi) + portaEleicao;
+        }
+
+        @Override
+        public String toString() {
+            return getNome() + "@" + host + ":" + portaRmi;
+        }
+    }
+
+    /**
+     * Avisado depois de cada mudança da visão, na thread que a fez
+     */
+    public interface Ouvinte {
+        void membroEntrou(Membro membro);
+
+        void membroSaiu(Membro membro);
+    }
+
+    private final NavigableMap<Integer, Membro> membros = new ConcurrentSkipListMap<>();
+    private final List<Ouvinte> ouvintes = new CopyOnWriteArrayList<>();
+    private final AtomicLong versao = new AtomicLong();
+
+    public MembrosAnel() {
+    }
+
+    public MembrosAnel(Iterable<Membro> iniciais) {
+        for (Membro membro : iniciais) {
+            membros.put(membro.getId(), membro);
+        }
+    }
+
+    /**
+     * Visão do arquivo apontado por anel.config, do anel.properties do classpath ou o anel padrão
+     */
+    public static MembrosAnel carregar() {
+        String caminho = System.getProperty(PROPRIEDADE_CONFIG);
+        try {
+            if (caminho != null && !caminho.isEmpty()) {
+                return carregar(Paths.get(caminho));
+            }
+            try (InputStream entrada = MembrosAnel.class.getClassLoader().getResourceAsStream(RECURSO_CONFIG)) {
+                if (entrada != null) {
+                    Properties propriedades = new Properties();
+                    propriedades.load(new InputStreamReader(entrada, StandardCharsets.UTF_8));
+                    return de(propriedades);
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println(TerminalColors.errorMessage("[ANEL] Configuração do anel inválida, usando o anel padrão: " + e.getMessage()));
+        }
+        return localhost(3);
+    }
+
+    public static MembrosAnel carregar(Path arquivo) throws IOException {
+        Properties propriedades = new Properties();
+        try (Reader leitor = Files.newBufferedReader(arquivo, StandardCharsets.UTF_8)) {
+            propriedades.load(leitor);
+        }
+        return de(propriedades);
+    }
+
+    public static MembrosAnel de(Properties propriedades) {
+        List<Membro> lidos = new ArrayList<>();
+        for (String chave : propriedades.stringPropertyNames()) {
+            if (chave.startsWith(PREFIXO)) {
+                int id = Integer.parseInt(chave.substring(PREFIXO.length()).trim());
+                lidos.add(Membro.parse(id, propriedades.getProperty(chave)));
+            }
+        }
+        if (lidos.isEmpty()) {
+            throw new IllegalArgumentException("nenhuma entrada " + PREFIXO + "<id>");
+        }
+        return new MembrosAnel(lidos);
+    }
+
+    /**
+     * Anel 1..quantidade em localhost com as portas convencionais
+     */
+    public static MembrosAnel localhost(int quantidade) {
+        return localhost(quantidade, PORTA_BASE_RMI, PORTA_BASE_ELEICAO);
+    }
+
+    public static MembrosAnel localhost(int quantidade, int portaBaseRmi, int portaBaseEleicao) {
+        List<Membro> lidos = new ArrayList<>();
+        for (int id = 1; id <= quantidade; id++) {
+            lidos.add(new Membro(id, "localhost", portaBaseRmi + id, portaBaseEleicao + id));
+        }
+        return new MembrosAnel(lidos);
+    }
+
+    /**
+     * Adiciona ou atualiza um membro; false se a visão já tinha exatamente esse membro
+     */
+    public boolean entrar(Membro membro) {
+        Membro anterior = membros.put(membro.getId(), membro);
+        if (membro.equals(anterior)) {
+            return false;
+        }
+        versao.incrementAndGet();
+        for (Ouvinte ouvinte : ouvintes) {
+            ouvinte.membroEntrou(membro);
+        }
+        return true;
+    }
+
+    /**
+     * Remove um membro da visão; false se ele já não estava
+     */
+    public boolean sair(int id) {
+        Membro removido = membros.remove(id);
+        if (removido == null) {
+            return false;
+        }
+        versao.incrementAndGet();
+        for (Ouvinte ouvinte : ouvintes) {
+            ouvinte.membroSaiu(removido);
+        }
+        return true;
+    }
+
+    public void adicionarOuvinte(Ouvinte ouvinte) {
+        ouvintes.add(ouvinte);
+    }
+
+    public void removerOuvinte(Ouvinte ouvinte) {
+        ouvintes.remove(ouvinte);
+    }
+
+    public Membro get(int id) {
+        return membros.get(id);
+    }
+
+    /**
+     * Membro da visão ou, se ele ainda não entrou, o endereço convencional para o id
+     */
+    public Membro getOuPadrao(int id) {
+        Membro membro = membros.get(id);
+        return membro != null ? membro : Membro.padrao(id);
+    }
+
+    public boolean contem(int id) {
+        return membros.containsKey(id);
+    }
+
+    public List<Membro> getMembros() {
+        return new ArrayList<>(membros.values());
+    }
+
+    public List<Integer> getIds() {
+        return new ArrayList<>(membros.keySet());
+    }
+
+    public int tamanho() {
+        return membros.size();
+    }
+
+    /**
+     * Maior id da visão, o vencedor natural da eleição em anel (parâmetro = id * 10)
+     */
+    public int getMaiorId() {
+        Map.Entry<Integer, Membro> ultimo = membros.lastEntry();
+        return ultimo != null ? ultimo.getKey() : -1;
+    }
+
+    public long getVersao() {
+        return versao.get();
+    }
+
+    /**
+     * Próximo id depois de id na ordem do anel; o próprio id se ele estiver sozinho
+     * Funciona também para ids fora da visão (o lugar que eles ocupariam no anel)
+     */
+    public int sucessor(int id) {
+        Integer proximo = membros.higherKey(id);
+        if (proximo == null) {
+            proximo = membros.isEmpty() ? null : membros.firstKey();
+        }
+        return proximo != null ? proximo : id;
+    }
+
+    /**
+     * Os demais membros na ordem do anel a partir do sucessor de id
+     */
+    public List<Integer> anelAPartirDe(int id) {
+        List<Integer> ordem = new ArrayList<>(membros.tailMap(id, false).keySet());
+        ordem.addAll(membros.headMap(id, false).keySet());
+        return ordem;
+    }
+
+    public String format() {
+        return "Anel (versão " + versao.get() + ", " + membros.size() + " membros): " + membros.keySet();
+    }
+}
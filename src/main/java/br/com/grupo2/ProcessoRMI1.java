@@ -6,6 +6,8 @@ import br.com.models.Processo;
 import br.com.models.TipoMensagem;
 import br.com.utils.TerminalColors;
 import br.com.utils.GerenciadorMulticast;
+import br.com.utils.ArmazemSnapshots;
+import br.com.utils.JournalMensagens;
 import br.com.utils.LiderCallback;
 import br.com.utils.SnapshotManager;
 // import br.com.grpc.HeartbeatManager; // Removido para usar apenas multicast
@@ -30,21 +32,21 @@ public class ProcessoRMI1 extends ProcessoRMIBase {
     
     private Processo processo;
     private Scanner scanner;
-    private List<Mensagem> mensagensRecebidas;
-    private List<Mensagem> mensagensEnviadas;
+    private JournalMensagens mensagensRecebidas;
+    private JournalMensagens mensagensEnviadas;
     private GerenciadorMulticast gerenciadorMulticast;
     private SnapshotManager snapshotManager;
     
     public ProcessoRMI1() throws RemoteException {
-        super(1); // ID do processo = 1
-        // ProcessoRMI3 é o líder inicial
-        this.liderAtual = 3;
+        super(1); // ID do processo = 1; o líder inicial é o maior id da visão (ProcessoRMIBase)
         this.scanner = new Scanner(System.in);
-        this.mensagensRecebidas = new ArrayList<>();
-        this.mensagensEnviadas = new ArrayList<>();
+        this.mensagensRecebidas = JournalMensagens.criar("ProcessoRMI1-recebidas");
+        this.mensagensEnviadas = JournalMensagens.criar("ProcessoRMI1-enviadas");
         
         // Inicializa o processo com informações específicas do ProcessoRMI1
-        this.processo = new Processo(UUID.randomUUID(), "ProcessoRMI1", 0, 10, RMI_PORT, false, "ProcessoRMI3");
+        this.processo = new Processo(UUID.randomUUID(), "ProcessoRMI1", 0, 10, RMI_PORT, false, "ProcessoRMI" + liderAtual);
+        snapshotDistribuido.setArmazem(ArmazemSnapshots.criar("ProcessoRMI1", processo.getRelogio(),
+                mensagensRecebidas, mensagensEnviadas));
         
         // Inicializar HeartbeatManager (não como líder)
         // inicializarHeartbeatManager(); // Removido
@@ -81,7 +83,7 @@ public class ProcessoRMI1 extends ProcessoRMIBase {
     @Override
     protected void processarMensagemEspecifica(Mensagem mensagem) {
         // Atualiza o clock lógico
-        processo.setClockProcesso(Math.max(processo.getClockProcesso(), mensagem.getClockMensagem()) + 1);
+        processo.getRelogio().merge(mensagem.getClockMensagem());
         
         // Adiciona à lista de mensagens recebidas
         mensagensRecebidas.add(mensagem);
@@ -104,6 +106,13 @@ public class ProcessoRMI1 extends ProcessoRMIBase {
         }
     }
     
+    @Override
+    protected String descreverEstadoLocal() {
+        return "ProcessoRMI1 - Clock: " + processo.getClockProcesso() + " | Líder: ProcessoRMI" + liderAtual
+                + " | Recebidas: " + mensagensRecebidas.getTotalAdicionadas()
+                + " | Enviadas: " + mensagensEnviadas.getTotalAdicionadas();
+    }
+    
     public void iniciarMenu() {
         System.out.println(TerminalColors.GREEN + "[SISTEMA] ProcessoRMI1 iniciado com sucesso!" + TerminalColors.RESET);
         
@@ -126,6 +135,8 @@ public class ProcessoRMI1 extends ProcessoRMIBase {
         if (isSupercoordenador()) {
             System.out.println("6. [SUPERCOORDENADOR] Print geral do sistema");
         }
+        System.out.println("7. Snapshot consistente (Chandy-Lamport)");
+        System.out.println("8. Reconstruir snapshot armazenado");
         System.out.println("0. Sair");
         System.out.print("Escolha uma opção: ");
         
@@ -156,6 +167,12 @@ public class ProcessoRMI1 extends ProcessoRMIBase {
                         System.out.println(TerminalColors.RED + "Apenas o supercoordenador pode executar esta opção!" + TerminalColors.RESET);
                     }
                     break;
+                case 7:
+                    executarSnapshotConsistente();
+                    break;
+                case 8:
+                    reconstruirSnapshot(scanner);
+                    break;
                 case 0:
                     System.out.println(TerminalColors.YELLOW + "Encerrando ProcessoRMI1..." + TerminalColors.RESET);
                     finalizar();
@@ -186,16 +203,12 @@ public class ProcessoRMI1 extends ProcessoRMIBase {
         }
         
         String nomeProcessoDestinatario = (escolha == 1) ? "ProcessoRMI2" : "ProcessoRMI3";
-        String rmiUrl = "rmi://localhost:" + (1100 + escolha + 1) + "/" + nomeProcessoDestinatario;
-        
         System.out.print("Digite a mensagem: ");
         String conteudo = scanner.nextLine();
         
         try {
-            ProcessoRMIInterface processoDestino = (ProcessoRMIInterface) Naming.lookup(rmiUrl);
-            
             // Incrementa o clock lógico
-            processo.setClockProcesso(processo.getClockProcesso() + 1);
+            long clockEnvio = processo.getRelogio().tick();
             
             Mensagem mensagem = new Mensagem();
             mensagem.setIdMensagem(UUID.randomUUID());
@@ -203,10 +216,10 @@ public class ProcessoRMI1 extends ProcessoRMIBase {
              mensagem.setProcessoDestinatario(String.valueOf(escolha + 1));
              mensagem.setConteudoMensagem(conteudo);
              mensagem.setTipoMensagem(TipoMensagem.INTERACAO);
-             mensagem.setClockMensagem(processo.getClockProcesso());
+             mensagem.setClockMensagem(clockEnvio);
              mensagem.setDataMensagem(LocalDateTime.now());
             
-            processoDestino.receberMensagem(mensagem);
+            canalPara(escolha + 1).enviarEAguardar(mensagem);
             mensagensEnviadas.add(mensagem);
             
             System.out.println(TerminalColors.GREEN + "[SUCESSO] Mensagem enviada para " + 
@@ -220,8 +233,8 @@ public class ProcessoRMI1 extends ProcessoRMIBase {
             // Se a falha foi com o líder atual, detectar falha e iniciar eleição
             int processoDestinatarioId = escolha + 1;
             if (processoDestinatarioId == liderAtual) {
-                System.out.println(TerminalColors.YELLOW + "[ELEIÇÃO] Líder inativo detectado! Iniciando eleição em anel..." + TerminalColors.RESET);
-                iniciarEleicaoViaSocket();
+                System.out.println(TerminalColors.YELLOW + "[ELEIÇÃO] Líder não respondeu" + TerminalColors.RESET);
+                liderSemResposta();
             }
         }
     }
@@ -241,7 +254,7 @@ public class ProcessoRMI1 extends ProcessoRMIBase {
                 
                 if (isLider) {
                     // Incrementa o clock lógico apenas se enviou a mensagem
-                    processo.setClockProcesso(processo.getClockProcesso() + 1);
+                    long clockEnvio = processo.getRelogio().tick();
                     
                     // Criar mensagem para histórico local
                     Mensagem mensagem = new Mensagem();
@@ -250,7 +263,7 @@ public class ProcessoRMI1 extends ProcessoRMIBase {
                     mensagem.setProcessoDestinatario("TODOS");
                     mensagem.setConteudoMensagem(conteudo);
                     mensagem.setTipoMensagem(TipoMensagem.MULTICAST);
-                    mensagem.setClockMensagem(processo.getClockProcesso());
+                    mensagem.setClockMensagem(clockEnvio);
                     mensagem.setDataMensagem(LocalDateTime.now());
                     
                     mensagensEnviadas.add(mensagem);
@@ -317,6 +330,10 @@ public class ProcessoRMI1 extends ProcessoRMIBase {
         System.out.println("Eleição em Andamento: " + (eleicaoEmAndamento ? "Sim" : "Não"));
         System.out.println("Status: " + (estaAtivo ? "Ativo" : "Inativo"));
         System.out.println("Próximo no Anel: " + (proximoProcesso != null ? "Configurado" : "Não configurado"));
+        System.out.println(membros.format());
+        System.out.println(sucessoresAnel.format());
+        System.out.println(stubs.format());
+        System.out.println(despachante.format());
     }
     
     private void executarPrintGeral() {
@@ -371,8 +388,8 @@ public class ProcessoRMI1 extends ProcessoRMIBase {
     }
     
     /**
-     * Configura automaticamente o próximo processo no anel
-     * ProcessoRMI1 -> ProcessoRMI2
+     * Configura automaticamente o próximo processo no anel: o primeiro sucessor vivo
+     * (ProcessoRMI1 -> ProcessoRMI2 no anel padrão)
      */
     private void configurarProximoProcessoAutomatico() {
         try {
@@ -380,10 +397,9 @@ public class ProcessoRMI1 extends ProcessoRMIBase {
             System.setProperty("sun.rmi.transport.tcp.responseTimeout", "10000");
             System.setProperty("sun.rmi.transport.connectionTimeout", "10000");
             
-            String rmiUrl = "rmi://localhost:1102/ProcessoRMI2";
-            ProcessoRMIInterface proximoProc = (ProcessoRMIInterface) Naming.lookup(rmiUrl);
-            setProximoProcesso(proximoProc);
-            System.out.println(TerminalColors.GREEN + "[ProcessoRMI1] Próximo processo configurado automaticamente: ProcessoRMI2" + TerminalColors.RESET);
+            if (configurarProximoPeloAnel()) {
+                System.out.println(TerminalColors.GREEN + "[ProcessoRMI1] Próximo processo configurado automaticamente: ProcessoRMI" + sucessoresAnel.primeiro() + TerminalColors.RESET);
+            }
         } catch (Exception e) {
             System.err.println(TerminalColors.YELLOW + "[ProcessoRMI1] Aviso: Não foi possível configurar próximo processo automaticamente: " + e.getMessage() + TerminalColors.RESET);
         }
@@ -393,15 +409,16 @@ public class ProcessoRMI1 extends ProcessoRMIBase {
     
     public static void main(String[] args) {
         try {
-            // Cria o registry RMI
-            Registry registry = LocateRegistry.createRegistry(RMI_PORT);
+            // Cria o registry RMI na porta do anel.properties (RMI_PORT no anel padrão)
+            int portaRmi = MembrosAnel.carregar().getOuPadrao(1).getPortaRmi();
+            Registry registry = LocateRegistry.createRegistry(portaRmi);
             
             // Cria e registra o processo
             ProcessoRMI1 processo1 = new ProcessoRMI1();
             registry.rebind(RMI_NAME, processo1);
             
             System.out.println(TerminalColors.GREEN + "[SISTEMA] ProcessoRMI1 registrado no RMI registry na porta " + 
-                              RMI_PORT + TerminalColors.RESET);
+                              portaRmi + TerminalColors.RESET);
             
             // Inicializa o SnapshotManager
             processo1.snapshotManager = new SnapshotManager("ProcessoRMI1", () -> "ProcessoRMI1 - Clock: " + processo1.processo.getClockProcesso());
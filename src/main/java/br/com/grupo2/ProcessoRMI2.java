@@ -6,6 +6,8 @@ import br.com.models.Processo;
 import br.com.models.TipoMensagem;
 import br.com.utils.TerminalColors;
 import br.com.utils.GerenciadorMulticast;
+import br.com.utils.ArmazemSnapshots;
+import br.com.utils.JournalMensagens;
 import br.com.utils.LiderCallback;
 import br.com.utils.SnapshotManager;
 // import br.com.grpc.HeartbeatManager; // Removido para usar apenas multicast
@@ -28,23 +30,23 @@ public class ProcessoRMI2 extends ProcessoRMIBase {
     
     private Processo processo;
     private Scanner scanner;
-    private List<Mensagem> mensagensRecebidas;
-    private List<Mensagem> mensagensEnviadas;
+    private JournalMensagens mensagensRecebidas;
+    private JournalMensagens mensagensEnviadas;
     private GerenciadorMulticast gerenciadorMulticast;
     private SnapshotManager snapshotManager;
     // private static HeartbeatManager heartbeatManager; // Removido para usar apenas multicast
     
     public ProcessoRMI2() throws RemoteException {
-        super(2); // ID do processo = 2
-        // ProcessoRMI3 é o líder inicial
-        this.liderAtual = 3;
+        super(2); // ID do processo = 2; o líder inicial é o maior id da visão (ProcessoRMIBase)
         this.scanner = new Scanner(System.in);
-        this.mensagensRecebidas = new ArrayList<>();
-        this.mensagensEnviadas = new ArrayList<>();
+        this.mensagensRecebidas = JournalMensagens.criar("ProcessoRMI2-recebidas");
+        this.mensagensEnviadas = JournalMensagens.criar("ProcessoRMI2-enviadas");
         
         // Inicializa o processo com informações específicas do ProcessoRMI2
-        this.processo = new Processo(UUID.randomUUID(), "ProcessoRMI2", 0, 20, RMI_PORT, false, "ProcessoRMI3");
-        System.out.println(TerminalColors.GREEN + "[ProcessoRMI2] Processo iniciado com ID: " + getProcessoId() + " (Líder: ProcessoRMI3)" + TerminalColors.RESET);
+        this.processo = new Processo(UUID.randomUUID(), "ProcessoRMI2", 0, 20, RMI_PORT, false, "ProcessoRMI" + liderAtual);
+        snapshotDistribuido.setArmazem(ArmazemSnapshots.criar("ProcessoRMI2", processo.getRelogio(),
+                mensagensRecebidas, mensagensEnviadas));
+        System.out.println(TerminalColors.GREEN + "[ProcessoRMI2] Processo iniciado com ID: " + getProcessoId() + " (Líder: ProcessoRMI" + liderAtual + ")" + TerminalColors.RESET);
         
         // Inicializar HeartbeatManager (não como líder)
         // inicializarHeartbeatManager(); // Removido
@@ -78,7 +80,7 @@ public class ProcessoRMI2 extends ProcessoRMIBase {
     @Override
     protected void processarMensagemEspecifica(Mensagem mensagem) {
         // Atualiza o clock lógico
-        processo.setClockProcesso(Math.max(processo.getClockProcesso(), mensagem.getClockMensagem()) + 1);
+        processo.getRelogio().merge(mensagem.getClockMensagem());
         
         // Adiciona à lista de mensagens recebidas
         mensagensRecebidas.add(mensagem);
@@ -101,6 +103,13 @@ public class ProcessoRMI2 extends ProcessoRMIBase {
         }
     }
     
+    @Override
+    protected String descreverEstadoLocal() {
+        return "ProcessoRMI2 - Clock: " + processo.getClockProcesso() + " | Líder: ProcessoRMI" + liderAtual
+                + " | Recebidas: " + mensagensRecebidas.getTotalAdicionadas()
+                + " | Enviadas: " + mensagensEnviadas.getTotalAdicionadas();
+    }
+    
     public void iniciarMenu() {
         System.out.println(TerminalColors.GREEN + "[SISTEMA] ProcessoRMI2 iniciado com sucesso!" + TerminalColors.RESET);
         
@@ -122,6 +131,8 @@ public class ProcessoRMI2 extends ProcessoRMIBase {
         if (isSupercoordenador()) {
             System.out.println("6. [SUPERCOORDENADOR] Print geral do sistema");
         }
+        System.out.println("7. Snapshot consistente (Chandy-Lamport)");
+        System.out.println("8. Reconstruir snapshot armazenado");
         System.out.println("0. Sair");
         System.out.print("Escolha uma opção: ");
         
@@ -152,6 +163,12 @@ public class ProcessoRMI2 extends ProcessoRMIBase {
                         System.out.println(TerminalColors.RED + "Opção inválida!" + TerminalColors.RESET);
                     }
                     break;
+                case 7:
+                    executarSnapshotConsistente();
+                    break;
+                case 8:
+                    reconstruirSnapshot(scanner);
+                    break;
                 case 0:
                     System.out.println(TerminalColors.YELLOW + "Encerrando ProcessoRMI2..." + TerminalColors.RESET);
                     finalizar();
@@ -183,28 +200,21 @@ public class ProcessoRMI2 extends ProcessoRMIBase {
         
         String nomeProcessoDestinatario;
         int destinatarioId;
-        int portaDestino;
         
         if (escolha == 1) {
             nomeProcessoDestinatario = "ProcessoRMI1";
             destinatarioId = 1;
-            portaDestino = 1101;
         } else {
             nomeProcessoDestinatario = "ProcessoRMI3";
             destinatarioId = 3;
-            portaDestino = 1103;
         }
         
-        String rmiUrl = "rmi://localhost:" + portaDestino + "/" + nomeProcessoDestinatario;
-        
         System.out.print("Digite a mensagem: ");
         String conteudo = scanner.nextLine();
         
         try {
-            ProcessoRMIInterface processoDestino = (ProcessoRMIInterface) Naming.lookup(rmiUrl);
-            
             // Incrementa o clock lógico
-            processo.setClockProcesso(processo.getClockProcesso() + 1);
+            long clockEnvio = processo.getRelogio().tick();
             
             Mensagem mensagem = new Mensagem();
             mensagem.setIdMensagem(UUID.randomUUID());
@@ -212,10 +222,10 @@ public class ProcessoRMI2 extends ProcessoRMIBase {
             mensagem.setProcessoDestinatario(String.valueOf(destinatarioId));
             mensagem.setConteudoMensagem(conteudo);
             mensagem.setTipoMensagem(TipoMensagem.INTERACAO);
-            mensagem.setClockMensagem(processo.getClockProcesso());
+            mensagem.setClockMensagem(clockEnvio);
             mensagem.setDataMensagem(LocalDateTime.now());
             
-            processoDestino.receberMensagem(mensagem);
+            canalPara(destinatarioId).enviarEAguardar(mensagem);
             mensagensEnviadas.add(mensagem);
             
             System.out.println(TerminalColors.GREEN + "[SUCESSO] Mensagem enviada para " + 
@@ -228,8 +238,8 @@ public class ProcessoRMI2 extends ProcessoRMIBase {
             
             // Se a falha foi com o líder atual, detectar falha e iniciar eleição
             if (destinatarioId == liderAtual) {
-                System.out.println(TerminalColors.YELLOW + "[ELEIÇÃO] Líder inativo detectado! Iniciando eleição em anel..." + TerminalColors.RESET);
-                iniciarEleicaoViaSocket();
+                System.out.println(TerminalColors.YELLOW + "[ELEIÇÃO] Líder não respondeu" + TerminalColors.RESET);
+                liderSemResposta();
             }
         }
     }
@@ -249,7 +259,7 @@ public class ProcessoRMI2 extends ProcessoRMIBase {
                 
                 if (isLider) {
                     // Incrementa o clock lógico apenas se enviou a mensagem
-                    processo.setClockProcesso(processo.getClockProcesso() + 1);
+                    long clockEnvio = processo.getRelogio().tick();
                     
                     // Criar mensagem para histórico local
                     Mensagem mensagem = new Mensagem();
@@ -258,7 +268,7 @@ public class ProcessoRMI2 extends ProcessoRMIBase {
                     mensagem.setProcessoDestinatario("TODOS");
                     mensagem.setConteudoMensagem(conteudo);
                     mensagem.setTipoMensagem(TipoMensagem.MULTICAST);
-                    mensagem.setClockMensagem(processo.getClockProcesso());
+                    mensagem.setClockMensagem(clockEnvio);
                     mensagem.setDataMensagem(LocalDateTime.now());
                     
                     mensagensEnviadas.add(mensagem);
@@ -325,6 +335,10 @@ public class ProcessoRMI2 extends ProcessoRMIBase {
         System.out.println("Eleição em Andamento: " + (eleicaoEmAndamento ? "Sim" : "Não"));
         System.out.println("Status: " + (estaAtivo ? "Ativo" : "Inativo"));
         System.out.println("Próximo no Anel: " + (proximoProcesso != null ? "Configurado" : "Não configurado"));
+        System.out.println(membros.format());
+        System.out.println(sucessoresAnel.format());
+        System.out.println(stubs.format());
+        System.out.println(despachante.format());
     }
     
     private void executarPrintGeral() {
@@ -389,8 +403,8 @@ public class ProcessoRMI2 extends ProcessoRMIBase {
     }
     
     /**
-     * Configura automaticamente o próximo processo no anel
-     * ProcessoRMI2 -> ProcessoRMI3
+     * Configura automaticamente o próximo processo no anel: o primeiro sucessor vivo
+     * (ProcessoRMI2 -> ProcessoRMI3 no anel padrão)
      */
     private void configurarProximoProcessoAutomatico() {
         try {
@@ -398,10 +412,9 @@ public class ProcessoRMI2 extends ProcessoRMIBase {
             System.setProperty("sun.rmi.transport.tcp.responseTimeout", "5000");
             System.setProperty("sun.rmi.transport.connectionTimeout", "5000");
             
-            String rmiUrl = "rmi://localhost:1103/ProcessoRMI3";
-            ProcessoRMIInterface proximoProc = (ProcessoRMIInterface) Naming.lookup(rmiUrl);
-            setProximoProcesso(proximoProc);
-            System.out.println(TerminalColors.GREEN + "[ProcessoRMI2] Próximo processo configurado automaticamente: ProcessoRMI3" + TerminalColors.RESET);
+            if (configurarProximoPeloAnel()) {
+                System.out.println(TerminalColors.GREEN + "[ProcessoRMI2] Próximo processo configurado automaticamente: ProcessoRMI" + sucessoresAnel.primeiro() + TerminalColors.RESET);
+            }
         } catch (Exception e) {
             System.err.println(TerminalColors.YELLOW + "[ProcessoRMI2] Aviso: Não foi possível configurar próximo processo automaticamente: " + e.getMessage() + TerminalColors.RESET);
         }
@@ -411,15 +424,16 @@ public class ProcessoRMI2 extends ProcessoRMIBase {
     
     public static void main(String[] args) {
         try {
-            // Cria o registry RMI
-            Registry registry = LocateRegistry.createRegistry(RMI_PORT);
+            // Cria o registry RMI na porta do anel.properties (RMI_PORT no anel padrão)
+            int portaRmi = MembrosAnel.carregar().getOuPadrao(2).getPortaRmi();
+            Registry registry = LocateRegistry.createRegistry(portaRmi);
             
             // Cria e registra o processo
             ProcessoRMI2 processo2 = new ProcessoRMI2();
             registry.rebind(RMI_NAME, processo2);
             
             System.out.println(TerminalColors.GREEN + "[SISTEMA] ProcessoRMI2 registrado no RMI registry na porta " + 
-                              RMI_PORT + TerminalColors.RESET);
+                              portaRmi + TerminalColors.RESET);
             
             // Inicializa o SnapshotManager
             processo2.snapshotManager = new SnapshotManager("ProcessoRMI2", () -> "ProcessoRMI2 - Clock: " + processo2.processo.getClockProcesso());
@@ -6,6 +6,8 @@ import br.com.models.Processo;
 import br.com.models.TipoMensagem;
 import br.com.utils.TerminalColors;
 import br.com.utils.GerenciadorMulticast;
+import br.com.utils.ArmazemSnapshots;
+import br.com.utils.JournalMensagens;
 import br.com.utils.LiderCallback;
 import br.com.utils.SnapshotManager;
 // import br.com.grpc.HeartbeatManager; // Removido para usar apenas multicast
@@ -32,23 +34,24 @@ public class ProcessoRMI3 extends ProcessoRMIBase {
     
     private Processo processo;
     private Scanner scanner;
-    private List<Mensagem> mensagensRecebidas;
-    private List<Mensagem> mensagensEnviadas;
+    private JournalMensagens mensagensRecebidas;
+    private JournalMensagens mensagensEnviadas;
     private GerenciadorMulticast gerenciadorMulticast;
     private SnapshotManager snapshotManager;
     
     public ProcessoRMI3() throws RemoteException {
-        super(3); // ID do processo = 3
-        // ProcessoRMI3 inicia como líder
-        this.liderAtual = 3;
+        super(3); // ID do processo = 3; líder inicial no anel padrão, por ter o maior id (ProcessoRMIBase)
         this.scanner = new Scanner(System.in);
-        this.mensagensRecebidas = new ArrayList<>();
-        this.mensagensEnviadas = new ArrayList<>();
+        this.mensagensRecebidas = JournalMensagens.criar("ProcessoRMI3-recebidas");
+        this.mensagensEnviadas = JournalMensagens.criar("ProcessoRMI3-enviadas");
         
         // Inicializa o processo com informações específicas do ProcessoRMI3
-        this.processo = new Processo(UUID.randomUUID(), "ProcessoRMI3", 0, 30, RMI_PORT, true, "ProcessoRMI3");
+        this.processo = new Processo(UUID.randomUUID(), "ProcessoRMI3", 0, 30, RMI_PORT, liderAtual == processoId, "ProcessoRMI" + liderAtual);
+        snapshotDistribuido.setArmazem(ArmazemSnapshots.criar("ProcessoRMI3", processo.getRelogio(),
+                mensagensRecebidas, mensagensEnviadas));
         
-        System.out.println(TerminalColors.GREEN + "[ProcessoRMI3] Processo iniciado como LÍDER com ID: " + processoId + TerminalColors.RESET);
+        System.out.println(TerminalColors.GREEN + "[ProcessoRMI3] Processo iniciado " + (liderAtual == processoId ? "como LÍDER " : "")
+                + "com ID: " + processoId + TerminalColors.RESET);
         
         // Inicializar HeartbeatManager como líder
         // inicializarHeartbeatManager(); // Removido
@@ -82,7 +85,7 @@ public class ProcessoRMI3 extends ProcessoRMIBase {
     @Override
     protected void processarMensagemEspecifica(Mensagem mensagem) {
         // Atualiza o clock lógico
-        processo.setClockProcesso(Math.max(processo.getClockProcesso(), mensagem.getClockMensagem()) + 1);
+        processo.getRelogio().merge(mensagem.getClockMensagem());
         
         // Adiciona à lista de mensagens recebidas
         mensagensRecebidas.add(mensagem);
@@ -105,6 +108,13 @@ public class ProcessoRMI3 extends ProcessoRMIBase {
         }
     }
     
+    @Override
+    protected String descreverEstadoLocal() {
+        return "ProcessoRMI3 - Clock: " + processo.getClockProcesso() + " | Líder: ProcessoRMI" + liderAtual
+                + " | Recebidas: " + mensagensRecebidas.getTotalAdicionadas()
+                + " | Enviadas: " + mensagensEnviadas.getTotalAdicionadas();
+    }
+    
     public void iniciarMenu() {
         System.out.println(TerminalColors.GREEN + "[SISTEMA] ProcessoRMI3 iniciado com sucesso!" + TerminalColors.RESET);
         
@@ -126,6 +136,8 @@ public class ProcessoRMI3 extends ProcessoRMIBase {
         if (isSupercoordenador()) {
             System.out.println("6. [SUPERCOORDENADOR] Print geral do sistema");
         }
+        System.out.println("7. Snapshot consistente (Chandy-Lamport)");
+        System.out.println("8. Reconstruir snapshot armazenado");
         System.out.println("0. Sair");
         System.out.print("Escolha uma opção: ");
         
@@ -156,6 +168,12 @@ public class ProcessoRMI3 extends ProcessoRMIBase {
                         System.out.println(TerminalColors.RED + "Opção inválida!" + TerminalColors.RESET);
                     }
                     break;
+                case 7:
+                    executarSnapshotConsistente();
+                    break;
+                case 8:
+                    reconstruirSnapshot(scanner);
+                    break;
                 case 0:
                     System.out.println(TerminalColors.YELLOW + "Encerrando ProcessoRMI3..." + TerminalColors.RESET);
                     finalizar();
@@ -187,28 +205,21 @@ public class ProcessoRMI3 extends ProcessoRMIBase {
         
         String nomeProcessoDestinatario;
         int destinatarioId;
-        int portaDestino;
         
         if (escolha == 1) {
             nomeProcessoDestinatario = "ProcessoRMI1";
             destinatarioId = 1;
-            portaDestino = 1101;
         } else {
             nomeProcessoDestinatario = "ProcessoRMI2";
             destinatarioId = 2;
-            portaDestino = 1102;
         }
         
-        String rmiUrl = "rmi://localhost:" + portaDestino + "/" + nomeProcessoDestinatario;
-        
         System.out.print("Digite a mensagem: ");
         String conteudo = scanner.nextLine();
         
         try {
-            ProcessoRMIInterface processoDestino = (ProcessoRMIInterface) Naming.lookup(rmiUrl);
-            
             // Incrementa o clock lógico
-            processo.setClockProcesso(processo.getClockProcesso() + 1);
+            long clockEnvio = processo.getRelogio().tick();
             
             Mensagem mensagem = new Mensagem();
             mensagem.setIdMensagem(UUID.randomUUID());
@@ -216,10 +227,10 @@ public class ProcessoRMI3 extends ProcessoRMIBase {
             mensagem.setProcessoDestinatario(String.valueOf(destinatarioId));
             mensagem.setConteudoMensagem(conteudo);
             mensagem.setTipoMensagem(TipoMensagem.INTERACAO);
-            mensagem.setClockMensagem(processo.getClockProcesso());
+            mensagem.setClockMensagem(clockEnvio);
             mensagem.setDataMensagem(LocalDateTime.now());
             
-            processoDestino.receberMensagem(mensagem);
+            canalPara(destinatarioId).enviarEAguardar(mensagem);
             mensagensEnviadas.add(mensagem);
             
             System.out.println(TerminalColors.GREEN + "[SUCESSO] Mensagem enviada para " + 
@@ -232,8 +243,8 @@ public class ProcessoRMI3 extends ProcessoRMIBase {
             
             // Se a falha foi com o líder atual, detectar falha e iniciar eleição
             if (destinatarioId == liderAtual) {
-                System.out.println(TerminalColors.YELLOW + "[ELEIÇÃO] Líder inativo detectado! Iniciando eleição em anel..." + TerminalColors.RESET);
-                iniciarEleicaoViaSocket();
+                System.out.println(TerminalColors.YELLOW + "[ELEIÇÃO] Líder não respondeu" + TerminalColors.RESET);
+                liderSemResposta();
             }
         }
     }
@@ -253,7 +264,7 @@ public class ProcessoRMI3 extends ProcessoRMIBase {
                 
                 if (isLider) {
                     // Incrementa o clock lógico apenas se enviou a mensagem
-                    processo.setClockProcesso(processo.getClockProcesso() + 1);
+                    long clockEnvio = processo.getRelogio().tick();
                     
                     // Criar mensagem para histórico local
                     Mensagem mensagem = new Mensagem();
@@ -262,7 +273,7 @@ public class ProcessoRMI3 extends ProcessoRMIBase {
                     mensagem.setProcessoDestinatario("TODOS");
                     mensagem.setConteudoMensagem(conteudo);
                     mensagem.setTipoMensagem(TipoMensagem.MULTICAST);
-                    mensagem.setClockMensagem(processo.getClockProcesso());
+                    mensagem.setClockMensagem(clockEnvio);
                     mensagem.setDataMensagem(LocalDateTime.now());
                     
                     mensagensEnviadas.add(mensagem);
@@ -329,6 +340,10 @@ public class ProcessoRMI3 extends ProcessoRMIBase {
         System.out.println("Eleição em Andamento: " + (eleicaoEmAndamento ? "Sim" : "Não"));
         System.out.println("Status: " + (estaAtivo ? "Ativo" : "Inativo"));
         System.out.println("Próximo no Anel: " + (proximoProcesso != null ? "Configurado" : "Não configurado"));
+        System.out.println(membros.format());
+        System.out.println(sucessoresAnel.format());
+        System.out.println(stubs.format());
+        System.out.println(despachante.format());
     }
     
     private void executarPrintGeral() {
@@ -393,8 +408,8 @@ public class ProcessoRMI3 extends ProcessoRMIBase {
     }
     
     /**
-     * Configura automaticamente o próximo processo no anel
-     * ProcessoRMI3 -> ProcessoRMI1
+     * Configura automaticamente o próximo processo no anel: o primeiro sucessor vivo
+     * (ProcessoRMI3 -> ProcessoRMI1 no anel padrão)
      */
     private void configurarProximoProcessoAutomatico() {
         try {
@@ -402,10 +417,9 @@ public class ProcessoRMI3 extends ProcessoRMIBase {
             System.setProperty("sun.rmi.transport.tcp.responseTimeout", "10000");
             System.setProperty("sun.rmi.transport.connectionTimeout", "10000");
             
-            String rmiUrl = "rmi://localhost:1101/ProcessoRMI1";
-            ProcessoRMIInterface proximoProc = (ProcessoRMIInterface) Naming.lookup(rmiUrl);
-            setProximoProcesso(proximoProc);
-            System.out.println(TerminalColors.GREEN + "[ProcessoRMI3] Próximo processo configurado automaticamente: ProcessoRMI1" + TerminalColors.RESET);
+            if (configurarProximoPeloAnel()) {
+                System.out.println(TerminalColors.GREEN + "[ProcessoRMI3] Próximo processo configurado automaticamente: ProcessoRMI" + sucessoresAnel.primeiro() + TerminalColors.RESET);
+            }
         } catch (Exception e) {
             System.err.println(TerminalColors.YELLOW + "[ProcessoRMI3] Aviso: Não foi possível configurar próximo processo automaticamente: " + e.getMessage() + TerminalColors.RESET);
         }
@@ -415,15 +429,16 @@ public class ProcessoRMI3 extends ProcessoRMIBase {
     
     public static void main(String[] args) {
         try {
-            // Cria o registry RMI
-            Registry registry = LocateRegistry.createRegistry(RMI_PORT);
+            // Cria o registry RMI na porta do anel.properties (RMI_PORT no anel padrão)
+            int portaRmi = MembrosAnel.carregar().getOuPadrao(3).getPortaRmi();
+            Registry registry = LocateRegistry.createRegistry(portaRmi);
             
             // Cria e registra o processo
             ProcessoRMI3 processo3 = new ProcessoRMI3();
             registry.rebind(RMI_NAME, processo3);
             
             System.out.println(TerminalColors.GREEN + "[SISTEMA] ProcessoRMI3 registrado no RMI registry na porta " + 
-                              RMI_PORT + " como LÍDER" + TerminalColors.RESET);
+                              portaRmi + (processo3.liderAtual == processo3.processoId ? " como LÍDER" : "") + TerminalColors.RESET);
             
             // Inicializa o SnapshotManager
             processo3.snapshotManager = new SnapshotManager("ProcessoRMI3", () -> "ProcessoRMI3 - Clock: " + processo3.processo.getClockProcesso());
@@ -0,0 +1,308 @@
+package br.com.grupo2;
+
+import br.com.models.Mensagem;
+import br.com.models.Processo;
+import br.com.models.TipoMensagem;
+import br.com.utils.ArmazemSnapshots;
+import br.com.utils.GerenciadorMulticast;
+import br.com.utils.JournalMensagens;
+import br.com.utils.SnapshotManager;
+import br.com.utils.TerminalColors;
+
+import java.rmi.RemoteException;
+import java.rmi.registry.LocateRegistry;
+import java.rmi.registry.Registry;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Scanner;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Membro qualquer do anel do grupo 2, com o id vindo da linha de comando ou de -Danel.id
+ * Host e portas saem da visão de membros (anel.properties ou -Danel.config); um id fora da
+ * visão entra com as portas convencionais e se anuncia aos demais. Permite subir dezenas de
+ * membros sem uma classe por processo, como ProcessoRMI1/2/3 fazem para o anel padrão
+ * Uso: mvn -pl app exec:java -Dexec.mainClass=br.com.grupo2.ProcessoRMIAnel -Dexec.args="7"
+ */
+public class ProcessoRMIAnel extends ProcessoRMIBase {
+
+    public static final String PROPRIEDADE_ID = "anel.id";
+
+    private final String nome;
+    private final Processo processo;
+    private final Scanner scanner = new Scanner(System.in);
+    private final JournalMensagens mensagensRecebidas;
+    private final JournalMensagens mensagensEnviadas;
+    private GerenciadorMulticast gerenciadorMulticast;
+    private SnapshotManager snapshotManager;
+
+    public ProcessoRMIAnel(int processoId, MembrosAnel membros) throws RemoteException {
+        super(processoId, membros);
+        this.nome = "ProcessoRMI" + processoId;
+        this.mensagensRecebidas = JournalMensagens.criar(nome + "-recebidas");
+        this.mensagensEnviadas = JournalMensagens.criar(nome + "-enviadas");
+        this.processo = new Processo(UUID.randomUUID(), nome, 0, parametroEleicao,
+                membros.get(processoId).getPortaRmi(), liderAtual == processoId, "ProcessoRMI" + liderAtual);
+        snapshotDistribuido.setArmazem(ArmazemSnapshots.criar(nome, processo.getRelogio(),
+                mensagensRecebidas, mensagensEnviadas));
+
+        try {
+            this.gerenciadorMulticast = new GerenciadorMulticast(this, 50002); // Porta específica do grupo 2
+            this.gerenciadorMulticast.iniciarEscuta(nome);
+            System.out.println(TerminalColors.GREEN + "[MULTICAST] Gerenciador multicast iniciado para " + nome + TerminalColors.RESET);
+        } catch (Exception e) {
+            System.err.println("Erro ao inicializar multicast: " + e.getMessage());
+        }
+
+        // Sucessor no anel com atraso, para dar tempo aos outros membros de subir
+        scheduler.schedule(this::configurarProximoProcessoAutomatico, 3, TimeUnit.SECONDS);
+    }
+
+    @Override
+    protected void processarMensagemEspecifica(Mensagem mensagem) {
+        processo.getRelogio().merge(mensagem.getClockMensagem());
+        mensagensRecebidas.add(mensagem);
+
+        switch (mensagem.getTipoMensagem()) {
+            case INTERACAO:
+                System.out.println(TerminalColors.CYAN + "[INTERAÇÃO] Mensagem recebida de " +
+                                  mensagem.getProcessoRemetente() + ": " + mensagem.getConteudoMensagem() + TerminalColors.RESET);
+                break;
+            case PROCESSO_FALHOU:
+                System.out.println(TerminalColors.RED + "[NOTIFICAÇÃO] Processo falhou: " + mensagem.getConteudoMensagem() + TerminalColors.RESET);
+                break;
+            default:
+                System.out.println(TerminalColors.YELLOW + "[INFO] Mensagem de tipo " + mensagem.getTipoMensagem() +
+                                  " recebida" + TerminalColors.RESET);
+                break;
+        }
+    }
+
+    @Override
+    protected String descreverEstadoLocal() {
+        return nome + " - Clock: " + processo.getClockProcesso() + " | Líder: ProcessoRMI" + liderAtual
+                + " | Recebidas: " + mensagensRecebidas.getTotalAdicionadas()
+                + " | Enviadas: " + mensagensEnviadas.getTotalAdicionadas();
+    }
+
+    public void iniciarMenu() {
+        System.out.println(TerminalColors.GREEN + "[SISTEMA] " + nome + " iniciado com sucesso!" + TerminalColors.RESET);
+
+        while (estaAtivo) {
+            exibirMenu();
+        }
+    }
+
+    private void exibirMenu() {
+        System.out.println("\n" + TerminalColors.GREEN + "=== " + nome + " - Menu ===" + TerminalColors.RESET);
+        System.out.println("1. Enviar mensagem");
+        if (liderAtual == processoId) {
+            System.out.println("2. Enviar mensagem via Multicast");
+        }
+        System.out.println("3. Exibir mensagens recebidas");
+        System.out.println("4. Exibir mensagens enviadas");
+        System.out.println("5. Exibir status do processo");
+        System.out.println("7. Snapshot consistente (Chandy-Lamport)");
+        System.out.println("8. Reconstruir snapshot armazenado");
+        System.out.println("0. Sair");
+        System.out.print("Escolha uma opção: ");
+
+        try {
+            int opcao = scanner.nextInt();
+            scanner.nextLine();
+
+            switch (opcao) {
+                case 1:
+                    enviarMensagemRMI();
+                    break;
+                case 2:
+                    enviarMensagemMulticast();
+                    break;
+                case 3:
+                    exibirMensagens("Recebidas", mensagensRecebidas, true);
+                    break;
+                case 4:
+                    exibirMensagens("Enviadas", mensagensEnviadas, false);
+                    break;
+                case 5:
+                    exibirStatusProcesso();
+                    break;
+                case 7:
+                    executarSnapshotConsistente();
+                    break;
+                case 8:
+                    reconstruirSnapshot(scanner);
+                    break;
+                case 0:
+                    System.out.println(TerminalColors.YELLOW + "Encerrando " + nome + "..." + TerminalColors.RESET);
+                    finalizar();
+                    System.exit(0);
+                    break;
+                default:
+                    System.out.println(TerminalColors.RED + "Opção inválida!" + TerminalColors.RESET);
+            }
+        } catch (Exception e) {
+            System.err.println("Erro no menu: " + e.getMessage());
+            scanner.nextLine(); // Limpa o buffer
+        }
+    }
+
+    /**
+     * Destinatários são os membros da visão atual, escolhidos pelo id
+     */
+    private void enviarMensagemRMI() {
+        System.out.println("\n=== Enviar Mensagem RMI ===");
+        List<Integer> ids = membros.getIds();
+        ids.remove(Integer.valueOf(processoId));
+        if (ids.isEmpty()) {
+            System.out.println(TerminalColors.YELLOW + "Nenhum outro membro no anel." + TerminalColors.RESET);
+            return;
+        }
+        System.out.println("Membros do anel: " + ids);
+        System.out.print("Id do processo destinatário: ");
+        int destinatarioId = scanner.nextInt();
+        scanner.nextLine();
+
+        if (!ids.contains(destinatarioId)) {
+            System.out.println(TerminalColors.RED + "Escolha inválida!" + TerminalColors.RESET);
+            return;
+        }
+        System.out.print("Digite a mensagem: ");
+        String conteudo = scanner.nextLine();
+
+        try {
+            Mensagem mensagem = new Mensagem();
+            mensagem.setIdMensagem(UUID.randomUUID());
+            mensagem.setProcessoRemetente(String.valueOf(processoId));
+            mensagem.setProcessoDestinatario(String.valueOf(destinatarioId));
+            mensagem.setConteudoMensagem(conteudo);
+            mensagem.setTipoMensagem(TipoMensagem.INTERACAO);
+            mensagem.setClockMensagem(processo.getRelogio().tick());
+            mensagem.setDataMensagem(LocalDateTime.now());
+
+            canalPara(destinatarioId).enviarEAguardar(mensagem);
+            mensagensEnviadas.add(mensagem);
+
+            System.out.println(TerminalColors.GREEN + "[SUCESSO] Mensagem enviada para ProcessoRMI" +
+                              destinatarioId + TerminalColors.RESET);
+        } catch (Exception e) {
+            System.err.println("Erro ao enviar mensagem RMI: " + e.getMessage());
+            System.out.println(TerminalColors.RED + "[FALHA] Processo ProcessoRMI" + destinatarioId +
+                              " pode estar inativo" + TerminalColors.RESET);
+            if (destinatarioId == liderAtual) {
+                System.out.println(TerminalColors.YELLOW + "[ELEIÇÃO] Líder não respondeu" + TerminalColors.RESET);
+                liderSemResposta();
+            }
+        }
+    }
+
+    private void enviarMensagemMulticast() {
+        System.out.println("\n=== Enviar Mensagem via Multicast ===");
+        System.out.print("Digite a mensagem: ");
+        String conteudo = scanner.nextLine();
+
+        if (gerenciadorMulticast == null) {
+            System.out.println(TerminalColors.errorMessage("[MULTICAST] Gerenciador multicast não disponível."));
+            return;
+        }
+        try {
+            boolean isLider = liderAtual == processoId;
+            gerenciadorMulticast.enviarMensagemComoLider(conteudo, nome, isLider);
+            if (isLider) {
+                Mensagem mensagem = new Mensagem();
+                mensagem.setIdMensagem(UUID.randomUUID());
+                mensagem.setProcessoRemetente(nome);
+                mensagem.setProcessoDestinatario("TODOS");
+                mensagem.setConteudoMensagem(conteudo);
+                mensagem.setTipoMensagem(TipoMensagem.MULTICAST);
+                mensagem.setClockMensagem(processo.getRelogio().tick());
+                mensagem.setDataMensagem(LocalDateTime.now());
+                mensagensEnviadas.add(mensagem);
+            }
+        } catch (Exception e) {
+            System.err.println(TerminalColors.errorMessage("[MULTICAST] Erro ao enviar mensagem: " + e.getMessage()));
+        }
+    }
+
+    private void exibirMensagens(String titulo, JournalMensagens mensagens, boolean recebidas) {
+        System.out.println("\n=== Mensagens " + titulo + " ===");
+        if (mensagens.isEmpty()) {
+            System.out.println("Nenhuma mensagem " + titulo.toLowerCase() + ".");
+            return;
+        }
+        for (Mensagem msg : mensagens) {
+            System.out.println((recebidas ? TerminalColors.CYAN : TerminalColors.YELLOW) + "[" + msg.getDataMensagem() + "] "
+                    + (recebidas ? "De: " + msg.getProcessoRemetente() : "Para: " + msg.getProcessoDestinatario())
+                    + " - " + msg.getConteudoMensagem() + TerminalColors.RESET);
+        }
+    }
+
+    private void exibirStatusProcesso() {
+        System.out.println("\n=== Status do Processo ===");
+        System.out.println("Nome: " + nome);
+        System.out.println("ID: " + processoId);
+        System.out.println("Porta RMI: " + membros.get(processoId).getPortaRmi());
+        System.out.println("Clock Lógico: " + processo.getClockProcesso());
+        System.out.println("Líder Atual: " + (liderAtual == -1 ? "Nenhum" : "ProcessoRMI" + liderAtual));
+        System.out.println("Eleição em Andamento: " + (eleicaoEmAndamento ? "Sim" : "Não"));
+        System.out.println("Status: " + (estaAtivo ? "Ativo" : "Inativo"));
+        System.out.println(membros.format());
+        System.out.println(sucessoresAnel.format());
+        System.out.println(stubs.format());
+        System.out.println(despachante.format());
+    }
+
+    private void configurarProximoProcessoAutomatico() {
+        try {
+            if (configurarProximoPeloAnel()) {
+                System.out.println(TerminalColors.GREEN + "[" + nome + "] Próximo processo configurado automaticamente: ProcessoRMI"
+                        + sucessoresAnel.primeiro() + TerminalColors.RESET);
+            }
+        } catch (Exception e) {
+            System.err.println(TerminalColors.YELLOW + "[" + nome + "] Aviso: Não foi possível configurar próximo processo automaticamente: "
+                    + e.getMessage() + TerminalColors.RESET);
+        }
+    }
+
+    /**
+     * Id do membro: primeiro argumento ou a propriedade anel.id
+     */
+    static int lerId(String[] args) {
+        String valor = args.length > 0 ? args[0] : System.getProperty(PROPRIEDADE_ID);
+        if (valor == null) {
+            throw new IllegalArgumentException("Informe o id do membro do anel como argumento ou com -D" + PROPRIEDADE_ID + "=<id>");
+        }
+        try {
+            return Integer.parseInt(valor.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Id de membro inválido: " + valor, e);
+        }
+    }
+
+    public static void main(String[] args) {
+        try {
+            int id = lerId(args);
+            MembrosAnel membros = MembrosAnel.carregar();
+            MembrosAnel.Membro membro = membros.getOuPadrao(id);
+            System.setProperty("sun.rmi.transport.tcp.responseTimeout", "10000");
+            System.setProperty("sun.rmi.transport.connectionTimeout", "10000");
+
+            Registry registry = LocateRegistry.createRegistry(membro.getPortaRmi());
+            ProcessoRMIAnel processo = new ProcessoRMIAnel(id, membros);
+            registry.rebind(membro.getNome(), processo);
+
+            System.out.println(TerminalColors.GREEN + "[SISTEMA] " + membro.getNome() + " registrado no RMI registry na porta " +
+                              membro.getPortaRmi() + TerminalColors.RESET);
+
+            processo.snapshotManager = new SnapshotManager(membro.getNome(), 2, SnapshotManager.defaultPort(2, id),
+                    () -> membro.getNome() + " - Clock: " + processo.processo.getClockProcesso());
+            processo.snapshotManager.startSnapshotServer();
+
+            processo.iniciarMenu();
+        } catch (Exception e) {
+            System.err.println("Erro ao iniciar membro do anel: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}
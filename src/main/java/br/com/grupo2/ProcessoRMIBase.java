@@ -2,30 +2,45 @@ package br.com.grupo2;
 
 import br.com.models.Mensagem;
 import br.com.models.TipoMensagem;
+import br.com.utils.ArmazemSnapshots;
+import br.com.utils.CanalMensagem;
+import br.com.utils.ConcessaoLider;
+import br.com.utils.DetectorPhiAccrual;
+import br.com.utils.FramesMensagem;
+import br.com.utils.SnapshotDistribuido;
+import br.com.utils.SnapshotManager;
 import br.com.utils.TerminalColors;
 import br.com.utils.GerenciadorMulticast;
 import br.com.utils.LiderCallback;
 import br.com.utils.SupercoordenadorCallback;
 import br.com.utils.GerenciadorComunicacaoIntergrupos;
 
-import java.rmi.Naming;
 import java.rmi.RemoteException;
 import java.rmi.server.UnicastRemoteObject;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
 /**
  * Classe base para processos RMI que implementa o algoritmo de eleição em anel
  */
-public abstract class ProcessoRMIBase extends UnicastRemoteObject implements ProcessoRMIInterface, LiderCallback {
+public abstract class ProcessoRMIBase extends UnicastRemoteObject implements ProcessoRMIInterface, LiderCallback, GerenciadorEleicaoSocket.Participante {
     
     protected int processoId;
     protected int parametroEleicao; // Parâmetro usado para eleição (processo mais forte)
-    protected int liderAtual;
+    protected volatile int liderAtual; // Escrito sob synchronized(this), lido sem trava por outras threads
+    protected volatile long epocaLider; // Época do líder atual: cresce a cada eleição, 0 antes da primeira
     protected boolean estaAtivo;
     protected ProcessoRMIInterface proximoProcesso;
     protected boolean eleicaoEmAndamento;
@@ -34,23 +49,64 @@ public abstract class ProcessoRMIBase extends UnicastRemoteObject implements Pro
     protected int processoIniciadorEleicao; // Processo que iniciou a eleição
     protected ScheduledExecutorService scheduler;
     protected long ultimoHeartbeat;
-    protected static final long TIMEOUT_HEARTBEAT = 15000; // 15 segundos
+    protected static final long INTERVALO_HEARTBEAT_MS = 500;
+    protected final DetectorPhiAccrual detectorFalhas = new DetectorPhiAccrual(INTERVALO_HEARTBEAT_MS);
+    /** Concessão do líder: 4 heartbeats do anel sem sinal dele */
+    protected static final long DURACAO_CONCESSAO_MS = 4 * INTERVALO_HEARTBEAT_MS;
+    protected final ConcessaoLider concessaoLider = new ConcessaoLider(DURACAO_CONCESSAO_MS);
+    private final Set<String> processosSuspeitos = ConcurrentHashMap.newKeySet();
     protected static final long INTERVALO_PING_PONG = 10000; // 10 segundos
+    private ScheduledFuture<?> rodadasPing; // Agendamento do PING enquanto este processo é o líder
     protected GerenciadorMulticast multicastManager;
     protected boolean respondeuPing = false;
+    protected static final long PRAZO_RODADA_PONG_MS = 3000;
+    protected static final long PRAZO_SAIDA_MS = 1000;
     protected long ultimoPingEnviado = 0;
-    protected int processosAtivos = 0;
+    protected volatile int processosAtivos = 0;
+    private final AgregadorPong agregadorPong = new AgregadorPong();
     protected GerenciadorEleicaoSocket gerenciadorEleicaoSocket;
     protected boolean supercoordenador = false; // Indica se este processo é o supercoordenador
     protected GerenciadorComunicacaoIntergrupos gerenciadorIntergrupos;
     protected SupercoordenadorCallback callbackImpl;
+    protected final SnapshotDistribuido snapshotDistribuido;
+    protected final MembrosAnel membros;
+    protected final RegistroStubsRMI stubs;
+    protected final SucessoresAnel sucessoresAnel;
+    private volatile int proximoProcessoId = -1;
+    protected final DespachanteRMI despachante;
+    private volatile CompletableFuture<Void> heartbeatEmEnvio;
+    private final Map<Integer, CanalRMI> canais = new ConcurrentHashMap<>();
     
     public ProcessoRMIBase(int processoId) throws RemoteException {
+        this(processoId, MembrosAnel.carregar());
+    }
+    
+    /**
+     * Processo com a visão inicial de membros informada (normalmente a do anel.properties)
+     * Se o próprio processo não estiver na visão, entra com as portas convencionais
+     */
+    protected ProcessoRMIBase(int processoId, MembrosAnel membros) throws RemoteException {
         super();
         this.processoId = processoId;
+        this.membros = membros;
+        if (!membros.contem(processoId)) {
+            membros.entrar(MembrosAnel.Membro.padrao(processoId));
+        }
+        this.stubs = new RegistroStubsRMI(membros);
+        this.sucessoresAnel = new SucessoresAnel(processoId, membros);
+        this.despachante = new DespachanteRMI("DespachanteRMI" + processoId);
+        this.snapshotDistribuido = new SnapshotDistribuido("ProcessoRMI" + processoId, new AmbienteSnapshotRMI());
+        for (int id : membros.getIds()) {
+            if (id != processoId) {
+                canais.put(id, novoCanal(id));
+            }
+            registrarSnapshot(membros.get(id));
+        }
+        membros.adicionarOuvinte(new OuvinteAnel());
+        sucessoresAnel.adicionarOuvinte(this::reconfigurarSucessor);
         // Define parâmetro de eleição baseado no ID (ProcessoRMI1=10, ProcessoRMI2=20, ProcessoRMI3=30)
         this.parametroEleicao = processoId * 10;
-        this.liderAtual = 3; // ProcessoRMI3 é o líder inicial
+        this.liderAtual = membros.getMaiorId(); // O maior id do anel é o líder inicial (ProcessoRMI3 no anel padrão)
         this.estaAtivo = true;
         this.eleicaoEmAndamento = false;
         this.candidatosEleicao = new ArrayList<>();
@@ -70,7 +126,7 @@ public abstract class ProcessoRMIBase extends UnicastRemoteObject implements Pro
         
         // Inicializar gerenciador de eleição via sockets
         try {
-            this.gerenciadorEleicaoSocket = new GerenciadorEleicaoSocket(processoId, parametroEleicao, this);
+            this.gerenciadorEleicaoSocket = new GerenciadorEleicaoSocket(processoId, parametroEleicao, membros, sucessoresAnel, this);
             System.out.println(TerminalColors.CYAN + "[Processo " + processoId + "] Gerenciador de eleição via socket inicializado" + TerminalColors.RESET);
         } catch (Exception e) {
             System.err.println("Erro ao inicializar gerenciador de eleição via socket: " + e.getMessage());
@@ -87,29 +143,185 @@ public abstract class ProcessoRMIBase extends UnicastRemoteObject implements Pro
         }
         
         System.out.println(TerminalColors.CYAN + "[Processo " + processoId + "] Iniciado com parâmetro de eleição: " + 
-                          parametroEleicao + " (Líder inicial: ProcessoRMI3)" + TerminalColors.RESET);
+                          parametroEleicao + " (Líder inicial: ProcessoRMI" + liderAtual + ")" + TerminalColors.RESET);
         
-        // Se for o líder (ProcessoRMI3), inicia sistema de ping/pong
-        if (processoId == 3) {
+        // Se for o líder inicial, inicia sistema de ping/pong
+        if (processoId == liderAtual) {
             iniciarSistemaPingPongComoLider();
         }
         
         // Inicia monitoramento de heartbeat
         iniciarMonitoramentoHeartbeat();
+        
+        // Avisa os membros conhecidos; quem já está no anel passa a incluir este processo
+        for (int id : membros.getIds()) {
+            anunciarEntradaPara(id);
+        }
+    }
+    
+    private CanalRMI novoCanal(int destino) {
+        return new CanalRMI(processoId, destino, stubs, snapshotDistribuido);
+    }
+    
+    /**
+     * Mantém canais e detector em dia com a visão de membros; o sucessor segue a SucessoresAnel
+     */
+    private class OuvinteAnel implements MembrosAnel.Ouvinte {
+        
+        @Override
+        public void membroEntrou(MembrosAnel.Membro membro) {
+            if (membro.getId() != processoId) {
+                canais.computeIfAbsent(membro.getId(), ProcessoRMIBase.this::novoCanal);
+                System.out.println(TerminalColors.CYAN + "[ANEL] " + membro + " entrou no anel" + TerminalColors.RESET);
+            }
+            registrarSnapshot(membro);
+        }
+        
+        @Override
+        public void membroSaiu(MembrosAnel.Membro membro) {
+            CanalRMI canal = canais.remove(membro.getId());
+            if (canal != null) {
+                canal.fechar();
+                snapshotDistribuido.canalFechado(canal);
+            }
+            detectorFalhas.remover(membro.getNome());
+            processosSuspeitos.remove(membro.getNome());
+            SnapshotManager.unregisterProcess(membro.getNome());
+            System.out.println(TerminalColors.YELLOW + "[ANEL] " + membro + " saiu do anel" + TerminalColors.RESET);
+        }
+    }
+    
+    /**
+     * A coleta de snapshot do sistema consulta os membros atuais do anel
+     */
+    private static void registrarSnapshot(MembrosAnel.Membro membro) {
+        SnapshotManager.registerProcess(membro.getNome(), 2, SnapshotManager.defaultPort(2, membro.getId()));
+    }
+    
+    private void reconfigurarSucessor() {
+        try {
+            scheduler.execute(this::configurarProximoPeloAnel);
+        } catch (java.util.concurrent.RejectedExecutionException e) {
+            // Processo finalizando
+        }
+    }
+    
+    /**
+     * Aponta o heartbeat para o primeiro sucessor vivo deste processo no anel
+     * @return false se não há sucessor vivo ou o stub dele não foi obtido
+     */
+    protected boolean configurarProximoPeloAnel() {
+        int proximo = sucessoresAnel.primeiro();
+        if (proximo == processoId) {
+            proximoProcesso = null;
+            proximoProcessoId = -1;
+            return false;
+        }
+        if (proximo == proximoProcessoId && proximoProcesso != null) {
+            return true;
+        }
+        try {
+            setProximoProcesso(stubs.obter(proximo));
+            proximoProcessoId = proximo;
+            return true;
+        } catch (RemoteException e) {
+            System.err.println(TerminalColors.YELLOW + "[Processo " + processoId + "] Não foi possível configurar ProcessoRMI" + proximo
+                    + " como próximo no anel: " + e.getMessage() + TerminalColors.RESET);
+            return false;
+        }
+    }
+    
+    /**
+     * Anuncia a entrada deste processo a um membro e junta a visão dele à local
+     * Membros que só o outro conhecia recebem o anúncio também, até a visão fechar
+     */
+    private void anunciarEntradaPara(int id) {
+        if (id == processoId) {
+            return;
+        }
+        String eu = membros.get(processoId).descrever();
+        despachante.despachar(id, "entrada", DespachanteRMI.Sobrecarga.REJEITAR,
+                () -> stubs.chamar(id, destino -> destino.entrarNoAnel(eu))).whenComplete((visao, erro) -> {
+            if (erro != null) {
+                System.out.println(TerminalColors.YELLOW + "[ANEL] ProcessoRMI" + id + " não recebeu o anúncio de entrada: "
+                        + erro.getMessage() + TerminalColors.RESET);
+                return;
+            }
+            for (String descricao : visao) {
+                try {
+                    MembrosAnel.Membro membro = MembrosAnel.Membro.parse(descricao);
+                    if (!membros.contem(membro.getId()) && membros.entrar(membro)) {
+                        anunciarEntradaPara(membro.getId());
+                    }
+                } catch (IllegalArgumentException e) {
+                    System.err.println("[ANEL] Membro inválido na visão de ProcessoRMI" + id + ": " + descricao);
+                }
+            }
+        });
+    }
+    
+    @Override
+    public List<String> entrarNoAnel(String membro) throws RemoteException {
+        try {
+            membros.entrar(MembrosAnel.Membro.parse(membro));
+        } catch (IllegalArgumentException e) {
+            throw new RemoteException("Membro inválido: " + membro, e);
+        }
+        List<String> visao = new ArrayList<>();
+        for (MembrosAnel.Membro conhecido : membros.getMembros()) {
+            visao.add(conhecido.descrever());
+        }
+        return visao;
+    }
+    
+    /**
+     * O líder está saindo e escolheu este processo: assume na época recebida, inicia o PING/PONG
+     * e anuncia a liderança, sem esperar a concessão do líder antigo expirar
+     */
+    @Override
+    public boolean assumirLideranca(int liderAnterior, long epoca) throws RemoteException {
+        if (!estaAtivo) {
+            return false;
+        }
+        System.out.println(TerminalColors.PURPLE + "[Processo " + processoId + "] ProcessoRMI" + liderAnterior
+                + " está saindo e transferiu a liderança (época " + epoca + ")" + TerminalColors.RESET);
+        definirNovoLider(processoId, epoca);
+        if (liderAtual != processoId || epocaLider != epoca) {
+            return false;
+        }
+        anunciarLiderViaMulticast(processoId, epoca);
+        return true;
+    }
+    
+    @Override
+    public void sairDoAnel(int processoId) throws RemoteException {
+        if (processoId != this.processoId) {
+            membros.sair(processoId);
+        }
     }
     
     @Override
     public void receberMensagem(Mensagem mensagem) throws RemoteException {
+        CanalRMI canal = canalDoRemetente(mensagem.getProcessoRemetente());
+        if (canal == null) {
+            despacharMensagem(mensagem);
+            return;
+        }
+        // Passa pelo snapshot: marcadores são consumidos e mensagens em trânsito gravadas
+        snapshotDistribuido.mensagemRecebida(canal, mensagem, () -> despacharMensagem(mensagem));
+    }
+    
+    private void despacharMensagem(Mensagem mensagem) {
         // Processa diferentes tipos de mensagem
         switch (mensagem.getTipoMensagem()) {
             case PING:
                 // Processos não-líderes não exibem mensagens de PING recebido
-                responderPong(Integer.parseInt(mensagem.getProcessoRemetente()));
+                receberPing(mensagem);
                 break;
             case PONG:
-                // Apenas o líder processa PONGs (incrementa contador)
+                // Apenas o líder processa PONGs (fecha a parte do remetente na rodada)
                 if (liderAtual == processoId) {
-                    processosAtivos++;
+                    registrarPong(mensagem);
                 }
                 break;
             case ELEICAO:
@@ -124,6 +336,129 @@ public abstract class ProcessoRMIBase extends UnicastRemoteObject implements Pro
         }
     }
     
+    @Override
+    public void receberMensagemCodificada(byte[] conteudo) throws RemoteException {
+        Mensagem mensagem;
+        try {
+            mensagem = FramesMensagem.decodificar(conteudo);
+        } catch (java.io.IOException e) {
+            throw new RemoteException("Mensagem codificada inválida", e);
+        }
+        receberMensagem(mensagem);
+    }
+    
+    @Override
+    public void receberMensagens(List<Mensagem> mensagens) throws RemoteException {
+        for (Mensagem mensagem : mensagens) {
+            receberMensagem(mensagem);
+        }
+    }
+    
+    @Override
+    public void receberMensagensCodificadas(List<byte[]> conteudos) throws RemoteException {
+        // Decodifica tudo antes de entregar para não processar meio lote inválido
+        List<Mensagem> mensagens = new ArrayList<>(conteudos.size());
+        try {
+            for (byte[] conteudo : conteudos) {
+                mensagens.add(FramesMensagem.decodificar(conteudo));
+            }
+        } catch (java.io.IOException e) {
+            throw new RemoteException("Lote de mensagens codificadas inválido", e);
+        }
+        receberMensagens(mensagens);
+    }
+    
+    /**
+     * Canal FIFO para o processo informado; todos os envios da aplicação devem passar por ele
+     */
+    protected CanalRMI canalPara(int processoDestino) throws RemoteException {
+        CanalRMI canal = canais.get(processoDestino);
+        if (canal == null) {
+            throw new RemoteException("Processo desconhecido: " + processoDestino);
+        }
+        return canal;
+    }
+    
+    /**
+     * Aceita tanto "2" quanto "ProcessoRMI2" como remetente
+     */
+    private CanalRMI canalDoRemetente(String remetente) {
+        if (remetente == null) {
+            return null;
+        }
+        try {
+            return canais.get(Integer.parseInt(remetente.replace("ProcessoRMI", "")));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+    
+    /**
+     * Estado local gravado pelo snapshot Chandy-Lamport
+     */
+    protected String descreverEstadoLocal() {
+        return "ProcessoRMI" + processoId + " | Líder: ProcessoRMI" + liderAtual;
+    }
+    
+    /**
+     * Inicia um snapshot Chandy-Lamport do grupo e exibe o corte consistente
+     */
+    protected void executarSnapshotConsistente() {
+        System.out.println(snapshotDistribuido.iniciar().join().format());
+    }
+    
+    /**
+     * Reconstrói um snapshot persistido a partir dos deltas do armazém
+     */
+    protected void reconstruirSnapshot(Scanner scanner) {
+        ArmazemSnapshots armazem = snapshotDistribuido.getArmazem();
+        List<String> ids = armazem != null ? armazem.getIds() : Collections.emptyList();
+        if (ids.isEmpty()) {
+            System.out.println(TerminalColors.YELLOW + "Nenhum snapshot armazenado." + TerminalColors.RESET);
+            return;
+        }
+        System.out.println("Snapshots armazenados: " + String.join(", ", ids.subList(Math.max(0, ids.size() - 10), ids.size())));
+        System.out.print("Id do snapshot (Enter para o mais recente): ");
+        String id = scanner.nextLine().trim();
+        try {
+            System.out.println(armazem.reconstruir(id.isEmpty() ? ids.get(ids.size() - 1) : id).format());
+        } catch (java.io.IOException e) {
+            System.out.println(TerminalColors.RED + "[ERRO] " + e.getMessage() + TerminalColors.RESET);
+        }
+    }
+    
+    /**
+     * Envia a mensagem para o processo remoto usando o codec binário
+     */
+    protected static void enviarMensagemRemota(ProcessoRMIInterface destino, Mensagem mensagem) throws RemoteException {
+        byte[] conteudo;
+        try {
+            conteudo = FramesMensagem.codificar(mensagem);
+        } catch (java.io.IOException e) {
+            throw new RemoteException("Erro ao codificar mensagem", e);
+        }
+        destino.receberMensagemCodificada(conteudo);
+    }
+    
+    /**
+     * Envia várias mensagens em uma chamada remota, na ordem da lista
+     */
+    protected static void enviarMensagensRemotas(ProcessoRMIInterface destino, List<Mensagem> mensagens) throws RemoteException {
+        if (mensagens.size() == 1) {
+            enviarMensagemRemota(destino, mensagens.get(0));
+            return;
+        }
+        List<byte[]> conteudos = new ArrayList<>(mensagens.size());
+        try {
+            for (Mensagem mensagem : mensagens) {
+                conteudos.add(FramesMensagem.codificar(mensagem));
+            }
+        } catch (java.io.IOException e) {
+            throw new RemoteException("Erro ao codificar mensagem", e);
+        }
+        destino.receberMensagensCodificadas(conteudos);
+    }
+    
     @Override
     public void iniciarEleicao(int processoIniciador, List<Integer> candidatos) throws RemoteException {
         if (eleicaoEmAndamento) {
@@ -168,8 +503,7 @@ public abstract class ProcessoRMIBase extends UnicastRemoteObject implements Pro
             System.out.println(TerminalColors.GREEN + "[Processo " + processoId + "] Eleição completada! " +
                               "Parâmetro vencedor: " + parametroVencedor + ", Líder eleito: Processo " + liderEleito + TerminalColors.RESET);
             
-            anunciarLiderViaMulticast(liderEleito);
-            eleicaoEmAndamento = false; // Finaliza a eleição
+            anunciarResultadoEleicao(liderEleito); // Também finaliza a eleição
             return;
         }
         
@@ -198,22 +532,25 @@ public abstract class ProcessoRMIBase extends UnicastRemoteObject implements Pro
     
     @Override
     public void anunciarLider(int novoLider) throws RemoteException {
-        if (liderAtual != novoLider) {
-            System.out.println(TerminalColors.GREEN + "[Processo " + processoId + "] Novo líder eleito: Processo " + 
-                              novoLider + TerminalColors.RESET);
-            liderAtual = novoLider;
-        }
-        
-        eleicaoEmAndamento = false;
         candidatosEleicao.clear();
-        
-        // Anuncia o líder via multicast para todos os processos
-        if (processoId != novoLider) {
-            anunciarLiderViaMulticast(novoLider);
-        }
+        anunciarResultadoEleicao(novoLider);
     }
     
-
+    /**
+     * Resultado de uma eleição do anel: um líder diferente do conhecido vale na época seguinte,
+     * senão os demais descartariam o anúncio (mesma época, outro id). Adota o líder e só anuncia
+     * se nenhuma época maior chegou nesse meio tempo
+     */
+    private void anunciarResultadoEleicao(int novoLider) {
+        long epoca;
+        synchronized (this) {
+            epoca = liderAtual == novoLider ? epocaLider : epocaLider + 1;
+        }
+        definirNovoLider(novoLider, epoca);
+        if (liderAtual == novoLider && epocaLider == epoca) {
+            anunciarLiderViaMulticast(novoLider, epoca);
+        }
+    }
     
     @Override
     public boolean estaAtivo() throws RemoteException {
@@ -236,21 +573,55 @@ public abstract class ProcessoRMIBase extends UnicastRemoteObject implements Pro
         System.out.println(TerminalColors.CYAN + "[Processo " + processoId + "] Próximo processo configurado" + TerminalColors.RESET);
     }
     
+    /**
+     * Despacha o heartbeat sem esperar a chamada remota
+     * Enquanto um heartbeat para o mesmo processo ainda aguarda na fila, os novos são coalescidos
+     * nele, então um próximo travado não acumula heartbeats velhos
+     */
     @Override
     public void enviarHeartbeat() throws RemoteException {
-        if (proximoProcesso != null) {
-            try {
-                proximoProcesso.receberHeartbeat(processoId);
-            } catch (RemoteException e) {
-                System.err.println("Erro ao enviar heartbeat: " + e.getMessage());
-                iniciarEleicaoViaSocket();
-            }
+        ProcessoRMIInterface destino = proximoProcesso;
+        int idDestino = proximoProcessoId;
+        if (destino == null) {
+            return;
+        }
+        CompletableFuture<Void> envio = despachante.despachar(destino, "heartbeat",
+                DespachanteRMI.Sobrecarga.DESCARTAR_MAIS_ANTIGA, () -> {
+                    destino.receberHeartbeat(processoId);
+                    return null;
+                });
+        if (envio == heartbeatEmEnvio) {
+            return;
         }
+        heartbeatEmEnvio = envio;
+        envio.whenComplete((ok, erro) -> {
+            if (erro == null && idDestino == liderAtual) {
+                concessaoLider.prolongar("ProcessoRMI" + idDestino);
+            }
+            if (erro instanceof RemoteException) {
+                System.err.println("Erro ao enviar heartbeat: " + erro.getMessage());
+                // Reparo do anel: o sucessor caído sai da lista e o heartbeat segue para o próximo vivo;
+                // só a queda do líder (ou de um sucessor configurado à mão) pede eleição
+                if (idDestino == -1) {
+                    iniciarEleicaoViaSocket();
+                } else if (idDestino == liderAtual) {
+                    liderSemResposta();
+                }
+                if (idDestino != -1 && sucessoresAnel.marcarSuspeito(idDestino)) {
+                    System.out.println(TerminalColors.YELLOW + "[ANEL] ProcessoRMI" + idDestino + " suspeito; sucessores: "
+                            + sucessoresAnel.getSucessores() + TerminalColors.RESET);
+                }
+            }
+        });
     }
     
     @Override
     public void receberHeartbeat(int remetenteId) throws RemoteException {
         ultimoHeartbeat = System.currentTimeMillis();
+        detectorFalhas.heartbeat("ProcessoRMI" + remetenteId);
+        if (remetenteId == liderAtual) {
+            concessaoLider.prolongar("ProcessoRMI" + remetenteId);
+        }
         // Apenas o líder exibe mensagens de heartbeat recebidas
         // Processos não-líderes operam silenciosamente
     }
@@ -265,22 +636,40 @@ public abstract class ProcessoRMIBase extends UnicastRemoteObject implements Pro
             } catch (RemoteException e) {
                 System.err.println("Erro no heartbeat periódico: " + e.getMessage());
             }
-        }, 2, 3, TimeUnit.SECONDS);
+        }, 2000, INTERVALO_HEARTBEAT_MS, TimeUnit.MILLISECONDS);
         
-        // Monitora timeout de heartbeat apenas para informação
+        // Monitora o phi de quem envia heartbeat para cá, apenas para informação;
+        // só as mudanças de estado são exibidas
         scheduler.scheduleAtFixedRate(() -> {
-            long agora = System.currentTimeMillis();
-            // Só verifica timeout se o próximo processo estiver configurado
-            if (proximoProcesso != null && agora - ultimoHeartbeat > TIMEOUT_HEARTBEAT) {
-                // Evita spam de mensagens - só mostra a cada 30 segundos
-                if ((agora - ultimoHeartbeat) % 30000 < 2000) {
-                    System.out.println(TerminalColors.YELLOW + "[Processo " + processoId + "] Possível timeout de heartbeat detectado - aguardando estabilização" + TerminalColors.RESET);
+            for (String processo : detectorFalhas.getProcessos()) {
+                if (!detectorFalhas.isDisponivel(processo)) {
+                    if (processosSuspeitos.add(processo)) {
+                        System.out.println(TerminalColors.YELLOW + "[Processo " + processoId + "] Possível falha de " + processo + " ("
+                                + detectorFalhas.descrever(processo) + ")" + TerminalColors.RESET);
+                        sucessoresAnel.marcarSuspeito(idDoNome(processo));
+                    }
+                } else if (processosSuspeitos.remove(processo)) {
+                    System.out.println(TerminalColors.GREEN + "[Processo " + processoId + "] " + processo + " voltou a enviar heartbeat" + TerminalColors.RESET);
+                    sucessoresAnel.marcarAtivo(idDoNome(processo));
                 }
             }
-        }, 5, 2, TimeUnit.SECONDS);
+        }, 2000, INTERVALO_HEARTBEAT_MS / 2, TimeUnit.MILLISECONDS);
+        
+        // Concessão do líder expirada com o líder suspeito: agora sim a falha dele abre eleição
+        scheduler.scheduleAtFixedRate(() -> {
+            String lider = concessaoLider.verificarExpiracao();
+            if (lider != null && liderAtual != processoId && lider.equals("ProcessoRMI" + liderAtual)
+                    && sucessoresAnel.isSuspeito(liderAtual)) {
+                System.out.println(TerminalColors.RED + "[Processo " + processoId + "] Concessão de " + lider
+                        + " expirou e ele continua sem responder - iniciando eleição" + TerminalColors.RESET);
+                iniciarEleicaoViaSocket();
+            }
+        }, 2000, INTERVALO_HEARTBEAT_MS / 2, TimeUnit.MILLISECONDS);
     }
     
-
+    private static int idDoNome(String processo) {
+        return Integer.parseInt(processo.replace("ProcessoRMI", ""));
+    }
     
     /**
      * Descobre quais processos estão ativos no sistema
@@ -288,18 +677,15 @@ public abstract class ProcessoRMIBase extends UnicastRemoteObject implements Pro
     private List<Integer> descobrirProcessosAtivos() {
         List<Integer> processosAtivos = new ArrayList<>();
         
-        // Testa todos os processos possíveis (1, 2, 3)
-        for (int i = 1; i <= 3; i++) {
+        // Testa todos os membros da visão do anel
+        for (int i : membros.getIds()) {
             if (i == processoId) {
                 processosAtivos.add(i); // O próprio processo está ativo
                 continue;
             }
             
             try {
-                String url = "rmi://localhost:110" + i + "/ProcessoRMI" + i;
-                ProcessoRMIInterface processo = (ProcessoRMIInterface) Naming.lookup(url);
-                
-                if (processo.estaAtivo()) {
+                if (stubs.chamar(i, ProcessoRMIInterface::estaAtivo)) {
                     processosAtivos.add(i);
                     System.out.println(TerminalColors.CYAN + "[Processo " + processoId + "] ProcessoRMI" + i + " está ativo" + TerminalColors.RESET);
                 }
@@ -335,41 +721,21 @@ public abstract class ProcessoRMIBase extends UnicastRemoteObject implements Pro
     }
     
     /**
-     * Encontra o próximo processo ativo no anel e retorna sua interface
+     * Uma chamada para o líder falhou. Com a concessão dele válida é só um soluço: o líder fica
+     * suspeito e a eleição espera a concessão expirar (a verificação periódica abre a eleição se
+     * ele continuar suspeito). Sem concessão válida a eleição começa na hora
      */
-
-    
-    /**
-     * Anuncia o líder para todos os processos ativos quando a propagação normal falha
-     */
-
-    
-    private void determinarLiderEleicao(int iniciador, int parametroRecebido) {
-        int maiorParametro = Math.max(parametroRecebido, parametroEleicao);
-        int novoLider = maiorParametro == parametroEleicao ? processoId : iniciador;
-        
-        System.out.println(TerminalColors.PURPLE + "[Processo " + processoId + "] Determinando líder: parâmetro recebido=" + parametroRecebido + ", próprio=" + parametroEleicao + ", novo líder=ProcessoRMI" + novoLider + TerminalColors.RESET);
-        
-        eleicaoEmAndamento = false;
-        liderAtual = novoLider;
-        
-        // Anuncia o novo líder
-        anunciarLiderViaMulticast(novoLider);
-        
-        if (novoLider == processoId) {
-            System.out.println(TerminalColors.GREEN + "[ELEIÇÃO] ProcessoRMI" + processoId + " foi eleito como novo líder!" + TerminalColors.RESET);
-            
-            // Verificar se deve ser supercoordenador (grupo 2 só se torna se grupo 1 não tiver líder)
-            // Por simplicidade, grupo 2 não será supercoordenador automaticamente
-            // A lógica de supercoordenador será gerenciada pela comunicação intergrupos
-            
-            iniciarSistemaPingPongComoLider();
-        } else {
-            System.out.println(TerminalColors.BLUE + "[ELEIÇÃO] ProcessoRMI" + novoLider + " foi eleito como novo líder!" + TerminalColors.RESET);
+    protected void liderSemResposta() {
+        if (liderAtual != processoId && concessaoLider.isValida()) {
+            if (sucessoresAnel.marcarSuspeito(liderAtual)) {
+                System.out.println(TerminalColors.YELLOW + "[Processo " + processoId + "] ProcessoRMI" + liderAtual
+                        + " não respondeu, mas a concessão dele ainda vale por " + concessaoLider.getRestanteMs()
+                        + " ms - eleição adiada" + TerminalColors.RESET);
+            }
+            return;
         }
+        iniciarEleicaoViaSocket();
     }
-
-
     
     /**
      * Inicia eleição via sockets quando detecta falha do líder
@@ -415,65 +781,133 @@ public abstract class ProcessoRMIBase extends UnicastRemoteObject implements Pro
     /**
      * Inicia o sistema de ping/pong como líder
      */
-    protected void iniciarSistemaPingPongComoLider() {
+    protected synchronized void iniciarSistemaPingPongComoLider() {
+        if (rodadasPing != null && !rodadasPing.isDone()) {
+            return; // Já agendado: cada ganho de liderança não empilha outra rodada
+        }
         System.out.println(TerminalColors.GREEN + "[Processo " + processoId + "] Iniciando sistema PING/PONG como líder" + TerminalColors.RESET);
         
-        // Envia PING a cada 10 segundos
-        scheduler.scheduleAtFixedRate(() -> {
+        // Envia PING a cada 10 segundos; o status sai quando a rodada fecha
+        rodadasPing = scheduler.scheduleAtFixedRate(() -> {
             if (liderAtual == processoId) {
                 enviarPingParaTodos();
             }
         }, 5000, INTERVALO_PING_PONG, TimeUnit.MILLISECONDS);
-        
-        // Verifica respostas PONG e envia status via multicast
-        scheduler.scheduleAtFixedRate(() -> {
-            if (liderAtual == processoId) {
-                verificarStatusProcessos();
-            }
-        }, 8000, INTERVALO_PING_PONG, TimeUnit.MILLISECONDS);
     }
     
     /**
-     * Envia PING para todos os processos
+     * Cancela o PING/PONG quando este processo deixa de ser o líder
+     */
+    protected synchronized void pararSistemaPingPong() {
+        if (rodadasPing != null) {
+            rodadasPing.cancel(false);
+            rodadasPing = null;
+        }
+    }
+    
+    /**
+     * Envia PING para todos os processos e abre uma rodada esperando o PONG de cada um
+     * A rodada fecha quando o último PONG chega ou em PRAZO_RODADA_PONG_MS, sem ocupar o scheduler
      */
     private void enviarPingParaTodos() {
-        processosAtivos = 0; // Reset contador
         ultimoPingEnviado = System.currentTimeMillis();
         
         System.out.println(TerminalColors.YELLOW + "[LÍDER] Enviando mensagens de heartbeat para os processos..." + TerminalColors.RESET);
         
-        // Lista de processos para enviar PING
-        String[] processosRMI = {"rmi://localhost:1101/ProcessoRMI1", "rmi://localhost:1102/ProcessoRMI2"};
+        // Todos os outros processos do anel
+        Set<Integer> processosRMI = new TreeSet<>(canais.keySet());
+        AgregadorPong.Rodada rodada = agregadorPong.iniciar(processosRMI, PRAZO_RODADA_PONG_MS);
+        rodada.getResultado().thenAccept(this::verificarStatusProcessos);
         
-        for (String urlProcesso : processosRMI) {
+        for (int processoDestino : processosRMI) {
             try {
-                ProcessoRMIInterface processo = (ProcessoRMIInterface) Naming.lookup(urlProcesso);
-                
-                // Cria mensagem PING
+                // Cria mensagem PING com o id da rodada, devolvido no PONG
                 br.com.models.Mensagem mensagemPing = new br.com.models.Mensagem();
                 mensagemPing.setTipoMensagem(br.com.models.TipoMensagem.PING);
                 mensagemPing.setProcessoRemetente(String.valueOf(processoId));
-                mensagemPing.setConteudoMensagem("PING do líder");
+                mensagemPing.setConteudoMensagem("PING:" + rodada.getId() + ":" + epocaLider);
                 mensagemPing.setDataMensagem(java.time.LocalDateTime.now());
                 mensagemPing.setIdMensagem(java.util.UUID.randomUUID());
                 
-                processo.receberMensagem(mensagemPing);
+                // Não espera a entrega: um processo travado não segura o scheduler
+                canalPara(processoDestino).enviarAssincrono(mensagemPing).whenComplete((ok, erro) -> {
+                    if (erro != null) {
+                        rodada.falhou(processoDestino);
+                        notificarFalhaPing(processoDestino, erro);
+                    }
+                });
                 // Não exibe mensagem individual para cada processo
                 
             } catch (Exception e) {
-                String nomeProcesso = extrairNomeProcesso(urlProcesso);
-                System.out.println(TerminalColors.RED + "[LÍDER] Falha ao enviar heartbeat para " + nomeProcesso + ": " + e.getMessage() + TerminalColors.RESET);
-                
-                // Notifica falha via multicast
-                if (multicastManager != null) {
-                    try {
-                        String mensagemFalha = "PROCESSO_FALHOU:" + nomeProcesso;
-                        multicastManager.enviarMensagem(mensagemFalha);
-                        System.out.println(TerminalColors.RED + "[LÍDER] Notificação de falha enviada via multicast para: " + nomeProcesso + TerminalColors.RESET);
-                    } catch (Exception ex) {
-                        System.err.println("Erro ao notificar falha via multicast: " + ex.getMessage());
-                    }
-                }
+                rodada.falhou(processoDestino);
+                notificarFalhaPing(processoDestino, e);
+            }
+        }
+    }
+    
+    /**
+     * PING do líder: renova a concessão dele e responde o PONG. Um PING de época anterior à
+     * conhecida vem de um líder obsoleto (por exemplo, do outro lado de uma partição que já
+     * fechou) e fica sem PONG; um de época maior traz um líder que este processo não conhecia
+     */
+    private void receberPing(Mensagem mensagem) {
+        int lider = Integer.parseInt(mensagem.getProcessoRemetente());
+        String conteudo = mensagem.getConteudoMensagem();
+        long epoca = campoDoPing(conteudo, 2, -1);
+        if (epoca >= 0 && (lider != liderAtual || epoca != epocaLider)) {
+            definirNovoLider(lider, epoca);
+            if (lider != liderAtual || epoca != epocaLider) {
+                return;
+            }
+        } else if (epoca >= 0) {
+            concessaoLider.renovar("ProcessoRMI" + lider, epoca);
+        }
+        responderPong(lider, campoDoPing(conteudo, 1, 0));
+    }
+    
+    /**
+     * Campo de um PING no formato "PING:<rodada>:<época>"; padrao se faltar (formatos antigos)
+     */
+    private static long campoDoPing(String conteudo, int indice, long padrao) {
+        if (conteudo != null && conteudo.startsWith("PING:")) {
+            String[] partes = conteudo.split(":");
+            try {
+                return partes.length > indice ? Long.parseLong(partes[indice].trim()) : padrao;
+            } catch (NumberFormatException e) {
+                return padrao;
+            }
+        }
+        return padrao;
+    }
+    
+    /**
+     * PONG no formato "PONG:<rodada>:ProcessoRMI<id>"; respostas sem rodada são ignoradas
+     */
+    private void registrarPong(Mensagem mensagem) {
+        String conteudo = mensagem.getConteudoMensagem();
+        if (conteudo == null || !conteudo.startsWith("PONG:")) {
+            return;
+        }
+        try {
+            String[] partes = conteudo.split(":", 3);
+            agregadorPong.registrarPong(Long.parseLong(partes[1]), Integer.parseInt(mensagem.getProcessoRemetente()));
+        } catch (RuntimeException e) {
+            System.err.println("PONG inválido de " + mensagem.getProcessoRemetente() + ": " + conteudo);
+        }
+    }
+    
+    private void notificarFalhaPing(int processoDestino, Throwable e) {
+        String nomeProcesso = "ProcessoRMI" + processoDestino;
+        System.out.println(TerminalColors.RED + "[LÍDER] Falha ao enviar heartbeat para " + nomeProcesso + ": " + e.getMessage() + TerminalColors.RESET);
+        
+        // Notifica falha via multicast
+        if (multicastManager != null) {
+            try {
+                String mensagemFalha = "PROCESSO_FALHOU:" + nomeProcesso;
+                multicastManager.enviarMensagem(mensagemFalha);
+                System.out.println(TerminalColors.RED + "[LÍDER] Notificação de falha enviada via multicast para: " + nomeProcesso + TerminalColors.RESET);
+            } catch (Exception ex) {
+                System.err.println("Erro ao notificar falha via multicast: " + ex.getMessage());
             }
         }
     }
@@ -481,20 +915,22 @@ public abstract class ProcessoRMIBase extends UnicastRemoteObject implements Pro
     /**
      * Responde com PONG ao receber PING
      */
-    private void responderPong(int liderProcessoId) {
+    private void responderPong(int liderProcessoId, long rodada) {
         try {
-            String urlLider = "rmi://localhost:110" + liderProcessoId + "/ProcessoRMI" + liderProcessoId;
-            ProcessoRMIInterface lider = (ProcessoRMIInterface) Naming.lookup(urlLider);
-            
             // Cria mensagem PONG
             br.com.models.Mensagem mensagemPong = new br.com.models.Mensagem();
             mensagemPong.setTipoMensagem(br.com.models.TipoMensagem.PONG);
             mensagemPong.setProcessoRemetente(String.valueOf(processoId));
-            mensagemPong.setConteudoMensagem("PONG de ProcessoRMI" + processoId);
+            mensagemPong.setConteudoMensagem("PONG:" + rodada + ":ProcessoRMI" + processoId);
             mensagemPong.setDataMensagem(java.time.LocalDateTime.now());
             mensagemPong.setIdMensagem(java.util.UUID.randomUUID());
             
-            lider.receberMensagem(mensagemPong);
+            // Responde sem segurar a thread RMI que entregou o PING
+            canalPara(liderProcessoId).enviarAssincrono(mensagemPong).whenComplete((ok, erro) -> {
+                if (erro != null) {
+                    System.err.println("Erro ao enviar PONG: " + erro.getMessage());
+                }
+            });
             // Processos não-líderes não exibem mensagens de PONG enviado
             
         } catch (Exception e) {
@@ -503,69 +939,72 @@ public abstract class ProcessoRMIBase extends UnicastRemoteObject implements Pro
     }
     
     /**
-     * Verifica status dos processos e envia notificação via multicast
+     * Verifica status dos processos ao fechar a rodada e envia notificação via multicast
      */
-    private void verificarStatusProcessos() {
-        // Aguarda um tempo para receber todos os PONGs
-        try {
-            Thread.sleep(3000);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+    private void verificarStatusProcessos(AgregadorPong.Resultado resultado) {
+        if (liderAtual != processoId) {
+            return;
+        }
+        processosAtivos = resultado.getResponderam().size();
+        int esperados = resultado.getTotal();
+        // A rodada também alimenta a lista de sucessores vivos
+        for (int processo : resultado.getResponderam()) {
+            sucessoresAnel.marcarAtivo(processo);
+        }
+        for (int processo : resultado.getFaltando()) {
+            sucessoresAnel.marcarSuspeito(processo);
         }
         
-        if (processosAtivos >= 2) {
+        if (resultado.getFaltando().isEmpty()) {
             // Todos os processos estão ativos - envia notificação multicast
-            String mensagemStatus = "TODOS_PROCESSOS_ATIVOS:ProcessoRMI" + processoId + ":Sistema funcionando normalmente (" + processosAtivos + "/2 processos responderam)";
+            String mensagemStatus = "TODOS_PROCESSOS_ATIVOS:ProcessoRMI" + processoId + ":Sistema funcionando normalmente (" + processosAtivos + "/" + esperados + " processos responderam)";
             if (multicastManager != null) {
                 try {
                     multicastManager.enviarMensagem(mensagemStatus);
-                    System.out.println(TerminalColors.GREEN + "[LÍDER] Todos os processos estão ativos - notificação enviada via multicast" + TerminalColors.RESET);
+                    System.out.println(TerminalColors.GREEN + "[LÍDER] Todos os processos estão ativos - notificação enviada via multicast (rodada " + resultado.getRodada() + " em " + resultado.getDuracaoMs() + " ms)" + TerminalColors.RESET);
                 } catch (java.io.IOException e) {
                     System.err.println("Erro ao enviar status via multicast: " + e.getMessage());
                 }
             } else {
-                System.out.println(TerminalColors.GREEN + "[LÍDER] Todos os processos estão ativos (" + processosAtivos + "/2)" + TerminalColors.RESET);
+                System.out.println(TerminalColors.GREEN + "[LÍDER] Todos os processos estão ativos (" + processosAtivos + "/" + esperados + ")" + TerminalColors.RESET);
             }
         } else {
             // Alguns processos falharam
-            String mensagemFalha = "HEARTBEAT_ALERT:ProcessoRMI" + processoId + ":Alguns processos não responderam (" + processosAtivos + "/2)";
+            String mensagemFalha = "HEARTBEAT_ALERT:ProcessoRMI" + processoId + ":Alguns processos não responderam (" + processosAtivos + "/" + esperados + ")";
             if (multicastManager != null) {
                 try {
                     multicastManager.enviarMensagem(mensagemFalha);
-                    System.out.println(TerminalColors.RED + "[LÍDER] Alerta enviado via multicast: Alguns processos falharam (" + processosAtivos + "/2)" + TerminalColors.RESET);
+                    System.out.println(TerminalColors.RED + "[LÍDER] Alerta enviado via multicast: Alguns processos falharam (" + processosAtivos + "/" + esperados + ")" + TerminalColors.RESET);
                 } catch (java.io.IOException e) {
                     System.err.println("Erro ao enviar alerta via multicast: " + e.getMessage());
                 }
             } else {
-                System.out.println(TerminalColors.RED + "[LÍDER] Alguns processos falharam (" + processosAtivos + "/2)" + TerminalColors.RESET);
+                System.out.println(TerminalColors.RED + "[LÍDER] Alguns processos falharam (" + processosAtivos + "/" + esperados + ")" + TerminalColors.RESET);
             }
+            System.out.println(TerminalColors.RED + "[LÍDER] Sem PONG na rodada " + resultado.getRodada() + ": " + resultado.getFaltando() + TerminalColors.RESET);
         }
     }
     
-    /**
-     * Extrai o nome do processo da URL RMI
-     */
-    private String extrairNomeProcesso(String urlProcesso) {
-        if (urlProcesso.contains("ProcessoRMI1")) return "ProcessoRMI1";
-        if (urlProcesso.contains("ProcessoRMI2")) return "ProcessoRMI2";
-        if (urlProcesso.contains("ProcessoRMI3")) return "ProcessoRMI3";
-        return "ProcessoDesconhecido";
-    }
-    
     /**
      * Método abstrato para processar mensagens específicas de cada processo
      */
     protected abstract void processarMensagemEspecifica(Mensagem mensagem);
     
-
-    
     /**
-     * Método público para anunciar líder via multicast (usado pelo GerenciadorEleicaoSocket)
+     * Método público para anunciar líder via multicast, na época atual
      */
     public void anunciarLiderViaMulticast(int novoLider) {
+        anunciarLiderViaMulticast(novoLider, epocaLider);
+    }
+    
+    /**
+     * Anuncia o líder com a época da eleição que o escolheu (usado pelo GerenciadorEleicaoSocket)
+     */
+    @Override
+    public void anunciarLiderViaMulticast(int novoLider, long epoca) {
         try {
             if (multicastManager != null) {
-                String mensagemLider = "NOVO_LIDER:" + novoLider;
+                String mensagemLider = "NOVO_LIDER:" + novoLider + ":" + epoca;
                 multicastManager.enviarMensagem(mensagemLider);
                 System.out.println(TerminalColors.CYAN + "[Processo " + processoId + "] Anunciado novo líder via multicast: Processo " + novoLider + TerminalColors.RESET);
             } else {
@@ -576,14 +1015,51 @@ public abstract class ProcessoRMIBase extends UnicastRemoteObject implements Pro
         }
     }
     
+    @Override
+    public long getEpocaLider() {
+        return epocaLider;
+    }
+    
     /**
-      * Implementação da interface LiderCallback
+      * Implementação da interface LiderCallback; um líder diferente anunciado sem época é o
+      * resultado de uma nova eleição e vale na época seguinte
       */
      @Override
      public void definirNovoLider(int novoLider) {
-         if (liderAtual != novoLider) {
-             System.out.println(TerminalColors.GREEN + "[Processo " + processoId + "] Novo líder recebido via multicast: Processo " + novoLider + TerminalColors.RESET);
+         long epoca;
+         synchronized (this) {
+             epoca = liderAtual == novoLider ? epocaLider : epocaLider + 1;
+         }
+         definirNovoLider(novoLider, epoca);
+     }
+     
+     /**
+      * Época maior vence; na mesma época (eleições dos dois lados de uma partição) vence o maior
+      * id, como no próprio anel. Anúncios de líder obsoleto são ignorados
+      */
+     @Override
+     public void definirNovoLider(int novoLider, long epoca) {
+         int anterior;
+         synchronized (this) {
+             if (epoca < epocaLider || (epoca == epocaLider && novoLider < liderAtual)) {
+                 System.out.println(TerminalColors.YELLOW + "[Processo " + processoId + "] Líder ProcessoRMI" + novoLider + " da época " + epoca
+                         + " ignorado: já vale ProcessoRMI" + liderAtual + " na época " + epocaLider + TerminalColors.RESET);
+                 eleicaoEmAndamento = false;
+                 return;
+             }
+             anterior = liderAtual;
              liderAtual = novoLider;
+             epocaLider = epoca;
+         }
+         if (novoLider == processoId) {
+             concessaoLider.suspender();
+         } else {
+             concessaoLider.renovar("ProcessoRMI" + novoLider, epoca);
+             pararSistemaPingPong();
+         }
+         
+         if (anterior != novoLider) {
+             System.out.println(TerminalColors.GREEN + "[Processo " + processoId + "] Novo líder recebido: Processo " + novoLider + " (época " + epoca + ")" + TerminalColors.RESET);
              
              // Se este processo se tornou líder, inicia sistema de ping/pong
              if (novoLider == processoId) {
@@ -598,8 +1074,6 @@ public abstract class ProcessoRMIBase extends UnicastRemoteObject implements Pro
          }
          eleicaoEmAndamento = false;
       }
-     
-
     
     public boolean isSupercoordenador() {
         return supercoordenador;
@@ -613,6 +1087,9 @@ public abstract class ProcessoRMIBase extends UnicastRemoteObject implements Pro
      * Finaliza o processo e libera recursos
      */
     public void finalizar() {
+        if (liderAtual == processoId) {
+            transferirLideranca();
+        }
         estaAtivo = false;
         if (scheduler != null && !scheduler.isShutdown()) {
             scheduler.shutdown();
@@ -624,6 +1101,111 @@ public abstract class ProcessoRMIBase extends UnicastRemoteObject implements Pro
         if (gerenciadorEleicaoSocket != null) {
             gerenciadorEleicaoSocket.finalizar();
         }
+        
+        anunciarSaida();
+        for (CanalRMI canal : canais.values()) {
+            canal.fechar();
+        }
+        stubs.fechar();
+        despachante.fechar();
+        snapshotDistribuido.parar();
+        if (snapshotDistribuido.getArmazem() != null) {
+            snapshotDistribuido.getArmazem().fechar();
+        }
+    }
+    
+    /**
+     * Saída planejada do líder: passa a liderança ao membro vivo de maior parâmetro (o parâmetro
+     * é id * 10, então o maior id) na época seguinte. Quem recusar ou não responder em
+     * PRAZO_SAIDA_MS é trocado pelo próximo; sem nenhum, a saída segue e o grupo elege pela
+     * expiração da concessão, como numa queda
+     */
+    private void transferirLideranca() {
+        List<Integer> candidatos = new ArrayList<>(membros.getIds());
+        candidatos.remove(Integer.valueOf(processoId));
+        candidatos.removeIf(sucessoresAnel::isSuspeito);
+        candidatos.sort(Collections.reverseOrder());
+        long epoca = epocaLider + 1;
+        long inicio = System.nanoTime();
+        for (int candidato : candidatos) {
+            try {
+                boolean aceitou = despachante.despachar(candidato, DespachanteRMI.Sobrecarga.REJEITAR,
+                        () -> stubs.chamar(candidato, destino -> destino.assumirLideranca(processoId, epoca)))
+                        .get(PRAZO_SAIDA_MS, TimeUnit.MILLISECONDS);
+                if (aceitou) {
+                    synchronized (this) {
+                        liderAtual = candidato;
+                        epocaLider = epoca;
+                    }
+                    pararSistemaPingPong();
+                    System.out.println(TerminalColors.GREEN + "[Processo " + processoId + "] Liderança transferida para ProcessoRMI" + candidato
+                            + " (época " + epoca + ") em " + (System.nanoTime() - inicio) / 1_000_000 + " ms" + TerminalColors.RESET);
+                    return;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (java.util.concurrent.ExecutionException | java.util.concurrent.TimeoutException e) {
+                System.err.println("[ANEL] ProcessoRMI" + candidato + " não recebeu a liderança: " + e.getMessage());
+            }
+        }
+        System.out.println(TerminalColors.YELLOW + "[Processo " + processoId + "] Nenhum membro assumiu a liderança - o grupo vai eleger após a concessão expirar" + TerminalColors.RESET);
+    }
+    
+    /**
+     * Avisa os demais membros da saída, esperando no máximo PRAZO_SAIDA_MS por todos
+     */
+    private void anunciarSaida() {
+        List<CompletableFuture<Void>> avisos = new ArrayList<>();
+        for (int id : membros.getIds()) {
+            if (id != processoId) {
+                avisos.add(despachante.despachar(id, DespachanteRMI.Sobrecarga.REJEITAR, () -> stubs.chamar(id, destino -> {
+                    destino.sairDoAnel(processoId);
+                    return null;
+                })));
+            }
+        }
+        try {
+            CompletableFuture.allOf(avisos.toArray(new CompletableFuture[0])).get(PRAZO_SAIDA_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (java.util.concurrent.ExecutionException | java.util.concurrent.TimeoutException e) {
+            System.err.println("[ANEL] Nem todos os membros receberam o aviso de saída: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Liga o SnapshotDistribuido aos canais RMI do grupo 2
+     */
+    private class AmbienteSnapshotRMI implements SnapshotDistribuido.Ambiente {
+        
+        @Override
+        public String capturarEstadoLocal() {
+            return descreverEstadoLocal();
+        }
+        
+        @Override
+        public Collection<? extends CanalMensagem> canais() {
+            return canais.values();
+        }
+        
+        @Override
+        public Collection<String> participantes() {
+            List<String> participantes = new ArrayList<>();
+            for (CanalRMI canal : canais.values()) {
+                participantes.add("ProcessoRMI" + canal.getProcessoDestino());
+            }
+            return participantes;
+        }
+        
+        @Override
+        public void enviarResultado(String iniciador, Mensagem resultado) throws java.io.IOException {
+            CanalRMI canal = canalDoRemetente(iniciador);
+            if (canal == null) {
+                throw new java.io.IOException("Processo desconhecido: " + iniciador);
+            }
+            canal.enviar(resultado);
+        }
     }
     
     /**
@@ -18,6 +18,29 @@ public interface ProcessoRMIInterface extends Remote {
      */
     void receberMensagem(Mensagem mensagem) throws RemoteException;
     
+    /**
+     * Recebe uma mensagem codificada com o codec configurado em FramesMensagem
+     * Evita o custo da serialização Java do objeto Mensagem a cada chamada
+     * @param conteudo A mensagem codificada
+     * @throws RemoteException Em caso de erro na comunicação RMI ou conteúdo inválido
+     */
+    void receberMensagemCodificada(byte[] conteudo) throws RemoteException;
+    
+    /**
+     * Recebe um lote de mensagens em uma única chamada remota
+     * As mensagens são processadas na ordem da lista
+     * @param mensagens As mensagens a serem processadas
+     * @throws RemoteException Em caso de erro na comunicação RMI
+     */
+    void receberMensagens(List<Mensagem> mensagens) throws RemoteException;
+    
+    /**
+     * Recebe um lote de mensagens codificadas com o codec configurado em FramesMensagem
+     * @param conteudos As mensagens codificadas, na ordem de envio
+     * @throws RemoteException Em caso de erro na comunicação RMI ou conteúdo inválido
+     */
+    void receberMensagensCodificadas(List<byte[]> conteudos) throws RemoteException;
+    
     /**
      * Inicia uma eleição no anel
      * @param processoIniciador ID do processo que iniciou a eleição
@@ -48,6 +71,30 @@ public interface ProcessoRMIInterface extends Remote {
      */
     void anunciarLider(int novoLider) throws RemoteException;
     
+    /**
+     * Recebe a liderança do líder que está saindo de forma planejada
+     * @param liderAnterior ID do líder que está saindo
+     * @param epoca Época da nova liderança, maior que a do líder que sai
+     * @return true se este processo assumiu a liderança
+     * @throws RemoteException Em caso de erro na comunicação RMI
+     */
+    boolean assumirLideranca(int liderAnterior, long epoca) throws RemoteException;
+    
+    /**
+     * Registra um processo que está entrando no anel na visão de membros deste processo
+     * @param membro Descrição do membro no formato "id=host:portaRmi:portaEleicao"
+     * @return A visão de membros deste processo, no mesmo formato, para o novo membro completar a sua
+     * @throws RemoteException Em caso de erro na comunicação RMI ou descrição inválida
+     */
+    List<String> entrarNoAnel(String membro) throws RemoteException;
+    
+    /**
+     * Remove da visão de membros um processo que está saindo do anel
+     * @param processoId ID do processo que está saindo
+     * @throws RemoteException Em caso de erro na comunicação RMI
+     */
+    void sairDoAnel(int processoId) throws RemoteException;
+    
     /**
      * Verifica se o processo está ativo (heartbeat)
      * @return true se o processo está ativo
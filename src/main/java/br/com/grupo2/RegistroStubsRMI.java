@@ -0,0 +1,184 @@
+package br.com.grupo2;
+
+import br.com.utils.TerminalColors;
+
+import java.rmi.ConnectException;
+import java.rmi.ConnectIOException;
+import java.rmi.Naming;
+import java.rmi.NoSuchObjectException;
+import java.rmi.RemoteException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache de stubs RMI por id de processo
+ * Evita um Naming.lookup (ida ao registry + desserialização do stub) antes de cada chamada.
+ * Um stub que falha com erro de conexão é descartado; uma thread em segundo plano refaz o
+ * lookup dos processos já usados para que a próxima chamada volte a encontrar um stub vivo.
+ * Os endereços vêm da visão de membros do anel; quem sai da visão perde o stub
+ */
+class RegistroStubsRMI {
+
+    /**
+     * Chamada remota sobre um stub do cache
+     */
+    interface ChamadaRemota<T> {
+        T executar(ProcessoRMIInterface stub) throws RemoteException;
+    }
+
+    static final long PERIODO_ATUALIZACAO_MS = 10000;
+
+    private final ConcurrentMap<Integer, ProcessoRMIInterface> stubs = new ConcurrentHashMap<>();
+    private final Set<Integer> conhecidos = ConcurrentHashMap.newKeySet();
+    private final AtomicLong acertos = new AtomicLong();
+    private final AtomicLong faltas = new AtomicLong();
+    private final AtomicLong invalidacoes = new AtomicLong();
+    private final AtomicLong atualizacoes = new AtomicLong();
+    private final ScheduledExecutorService atualizador;
+    private final MembrosAnel membros;
+
+    RegistroStubsRMI(MembrosAnel membros) {
+        this(membros, PERIODO_ATUALIZACAO_MS);
+    }
+
+    RegistroStubsRMI(MembrosAnel membros, long periodoAtualizacaoMs) {
+        this.membros = membros;
+        membros.adicionarOuvinte(new MembrosAnel.Ouvinte() {
+            @Override
+            public void membroEntrou(MembrosAnel.Membro membro) {
+                // O endereço pode ter mudado; o próximo uso refaz o lookup
+                ProcessoRMIInterface stub = stubs.remove(membro.getId());
+                if (stub != null) {
+                    invalidacoes.incrementAndGet();
+                }
+            }
+
+            @Override
+            public void membroSaiu(MembrosAnel.Membro membro) {
+                conhecidos.remove(membro.getId());
+                if (stubs.remove(membro.getId()) != null) {
+                    invalidacoes.incrementAndGet();
+                }
+            }
+        });
+        this.atualizador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "RegistroStubsRMI");
+            thread.setDaemon(true);
+            return thread;
+        });
+        atualizador.scheduleWithFixedDelay(this::atualizar, periodoAtualizacaoMs, periodoAtualizacaoMs, TimeUnit.MILLISECONDS);
+    }
+
+    String url(int processoId) {
+        return membros.getOuPadrao(processoId).urlRmi();
+    }
+
+    MembrosAnel getMembros() {
+        return membros;
+    }
+
+    /**
+     * Stub em cache ou, na falta dele, o resultado de um lookup
+     */
+    ProcessoRMIInterface obter(int processoId) throws RemoteException {
+        conhecidos.add(processoId);
+        ProcessoRMIInterface stub = stubs.get(processoId);
+        if (stub != null) {
+            acertos.incrementAndGet();
+            return stub;
+        }
+        faltas.incrementAndGet();
+        stub = buscar(processoId);
+        ProcessoRMIInterface anterior = stubs.putIfAbsent(processoId, stub);
+        return anterior != null ? anterior : stub;
+    }
+
+    /**
+     * Executa a chamada com o stub em cache
+     * Se o stub está morto (processo reiniciado ou fora do ar) ele é descartado e a chamada é
+     * repetida uma vez com um stub novo. Só repete para erros em que a chamada não chegou ao
+     * objeto remoto, então uma mensagem nunca é entregue duas vezes
+     */
+    <T> T chamar(int processoId, ChamadaRemota<T> chamada) throws RemoteException {
+        ProcessoRMIInterface stub = obter(processoId);
+        try {
+            return chamada.executar(stub);
+        } catch (RemoteException e) {
+            invalidar(processoId, stub);
+            if (!naoEntregue(e)) {
+                throw e;
+            }
+        }
+        return chamada.executar(obter(processoId));
+    }
+
+    private static boolean naoEntregue(RemoteException e) {
+        return e instanceof ConnectException || e instanceof ConnectIOException || e instanceof NoSuchObjectException;
+    }
+
+    /**
+     * Descarta o stub, a menos que outra thread já o tenha trocado por um novo
+     */
+    void invalidar(int processoId, ProcessoRMIInterface stub) {
+        if (stubs.remove(processoId, stub)) {
+            invalidacoes.incrementAndGet();
+        }
+    }
+
+    private ProcessoRMIInterface buscar(int processoId) throws RemoteException {
+        try {
+            return (ProcessoRMIInterface) Naming.lookup(url(processoId));
+        } catch (RemoteException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RemoteException("Falha no lookup de ProcessoRMI" + processoId + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Refaz o lookup de todos os processos já usados; pega processos que voltaram
+     * e objetos reexportados com um stub novo
+     */
+    private void atualizar() {
+        for (Integer processoId : conhecidos) {
+            try {
+                stubs.put(processoId, buscar(processoId));
+                atualizacoes.incrementAndGet();
+            } catch (RemoteException e) {
+                if (stubs.remove(processoId) != null) {
+                    invalidacoes.incrementAndGet();
+                }
+            } catch (RuntimeException e) {
+                System.err.println(TerminalColors.errorMessage("[RMI] Erro ao atualizar stub de ProcessoRMI" + processoId + ": " + e.getMessage()));
+            }
+        }
+    }
+
+    long getAcertos() {
+        return acertos.get();
+    }
+
+    long getFaltas() {
+        return faltas.get();
+    }
+
+    double getTaxaAcerto() {
+        long total = acertos.get() + faltas.get();
+        return total == 0 ? 0.0 : (double) acertos.get() / total;
+    }
+
+    String format() {
+        return String.format("Stubs RMI em cache: %d | acertos: %d | faltas: %d | taxa de acerto: %.1f%% | invalidações: %d | atualizações: %d",
+                stubs.size(), acertos.get(), faltas.get(), getTaxaAcerto() * 100, invalidacoes.get(), atualizacoes.get());
+    }
+
+    void fechar() {
+        atualizador.shutdownNow();
+        stubs.clear();
+    }
+}
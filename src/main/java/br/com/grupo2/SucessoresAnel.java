@@ -0,0 +1,151 @@
+package br.com.grupo2;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Lista dos próximos membros vivos do anel a partir de um processo
+ * Mantém em cache os TAMANHO_PADRAO primeiros sucessores não suspeitos, recalculada só quando a
+ * visão de membros ou o conjunto de suspeitos muda; consultar o sucessor é O(1). Quem detecta a
+ * falha (conexão recusada, heartbeat sem resposta, PONG que não veio) marca o membro como
+ * suspeito e as mensagens seguintes já pulam para o próximo da lista, sem esperar um timeout
+ */
+public class SucessoresAnel {
+
+    public static final int TAMANHO_PADRAO = 3;
+
+    private final int processoId;
+    private final MembrosAnel membros;
+    private final int tamanho;
+    private final Set<Integer> suspeitos = ConcurrentHashMap.newKeySet();
+    private volatile List<Integer> sucessores = Collections.emptyList();
+    private final List<Runnable> ouvintes = new CopyOnWriteArrayList<>();
+
+    public SucessoresAnel(int processoId, MembrosAnel membros) {
+        this(processoId, membros, TAMANHO_PADRAO);
+    }
+
+    public SucessoresAnel(int processoId, MembrosAnel membros, int tamanho) {
+        this.processoId = processoId;
+        this.membros = membros;
+        this.tamanho = tamanho;
+        membros.adicionarOuvinte(new MembrosAnel.Ouvinte() {
+            @Override
+            public void membroEntrou(MembrosAnel.Membro membro) {
+                recalcular();
+            }
+
+            @Override
+            public void membroSaiu(MembrosAnel.Membro membro) {
+                suspeitos.remove(membro.getId());
+                recalcular();
+            }
+        });
+        recalcular();
+    }
+
+    /**
+     * Recalcula o cache percorrendo o anel a partir do sucessor; synchronized para que duas
+     * mudanças simultâneas não publiquem uma lista velha por último
+     */
+    private void recalcular() {
+        boolean mudou;
+        synchronized (this) {
+            List<Integer> vivos = new ArrayList<>(tamanho);
+            for (int id : membros.anelAPartirDe(processoId)) {
+                if (!suspeitos.contains(id)) {
+                    vivos.add(id);
+                    if (vivos.size() == tamanho) {
+                        break;
+                    }
+                }
+            }
+            mudou = !vivos.equals(sucessores);
+            sucessores = Collections.unmodifiableList(vivos);
+        }
+        if (mudou) {
+            for (Runnable ouvinte : ouvintes) {
+                ouvinte.run();
+            }
+        }
+    }
+    
+    /**
+     * Avisado sempre que a lista de sucessores vivos muda
+     */
+    public void adicionarOuvinte(Runnable ouvinte) {
+        ouvintes.add(ouvinte);
+    }
+
+    /**
+     * true se o membro passou a ser suspeito agora
+     */
+    public boolean marcarSuspeito(int id) {
+        if (id == processoId || !suspeitos.add(id)) {
+            return false;
+        }
+        recalcular();
+        return true;
+    }
+
+    /**
+     * true se o membro era suspeito e voltou
+     */
+    public boolean marcarAtivo(int id) {
+        if (!suspeitos.remove(id)) {
+            return false;
+        }
+        recalcular();
+        return true;
+    }
+
+    public boolean isSuspeito(int id) {
+        return suspeitos.contains(id);
+    }
+
+    public Set<Integer> getSuspeitos() {
+        return Collections.unmodifiableSet(suspeitos);
+    }
+
+    /**
+     * Os próximos membros vivos, na ordem do anel
+     */
+    public List<Integer> getSucessores() {
+        return sucessores;
+    }
+
+    /**
+     * Primeiro sucessor vivo, ou o próprio processo se não houver nenhum
+     */
+    public int primeiro() {
+        List<Integer> atual = sucessores;
+        return atual.isEmpty() ? processoId : atual.get(0);
+    }
+
+    /**
+     * Próximo membro vivo fora de excluidos: primeiro pela lista em cache e, se todos ali já foram
+     * tentados, pelo resto do anel; -1 se não sobrou ninguém
+     */
+    public int proximoVivo(Set<Integer> excluidos) {
+        for (int id : sucessores) {
+            if (!excluidos.contains(id) && !suspeitos.contains(id)) {
+                return id;
+            }
+        }
+        for (int id : membros.anelAPartirDe(processoId)) {
+            if (!excluidos.contains(id) && !suspeitos.contains(id)) {
+                return id;
+            }
+        }
+        return -1;
+    }
+
+    public String format() {
+        return "Sucessores vivos: " + sucessores + " | suspeitos: " + new TreeSet<>(suspeitos);
+    }
+}
@@ -1,14 +1,12 @@
 package br.com.models;
 
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import br.com.utils.CanalSocket;
 
 public class ConexaoOutrosProcessos {
     private String nomeProcesso;
     private int parametroEleicao;
     private int porta;
-    private ObjectOutputStream objectOutputStream;
-    private ObjectInputStream objectInputStream;
+    private volatile CanalSocket canal;
     
     public ConexaoOutrosProcessos() {}
     
@@ -36,19 +34,27 @@ public class ConexaoOutrosProcessos {
         this.porta = porta;
     }
     
-    public ObjectOutputStream getObjectOutputStream() {
-        return objectOutputStream;
+    public CanalSocket getCanal() {
+        return canal;
     }
     
-    public void setObjectOutputStream(ObjectOutputStream objectOutputStream) {
-        this.objectOutputStream = objectOutputStream;
+    public void setCanal(CanalSocket canal) {
+        this.canal = canal;
     }
     
-    public ObjectInputStream getObjectInputStream() {
-        return objectInputStream;
+    public boolean isConectado() {
+        CanalSocket atual = canal;
+        return atual != null && atual.isAberto();
     }
     
-    public void setObjectInputStream(ObjectInputStream objectInputStream) {
-        this.objectInputStream = objectInputStream;
+    /**
+     * Fecha o canal atual; o PoolConexoes se encarrega de abrir um novo
+     */
+    public void desconectar() {
+        CanalSocket atual = canal;
+        canal = null;
+        if (atual != null) {
+            atual.fechar();
+        }
     }
 }
\ No newline at end of file
@@ -5,15 +5,17 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 public class Mensagem implements Serializable {
-    private static final long serialVersionUID = 1L;
+    private static final long serialVersionUID = 2L;
     
     private UUID idMensagem;
+    private UUID idMensagemOrigem; // Preenchido nas respostas com o idMensagem da requisição
     private String processoRemetente;
     private String processoDestinatario;
     private LocalDateTime dataMensagem;
-    private int clockMensagem;
+    private long clockMensagem;
     private String conteudoMensagem;
     private TipoMensagem tipoMensagem;
+    private long termoEleicao; // Termo da eleição em ELEICAO, ELEICAO_OK e NOVO_LIDER; 0 nas demais
     
     public Mensagem() {}
     
@@ -25,6 +27,14 @@ public class Mensagem implements Serializable {
         this.idMensagem = idMensagem;
     }
     
+    public UUID getIdMensagemOrigem() {
+        return idMensagemOrigem;
+    }
+    
+    public void setIdMensagemOrigem(UUID idMensagemOrigem) {
+        this.idMensagemOrigem = idMensagemOrigem;
+    }
+    
     public String getProcessoRemetente() {
         return processoRemetente;
     }
@@ -49,11 +59,11 @@ public class Mensagem implements Serializable {
         this.dataMensagem = dataMensagem;
     }
     
-    public int getClockMensagem() {
+    public long getClockMensagem() {
         return clockMensagem;
     }
     
-    public void setClockMensagem(int clockMensagem) {
+    public void setClockMensagem(long clockMensagem) {
         this.clockMensagem = clockMensagem;
     }
     
@@ -72,4 +82,12 @@ public class Mensagem implements Serializable {
     public void setTipoMensagem(TipoMensagem tipoMensagem) {
         this.tipoMensagem = tipoMensagem;
     }
+    
+    public long getTermoEleicao() {
+        return termoEleicao;
+    }
+    
+    public void setTermoEleicao(long termoEleicao) {
+        this.termoEleicao = termoEleicao;
+    }
 }
\ No newline at end of file
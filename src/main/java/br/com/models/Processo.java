@@ -1,5 +1,8 @@
 package br.com.models;
 
+import br.com.utils.JournalMensagens;
+import br.com.utils.RelogioLamport;
+
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
@@ -7,27 +10,31 @@ import java.util.UUID;
 public class Processo {
     private UUID idProcesso;
     private String nomeProcesso;
-    private int clockProcesso;
+    private final RelogioLamport relogio;
     private int parametroEleicao;
     private int porta;
     private boolean lider;
     private String liderAtual;
     private boolean supercoordenador = false; // Indica se este processo é o supercoordenador
     private List<ConexaoOutrosProcessos> conexaoOutrosProcessos;
-    private List<Mensagem> mensagensRecebidas;
-    private List<Mensagem> mensagensEnviadas;
+    private final JournalMensagens mensagensRecebidas;
+    private final JournalMensagens mensagensEnviadas;
     
     public Processo() {
+        this("Processo", 0);
+    }
+    
+    private Processo(String nomeProcesso, long clockInicial) {
+        this.relogio = new RelogioLamport(clockInicial);
         this.conexaoOutrosProcessos = new ArrayList<>();
-        this.mensagensRecebidas = new ArrayList<>();
-        this.mensagensEnviadas = new ArrayList<>();
+        this.mensagensRecebidas = JournalMensagens.criar(nomeProcesso + "-recebidas");
+        this.mensagensEnviadas = JournalMensagens.criar(nomeProcesso + "-enviadas");
     }
     
-    public Processo(UUID idProcesso, String nomeProcesso, int clockProcesso, int parametroEleicao, int porta, boolean lider, String liderAtual) {
-        this();
+    public Processo(UUID idProcesso, String nomeProcesso, long clockProcesso, int parametroEleicao, int porta, boolean lider, String liderAtual) {
+        this(nomeProcesso, clockProcesso);
         this.idProcesso = idProcesso;
         this.nomeProcesso = nomeProcesso;
-        this.clockProcesso = clockProcesso;
         this.parametroEleicao = parametroEleicao;
         this.porta = porta;
         this.lider = lider;
@@ -50,12 +57,15 @@ public class Processo {
         this.nomeProcesso = nomeProcesso;
     }
     
-    public int getClockProcesso() {
-        return clockProcesso;
+    public long getClockProcesso() {
+        return relogio.getValor();
     }
     
-    public void setClockProcesso(int clockProcesso) {
-        this.clockProcesso = clockProcesso;
+    /**
+     * Relógio lógico do processo; use tick() ao enviar e merge() ao receber
+     */
+    public RelogioLamport getRelogio() {
+        return relogio;
     }
     
     public int getParametroEleicao() {
@@ -98,22 +108,14 @@ public class Processo {
         this.conexaoOutrosProcessos = conexaoOutrosProcessos;
     }
     
-    public List<Mensagem> getMensagensRecebidas() {
+    public JournalMensagens getMensagensRecebidas() {
         return mensagensRecebidas;
     }
     
-    public void setMensagensRecebidas(List<Mensagem> mensagensRecebidas) {
-        this.mensagensRecebidas = mensagensRecebidas;
-    }
-    
-    public List<Mensagem> getMensagensEnviadas() {
+    public JournalMensagens getMensagensEnviadas() {
         return mensagensEnviadas;
     }
     
-    public void setMensagensEnviadas(List<Mensagem> mensagensEnviadas) {
-        this.mensagensEnviadas = mensagensEnviadas;
-    }
-    
     public boolean isSupercoordenador() {
         return supercoordenador;
     }
@@ -11,5 +11,9 @@ public enum TipoMensagem {
     RESPOSTA_SNAPSHOT,
     PING,
     PONG,
-    MULTICAST
+    MULTICAST,
+    TRANSFERIR_LIDERANCA,
+    LIDERANCA_ACEITA,
+    LIDERANCA_RECUSADA,
+    LIDER_VIVO
 }
\ No newline at end of file
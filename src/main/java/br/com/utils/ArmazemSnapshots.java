@@ -0,0 +1,397 @@
+package br.com.utils;
+
+import br.com.models.Mensagem;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Armazém persistente dos snapshots de um processo
+ *
+ * Cada snapshot é gravado em um arquivo local append-only como um delta em relação
+ * ao snapshot anterior: apenas as mensagens que entraram nos journals desde então,
+ * o novo valor do relógio e as mensagens em trânsito daquele corte. Qualquer snapshot
+ * pode ser reconstruído reaplicando os deltas desde o início do arquivo
+ *
+ * Registro: tamanho (int) | crc32 (int) | conteúdo. Um registro incompleto no fim do
+ * arquivo (processo derrubado no meio da escrita) é descartado ao abrir
+ *
+ * Configuração: -Dsnapshot.diretorio=DIR (padrão "snapshots")
+ */
+public class ArmazemSnapshots {
+
+    private static final int CABECALHO_REGISTRO = Integer.BYTES * 2;
+
+    /**
+     * Estado de um snapshot reconstruído a partir dos deltas
+     */
+    public static class EstadoReconstruido {
+        private final String idSnapshot;
+        private final long clock;
+        private final List<Mensagem> recebidas;
+        private final List<Mensagem> enviadas;
+        private final Map<String, List<String>> canais;
+        private final boolean completo;
+        private final int deltasAplicados;
+
+        EstadoReconstruido(String idSnapshot, long clock, List<Mensagem> recebidas, List<Mensagem> enviadas,
+                           Map<String, List<String>> canais, boolean completo, int deltasAplicados) {
+            this.idSnapshot = idSnapshot;
+            this.clock = clock;
+            this.recebidas = Collections.unmodifiableList(recebidas);
+            this.enviadas = Collections.unmodifiableList(enviadas);
+            this.canais = Collections.unmodifiableMap(canais);
+            this.completo = completo;
+            this.deltasAplicados = deltasAplicados;
+        }
+
+        public String getIdSnapshot() {
+            return idSnapshot;
+        }
+
+        public long getClock() {
+            return clock;
+        }
+
+        public List<Mensagem> getRecebidas() {
+            return recebidas;
+        }
+
+        public List<Mensagem> getEnviadas() {
+            return enviadas;
+        }
+
+        /**
+         * Mensagens em trânsito gravadas no corte, por remetente
+         */
+        public Map<String, List<String>> getCanais() {
+            return canais;
+        }
+
+        public boolean isCompleto() {
+            return completo;
+        }
+
+        public int getDeltasAplicados() {
+            return deltasAplicados;
+        }
+
+        public String format() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(TerminalColors.successMessage("=== SNAPSHOT " + idSnapshot + " (reconstruído de "
+                    + deltasAplicados + " delta(s)) ===")).append("\n");
+            sb.append("Clock: ").append(clock).append(completo ? "" : TerminalColors.errorMessage(" (incompleto)")).append("\n");
+            sb.append("Mensagens recebidas: ").append(recebidas.size())
+              .append(" | enviadas: ").append(enviadas.size()).append("\n");
+            for (Map.Entry<String, List<String>> canal : canais.entrySet()) {
+                sb.append("    canal de ").append(canal.getKey()).append(": ")
+                  .append(canal.getValue().size()).append(" mensagem(ns) em trânsito\n");
+            }
+            return sb.toString();
+        }
+    }
+
+    /**
+     * Posições dos journals e relógio no instante em que o estado local foi gravado
+     */
+    private static class Captura {
+        final long clock;
+        final long fimRecebidas;
+        final long fimEnviadas;
+        Map<String, List<String>> canais;
+        boolean completo;
+        boolean pronta = false;
+
+        Captura(long clock, long fimRecebidas, long fimEnviadas) {
+            this.clock = clock;
+            this.fimRecebidas = fimRecebidas;
+            this.fimEnviadas = fimEnviadas;
+        }
+    }
+
+    /**
+     * Conteúdo de um registro do arquivo
+     */
+    private static class Delta {
+        long clock;
+        final List<Mensagem> recebidas = new ArrayList<>();
+        final List<Mensagem> enviadas = new ArrayList<>();
+        boolean completo;
+        final Map<String, List<String>> canais = new LinkedHashMap<>();
+
+        static Delta ler(byte[] conteudo) throws IOException {
+            DataInputStream entrada = new DataInputStream(new ByteArrayInputStream(conteudo));
+            Delta delta = new Delta();
+            entrada.readUTF(); // id
+            entrada.readUTF(); // anterior
+            entrada.readLong(); // timestamp
+            delta.clock = entrada.readLong();
+            lerMensagens(entrada, delta.recebidas);
+            lerMensagens(entrada, delta.enviadas);
+            delta.completo = entrada.readBoolean();
+            int quantidadeCanais = entrada.readInt();
+            for (int i = 0; i < quantidadeCanais; i++) {
+                String remetente = entrada.readUTF();
+                int quantidade = entrada.readInt();
+                List<String> mensagens = new ArrayList<>(quantidade);
+                for (int j = 0; j < quantidade; j++) {
+                    mensagens.add(entrada.readUTF());
+                }
+                delta.canais.put(remetente, mensagens);
+            }
+            return delta;
+        }
+
+        private static void lerMensagens(DataInputStream entrada, List<Mensagem> destino) throws IOException {
+            entrada.readLong(); // lacuna
+            int quantidade = entrada.readInt();
+            for (int i = 0; i < quantidade; i++) {
+                byte[] mensagem = new byte[entrada.readInt()];
+                entrada.readFully(mensagem);
+                destino.add(FramesMensagem.decodificar(mensagem));
+            }
+        }
+    }
+
+    private final String nomeProcesso;
+    private final Path arquivo;
+    private final FileChannel canal;
+    private final RelogioLamport relogio;
+    private final JournalMensagens recebidas;
+    private final JournalMensagens enviadas;
+    private final List<String> ids = new ArrayList<>();
+    private final Map<String, Captura> capturas = new LinkedHashMap<>();
+    private long inicioRecebidas = 0;
+    private long inicioEnviadas = 0;
+
+    public ArmazemSnapshots(String nomeProcesso, Path arquivo, RelogioLamport relogio,
+                            JournalMensagens recebidas, JournalMensagens enviadas) throws IOException {
+        this.nomeProcesso = nomeProcesso;
+        this.arquivo = arquivo;
+        this.relogio = relogio;
+        this.recebidas = recebidas;
+        this.enviadas = enviadas;
+        if (arquivo.getParent() != null) {
+            Files.createDirectories(arquivo.getParent());
+        }
+        this.canal = FileChannel.open(arquivo, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        carregarIndice();
+    }
+
+    /**
+     * Abre o armazém do processo no diretório configurado
+     * @return null se o arquivo não puder ser aberto; os snapshots continuam funcionando sem persistência
+     */
+    public static ArmazemSnapshots criar(String nomeProcesso, RelogioLamport relogio,
+                                         JournalMensagens recebidas, JournalMensagens enviadas) {
+        String diretorio = System.getProperty("snapshot.diretorio", "snapshots");
+        try {
+            return new ArmazemSnapshots(nomeProcesso, Paths.get(diretorio, nomeProcesso + ".snapshots"),
+                    relogio, recebidas, enviadas);
+        } catch (IOException e) {
+            System.err.println(TerminalColors.errorMessage("[SNAPSHOT] Não foi possível abrir o armazém de "
+                    + nomeProcesso + ", snapshots não serão persistidos: " + e.getMessage()));
+            return null;
+        }
+    }
+
+    /**
+     * Guarda relógio e posições dos journals; chamado junto com a gravação do estado local,
+     * com a trava de escrita do snapshot adquirida
+     */
+    public synchronized void capturar(String idSnapshot) {
+        capturas.put(idSnapshot, new Captura(relogio.getValor(),
+                recebidas.getTotalAdicionadas(), enviadas.getTotalAdicionadas()));
+    }
+
+    /**
+     * Persiste o snapshot quando as mensagens em trânsito são conhecidas
+     * Os registros saem na ordem de captura, para que cada delta siga o anterior
+     */
+    public synchronized void persistir(String idSnapshot, Map<String, List<String>> canais, boolean completo) {
+        Captura captura = capturas.get(idSnapshot);
+        if (captura == null) {
+            return;
+        }
+        captura.canais = canais;
+        captura.completo = completo;
+        captura.pronta = true;
+
+        Iterator<Map.Entry<String, Captura>> pendentes = capturas.entrySet().iterator();
+        while (pendentes.hasNext()) {
+            Map.Entry<String, Captura> proxima = pendentes.next();
+            if (!proxima.getValue().pronta) {
+                break;
+            }
+            pendentes.remove();
+            try {
+                anexar(proxima.getKey(), proxima.getValue());
+            } catch (IOException e) {
+                System.err.println(TerminalColors.errorMessage("[SNAPSHOT] Erro ao persistir snapshot "
+                        + proxima.getKey() + ": " + e.getMessage()));
+            }
+        }
+    }
+
+    /**
+     * Ids dos snapshots persistidos, do mais antigo para o mais recente
+     */
+    public synchronized List<String> getIds() {
+        return new ArrayList<>(ids);
+    }
+
+    public Path getArquivo() {
+        return arquivo;
+    }
+
+    /**
+     * Reconstrói um snapshot aplicando, em ordem, todos os deltas até ele
+     */
+    public EstadoReconstruido reconstruir(String idSnapshot) throws IOException {
+        int alvo;
+        synchronized (this) {
+            alvo = ids.indexOf(idSnapshot);
+        }
+        if (alvo < 0) {
+            throw new IOException("Snapshot não encontrado: " + idSnapshot);
+        }
+
+        List<Mensagem> todasRecebidas = new ArrayList<>();
+        List<Mensagem> todasEnviadas = new ArrayList<>();
+        Delta delta = null;
+
+        try (DataInputStream entrada = new DataInputStream(new BufferedInputStream(Files.newInputStream(arquivo)))) {
+            for (int i = 0; i <= alvo; i++) {
+                int tamanho = entrada.readInt();
+                entrada.readInt(); // crc já validado ao carregar o índice
+                byte[] conteudo = new byte[tamanho];
+                entrada.readFully(conteudo);
+                delta = Delta.ler(conteudo);
+                todasRecebidas.addAll(delta.recebidas);
+                todasEnviadas.addAll(delta.enviadas);
+            }
+        }
+        return new EstadoReconstruido(idSnapshot, delta.clock, todasRecebidas, todasEnviadas,
+                delta.canais, delta.completo, alvo + 1);
+    }
+
+    public synchronized void fechar() {
+        try {
+            canal.close();
+        } catch (IOException e) {
+            // Ignora erro ao fechar arquivo
+        }
+    }
+
+    private void anexar(String idSnapshot, Captura captura) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream saida = new DataOutputStream(bytes);
+        saida.writeUTF(idSnapshot);
+        saida.writeUTF(ids.isEmpty() ? "" : ids.get(ids.size() - 1));
+        saida.writeLong(System.currentTimeMillis());
+        saida.writeLong(captura.clock);
+        int novas = escreverMensagens(saida, recebidas, inicioRecebidas, captura.fimRecebidas)
+                + escreverMensagens(saida, enviadas, inicioEnviadas, captura.fimEnviadas);
+        saida.writeBoolean(captura.completo);
+        saida.writeInt(captura.canais.size());
+        for (Map.Entry<String, List<String>> entrada : captura.canais.entrySet()) {
+            saida.writeUTF(entrada.getKey());
+            saida.writeInt(entrada.getValue().size());
+            for (String mensagem : entrada.getValue()) {
+                saida.writeUTF(mensagem);
+            }
+        }
+        saida.flush();
+
+        byte[] conteudo = bytes.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(conteudo);
+        ByteBuffer registro = ByteBuffer.allocate(CABECALHO_REGISTRO + conteudo.length);
+        registro.putInt(conteudo.length).putInt((int) crc.getValue()).put(conteudo).flip();
+        long posicao = canal.size();
+        while (registro.hasRemaining()) {
+            posicao += canal.write(registro, posicao);
+        }
+        canal.force(false);
+
+        ids.add(idSnapshot);
+        inicioRecebidas = Math.max(inicioRecebidas, captura.fimRecebidas);
+        inicioEnviadas = Math.max(inicioEnviadas, captura.fimEnviadas);
+        System.out.println(TerminalColors.successMessage("[SNAPSHOT] Snapshot " + idSnapshot + " armazenado: "
+                + novas + " mensagem(ns) nova(s), " + registro.capacity() + " bytes"));
+    }
+
+    /**
+     * Escreve as mensagens das sequências [inicio, fim); as que já saíram da memória
+     * são contadas como lacuna
+     */
+    private static int escreverMensagens(DataOutputStream saida, JournalMensagens journal,
+                                         long inicio, long fim) throws IOException {
+        List<byte[]> codificadas = new ArrayList<>();
+        JournalMensagens.Cursor cursor = journal.cursorEntre(inicio, fim);
+        while (cursor.hasNext()) {
+            codificadas.add(FramesMensagem.codificar(cursor.next()));
+        }
+        saida.writeLong(Math.max(0, fim - inicio - codificadas.size()));
+        saida.writeInt(codificadas.size());
+        for (byte[] mensagem : codificadas) {
+            saida.writeInt(mensagem.length);
+            saida.write(mensagem);
+        }
+        return codificadas.size();
+    }
+
+    /**
+     * Lê os ids já persistidos e corta um registro incompleto no fim do arquivo
+     * Os journals recomeçam do zero a cada execução, então o próximo delta parte da sequência 0
+     */
+    private void carregarIndice() throws IOException {
+        long valido = 0;
+        try (DataInputStream entrada = new DataInputStream(new BufferedInputStream(Files.newInputStream(arquivo)))) {
+            while (true) {
+                int tamanho = entrada.readInt();
+                int crcEsperado = entrada.readInt();
+                if (tamanho < 0) {
+                    break;
+                }
+                byte[] conteudo = new byte[tamanho];
+                entrada.readFully(conteudo);
+                CRC32 crc = new CRC32();
+                crc.update(conteudo);
+                if ((int) crc.getValue() != crcEsperado) {
+                    break;
+                }
+                ids.add(new DataInputStream(new ByteArrayInputStream(conteudo)).readUTF());
+                valido += CABECALHO_REGISTRO + tamanho;
+            }
+        } catch (EOFException e) {
+            // Fim do arquivo (ou registro incompleto)
+        }
+        if (canal.size() > valido) {
+            System.err.println(TerminalColors.warningMessage("[SNAPSHOT] Registro incompleto descartado em " + arquivo));
+            canal.truncate(valido);
+        }
+        if (!ids.isEmpty()) {
+            System.out.println(TerminalColors.successMessage("[SNAPSHOT] " + ids.size() + " snapshot(s) de "
+                    + nomeProcesso + " encontrados em " + arquivo));
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package br.com.utils;
+
+import br.com.models.Mensagem;
+
+import java.io.IOException;
+
+/**
+ * Canal de comunicação capaz de enviar mensagens para um processo remoto
+ * Implementado tanto pelo lado cliente (CanalSocket) quanto pelas conexões
+ * aceitas pelo TransporteNio
+ */
+public interface CanalMensagem {
+    
+    /**
+     * Envia uma mensagem pelo canal
+     * @param mensagem A mensagem a ser enviada
+     * @throws IOException Em caso de erro na comunicação
+     */
+    void enviar(Mensagem mensagem) throws IOException;
+    
+    /**
+     * Reserva a vez da mensagem na ordem do canal sem E/S bloqueante; ela sai no próximo
+     * escreverEnfileiradas ou enviar. Serve para ordenar a mensagem sob uma trava e
+     * escrever depois de soltá-la. Por padrão equivale a enviar (canais que só enfileiram)
+     */
+    default void enfileirar(Mensagem mensagem) throws IOException {
+        enviar(mensagem);
+    }
+    
+    /**
+     * Escreve as mensagens enfileiradas que ainda não saíram
+     */
+    default void escreverEnfileiradas() throws IOException {
+    }
+    
+    /**
+     * Verifica se o canal ainda está aberto
+     * @return true se o canal está aberto
+     */
+    boolean isAberto();
+    
+    /**
+     * Fecha o canal e libera os recursos associados
+     */
+    void fechar();
+}
@@ -0,0 +1,251 @@
+package br.com.utils;
+
+import br.com.models.Mensagem;
+import br.com.models.TipoMensagem;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Canal bloqueante do lado cliente para falar com o TransporteNio de outro processo
+ * Usa o mesmo formato de frame (tamanho + conteúdo) do servidor
+ *
+ * Com iniciarLeitura, uma única thread lê o canal e separa as respostas (correlacionadas
+ * por idMensagemOrigem) do tráfego de controle não solicitado, permitindo várias
+ * requisições em andamento ao mesmo tempo
+ *
+ * sondar envia um PING de sonda que o TransporteNio do outro lado responde com PONG direto
+ * do laço de eventos; sonda e resposta não passam pelo manipulador nem pelo interceptador
+ */
+public class CanalSocket implements CanalMensagem {
+    
+    private static final int TIMEOUT_CONEXAO = 3000; // 3 segundos
+    static final String CONTEUDO_SONDA = "SONDA";
+    
+    private final Socket socket;
+    private final DataOutputStream saida;
+    private final DataInputStream entrada;
+    private final Object lockEscrita = new Object();
+    private final Object lockLeitura = new Object();
+    private final Map<UUID, CompletableFuture<Mensagem>> pendentes = new ConcurrentHashMap<>();
+    // Frames na ordem do canal ainda não escritos; quem escreve esvazia a fila inteira
+    private final Queue<byte[]> filaSaida = new ConcurrentLinkedQueue<>();
+    private volatile InterceptadorCanais interceptador;
+    private volatile long ultimaLeituraNanos = System.nanoTime();
+    
+    private CanalSocket(Socket socket) throws IOException {
+        this.socket = socket;
+        this.socket.setTcpNoDelay(true);
+        this.socket.setKeepAlive(true);
+        this.saida = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        this.entrada = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+    }
+    
+    /**
+     * Abre uma conexão com o processo na porta informada
+     */
+    public static CanalSocket conectar(String host, int porta) throws IOException {
+        Socket socket = new Socket();
+        try {
+            socket.connect(new InetSocketAddress(host, porta), TIMEOUT_CONEXAO);
+            return new CanalSocket(socket);
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+    }
+    
+    /**
+     * Instala o interceptador (ex.: SnapshotDistribuido); deve ser chamado antes de iniciarLeitura
+     */
+    public void setInterceptador(InterceptadorCanais interceptador) {
+        this.interceptador = interceptador;
+    }
+    
+    @Override
+    public void enviar(Mensagem mensagem) throws IOException {
+        byte[] conteudo = FramesMensagem.codificar(mensagem);
+        InterceptadorCanais interceptador = this.interceptador;
+        Lock trava = interceptador != null ? interceptador.getTravaEnvio().readLock() : null;
+        // Só a vez na fila é tomada sob a trava do snapshot; a escrita bloqueante vem depois
+        if (trava != null) {
+            trava.lock();
+        }
+        try {
+            filaSaida.add(conteudo);
+        } finally {
+            if (trava != null) {
+                trava.unlock();
+            }
+        }
+        escreverEnfileiradas();
+    }
+    
+    @Override
+    public void enfileirar(Mensagem mensagem) throws IOException {
+        filaSaida.add(FramesMensagem.codificar(mensagem));
+    }
+    
+    @Override
+    public void escreverEnfileiradas() throws IOException {
+        synchronized (lockEscrita) {
+            byte[] conteudo = filaSaida.poll();
+            if (conteudo == null) {
+                return;
+            }
+            do {
+                saida.writeInt(conteudo.length);
+                saida.write(conteudo);
+            } while ((conteudo = filaSaida.poll()) != null);
+            saida.flush();
+        }
+    }
+    
+    /**
+     * Envia uma requisição e devolve a resposta correlacionada pelo idMensagem
+     * O futuro falha com TimeoutException se a resposta não chegar no prazo
+     * Requer que iniciarLeitura tenha sido chamado
+     */
+    public CompletableFuture<Mensagem> enviarRequisicao(Mensagem requisicao, long timeoutMs) throws IOException {
+        if (requisicao.getIdMensagem() == null) {
+            requisicao.setIdMensagem(UUID.randomUUID());
+        }
+        UUID id = requisicao.getIdMensagem();
+        CompletableFuture<Mensagem> futuro = new CompletableFuture<>();
+        pendentes.put(id, futuro);
+
+        try {
+            enviar(requisicao);
+        } catch (IOException e) {
+            pendentes.remove(id);
+            throw e;
+        }
+
+        return futuro.orTimeout(timeoutMs, TimeUnit.MILLISECONDS)
+                .whenComplete((resposta, erro) -> pendentes.remove(id));
+    }
+    
+    /**
+     * Sonda de liveness: o futuro completa com o PONG do outro lado e falha com TimeoutException
+     * se ele não vier no prazo (processo travado ou conexão meio aberta)
+     * Requer que iniciarLeitura tenha sido chamado
+     */
+    public CompletableFuture<Mensagem> sondar(long timeoutMs) throws IOException {
+        Mensagem sonda = new Mensagem();
+        sonda.setIdMensagem(UUID.randomUUID());
+        sonda.setTipoMensagem(TipoMensagem.PING);
+        sonda.setConteudoMensagem(CONTEUDO_SONDA);
+        sonda.setDataMensagem(LocalDateTime.now());
+        return enviarRequisicao(sonda, timeoutMs);
+    }
+    
+    /**
+     * Milissegundos desde o último frame recebido neste canal
+     */
+    public long getInativoMs() {
+        return (System.nanoTime() - ultimaLeituraNanos) / 1_000_000L;
+    }
+    
+    /**
+     * PING de sonda (tipo PING com conteúdo SONDA), respondido pelo transporte e não pela aplicação
+     */
+    static boolean isSonda(Mensagem mensagem) {
+        return mensagem.getTipoMensagem() == TipoMensagem.PING && CONTEUDO_SONDA.equals(mensagem.getConteudoMensagem());
+    }
+    
+    private static boolean isRespostaSonda(Mensagem mensagem) {
+        return mensagem.getTipoMensagem() == TipoMensagem.PONG && CONTEUDO_SONDA.equals(mensagem.getConteudoMensagem());
+    }
+    
+    /**
+     * Inicia a thread leitora do canal
+     * @param manipulador recebe as mensagens que não são respostas a requisições pendentes
+     * @param aoFechar chamado uma vez quando o canal cai
+     */
+    public void iniciarLeitura(TransporteNio.ManipuladorMensagem manipulador, Runnable aoFechar) {
+        Thread leitor = new Thread(() -> {
+            try {
+                while (isAberto()) {
+                    Mensagem mensagem = receber();
+                    InterceptadorCanais interceptador = this.interceptador;
+                    if (interceptador != null && !isRespostaSonda(mensagem)) {
+                        interceptador.mensagemRecebida(this, mensagem, () -> despachar(mensagem, manipulador));
+                    } else {
+                        despachar(mensagem, manipulador);
+                    }
+                }
+            } catch (IOException e) {
+                // Canal fechado pelo outro lado ou por fechar()
+            }
+            fechar();
+            aoFechar.run();
+        }, "CanalSocket-leitor-" + socket.getPort());
+        leitor.setDaemon(true);
+        leitor.start();
+    }
+    
+    private void despachar(Mensagem mensagem, TransporteNio.ManipuladorMensagem manipulador) {
+        CompletableFuture<Mensagem> futuro = mensagem.getIdMensagemOrigem() != null
+                ? pendentes.remove(mensagem.getIdMensagemOrigem())
+                : null;
+        if (futuro != null) {
+            futuro.complete(mensagem);
+            return;
+        }
+        try {
+            manipulador.processar(mensagem, this);
+        } catch (RuntimeException e) {
+            System.err.println(TerminalColors.errorMessage("[ERRO] Erro ao processar mensagem: " + e.getMessage()));
+        }
+    }
+    
+    /**
+     * Bloqueia até receber a próxima mensagem do canal
+     * Não deve ser usado junto com iniciarLeitura
+     */
+    public Mensagem receber() throws IOException {
+        synchronized (lockLeitura) {
+            int tamanho = entrada.readInt();
+            FramesMensagem.validarTamanho(tamanho);
+            byte[] conteudo = new byte[tamanho];
+            entrada.readFully(conteudo);
+            ultimaLeituraNanos = System.nanoTime();
+            return FramesMensagem.decodificar(conteudo);
+        }
+    }
+    
+    @Override
+    public boolean isAberto() {
+        return !socket.isClosed();
+    }
+    
+    @Override
+    public void fechar() {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Ignora erro ao fechar socket
+        }
+        IOException fechado = new IOException("Conexão fechada");
+        for (UUID id : pendentes.keySet()) {
+            CompletableFuture<Mensagem> futuro = pendentes.remove(id);
+            if (futuro != null) {
+                futuro.completeExceptionally(fechado);
+            }
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package br.com.utils;
+
+import br.com.models.Mensagem;
+import br.com.models.TipoMensagem;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Codec binário compacto escrito à mão para Mensagem
+ *
+ * Formato (após o cabeçalho de tamanho do frame):
+ * versão (1 byte) | presença (1 byte) | UUID (16 bytes) | UUID de origem (16 bytes, só em respostas)
+ * | data em nanos desde a época (8 bytes)
+ * | clock (varint zigzag) | remetente | destinatário | tipo (ordinal, 1 byte) | conteúdo (varint + UTF-8)
+ * | termo da eleição (varint, só quando diferente de 0)
+ *
+ * Remetente e destinatário usam 1 byte quando são identificadores conhecidos do sistema
+ */
+public class CodecBinarioMensagem implements CodecMensagem {
+
+    public static final String NOME = "binario";
+
+    private static final byte VERSAO = 1;
+
+    // Bits do byte de presença para campos opcionais
+    private static final int TEM_ID = 1;
+    private static final int TEM_DATA = 1 << 1;
+    private static final int TEM_TIPO = 1 << 2;
+    private static final int TEM_CONTEUDO = 1 << 3;
+    private static final int TEM_ORIGEM = 1 << 4;
+    private static final int TEM_TERMO = 1 << 5;
+
+    // Marcadores de identificador: 0 = nulo, 1 = texto literal, 2+ = tabela de identificadores
+    private static final int ID_NULO = 0;
+    private static final int ID_LITERAL = 1;
+    private static final int ID_PRIMEIRO_INTERNADO = 2;
+
+    // Identificadores conhecidos; novos nomes devem ser adicionados somente ao final
+    private static final String[] IDENTIFICADORES = {
+        "Processo1", "Processo2", "Processo3",
+        "ProcessoRMI1", "ProcessoRMI2", "ProcessoRMI3",
+        "1", "2", "3", "TODOS"
+    };
+    private static final Map<String, Integer> INDICE_IDENTIFICADORES = new HashMap<>();
+
+    static {
+        for (int i = 0; i < IDENTIFICADORES.length; i++) {
+            INDICE_IDENTIFICADORES.put(IDENTIFICADORES[i], ID_PRIMEIRO_INTERNADO + i);
+        }
+    }
+
+    private static final TipoMensagem[] TIPOS = TipoMensagem.values();
+    private static final long NANOS_POR_SEGUNDO = 1_000_000_000L;
+
+    @Override
+    public byte[] codificar(Mensagem mensagem) throws IOException {
+        Escritor escritor = new Escritor();
+
+        int presenca = 0;
+        if (mensagem.getIdMensagem() != null) presenca |= TEM_ID;
+        if (mensagem.getDataMensagem() != null) presenca |= TEM_DATA;
+        if (mensagem.getTipoMensagem() != null) presenca |= TEM_TIPO;
+        if (mensagem.getConteudoMensagem() != null) presenca |= TEM_CONTEUDO;
+        if (mensagem.getIdMensagemOrigem() != null) presenca |= TEM_ORIGEM;
+        if (mensagem.getTermoEleicao() != 0) presenca |= TEM_TERMO;
+
+        escritor.escreverByte(VERSAO);
+        escritor.escreverByte(presenca);
+
+        if ((presenca & TEM_ID) != 0) {
+            escritor.escreverLong(mensagem.getIdMensagem().getMostSignificantBits());
+            escritor.escreverLong(mensagem.getIdMensagem().getLeastSignificantBits());
+        }
+        if ((presenca & TEM_ORIGEM) != 0) {
+            escritor.escreverLong(mensagem.getIdMensagemOrigem().getMostSignificantBits());
+            escritor.escreverLong(mensagem.getIdMensagemOrigem().getLeastSignificantBits());
+        }
+        if ((presenca & TEM_DATA) != 0) {
+            LocalDateTime data = mensagem.getDataMensagem();
+            escritor.escreverLong(data.toEpochSecond(ZoneOffset.UTC) * NANOS_POR_SEGUNDO + data.getNano());
+        }
+
+        escritor.escreverVarLong(zigzag(mensagem.getClockMensagem()));
+        escreverIdentificador(escritor, mensagem.getProcessoRemetente());
+        escreverIdentificador(escritor, mensagem.getProcessoDestinatario());
+
+        if ((presenca & TEM_TIPO) != 0) {
+            escritor.escreverByte(mensagem.getTipoMensagem().ordinal());
+        }
+        if ((presenca & TEM_CONTEUDO) != 0) {
+            escritor.escreverTexto(mensagem.getConteudoMensagem());
+        }
+        if ((presenca & TEM_TERMO) != 0) {
+            escritor.escreverVarLong(mensagem.getTermoEleicao());
+        }
+
+        return escritor.toByteArray();
+    }
+
+    @Override
+    public Mensagem decodificar(byte[] conteudo) throws IOException {
+        Leitor leitor = new Leitor(conteudo);
+
+        int versao = leitor.lerByte();
+        if (versao != VERSAO) {
+            throw new IOException("Versão de codec não suportada: " + versao);
+        }
+        int presenca = leitor.lerByte();
+
+        Mensagem mensagem = new Mensagem();
+        if ((presenca & TEM_ID) != 0) {
+            mensagem.setIdMensagem(new UUID(leitor.lerLong(), leitor.lerLong()));
+        }
+        if ((presenca & TEM_ORIGEM) != 0) {
+            mensagem.setIdMensagemOrigem(new UUID(leitor.lerLong(), leitor.lerLong()));
+        }
+        if ((presenca & TEM_DATA) != 0) {
+            long nanos = leitor.lerLong();
+            mensagem.setDataMensagem(LocalDateTime.ofEpochSecond(
+                Math.floorDiv(nanos, NANOS_POR_SEGUNDO), (int) Math.floorMod(nanos, NANOS_POR_SEGUNDO), ZoneOffset.UTC));
+        }
+
+        mensagem.setClockMensagem(deszigzag(leitor.lerVarLong()));
+        mensagem.setProcessoRemetente(lerIdentificador(leitor));
+        mensagem.setProcessoDestinatario(lerIdentificador(leitor));
+
+        if ((presenca & TEM_TIPO) != 0) {
+            int ordinal = leitor.lerByte();
+            if (ordinal >= TIPOS.length) {
+                throw new IOException("Tipo de mensagem desconhecido: " + ordinal);
+            }
+            mensagem.setTipoMensagem(TIPOS[ordinal]);
+        }
+        if ((presenca & TEM_CONTEUDO) != 0) {
+            mensagem.setConteudoMensagem(leitor.lerTexto());
+        }
+        if ((presenca & TEM_TERMO) != 0) {
+            mensagem.setTermoEleicao(leitor.lerVarLong());
+        }
+
+        return mensagem;
+    }
+
+    @Override
+    public String getNome() {
+        return NOME;
+    }
+
+    private static void escreverIdentificador(Escritor escritor, String identificador) {
+        if (identificador == null) {
+            escritor.escreverByte(ID_NULO);
+            return;
+        }
+        Integer indice = INDICE_IDENTIFICADORES.get(identificador);
+        if (indice != null) {
+            escritor.escreverByte(indice);
+        } else {
+            escritor.escreverByte(ID_LITERAL);
+            escritor.escreverTexto(identificador);
+        }
+    }
+
+    private static String lerIdentificador(Leitor leitor) throws IOException {
+        int marcador = leitor.lerByte();
+        if (marcador == ID_NULO) {
+            return null;
+        }
+        if (marcador == ID_LITERAL) {
+            return leitor.lerTexto();
+        }
+        int indice = marcador - ID_PRIMEIRO_INTERNADO;
+        if (indice >= IDENTIFICADORES.length) {
+            throw new IOException("Identificador desconhecido: " + marcador);
+        }
+        return IDENTIFICADORES[indice];
+    }
+
+    private static long zigzag(long valor) {
+        return (valor << 1) ^ (valor >> 63);
+    }
+
+    private static long deszigzag(long valor) {
+        return (valor >>> 1) ^ -(valor & 1);
+    }
+
+    /**
+     * Buffer de escrita sem sincronização (ao contrário de ByteArrayOutputStream)
+     */
+    private static final class Escritor {
+        private byte[] dados = new byte[64];
+        private int posicao = 0;
+
+        void escreverByte(int valor) {
+            garantir(1);
+            dados[posicao++] = (byte) valor;
+        }
+
+        void escreverLong(long valor) {
+            garantir(8);
+            for (int deslocamento = 56; deslocamento >= 0; deslocamento -= 8) {
+                dados[posicao++] = (byte) (valor >>> deslocamento);
+            }
+        }
+
+        void escreverVarLong(long valor) {
+            garantir(10);
+            while ((valor & ~0x7FL) != 0) {
+                dados[posicao++] = (byte) ((valor & 0x7F) | 0x80);
+                valor >>>= 7;
+            }
+            dados[posicao++] = (byte) valor;
+        }
+
+        void escreverTexto(String texto) {
+            byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+            escreverVarLong(bytes.length);
+            garantir(bytes.length);
+            System.arraycopy(bytes, 0, dados, posicao, bytes.length);
+            posicao += bytes.length;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(dados, posicao);
+        }
+
+        private void garantir(int quantidade) {
+            if (posicao + quantidade > dados.length) {
+                dados = Arrays.copyOf(dados, Math.max(dados.length * 2, posicao + quantidade));
+            }
+        }
+    }
+
+    /**
+     * Leitura sequencial com verificação de limites
+     */
+    private static final class Leitor {
+        private final byte[] dados;
+        private int posicao = 0;
+
+        Leitor(byte[] dados) {
+            this.dados = dados;
+        }
+
+        int lerByte() throws IOException {
+            exigir(1);
+            return dados[posicao++] & 0xFF;
+        }
+
+        long lerLong() throws IOException {
+            exigir(8);
+            long valor = 0;
+            for (int i = 0; i < 8; i++) {
+                valor = (valor << 8) | (dados[posicao++] & 0xFF);
+            }
+            return valor;
+        }
+
+        long lerVarLong() throws IOException {
+            long valor = 0;
+            for (int deslocamento = 0; deslocamento < 64; deslocamento += 7) {
+                int b = lerByte();
+                valor |= (long) (b & 0x7F) << deslocamento;
+                if ((b & 0x80) == 0) {
+                    return valor;
+                }
+            }
+            throw new IOException("Varint malformado");
+        }
+
+        String lerTexto() throws IOException {
+            long tamanho = lerVarLong();
+            if (tamanho < 0 || tamanho > dados.length - posicao) {
+                throw new IOException("Tamanho de texto inválido: " + tamanho);
+            }
+            String texto = new String(dados, posicao, (int) tamanho, StandardCharsets.UTF_8);
+            posicao += (int) tamanho;
+            return texto;
+        }
+
+        private void exigir(int quantidade) throws IOException {
+            if (posicao + quantidade > dados.length) {
+                throw new IOException("Frame truncado");
+            }
+        }
+    }
+}
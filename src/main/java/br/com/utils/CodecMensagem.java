@@ -0,0 +1,33 @@
+package br.com.utils;
+
+import br.com.models.Mensagem;
+
+import java.io.IOException;
+
+/**
+ * Estratégia de codificação de Mensagem para trafegar em frames binários
+ * Usada pelos canais do grupo 1 e pelo caminho RMI de recebimento de mensagens
+ */
+public interface CodecMensagem {
+    
+    /**
+     * Codifica a mensagem em bytes
+     * @param mensagem A mensagem a ser codificada
+     * @return Conteúdo codificado
+     * @throws IOException Em caso de erro na codificação
+     */
+    byte[] codificar(Mensagem mensagem) throws IOException;
+    
+    /**
+     * Decodifica bytes produzidos por {@link #codificar(Mensagem)}
+     * @param conteudo Conteúdo codificado
+     * @return A mensagem decodificada
+     * @throws IOException Se o conteúdo for inválido
+     */
+    Mensagem decodificar(byte[] conteudo) throws IOException;
+    
+    /**
+     * Nome usado na configuração e nos relatórios de comparação
+     */
+    String getNome();
+}
@@ -0,0 +1,41 @@
+package br.com.utils;
+
+import br.com.models.Mensagem;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+/**
+ * Codec baseado em serialização Java (ObjectOutputStream)
+ * Mantido como referência de compatibilidade e para comparação com o codec binário
+ */
+public class CodecSerializacaoJava implements CodecMensagem {
+    
+    public static final String NOME = "java";
+    
+    @Override
+    public byte[] codificar(Mensagem mensagem) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(mensagem);
+        }
+        return bytes.toByteArray();
+    }
+    
+    @Override
+    public Mensagem decodificar(byte[] conteudo) throws IOException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(conteudo))) {
+            return (Mensagem) in.readObject();
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException("Frame inválido: " + e.getMessage(), e);
+        }
+    }
+    
+    @Override
+    public String getNome() {
+        return NOME;
+    }
+}
@@ -0,0 +1,133 @@
+package br.com.utils;
+
+import java.util.Comparator;
+import java.util.function.BiConsumer;
+
+/**
+ * Concessão (lease) do líder vista por um seguidor, com a época do líder como token de fencing
+ * Cada mensagem do líder (heartbeat, PING) renova a concessão por duracaoMs. Enquanto ela
+ * vale, uma chamada que falhou para o líder não basta para abrir eleição. Sem renovação dentro
+ * do prazo ela expira uma única vez e fica desarmada até a próxima renovação, então a detecção
+ * da queda do líder leva no máximo duracaoMs mais o intervalo de verificação.
+ * A época só cresce: quem se apresenta como líder com época menor que a conhecida é rejeitado
+ * (um líder antigo que volta de uma partição não renova nada). Dois líderes na mesma época
+ * (eleições dos dois lados de uma partição) desempatam pelo maior nome na ordem de ORDEM_LIDER,
+ * como o maior id vence no anel; o outro é rejeitado
+ */
+public class ConcessaoLider {
+
+    // Nomes "Processo" + id: o mais longo tem o id maior, e no mesmo tamanho vale a ordem alfabética
+    private static final Comparator<String> ORDEM_LIDER = Comparator.comparingInt(String::length)
+            .thenComparing(Comparator.naturalOrder());
+
+    private final long duracaoNanos;
+    private String lider;
+    private long epoca;
+    private long expiraEmNanos;
+    private boolean armada;
+    private volatile BiConsumer<String, Long> aoTrocarLider;
+
+    public ConcessaoLider(long duracaoMs) {
+        this.duracaoNanos = duracaoMs * 1_000_000L;
+    }
+
+    /**
+     * Mensagem do líder da época informada recebida agora: arma a concessão por mais duracaoMs
+     * @return false se a época é anterior à conhecida (líder obsoleto), ou se é a mesma época com
+     * outro líder que perde o desempate; nada muda nesses casos
+     */
+    public boolean renovar(String lider, long epoca) {
+        boolean trocou;
+        synchronized (this) {
+            if (epoca < this.epoca) {
+                return false;
+            }
+            boolean empate = epoca == this.epoca && this.lider != null && !lider.equals(this.lider);
+            if (empate && ORDEM_LIDER.compare(lider, this.lider) < 0) {
+                System.out.println(TerminalColors.warningMessage("[CONCESSÃO] " + lider + " rejeitado na época " + epoca
+                        + ": " + this.lider + " já é o líder dessa época"));
+                return false;
+            }
+            if (empate) {
+                System.out.println(TerminalColors.warningMessage("[CONCESSÃO] Dois líderes na época " + epoca + ": "
+                        + lider + " vence o desempate contra " + this.lider));
+            }
+            trocou = (epoca > this.epoca || empate) && !lider.equals(this.lider);
+            this.lider = lider;
+            this.epoca = epoca;
+            this.expiraEmNanos = System.nanoTime() + duracaoNanos;
+            this.armada = true;
+        }
+        BiConsumer<String, Long> callback = aoTrocarLider;
+        if (trocou && callback != null) {
+            callback.accept(lider, epoca);
+        }
+        return true;
+    }
+
+    /**
+     * Sinal de vida do líder sem época (heartbeat do anel): renova só se for o líder da concessão
+     */
+    public synchronized void prolongar(String lider) {
+        if (lider.equals(this.lider)) {
+            expiraEmNanos = System.nanoTime() + duracaoNanos;
+            armada = true;
+        }
+    }
+
+    /**
+     * Este processo é o líder (ou não há líder a acompanhar): nada expira até a próxima renovação
+     */
+    public synchronized void suspender() {
+        armada = false;
+    }
+
+    /**
+     * Líder cuja concessão acabou de expirar, ou null; depois de expirar a concessão só volta
+     * a valer com uma nova renovação
+     */
+    public synchronized String verificarExpiracao() {
+        if (!armada || System.nanoTime() - expiraEmNanos < 0) {
+            return null;
+        }
+        armada = false;
+        return lider;
+    }
+
+    /**
+     * true enquanto o líder renovou dentro do prazo: a falha de uma chamada isolada não abre eleição
+     */
+    public synchronized boolean isValida() {
+        return armada && System.nanoTime() - expiraEmNanos < 0;
+    }
+
+    public synchronized boolean isArmada() {
+        return armada;
+    }
+
+    /**
+     * Milissegundos até expirar; 0 se já expirou ou não está armada
+     */
+    public synchronized long getRestanteMs() {
+        return armada ? Math.max(0, (expiraEmNanos - System.nanoTime()) / 1_000_000L) : 0;
+    }
+
+    public synchronized String getLider() {
+        return lider;
+    }
+
+    /**
+     * Maior época de líder já aceita
+     */
+    public synchronized long getEpoca() {
+        return epoca;
+    }
+
+    /**
+     * Chamado (fora do monitor) quando uma renovação traz outro líder com época maior, ou que
+     * venceu o desempate na mesma época
+     */
+    public void setAoTrocarLider(BiConsumer<String, Long> aoTrocarLider) {
+        this.aoTrocarLider = aoTrocarLider;
+    }
+}
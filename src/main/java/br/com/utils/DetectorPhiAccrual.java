@@ -0,0 +1,192 @@
+package br.com.utils;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Detector de falhas phi-accrual (Hayashibara et al.)
+ * Em vez de um timeout fixo, guarda os intervalos entre heartbeats de cada processo e devolve
+ * o nível de suspeita phi = -log10(P(o próximo heartbeat ainda chegar)). O limiar se ajusta
+ * sozinho à variação observada: rede lenta ou pausas de GC alargam a distribuição
+ */
+public class DetectorPhiAccrual {
+
+    public static final int JANELA_PADRAO = 100;
+    public static final double LIMIAR_PADRAO = 8.0;
+    public static final long DESVIO_MINIMO_PADRAO_MS = 100;
+    public static final long PAUSA_ACEITAVEL_PADRAO_MS = 200;
+
+    /**
+     * Intervalos de um processo em um buffer circular de long, com soma e soma dos quadrados
+     * mantidas a cada inserção para média e desvio em O(1)
+     */
+    private static final class Janela {
+        private final long[] intervalos;
+        private int proximo;
+        private int tamanho;
+        private long soma;
+        private long somaQuadrados;
+        private long ultimaChegadaNanos;
+
+        Janela(int capacidade, long intervaloInicialMs, long agoraNanos) {
+            this.intervalos = new long[capacidade];
+            this.ultimaChegadaNanos = agoraNanos;
+            // Semente para haver uma distribuição antes do segundo heartbeat
+            adicionar(intervaloInicialMs);
+        }
+
+        void adicionar(long intervaloMs) {
+            if (tamanho == intervalos.length) {
+                long antigo = intervalos[proximo];
+                soma -= antigo;
+                somaQuadrados -= antigo * antigo;
+            } else {
+                tamanho++;
+            }
+            intervalos[proximo] = intervaloMs;
+            soma += intervaloMs;
+            somaQuadrados += intervaloMs * intervaloMs;
+            proximo = (proximo + 1) % intervalos.length;
+        }
+
+        double media() {
+            return (double) soma / tamanho;
+        }
+
+        double desvio() {
+            double media = media();
+            return Math.sqrt(Math.max(0.0, (double) somaQuadrados / tamanho - media * media));
+        }
+    }
+
+    private final ConcurrentMap<String, Janela> janelas = new ConcurrentHashMap<>();
+    private final int capacidade;
+    private final double limiar;
+    private final long desvioMinimoMs;
+    private final long pausaAceitavelMs;
+    private final long intervaloEsperadoMs;
+
+    /**
+     * @param intervaloEsperadoMs intervalo nominal dos heartbeats, usado até haver amostras reais
+     */
+    public DetectorPhiAccrual(long intervaloEsperadoMs) {
+        this(JANELA_PADRAO, LIMIAR_PADRAO, DESVIO_MINIMO_PADRAO_MS, PAUSA_ACEITAVEL_PADRAO_MS, intervaloEsperadoMs);
+    }
+
+    public DetectorPhiAccrual(int capacidade, double limiar, long desvioMinimoMs, long pausaAceitavelMs,
+                              long intervaloEsperadoMs) {
+        if (capacidade <= 0 || limiar <= 0 || intervaloEsperadoMs <= 0) {
+            throw new IllegalArgumentException("Parâmetros inválidos para o detector phi-accrual");
+        }
+        this.capacidade = capacidade;
+        this.limiar = limiar;
+        this.desvioMinimoMs = desvioMinimoMs;
+        this.pausaAceitavelMs = pausaAceitavelMs;
+        this.intervaloEsperadoMs = intervaloEsperadoMs;
+    }
+
+    /**
+     * Registra a chegada de um heartbeat de processo
+     */
+    public void heartbeat(String processo) {
+        heartbeat(processo, System.nanoTime());
+    }
+
+    public void heartbeat(String processo, long agoraNanos) {
+        Janela janela = janelas.get(processo);
+        if (janela == null) {
+            Janela nova = new Janela(capacidade, intervaloEsperadoMs, agoraNanos);
+            janela = janelas.putIfAbsent(processo, nova);
+            if (janela == null) {
+                return;
+            }
+        }
+        synchronized (janela) {
+            long intervaloMs = TimeUnit.NANOSECONDS.toMillis(agoraNanos - janela.ultimaChegadaNanos);
+            if (intervaloMs < 0) {
+                return;
+            }
+            janela.ultimaChegadaNanos = agoraNanos;
+            janela.adicionar(intervaloMs);
+        }
+    }
+
+    /**
+     * Nível de suspeita atual; 0 para processos dos quais nunca chegou heartbeat
+     */
+    public double phi(String processo) {
+        return phi(processo, System.nanoTime());
+    }
+
+    public double phi(String processo, long agoraNanos) {
+        Janela janela = janelas.get(processo);
+        if (janela == null) {
+            return 0.0;
+        }
+        double decorridoMs;
+        double media;
+        double desvio;
+        synchronized (janela) {
+            decorridoMs = (agoraNanos - janela.ultimaChegadaNanos) / 1_000_000.0;
+            media = janela.media() + pausaAceitavelMs;
+            desvio = Math.max(janela.desvio(), desvioMinimoMs);
+        }
+        return calcularPhi(decorridoMs, media, desvio);
+    }
+
+    /**
+     * Aproximação logística da CDF normal, a mesma usada pelo Akka e pelo Cassandra
+     */
+    static double calcularPhi(double decorridoMs, double media, double desvio) {
+        double y = (decorridoMs - media) / desvio;
+        double e = Math.exp(-y * (1.5976 + 0.070566 * y * y));
+        if (decorridoMs > media) {
+            return -Math.log10(e / (1.0 + e));
+        }
+        return -Math.log10(1.0 - 1.0 / (1.0 + e));
+    }
+
+    /**
+     * true enquanto phi estiver abaixo do limiar (inclusive para processos ainda não vistos)
+     */
+    public boolean isDisponivel(String processo) {
+        return phi(processo) < limiar;
+    }
+
+    /**
+     * Milissegundos desde o último heartbeat, ou -1 se nunca houve
+     */
+    public long getMsDesdeUltimo(String processo) {
+        Janela janela = janelas.get(processo);
+        if (janela == null) {
+            return -1;
+        }
+        synchronized (janela) {
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - janela.ultimaChegadaNanos);
+        }
+    }
+
+    /**
+     * Esquece o histórico de um processo, por exemplo depois que ele sai do grupo
+     */
+    public void remover(String processo) {
+        janelas.remove(processo);
+    }
+
+    public Set<String> getProcessos() {
+        return janelas.keySet();
+    }
+
+    public double getLimiar() {
+        return limiar;
+    }
+
+    /**
+     * Resumo para logs: phi e tempo desde o último heartbeat
+     */
+    public String descrever(String processo) {
+        return String.format("phi=%.1f, último heartbeat há %d ms", phi(processo), getMsDesdeUltimo(processo));
+    }
+}
@@ -0,0 +1,66 @@
+package br.com.utils;
+
+import br.com.models.Mensagem;
+
+import java.io.IOException;
+
+/**
+ * Conversão entre Mensagem e frames binários trafegados nos canais do grupo 1
+ * Cada frame é precedido por 4 bytes com o tamanho do conteúdo
+ *
+ * O codec usado é escolhido pela propriedade de sistema "mensagem.codec"
+ * ("binario" por padrão ou "java"); todos os processos precisam usar o mesmo codec
+ */
+public final class FramesMensagem {
+    
+    // Tamanho do cabeçalho de cada frame (int com o tamanho do conteúdo)
+    public static final int TAMANHO_CABECALHO = 4;
+    
+    // Limite de segurança para evitar alocações absurdas com frames corrompidos
+    public static final int TAMANHO_MAXIMO_FRAME = 1024 * 1024;
+    
+    private static volatile CodecMensagem codec = criarCodec(System.getProperty("mensagem.codec", CodecBinarioMensagem.NOME));
+    
+    private FramesMensagem() {}
+    
+    /**
+     * Cria o codec correspondente ao nome informado
+     */
+    public static CodecMensagem criarCodec(String nome) {
+        if (CodecSerializacaoJava.NOME.equalsIgnoreCase(nome)) {
+            return new CodecSerializacaoJava();
+        }
+        return new CodecBinarioMensagem();
+    }
+    
+    public static CodecMensagem getCodec() {
+        return codec;
+    }
+    
+    public static void setCodec(CodecMensagem novoCodec) {
+        codec = novoCodec;
+    }
+    
+    /**
+     * Codifica a mensagem no conteúdo de um frame
+     */
+    public static byte[] codificar(Mensagem mensagem) throws IOException {
+        return codec.codificar(mensagem);
+    }
+    
+    /**
+     * Decodifica o conteúdo de um frame em uma Mensagem
+     */
+    public static Mensagem decodificar(byte[] conteudo) throws IOException {
+        return codec.decodificar(conteudo);
+    }
+    
+    /**
+     * Valida o tamanho declarado no cabeçalho de um frame
+     */
+    public static void validarTamanho(int tamanho) throws IOException {
+        if (tamanho < 0 || tamanho > TAMANHO_MAXIMO_FRAME) {
+            throw new IOException("Tamanho de frame inválido: " + tamanho);
+        }
+    }
+}
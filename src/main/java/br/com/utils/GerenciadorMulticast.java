@@ -44,16 +44,7 @@ public class GerenciadorMulticast {
         socket.setReuseAddress(true);
         socket.setTimeToLive(1);
         
-        // Configurar interface de rede
-        try {
-            this.networkInterface = NetworkInterface.getByInetAddress(InetAddress.getLocalHost());
-            if (this.networkInterface == null) {
-                // Fallback para primeira interface disponível
-                this.networkInterface = NetworkInterface.getNetworkInterfaces().nextElement();
-            }
-        } catch (Exception e) {
-            System.err.println("[MULTICAST] Aviso: Não foi possível configurar interface de rede específica");
-        }
+        configurarInterfaceRede();
     }
     
     /**
@@ -75,16 +66,7 @@ public class GerenciadorMulticast {
         socket.setReuseAddress(true);
         socket.setTimeToLive(1);
         
-        // Configurar interface de rede
-        try {
-            this.networkInterface = NetworkInterface.getByInetAddress(InetAddress.getLocalHost());
-            if (this.networkInterface == null) {
-                // Fallback para primeira interface disponível
-                this.networkInterface = NetworkInterface.getNetworkInterfaces().nextElement();
-            }
-        } catch (Exception e) {
-            System.err.println("[MULTICAST] Aviso: Não foi possível configurar interface de rede específica");
-        }
+        configurarInterfaceRede();
     }
     
     /**
@@ -106,13 +88,22 @@ public class GerenciadorMulticast {
         socket.setReuseAddress(true);
         socket.setTimeToLive(1);
         
-        // Configurar interface de rede
+        configurarInterfaceRede();
+    }
+    
+    /**
+     * Interface do host local (ou a primeira disponível), usada para entrar no grupo e também
+     * para enviar: com o hostname em 127.0.0.1 a escuta fica em lo, e um envio pela rota padrão
+     * nunca chegaria aos processos da mesma máquina
+     */
+    private void configurarInterfaceRede() {
         try {
             this.networkInterface = NetworkInterface.getByInetAddress(InetAddress.getLocalHost());
             if (this.networkInterface == null) {
                 // Fallback para primeira interface disponível
                 this.networkInterface = NetworkInterface.getNetworkInterfaces().nextElement();
             }
+            socket.setNetworkInterface(this.networkInterface);
         } catch (Exception e) {
             System.err.println("[MULTICAST] Aviso: Não foi possível configurar interface de rede específica");
         }
@@ -267,10 +258,12 @@ public class GerenciadorMulticast {
                     }
                 }
             } else if (mensagem.startsWith("NOVO_LIDER:")) {
-                String[] partes = mensagem.split(":", 2);
+                // NOVO_LIDER:<id>[:<época>]
+                String[] partes = mensagem.split(":", 3);
                 if (partes.length >= 2) {
                     try {
                         int novoLiderId = Integer.parseInt(partes[1]);
+                        long epoca = partes.length > 2 ? Long.parseLong(partes[2].trim()) : 0;
                         
                         // Processar apenas se temos callback de líder configurado
                         if (liderCallback != null) {
@@ -281,7 +274,7 @@ public class GerenciadorMulticast {
                                 " é o novo líder" + TerminalColors.RESET);
                             
                             // Define o novo líder através do callback
-                            liderCallback.definirNovoLider(novoLiderId);
+                            liderCallback.definirNovoLider(novoLiderId, epoca);
                             
                             // Adicionar à lista de mensagens recebidas
                             adicionarMensagemRecebida("NOVO_LIDER", "ProcessoRMI" + novoLiderId, 
@@ -314,7 +307,7 @@ public class GerenciadorMulticast {
         if (processo != null) {
             try {
                 // Atualizar clock do processo
-                processo.setClockProcesso(processo.getClockProcesso() + 1);
+                long clockEnvio = processo.getRelogio().tick();
                 
                 // Criar mensagem multicast
                 Mensagem mensagemMulticast = new Mensagem();
@@ -322,7 +315,7 @@ public class GerenciadorMulticast {
                 mensagemMulticast.setProcessoRemetente(remetente);
                 mensagemMulticast.setProcessoDestinatario(processo.getNomeProcesso());
                 mensagemMulticast.setDataMensagem(LocalDateTime.now());
-                mensagemMulticast.setClockMensagem(processo.getClockProcesso());
+                mensagemMulticast.setClockMensagem(clockEnvio);
                 mensagemMulticast.setConteudoMensagem("[" + tipo + "] " + conteudo);
                 mensagemMulticast.setTipoMensagem(TipoMensagem.MULTICAST);
                 
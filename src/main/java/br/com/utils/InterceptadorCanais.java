@@ -0,0 +1,41 @@
+package br.com.utils;
+
+import br.com.models.Mensagem;
+
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+
+/**
+ * Ponto de extensão dos transportes para observar canais e mensagens
+ * Usado pelo SnapshotDistribuido para enviar marcadores e gravar o estado dos canais
+ */
+public interface InterceptadorCanais {
+
+    /**
+     * Um canal novo foi aberto; deve ser chamado junto com o registro do canal, com a
+     * trava de escrita adquirida, e antes de qualquer mensagem trafegar por ele
+     * Os marcadores ficam enfileirados no canal: quem registra chama escreverEnfileiradas depois
+     * de soltar a trava
+     */
+    void canalAberto(CanalMensagem canal);
+
+    void canalFechado(CanalMensagem canal);
+
+    /**
+     * Envios pelo canal falharam, mas ele não foi fechado; nada muda por padrão
+     */
+    default void entregaFalhou(CanalMensagem canal, List<Mensagem> mensagens) {
+    }
+
+    /**
+     * Chamado para cada mensagem recebida no lugar do manipulador da aplicação
+     * @param entregar entrega a mensagem à aplicação, fora da trava de envio; não é chamado para mensagens de controle
+     */
+    void mensagemRecebida(CanalMensagem canal, Mensagem mensagem, Runnable entregar);
+
+    /**
+     * Envios usam a trava de leitura; a gravação de um snapshot usa a de escrita, para que
+     * nenhum envio fique entre o estado gravado e os marcadores
+     */
+    ReadWriteLock getTravaEnvio();
+}
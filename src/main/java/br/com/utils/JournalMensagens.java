@@ -0,0 +1,310 @@
+package br.com.utils;
+
+import br.com.models.Mensagem;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Journal de mensagens com capacidade limitada (ring buffer sem locks)
+ * Substitui as ArrayLists de mensagens recebidas/enviadas: o append é O(1) e seguro
+ * entre threads, e as mensagens mais antigas são sobrescritas quando o buffer enche
+ *
+ * Opcionalmente as mensagens sobrescritas são copiadas para um segmento de arquivo
+ * mapeado em memória, para que o histórico antigo não se perca
+ *
+ * Configuração: -Djournal.capacidade=N (padrão 1024) e -Djournal.diretorio=DIR (ativa o spill)
+ */
+public class JournalMensagens implements Iterable<Mensagem> {
+
+    public static final int CAPACIDADE_PADRAO = 1024;
+    public static final int TAMANHO_SEGMENTO_PADRAO = 16 * 1024 * 1024;
+
+    private final AtomicReferenceArray<Entrada> slots;
+    private final int mascara;
+    private final AtomicLong proximaSequencia = new AtomicLong();
+    private final SegmentoMapeado segmento;
+
+    /**
+     * Mensagem e a sequência em que foi adicionada; a sequência identifica o slot válido
+     */
+    private static final class Entrada {
+        final long sequencia;
+        final Mensagem mensagem;
+
+        Entrada(long sequencia, Mensagem mensagem) {
+            this.sequencia = sequencia;
+            this.mensagem = mensagem;
+        }
+    }
+
+    public JournalMensagens(int capacidade) {
+        this(capacidade, null);
+    }
+
+    /**
+     * @param capacidade quantidade de mensagens mantidas em memória (arredondada para potência de 2)
+     * @param segmento destino das mensagens sobrescritas, ou null para descartá-las
+     */
+    public JournalMensagens(int capacidade, SegmentoMapeado segmento) {
+        if (capacidade <= 0) {
+            throw new IllegalArgumentException("Capacidade do journal deve ser positiva: " + capacidade);
+        }
+        int tamanho = Integer.highestOneBit(capacidade);
+        if (tamanho < capacidade) {
+            tamanho <<= 1;
+        }
+        this.slots = new AtomicReferenceArray<>(tamanho);
+        this.mascara = tamanho - 1;
+        this.segmento = segmento;
+    }
+
+    /**
+     * Cria um journal a partir das propriedades de sistema
+     * @param nome usado no nome do arquivo de spill (ex: "Processo1-recebidas")
+     */
+    public static JournalMensagens criar(String nome) {
+        int capacidade = Integer.getInteger("journal.capacidade", CAPACIDADE_PADRAO);
+        String diretorio = System.getProperty("journal.diretorio");
+        if (diretorio == null || diretorio.isEmpty()) {
+            return new JournalMensagens(capacidade);
+        }
+
+        try {
+            Path arquivo = Paths.get(diretorio, nome + ".journal");
+            return new JournalMensagens(capacidade, SegmentoMapeado.abrir(arquivo, TAMANHO_SEGMENTO_PADRAO));
+        } catch (IOException e) {
+            System.err.println(TerminalColors.errorMessage("[JOURNAL] Não foi possível abrir o segmento de "
+                    + nome + ", mensagens antigas serão descartadas: " + e.getMessage()));
+            return new JournalMensagens(capacidade);
+        }
+    }
+
+    /**
+     * Adiciona uma mensagem e devolve sua sequência
+     */
+    public long add(Mensagem mensagem) {
+        long sequencia = proximaSequencia.getAndIncrement();
+        Entrada nova = new Entrada(sequencia, mensagem);
+        int indice = (int) (sequencia & mascara);
+
+        while (true) {
+            Entrada atual = slots.get(indice);
+            if (atual != null && atual.sequencia > sequencia) {
+                // Outro escritor já deu a volta no buffer; esta mensagem já nasce antiga
+                derramar(nova);
+                return sequencia;
+            }
+            if (slots.compareAndSet(indice, atual, nova)) {
+                if (atual != null) {
+                    derramar(atual);
+                }
+                return sequencia;
+            }
+        }
+    }
+
+    private void derramar(Entrada entrada) {
+        if (segmento != null) {
+            segmento.escrever(entrada.sequencia, entrada.mensagem);
+        }
+    }
+
+    /**
+     * Quantidade de mensagens atualmente em memória
+     */
+    public int size() {
+        return (int) Math.min(proximaSequencia.get(), slots.length());
+    }
+
+    public boolean isEmpty() {
+        return proximaSequencia.get() == 0;
+    }
+
+    /**
+     * Total de mensagens já adicionadas, incluindo as que saíram do buffer
+     */
+    public long getTotalAdicionadas() {
+        return proximaSequencia.get();
+    }
+
+    public int getCapacidade() {
+        return slots.length();
+    }
+
+    public SegmentoMapeado getSegmento() {
+        return segmento;
+    }
+
+    /**
+     * Cursor a partir da mensagem mais antiga ainda em memória
+     */
+    @Override
+    public Cursor iterator() {
+        return cursorDesde(0);
+    }
+
+    /**
+     * Cursor a partir de uma sequência; útil para exibir apenas o que chegou depois da última leitura
+     */
+    public Cursor cursorDesde(long sequencia) {
+        return cursorEntre(sequencia, Long.MAX_VALUE);
+    }
+
+    /**
+     * Cursor sobre as sequências [inicio, fim) que ainda estão em memória
+     */
+    public Cursor cursorEntre(long inicio, long fim) {
+        long total = proximaSequencia.get();
+        long primeira = Math.max(inicio, total - slots.length());
+        return new Cursor(Math.max(0, primeira), Math.min(fim, total));
+    }
+
+    /**
+     * Iteração sem cópia sobre uma janela fixa de sequências
+     * Mensagens sobrescritas durante a iteração são puladas
+     */
+    public final class Cursor implements Iterator<Mensagem> {
+        private final long fim;
+        private long sequencia;
+        private Mensagem proxima;
+
+        private Cursor(long inicio, long fim) {
+            this.sequencia = inicio;
+            this.fim = fim;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (proxima == null && sequencia < fim) {
+                Entrada entrada = slots.get((int) (sequencia & mascara));
+                if (entrada != null && entrada.sequencia == sequencia) {
+                    proxima = entrada.mensagem;
+                }
+                sequencia++;
+            }
+            return proxima != null;
+        }
+
+        @Override
+        public Mensagem next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Mensagem mensagem = proxima;
+            proxima = null;
+            return mensagem;
+        }
+
+        /**
+         * Sequência a partir da qual um próximo cursor deve continuar
+         */
+        public long getPosicao() {
+            return sequencia;
+        }
+    }
+
+    /**
+     * Segmento de arquivo mapeado em memória que recebe as mensagens sobrescritas
+     * Registro: tamanho (int) | sequência (long) | mensagem codificada | preenchimento até múltiplo de 4
+     * O tamanho é publicado por último, então leitores nunca veem registros incompletos
+     * Quando o segmento enche, novas mensagens antigas passam a ser descartadas
+     */
+    public static final class SegmentoMapeado {
+
+        private static final int CABECALHO_REGISTRO = Integer.BYTES + Long.BYTES;
+        private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+
+        private final Path arquivo;
+        private final MappedByteBuffer buffer;
+        private final AtomicLong posicao = new AtomicLong();
+        private final AtomicLong descartadas = new AtomicLong();
+
+        private SegmentoMapeado(Path arquivo, MappedByteBuffer buffer) {
+            this.arquivo = arquivo;
+            this.buffer = buffer;
+        }
+
+        public static SegmentoMapeado abrir(Path arquivo, int tamanho) throws IOException {
+            if (arquivo.getParent() != null) {
+                Files.createDirectories(arquivo.getParent());
+            }
+            try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                return new SegmentoMapeado(arquivo, canal.map(FileChannel.MapMode.READ_WRITE, 0, tamanho));
+            }
+        }
+
+        void escrever(long sequencia, Mensagem mensagem) {
+            byte[] conteudo;
+            try {
+                conteudo = FramesMensagem.codificar(mensagem);
+            } catch (IOException e) {
+                descartadas.incrementAndGet();
+                return;
+            }
+
+            int tamanhoRegistro = alinhar(CABECALHO_REGISTRO + conteudo.length);
+            long inicio = posicao.getAndAdd(tamanhoRegistro);
+            // Reserva espaço também para o marcador de fim (tamanho zero) do próximo registro
+            if (inicio + tamanhoRegistro + Integer.BYTES > buffer.capacity()) {
+                descartadas.incrementAndGet();
+                return;
+            }
+
+            ByteBuffer destino = buffer.duplicate();
+            destino.position((int) inicio + Integer.BYTES);
+            destino.putLong(sequencia);
+            destino.put(conteudo);
+            INT.setRelease(buffer, (int) inicio, conteudo.length);
+        }
+
+        /**
+         * Percorre os registros já publicados, em ordem de escrita
+         */
+        public void percorrer(Consumer<Mensagem> consumidor) throws IOException {
+            int atual = 0;
+            while (atual + CABECALHO_REGISTRO <= buffer.capacity()) {
+                int tamanho = (int) INT.getAcquire(buffer, atual);
+                if (tamanho <= 0) {
+                    break;
+                }
+                byte[] conteudo = new byte[tamanho];
+                ByteBuffer origem = buffer.duplicate();
+                origem.position(atual + CABECALHO_REGISTRO);
+                origem.get(conteudo);
+                consumidor.accept(FramesMensagem.decodificar(conteudo));
+                atual += alinhar(CABECALHO_REGISTRO + tamanho);
+            }
+        }
+
+        /**
+         * Registros começam em múltiplos de 4 para que o tamanho possa ser publicado atomicamente
+         */
+        private static int alinhar(int tamanho) {
+            return (tamanho + Integer.BYTES - 1) & -Integer.BYTES;
+        }
+
+        public Path getArquivo() {
+            return arquivo;
+        }
+
+        public long getDescartadas() {
+            return descartadas.get();
+        }
+    }
+}
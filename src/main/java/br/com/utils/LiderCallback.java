@@ -13,6 +13,15 @@ public interface LiderCallback {
      */
     void definirNovoLider(int novoLider);
     
+    /**
+     * Define um novo líder anunciado com a época da eleição que o escolheu
+     * @param novoLider ID do novo líder
+     * @param epoca época do anúncio; quem implementa pode rejeitar épocas já superadas
+     */
+    default void definirNovoLider(int novoLider, long epoca) {
+        definirNovoLider(novoLider);
+    }
+    
     /**
      * Obtém o ID do processo atual
      * @return ID do processo
@@ -0,0 +1,210 @@
+package br.com.utils;
+
+import br.com.models.ConexaoOutrosProcessos;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Pool de conexões com os outros processos do grupo 1
+ * Mantém um CanalSocket pronto em cada ConexaoOutrosProcessos e, quando a conexão cai
+ * ou o processo remoto ainda não subiu, tenta reconectar com backoff exponencial e jitter
+ * Canais sem nada recebido por INTERVALO_VERIFICACAO_MS são sondados com um PING que precisa
+ * voltar em PRAZO_SONDA_MS: um processo remoto cujo host caiu ou cuja rede foi cortada deixa a
+ * conexão meio aberta, e o keepalive do sistema operacional levaria horas para notar
+ */
+public class PoolConexoes {
+
+    private static final long ATRASO_INICIAL_MS = 250;
+    private static final long ATRASO_MAXIMO_MS = 10000;
+    private static final long INTERVALO_VERIFICACAO_MS = 2000;
+    private static final long PRAZO_SONDA_MS = 1500;
+    private static final String HOST = "localhost";
+
+    private final List<ConexaoOutrosProcessos> conexoes;
+    private final TransporteNio.ManipuladorMensagem manipulador;
+    private final Map<String, EstadoReconexao> estados = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+    private volatile InterceptadorCanais interceptador;
+    private volatile boolean ativo = false;
+
+    /**
+     * Estado de reconexão de um processo remoto
+     */
+    private static class EstadoReconexao {
+        final AtomicBoolean agendada = new AtomicBoolean(false);
+        volatile int tentativas = 0;
+    }
+
+    /**
+     * @param manipulador trata as mensagens não solicitadas que chegam pelos canais do pool
+     */
+    public PoolConexoes(String nomeProcesso, List<ConexaoOutrosProcessos> conexoes,
+                        TransporteNio.ManipuladorMensagem manipulador) {
+        this.conexoes = conexoes;
+        this.manipulador = manipulador;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "PoolConexoes-" + nomeProcesso);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Instala o interceptador nos canais abertos a partir de agora; deve ser chamado antes de iniciar
+     */
+    public void setInterceptador(InterceptadorCanais interceptador) {
+        this.interceptador = interceptador;
+    }
+
+    /**
+     * Dispara a conexão com todos os processos e a verificação periódica das conexões
+     */
+    public void iniciar() {
+        ativo = true;
+        for (ConexaoOutrosProcessos conexao : conexoes) {
+            agendarReconexao(conexao, false);
+        }
+        scheduler.scheduleWithFixedDelay(this::verificarConexoes,
+                INTERVALO_VERIFICACAO_MS, INTERVALO_VERIFICACAO_MS, TimeUnit.MILLISECONDS);
+    }
+
+    public void parar() {
+        ativo = false;
+        scheduler.shutdownNow();
+        for (ConexaoOutrosProcessos conexao : conexoes) {
+            conexao.desconectar();
+        }
+    }
+
+    /**
+     * Informa que a comunicação com o processo falhou: fecha o canal e agenda a reconexão
+     */
+    public void marcarFalha(String nomeProcessoRemoto) {
+        for (ConexaoOutrosProcessos conexao : conexoes) {
+            if (conexao.getNomeProcesso().equals(nomeProcessoRemoto)) {
+                marcarFalha(conexao);
+            }
+        }
+    }
+
+    public void marcarFalha(ConexaoOutrosProcessos conexao) {
+        conexao.desconectar();
+        agendarReconexao(conexao, true);
+    }
+
+    /**
+     * Verificação de liveness: qualquer conexão fechada sem reconexão pendente volta a ser tentada,
+     * e uma conexão aberta mas ociosa é sondada
+     */
+    private void verificarConexoes() {
+        for (ConexaoOutrosProcessos conexao : conexoes) {
+            CanalSocket canal = conexao.getCanal();
+            if (canal == null || !canal.isAberto()) {
+                agendarReconexao(conexao, true);
+            } else if (canal.getInativoMs() >= INTERVALO_VERIFICACAO_MS) {
+                sondar(conexao, canal);
+            }
+        }
+    }
+
+    /**
+     * Sem PONG no prazo o canal é dado como morto: fecha e reconecta
+     */
+    private void sondar(ConexaoOutrosProcessos conexao, CanalSocket canal) {
+        try {
+            canal.sondar(PRAZO_SONDA_MS).whenComplete((pong, erro) -> {
+                if (erro != null && conexao.getCanal() == canal) {
+                    System.err.println(TerminalColors.errorMessage("[CONEXÃO] " + conexao.getNomeProcesso()
+                            + " não respondeu à sonda em " + PRAZO_SONDA_MS + " ms - reconectando"));
+                    marcarFalha(conexao);
+                }
+            });
+        } catch (IOException e) {
+            if (conexao.getCanal() == canal) {
+                marcarFalha(conexao);
+            }
+        }
+    }
+
+    private void agendarReconexao(ConexaoOutrosProcessos conexao, boolean comBackoff) {
+        if (!ativo) {
+            return;
+        }
+        EstadoReconexao estado = estado(conexao);
+        if (!estado.agendada.compareAndSet(false, true)) {
+            return; // Já existe uma tentativa pendente
+        }
+        long atrasoMs = comBackoff ? proximoAtraso(estado) : 0;
+        scheduler.schedule(() -> tentarConectar(conexao, estado), atrasoMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void tentarConectar(ConexaoOutrosProcessos conexao, EstadoReconexao estado) {
+        estado.agendada.set(false);
+        if (!ativo || conexao.isConectado()) {
+            return;
+        }
+
+        try {
+            CanalSocket canal = CanalSocket.conectar(HOST, conexao.getPorta());
+            InterceptadorCanais interceptador = this.interceptador;
+            if (interceptador != null) {
+                canal.setInterceptador(interceptador);
+                Lock trava = interceptador.getTravaEnvio().writeLock();
+                trava.lock();
+                try {
+                    conexao.setCanal(canal);
+                    interceptador.canalAberto(canal);
+                } finally {
+                    trava.unlock();
+                }
+                canal.escreverEnfileiradas();
+            } else {
+                conexao.setCanal(canal);
+            }
+            canal.iniciarLeitura(manipulador, () -> {
+                if (interceptador != null) {
+                    interceptador.canalFechado(canal);
+                }
+                // Só reage se este ainda for o canal atual da conexão
+                if (conexao.getCanal() == canal) {
+                    marcarFalha(conexao);
+                }
+            });
+            if (estado.tentativas > 0) {
+                System.out.println(TerminalColors.successMessage("[CONEXÃO] Conexão restabelecida com: " + conexao.getNomeProcesso()));
+            } else {
+                System.out.println(TerminalColors.successMessage("Conexão estabelecida com: " + conexao.getNomeProcesso()));
+            }
+            estado.tentativas = 0;
+        } catch (IOException e) {
+            if (estado.tentativas == 0) {
+                System.err.println(TerminalColors.errorMessage("Não foi possível conectar ao " + conexao.getNomeProcesso()
+                        + " - tentando novamente em segundo plano"));
+            }
+            agendarReconexao(conexao, true);
+        }
+    }
+
+    /**
+     * Backoff exponencial com jitter: sorteia entre metade e o total do atraso da tentativa atual
+     */
+    private long proximoAtraso(EstadoReconexao estado) {
+        int tentativa = Math.min(estado.tentativas, 16);
+        estado.tentativas = estado.tentativas + 1;
+        long atraso = Math.min(ATRASO_MAXIMO_MS, ATRASO_INICIAL_MS << tentativa);
+        return atraso / 2 + ThreadLocalRandom.current().nextLong(atraso / 2 + 1);
+    }
+
+    private EstadoReconexao estado(ConexaoOutrosProcessos conexao) {
+        return estados.computeIfAbsent(conexao.getNomeProcesso(), nome -> new EstadoReconexao());
+    }
+}
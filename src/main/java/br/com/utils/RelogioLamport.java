@@ -0,0 +1,51 @@
+package br.com.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Relógio lógico de Lamport sem locks
+ * Todas as atualizações são feitas com CAS, então nenhum incremento é perdido
+ * quando várias threads (servidor, menu, multicast) tocam o relógio ao mesmo tempo
+ */
+public class RelogioLamport {
+
+    private final AtomicLong valor;
+
+    public RelogioLamport() {
+        this(0);
+    }
+
+    public RelogioLamport(long valorInicial) {
+        this.valor = new AtomicLong(valorInicial);
+    }
+
+    /**
+     * Evento local ou envio de mensagem: incrementa e devolve o novo valor
+     * O valor devolvido deve ser o carimbado na mensagem enviada
+     */
+    public long tick() {
+        return valor.incrementAndGet();
+    }
+
+    /**
+     * Recebimento de mensagem: valor = max(local, remoto) + 1, devolve o novo valor
+     */
+    public long merge(long remoto) {
+        long atual;
+        long novo;
+        do {
+            atual = valor.get();
+            novo = Math.max(atual, remoto) + 1;
+        } while (!valor.compareAndSet(atual, novo));
+        return novo;
+    }
+
+    public long getValor() {
+        return valor.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.valueOf(valor.get());
+    }
+}
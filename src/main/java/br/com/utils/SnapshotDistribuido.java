@@ -0,0 +1,558 @@
+package br.com.utils;
+
+import br.com.models.Mensagem;
+import br.com.models.TipoMensagem;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Snapshot global consistente pelo algoritmo de Chandy-Lamport
+ *
+ * Cada canal de entrada (uma conexão, em uma direção) é tratado como FIFO. Ao gravar o
+ * estado local o processo envia um marcador (SOLICITAR_SNAPSHOT) por todos os canais;
+ * a partir daí grava as mensagens que chegam por cada canal até receber o marcador dele.
+ * O resultado local segue para o iniciador em uma RESPOSTA_SNAPSHOT. Vários snapshots
+ * podem estar em andamento ao mesmo tempo, identificados pelo idSnapshot, e o tráfego
+ * da aplicação não é interrompido
+ */
+public class SnapshotDistribuido implements InterceptadorCanais {
+
+    public static final long TIMEOUT_PADRAO_MS = 10000;
+
+    /**
+     * Limite de mensagens em trânsito gravadas por snapshot, para o resultado caber em um frame
+     */
+    public static final int MAXIMO_MENSAGENS_GRAVADAS = 2000;
+
+    private static final int MAXIMO_IDS_CONCLUIDOS = 1000;
+    private static final String SEPARADOR = "|";
+    private static final char SEPARADOR_CAMPOS = '\t';
+
+    /**
+     * O que o algoritmo precisa saber do processo e do seu transporte
+     */
+    public interface Ambiente {
+        /**
+         * Estado local em uma linha, gravado com a trava de escrita adquirida
+         */
+        String capturarEstadoLocal();
+
+        /**
+         * Canais abertos pelos quais os marcadores devem sair e chegar
+         */
+        Collection<? extends CanalMensagem> canais();
+
+        /**
+         * Processos que o iniciador espera ver no resultado, sem contar ele mesmo
+         */
+        Collection<String> participantes();
+
+        void enviarResultado(String iniciador, Mensagem resultado) throws IOException;
+    }
+
+    /**
+     * Snapshot em andamento neste processo
+     */
+    private static class SnapshotLocal {
+        final String idSnapshot;
+        final String iniciador;
+        final String estadoLocal;
+        final Set<CanalMensagem> canaisPendentes = Collections.newSetFromMap(new IdentityHashMap<>());
+        final Map<String, List<String>> mensagensCanais = new LinkedHashMap<>();
+        int mensagensGravadas = 0;
+        int mensagensDescartadas = 0;
+        boolean concluido = false;
+
+        SnapshotLocal(String idSnapshot, String iniciador, String estadoLocal) {
+            this.idSnapshot = idSnapshot;
+            this.iniciador = iniciador;
+            this.estadoLocal = estadoLocal;
+        }
+    }
+
+    /**
+     * Mensagem entregue à aplicação fora da trava: um snapshot que começar antes de a entrega
+     * terminar a grava como em trânsito no canal dela
+     */
+    private static final class Entrega {
+        final CanalMensagem canal;
+        final Mensagem mensagem;
+
+        Entrega(CanalMensagem canal, Mensagem mensagem) {
+            this.canal = canal;
+            this.mensagem = mensagem;
+        }
+    }
+
+    /**
+     * Resultados recebidos pelo iniciador
+     */
+    private static class Coleta {
+        final String idSnapshot;
+        final Set<String> esperados;
+        final Map<String, SnapshotGlobal.EstadoProcesso> recebidos = new LinkedHashMap<>();
+        final CompletableFuture<SnapshotGlobal> futuro = new CompletableFuture<>();
+        final long inicio = System.currentTimeMillis();
+
+        Coleta(String idSnapshot, Set<String> esperados) {
+            this.idSnapshot = idSnapshot;
+            this.esperados = esperados;
+        }
+    }
+
+    private final String nomeProcesso;
+    private final Ambiente ambiente;
+    private final long timeoutMs;
+    private final ReentrantReadWriteLock travaEnvio = new ReentrantReadWriteLock();
+    private final Map<String, SnapshotLocal> locais = new ConcurrentHashMap<>();
+    private final Map<String, Coleta> coletas = new ConcurrentHashMap<>();
+    private final Set<Entrega> emEntrega = ConcurrentHashMap.newKeySet();
+    // Ids já concluídos e tirados de locais: um marcador atrasado não regrava o estado
+    private final Set<String> concluidos = Collections.newSetFromMap(new LinkedHashMap<String, Boolean>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> maisAntigo) {
+            return size() > MAXIMO_IDS_CONCLUIDOS;
+        }
+    });
+    private final ScheduledExecutorService temporizador;
+    private volatile ArmazemSnapshots armazem;
+
+    public SnapshotDistribuido(String nomeProcesso, Ambiente ambiente) {
+        this(nomeProcesso, ambiente, TIMEOUT_PADRAO_MS);
+    }
+
+    public SnapshotDistribuido(String nomeProcesso, Ambiente ambiente, long timeoutMs) {
+        this.nomeProcesso = nomeProcesso;
+        this.ambiente = ambiente;
+        this.timeoutMs = timeoutMs;
+        this.temporizador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "Snapshot-" + nomeProcesso);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Inicia um novo snapshot a partir deste processo
+     * O futuro completa quando todos os participantes enviaram seu estado ou, no prazo,
+     * com o resultado parcial
+     */
+    public CompletableFuture<SnapshotGlobal> iniciar() {
+        String idSnapshot = UUID.randomUUID().toString().substring(0, 8);
+        Coleta coleta = new Coleta(idSnapshot, new HashSet<>(ambiente.participantes()));
+        coletas.put(idSnapshot, coleta);
+        temporizador.schedule(() -> finalizarColeta(coleta), timeoutMs, TimeUnit.MILLISECONDS);
+
+        System.out.println(TerminalColors.warningMessage("[SNAPSHOT] Iniciando snapshot " + idSnapshot
+                + " (esperando " + coleta.esperados.size() + " participante(s))"));
+        gravarEstado(idSnapshot, nomeProcesso, null);
+        return coleta.futuro;
+    }
+
+    /**
+     * Persiste cada snapshot local no armazém (delta em relação ao anterior); null desativa
+     */
+    public void setArmazem(ArmazemSnapshots armazem) {
+        this.armazem = armazem;
+    }
+
+    public ArmazemSnapshots getArmazem() {
+        return armazem;
+    }
+
+    @Override
+    public ReadWriteLock getTravaEnvio() {
+        return travaEnvio;
+    }
+
+    @Override
+    public void canalAberto(CanalMensagem canal) {
+        // Canal novo durante um snapshot: o marcador sai antes de qualquer mensagem
+        // e nada do que chegar por ele pertence ao corte. Quem registra o canal deve
+        // segurar a trava de escrita até aqui, para que nenhum snapshot comece no meio
+        travaEnvio.writeLock().lock();
+        try {
+            for (SnapshotLocal local : locais.values()) {
+                synchronized (local) {
+                    if (local.concluido) {
+                        continue;
+                    }
+                }
+                try {
+                    canal.enfileirar(criarMarcador(local));
+                } catch (IOException e) {
+                    // O canal acabou de cair; canalFechado cuidará do resto
+                }
+            }
+        } finally {
+            travaEnvio.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void canalFechado(CanalMensagem canal) {
+        // Um canal que caiu não entregará mais nada: equivale a ter recebido o marcador
+        for (SnapshotLocal local : locais.values()) {
+            boolean removido;
+            synchronized (local) {
+                removido = local.canaisPendentes.remove(canal);
+            }
+            if (removido) {
+                verificarConclusao(local);
+            }
+        }
+    }
+
+    @Override
+    public void mensagemRecebida(CanalMensagem canal, Mensagem mensagem, Runnable entregar) {
+        if (mensagem.getTipoMensagem() == TipoMensagem.SOLICITAR_SNAPSHOT) {
+            receberMarcador(canal, mensagem);
+            return;
+        }
+        if (mensagem.getTipoMensagem() == TipoMensagem.RESPOSTA_SNAPSHOT) {
+            receberResultado(mensagem);
+            return;
+        }
+
+        // A gravação e o registro da entrega acontecem sob a trava de leitura; a aplicação roda
+        // fora dela (pode bloquear ou enviar). Um estado gravado antes de a entrega terminar
+        // leva a mensagem como em trânsito, então ela não some do corte
+        Entrega entrega = new Entrega(canal, mensagem);
+        travaEnvio.readLock().lock();
+        try {
+            for (SnapshotLocal local : locais.values()) {
+                synchronized (local) {
+                    if (!local.concluido && local.canaisPendentes.contains(canal)) {
+                        gravarEmTransito(local, mensagem);
+                    }
+                }
+            }
+            emEntrega.add(entrega);
+        } finally {
+            travaEnvio.readLock().unlock();
+        }
+        try {
+            entregar.run();
+        } finally {
+            emEntrega.remove(entrega);
+        }
+    }
+
+    /**
+     * Um envio pelo canal falhou, mas ele continua aberto: o canal de entrada segue gravando até
+     * o marcador dele chegar ou o prazo acabar. Um marcador perdido só deixa o destino sem fechar
+     * este canal, e ele conclui o snapshot pelo prazo
+     */
+    @Override
+    public void entregaFalhou(CanalMensagem canal, List<Mensagem> mensagens) {
+        for (Mensagem mensagem : mensagens) {
+            if (mensagem.getTipoMensagem() == TipoMensagem.SOLICITAR_SNAPSHOT) {
+                System.err.println(TerminalColors.warningMessage("[SNAPSHOT] Marcador " + mensagem.getConteudoMensagem()
+                        + " não foi entregue a " + mensagem.getProcessoDestinatario() + " - o destino conclui pelo prazo"));
+            }
+        }
+    }
+
+    /**
+     * Chamado com o monitor do snapshot
+     */
+    private static void gravarEmTransito(SnapshotLocal local, Mensagem mensagem) {
+        if (local.mensagensGravadas >= MAXIMO_MENSAGENS_GRAVADAS) {
+            local.mensagensDescartadas++;
+            return;
+        }
+        local.mensagensGravadas++;
+        local.mensagensCanais
+                .computeIfAbsent(mensagem.getProcessoRemetente(), r -> new ArrayList<>())
+                .add(descrever(mensagem));
+    }
+
+    /**
+     * Quantidade de snapshots ainda gravando canais neste processo
+     */
+    public int getSnapshotsEmAndamento() {
+        int emAndamento = 0;
+        for (SnapshotLocal local : locais.values()) {
+            synchronized (local) {
+                if (!local.concluido) {
+                    emAndamento++;
+                }
+            }
+        }
+        return emAndamento;
+    }
+
+    public void parar() {
+        temporizador.shutdownNow();
+    }
+
+    private void receberMarcador(CanalMensagem canal, Mensagem marcador) {
+        String conteudo = marcador.getConteudoMensagem();
+        int separador = conteudo == null ? -1 : conteudo.indexOf(SEPARADOR);
+        if (separador < 0) {
+            return;
+        }
+        String idSnapshot = conteudo.substring(0, separador);
+        String iniciador = conteudo.substring(separador + 1);
+        if (isConcluido(idSnapshot)) {
+            return; // Marcador atrasado de um snapshot já encerrado aqui
+        }
+
+        // Primeiro marcador: grava o estado e o canal de origem fica vazio
+        if (!locais.containsKey(idSnapshot) && gravarEstado(idSnapshot, iniciador, canal)) {
+            return;
+        }
+        // Marcador de um canal ainda pendente (inclusive quando outra thread gravou o estado antes)
+        SnapshotLocal local = locais.get(idSnapshot);
+        if (local == null) {
+            return;
+        }
+        boolean removido;
+        synchronized (local) {
+            removido = local.canaisPendentes.remove(canal);
+        }
+        if (removido) {
+            verificarConclusao(local);
+        }
+    }
+
+    /**
+     * Grava o estado local e enfileira os marcadores sem que nenhum envio da aplicação
+     * possa acontecer entre os dois passos; a escrita dos marcadores (bloqueante no
+     * CanalSocket) acontece depois de soltar a trava, na ordem já reservada em cada canal
+     * @return false se o snapshot já tinha sido gravado
+     */
+    private boolean gravarEstado(String idSnapshot, String iniciador, CanalMensagem canalOrigem) {
+        SnapshotLocal local;
+        List<CanalMensagem> canais;
+        travaEnvio.writeLock().lock();
+        try {
+            if (locais.containsKey(idSnapshot) || isConcluido(idSnapshot)) {
+                return false;
+            }
+            local = new SnapshotLocal(idSnapshot, iniciador, ambiente.capturarEstadoLocal());
+            ArmazemSnapshots armazem = this.armazem;
+            if (armazem != null) {
+                armazem.capturar(idSnapshot);
+            }
+            canais = new ArrayList<>(ambiente.canais());
+            for (CanalMensagem canal : canais) {
+                if (canal != canalOrigem && canal.isAberto()) {
+                    local.canaisPendentes.add(canal);
+                }
+            }
+            // Entregas ainda em andamento chegaram antes do marcador do canal delas
+            for (Entrega entrega : emEntrega) {
+                if (local.canaisPendentes.contains(entrega.canal)) {
+                    gravarEmTransito(local, entrega.mensagem);
+                }
+            }
+            locais.put(idSnapshot, local);
+
+            Mensagem marcador = criarMarcador(local);
+            for (CanalMensagem canal : canais) {
+                try {
+                    canal.enfileirar(marcador);
+                } catch (IOException e) {
+                    // Canal indisponível: não virá marcador por ele
+                    synchronized (local) {
+                        local.canaisPendentes.remove(canal);
+                    }
+                }
+            }
+        } finally {
+            travaEnvio.writeLock().unlock();
+        }
+
+        for (CanalMensagem canal : canais) {
+            try {
+                canal.escreverEnfileiradas();
+            } catch (IOException e) {
+                synchronized (local) {
+                    local.canaisPendentes.remove(canal);
+                }
+            }
+        }
+
+        temporizador.schedule(() -> concluir(local), timeoutMs, TimeUnit.MILLISECONDS);
+        verificarConclusao(local);
+        return true;
+    }
+
+    private boolean isConcluido(String idSnapshot) {
+        synchronized (concluidos) {
+            return concluidos.contains(idSnapshot);
+        }
+    }
+
+    private void verificarConclusao(SnapshotLocal local) {
+        synchronized (local) {
+            if (!local.canaisPendentes.isEmpty()) {
+                return;
+            }
+        }
+        concluir(local);
+    }
+
+    /**
+     * Encerra a gravação (todos os marcadores chegaram ou o prazo acabou) e envia o resultado
+     */
+    private void concluir(SnapshotLocal local) {
+        boolean completo;
+        Map<String, List<String>> canais;
+        synchronized (local) {
+            if (local.concluido) {
+                return;
+            }
+            local.concluido = true;
+            completo = local.canaisPendentes.isEmpty() && local.mensagensDescartadas == 0;
+            local.canaisPendentes.clear();
+            canais = new LinkedHashMap<>(local.mensagensCanais);
+            if (local.mensagensDescartadas > 0) {
+                canais.put("(limite)", Collections.singletonList(local.mensagensDescartadas
+                        + " mensagem(ns) em trânsito além do limite não gravada(s)"));
+            }
+        }
+        // Marcadores atrasados não regravam o estado: o id vai para concluidos antes de sair de locais
+        synchronized (concluidos) {
+            concluidos.add(local.idSnapshot);
+        }
+        temporizador.schedule(() -> locais.remove(local.idSnapshot), timeoutMs, TimeUnit.MILLISECONDS);
+
+        SnapshotGlobal.EstadoProcesso estado =
+                new SnapshotGlobal.EstadoProcesso(nomeProcesso, local.estadoLocal, canais, completo);
+
+        ArmazemSnapshots armazem = this.armazem;
+        if (armazem != null) {
+            armazem.persistir(local.idSnapshot, canais, completo);
+        }
+
+        if (local.iniciador.equals(nomeProcesso)) {
+            registrarResultado(local.idSnapshot, estado);
+            return;
+        }
+
+        Mensagem resultado = new Mensagem();
+        resultado.setTipoMensagem(TipoMensagem.RESPOSTA_SNAPSHOT);
+        resultado.setProcessoRemetente(nomeProcesso);
+        resultado.setProcessoDestinatario(local.iniciador);
+        resultado.setConteudoMensagem(codificar(local.idSnapshot, estado));
+        try {
+            ambiente.enviarResultado(local.iniciador, resultado);
+            System.out.println(TerminalColors.successMessage("[SNAPSHOT] Estado local do snapshot " + local.idSnapshot
+                    + " enviado para " + local.iniciador));
+        } catch (IOException e) {
+            System.err.println(TerminalColors.errorMessage("[SNAPSHOT] Não foi possível enviar o estado do snapshot "
+                    + local.idSnapshot + " para " + local.iniciador + ": " + e.getMessage()));
+        }
+    }
+
+    private void receberResultado(Mensagem mensagem) {
+        String conteudo = mensagem.getConteudoMensagem();
+        int fimId = conteudo == null ? -1 : conteudo.indexOf('\n');
+        if (fimId < 0) {
+            return;
+        }
+        // Resultados de snapshots que já terminaram são descartados em registrarResultado
+        registrarResultado(conteudo.substring(0, fimId),
+                decodificar(mensagem.getProcessoRemetente(), conteudo.substring(fimId + 1)));
+    }
+
+    private void registrarResultado(String idSnapshot, SnapshotGlobal.EstadoProcesso estado) {
+        Coleta coleta = coletas.get(idSnapshot);
+        if (coleta == null) {
+            return;
+        }
+        boolean todos;
+        synchronized (coleta) {
+            coleta.recebidos.put(estado.getProcesso(), estado);
+            todos = coleta.recebidos.containsKey(nomeProcesso)
+                    && coleta.recebidos.keySet().containsAll(coleta.esperados);
+        }
+        if (todos) {
+            finalizarColeta(coleta);
+        }
+    }
+
+    private void finalizarColeta(Coleta coleta) {
+        if (coletas.remove(coleta.idSnapshot) == null) {
+            return;
+        }
+        SnapshotGlobal global;
+        synchronized (coleta) {
+            Set<String> faltando = new HashSet<>(coleta.esperados);
+            faltando.add(nomeProcesso);
+            faltando.removeAll(coleta.recebidos.keySet());
+            global = new SnapshotGlobal(coleta.idSnapshot, nomeProcesso, new ArrayList<>(coleta.recebidos.values()),
+                    faltando, System.currentTimeMillis() - coleta.inicio);
+        }
+        coleta.futuro.complete(global);
+    }
+
+    private Mensagem criarMarcador(SnapshotLocal local) {
+        Mensagem marcador = new Mensagem();
+        marcador.setTipoMensagem(TipoMensagem.SOLICITAR_SNAPSHOT);
+        marcador.setProcessoRemetente(nomeProcesso);
+        marcador.setConteudoMensagem(local.idSnapshot + SEPARADOR + local.iniciador);
+        return marcador;
+    }
+
+    private static String descrever(Mensagem mensagem) {
+        return "[" + mensagem.getTipoMensagem() + "] clock " + mensagem.getClockMensagem()
+                + ": " + mensagem.getConteudoMensagem();
+    }
+
+    /**
+     * Formato da RESPOSTA_SNAPSHOT: uma linha para o id, uma para o estado e "completo",
+     * depois uma linha "remetente TAB mensagem" por mensagem em trânsito
+     */
+    private static String codificar(String idSnapshot, SnapshotGlobal.EstadoProcesso estado) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(idSnapshot).append('\n');
+        sb.append(linha(estado.getEstadoLocal())).append('\n');
+        sb.append(estado.isCompleto());
+        for (Map.Entry<String, List<String>> canal : estado.getCanais().entrySet()) {
+            for (String mensagem : canal.getValue()) {
+                sb.append('\n').append(linha(canal.getKey())).append(SEPARADOR_CAMPOS).append(linha(mensagem));
+            }
+        }
+        return sb.toString();
+    }
+
+    private static SnapshotGlobal.EstadoProcesso decodificar(String processo, String conteudo) {
+        String[] linhas = conteudo.split("\n", -1);
+        String estadoLocal = linhas.length > 0 ? linhas[0] : "";
+        boolean completo = linhas.length > 1 && Boolean.parseBoolean(linhas[1]);
+        Map<String, List<String>> canais = new LinkedHashMap<>();
+        for (int i = 2; i < linhas.length; i++) {
+            int separador = linhas[i].indexOf(SEPARADOR_CAMPOS);
+            if (separador < 0) {
+                continue;
+            }
+            canais.computeIfAbsent(linhas[i].substring(0, separador), r -> new ArrayList<>())
+                  .add(linhas[i].substring(separador + 1));
+        }
+        return new SnapshotGlobal.EstadoProcesso(processo, estadoLocal, canais, completo);
+    }
+
+    private static String linha(String texto) {
+        return String.valueOf(texto).replace('\n', ' ').replace(SEPARADOR_CAMPOS, ' ');
+    }
+}
@@ -0,0 +1,142 @@
+package br.com.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Corte consistente montado pelo iniciador de um snapshot Chandy-Lamport
+ * Estado local de cada processo + mensagens que estavam em trânsito em cada canal
+ */
+public class SnapshotGlobal {
+
+    /**
+     * Estado gravado por um processo e o conteúdo dos seus canais de entrada
+     */
+    public static class EstadoProcesso {
+        private final String processo;
+        private final String estadoLocal;
+        private final Map<String, List<String>> canais;
+        private final boolean completo;
+
+        public EstadoProcesso(String processo, String estadoLocal, Map<String, List<String>> canais, boolean completo) {
+            this.processo = processo;
+            this.estadoLocal = estadoLocal;
+            this.canais = Collections.unmodifiableMap(new LinkedHashMap<>(canais));
+            this.completo = completo;
+        }
+
+        public String getProcesso() {
+            return processo;
+        }
+
+        public String getEstadoLocal() {
+            return estadoLocal;
+        }
+
+        /**
+         * Mensagens em trânsito por processo remetente
+         */
+        public Map<String, List<String>> getCanais() {
+            return canais;
+        }
+
+        /**
+         * false quando algum canal não recebeu marcador dentro do prazo ou o limite de gravação foi atingido
+         */
+        public boolean isCompleto() {
+            return completo;
+        }
+
+        public int getMensagensEmTransito() {
+            int total = 0;
+            for (List<String> mensagens : canais.values()) {
+                total += mensagens.size();
+            }
+            return total;
+        }
+    }
+
+    private final String idSnapshot;
+    private final String iniciador;
+    private final List<EstadoProcesso> processos;
+    private final Set<String> faltando;
+    private final long duracaoMs;
+
+    public SnapshotGlobal(String idSnapshot, String iniciador, List<EstadoProcesso> processos,
+                          Set<String> faltando, long duracaoMs) {
+        this.idSnapshot = idSnapshot;
+        this.iniciador = iniciador;
+        this.processos = Collections.unmodifiableList(new ArrayList<>(processos));
+        this.faltando = Collections.unmodifiableSet(new TreeSet<>(faltando));
+        this.duracaoMs = duracaoMs;
+    }
+
+    public String getIdSnapshot() {
+        return idSnapshot;
+    }
+
+    public String getIniciador() {
+        return iniciador;
+    }
+
+    public List<EstadoProcesso> getProcessos() {
+        return processos;
+    }
+
+    /**
+     * Processos esperados que não enviaram seu estado no prazo
+     */
+    public Set<String> getFaltando() {
+        return faltando;
+    }
+
+    public long getDuracaoMs() {
+        return duracaoMs;
+    }
+
+    public boolean isCompleto() {
+        if (!faltando.isEmpty()) {
+            return false;
+        }
+        for (EstadoProcesso processo : processos) {
+            if (!processo.isCompleto()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public String format() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("\n").append(TerminalColors.successMessage("=== SNAPSHOT CONSISTENTE " + idSnapshot + " ===")).append("\n");
+        sb.append(TerminalColors.warningMessage("Iniciado por: " + iniciador + " | "
+                + processos.size() + " processo(s) | " + duracaoMs + " ms"
+                + (isCompleto() ? "" : " | INCOMPLETO"))).append("\n");
+
+        for (EstadoProcesso processo : processos) {
+            sb.append("• ").append(processo.getEstadoLocal());
+            if (!processo.isCompleto()) {
+                sb.append(TerminalColors.errorMessage(" (incompleto)"));
+            }
+            sb.append("\n");
+            for (Map.Entry<String, List<String>> canal : processo.getCanais().entrySet()) {
+                sb.append("    canal de ").append(canal.getKey()).append(": ")
+                  .append(canal.getValue().size()).append(" mensagem(ns) em trânsito\n");
+                for (String mensagem : canal.getValue()) {
+                    sb.append("      - ").append(mensagem).append("\n");
+                }
+            }
+        }
+
+        if (!faltando.isEmpty()) {
+            sb.append(TerminalColors.errorMessage("Sem resposta: " + String.join(", ", faltando))).append("\n");
+        }
+        sb.append(TerminalColors.successMessage("=== FIM DO SNAPSHOT ==="));
+        return sb.toString();
+    }
+}
@@ -2,9 +2,16 @@ package br.com.utils;
 
 import java.io.*;
 import java.net.*;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
  * Gerenciador de snapshot distribuído via sockets
@@ -19,19 +26,42 @@ public class SnapshotManager {
     public static final String SNAPSHOT_REQUEST = "SNAPSHOT_REQUEST";
     public static final String SNAPSHOT_RESPONSE = "SNAPSHOT_RESPONSE";
     
-    // Mapeamento de processos e suas portas de snapshot
-    private static final ConcurrentHashMap<String, Integer> PROCESS_SNAPSHOT_PORTS = new ConcurrentHashMap<>();
+    // Prazo padrão por processo na coleta de snapshot
+    public static final long DEFAULT_TIMEOUT_MS = 2000;
+    
+    // Processos com porta de snapshot registrada; a coleta do sistema consulta todos eles
+    private static final ConcurrentHashMap<String, RegisteredProcess> PROCESS_SNAPSHOT_PORTS = new ConcurrentHashMap<>();
+    
+    // Threads usadas para consultar os processos em paralelo
+    private static final ExecutorService COLLECTOR = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "SnapshotCollector");
+        thread.setDaemon(true);
+        return thread;
+    });
     
     static {
-        // Grupo 1 - Processos normais
-        PROCESS_SNAPSHOT_PORTS.put("Processo1", SNAPSHOT_PORT_BASE + 1); // 60001
-        PROCESS_SNAPSHOT_PORTS.put("Processo2", SNAPSHOT_PORT_BASE + 2); // 60002
-        PROCESS_SNAPSHOT_PORTS.put("Processo3", SNAPSHOT_PORT_BASE + 3); // 60003
+        // Grupo 1 - Processos normais (60001-60003)
+        for (int id = 1; id <= 3; id++) {
+            registerProcess("Processo" + id, 1, defaultPort(1, id));
+        }
         
-        // Grupo 2 - Processos RMI
-        PROCESS_SNAPSHOT_PORTS.put("ProcessoRMI1", SNAPSHOT_PORT_BASE + 11); // 60011
-        PROCESS_SNAPSHOT_PORTS.put("ProcessoRMI2", SNAPSHOT_PORT_BASE + 12); // 60012
-        PROCESS_SNAPSHOT_PORTS.put("ProcessoRMI3", SNAPSHOT_PORT_BASE + 13); // 60013
+        // Grupo 2 - Processos RMI do anel padrão (60011-60013); membros extras se registram ao entrar
+        for (int id = 1; id <= 3; id++) {
+            registerProcess("ProcessoRMI" + id, 2, defaultPort(2, id));
+        }
+    }
+    
+    /**
+     * Grupo e porta de snapshot de um processo registrado
+     */
+    private static final class RegisteredProcess {
+        final int group;
+        final int port;
+        
+        RegisteredProcess(int group, int port) {
+            this.group = group;
+            this.port = port;
+        }
     }
     
     private final String processName;
@@ -50,10 +80,60 @@ public class SnapshotManager {
     public SnapshotManager(String processName, SnapshotCallback callback) {
         this.processName = processName;
         this.snapshotCallback = callback;
-        this.snapshotPort = PROCESS_SNAPSHOT_PORTS.getOrDefault(processName, SNAPSHOT_PORT_BASE);
+        this.snapshotPort = getSnapshotPort(processName);
+        this.executor = Executors.newCachedThreadPool();
+    }
+    
+    /**
+     * Gerenciador numa porta escolhida; o processo passa a ser consultado na coleta do sistema
+     */
+    public SnapshotManager(String processName, int group, int port, SnapshotCallback callback) {
+        registerProcess(processName, group, port);
+        this.processName = processName;
+        this.snapshotCallback = callback;
+        this.snapshotPort = port;
         this.executor = Executors.newCachedThreadPool();
     }
     
+    /**
+     * Porta padrão de snapshot: 60000 + id no grupo 1 e 60010 + id no grupo 2
+     */
+    public static int defaultPort(int group, int id) {
+        return SNAPSHOT_PORT_BASE + (group - 1) * 10 + id;
+    }
+    
+    /**
+     * Registra (ou atualiza) a porta de snapshot de um processo para a coleta do sistema
+     */
+    public static void registerProcess(String processName, int group, int port) {
+        PROCESS_SNAPSHOT_PORTS.put(processName, new RegisteredProcess(group, port));
+    }
+    
+    /**
+     * Tira o processo da coleta do sistema (saiu do grupo)
+     */
+    public static void unregisterProcess(String processName) {
+        PROCESS_SNAPSHOT_PORTS.remove(processName);
+    }
+    
+    /**
+     * Processos registrados, por grupo e porta (a ordem da coleta)
+     */
+    public static List<String> getRegisteredProcesses() {
+        List<String> names = new ArrayList<>();
+        for (Map.Entry<String, RegisteredProcess> entry : registeredInOrder()) {
+            names.add(entry.getKey());
+        }
+        return names;
+    }
+    
+    private static List<Map.Entry<String, RegisteredProcess>> registeredInOrder() {
+        List<Map.Entry<String, RegisteredProcess>> entries = new ArrayList<>(PROCESS_SNAPSHOT_PORTS.entrySet());
+        entries.sort(Comparator.comparingInt((Map.Entry<String, RegisteredProcess> e) -> e.getValue().group)
+            .thenComparingInt(e -> e.getValue().port));
+        return entries;
+    }
+    
     /**
      * Inicia o servidor de snapshot para escutar pedidos
      */
@@ -114,14 +194,29 @@ public class SnapshotManager {
      * Coleta snapshot de um processo específico
      */
     public static String collectSnapshotFromProcess(String targetProcessName) {
-        Integer port = PROCESS_SNAPSHOT_PORTS.get(targetProcessName);
-        if (port == null) {
-            return targetProcessName + ": PROCESSO NÃO ENCONTRADO";
+        return collectSnapshot(targetProcessName, 0, DEFAULT_TIMEOUT_MS).describe();
+    }
+    
+    /**
+     * Coleta snapshot de um processo respeitando o prazo informado (conexão + resposta)
+     */
+    public static SystemSnapshot.ProcessSnapshot collectSnapshot(String targetProcessName, int group, long timeoutMs) {
+        long start = System.nanoTime();
+        RegisteredProcess registered = PROCESS_SNAPSHOT_PORTS.get(targetProcessName);
+        if (registered == null) {
+            return new SystemSnapshot.ProcessSnapshot(targetProcessName, group, SystemSnapshot.Status.NOT_FOUND, null, 0);
         }
         
-        try (Socket socket = new Socket("localhost", port);
-             PrintWriter writer = new PrintWriter(socket.getOutputStream(), true);
-             BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream()))) {
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress("localhost", registered.port), (int) timeoutMs);
+            long remaining = timeoutMs - elapsedMs(start);
+            if (remaining <= 0) {
+                throw new SocketTimeoutException("prazo esgotado após conectar");
+            }
+            socket.setSoTimeout((int) remaining);
+            
+            PrintWriter writer = new PrintWriter(socket.getOutputStream(), true);
+            BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream()));
             
             // Envia pedido de snapshot
             writer.println(SNAPSHOT_REQUEST);
@@ -129,13 +224,19 @@ public class SnapshotManager {
             // Lê resposta
             String response = reader.readLine();
             if (response != null && response.startsWith(SNAPSHOT_RESPONSE + ":")) {
-                return response.substring((SNAPSHOT_RESPONSE + ":").length());
+                return new SystemSnapshot.ProcessSnapshot(targetProcessName, group, SystemSnapshot.Status.OK,
+                    response.substring((SNAPSHOT_RESPONSE + ":").length()), elapsedMs(start));
             } else {
-                return targetProcessName + ": RESPOSTA INVÁLIDA";
+                return new SystemSnapshot.ProcessSnapshot(targetProcessName, group,
+                    SystemSnapshot.Status.INVALID_RESPONSE, response, elapsedMs(start));
             }
             
+        } catch (SocketTimeoutException e) {
+            return new SystemSnapshot.ProcessSnapshot(targetProcessName, group,
+                SystemSnapshot.Status.TIMEOUT, e.getMessage(), elapsedMs(start));
         } catch (IOException e) {
-            return targetProcessName + ": INDISPONÍVEL (" + e.getMessage() + ")";
+            return new SystemSnapshot.ProcessSnapshot(targetProcessName, group,
+                SystemSnapshot.Status.UNAVAILABLE, e.getMessage(), elapsedMs(start));
         }
     }
     
@@ -143,28 +244,56 @@ public class SnapshotManager {
      * Coleta snapshot de todos os processos do sistema
      */
     public static String collectSystemSnapshot() {
-        StringBuilder snapshot = new StringBuilder();
-        snapshot.append("\n").append(TerminalColors.successMessage("=== SNAPSHOT DO SISTEMA DISTRIBUÍDO ===")).append("\n");
-        snapshot.append(TerminalColors.warningMessage("Coletado por: Processo3 (SUPERCOORDENADOR)")).append("\n\n");
-        
-        // Coleta informações do Grupo 1
-        snapshot.append(TerminalColors.multicastMessage("--- GRUPO 1 (Processos Normais) ---")).append("\n");
-        for (String processName : new String[]{"Processo1", "Processo2", "Processo3"}) {
-            String info = collectSnapshotFromProcess(processName);
-            snapshot.append("• ").append(info).append("\n");
-        }
-        
-        snapshot.append("\n");
+        return collectSystemSnapshot("Processo3 (SUPERCOORDENADOR)", DEFAULT_TIMEOUT_MS, null).format();
+    }
+    
+    /**
+     * Coleta snapshot de todos os processos em paralelo e espera no máximo timeoutMs
+     * @param onPartial chamado com cada resultado assim que ele chega (pode ser null)
+     */
+    public static SystemSnapshot collectSystemSnapshot(String collectedBy, long timeoutMs,
+                                                       Consumer<SystemSnapshot.ProcessSnapshot> onPartial) {
+        return collectSystemSnapshotAsync(collectedBy, timeoutMs, onPartial).join();
+    }
+    
+    /**
+     * Versão assíncrona da coleta; o futuro completa quando todos responderam ou o prazo acabou
+     * Consulta os processos registrados no momento da chamada (ver registerProcess)
+     * Processos que não responderam no prazo aparecem com status TIMEOUT
+     */
+    public static CompletableFuture<SystemSnapshot> collectSystemSnapshotAsync(String collectedBy, long timeoutMs,
+                                                                              Consumer<SystemSnapshot.ProcessSnapshot> onPartial) {
+        long start = System.nanoTime();
+        List<CompletableFuture<SystemSnapshot.ProcessSnapshot>> futures = new ArrayList<>();
         
-        // Coleta informações do Grupo 2
-        snapshot.append(TerminalColors.multicastMessage("--- GRUPO 2 (Processos RMI) ---")).append("\n");
-        for (String processName : new String[]{"ProcessoRMI1", "ProcessoRMI2", "ProcessoRMI3"}) {
-            String info = collectSnapshotFromProcess(processName);
-            snapshot.append("• ").append(info).append("\n");
+        for (Map.Entry<String, RegisteredProcess> entry : registeredInOrder()) {
+            String name = entry.getKey();
+            int processGroup = entry.getValue().group;
+            CompletableFuture<SystemSnapshot.ProcessSnapshot> future = CompletableFuture
+                .supplyAsync(() -> collectSnapshot(name, processGroup, timeoutMs), COLLECTOR)
+                .completeOnTimeout(new SystemSnapshot.ProcessSnapshot(name, processGroup,
+                    SystemSnapshot.Status.TIMEOUT, null, timeoutMs), timeoutMs, TimeUnit.MILLISECONDS);
+            if (onPartial != null) {
+                future = future.whenComplete((result, error) -> {
+                    if (result != null) {
+                        onPartial.accept(result);
+                    }
+                });
+            }
+            futures.add(future);
         }
         
-        snapshot.append("\n").append(TerminalColors.successMessage("=== FIM DO SNAPSHOT ==="));
-        return snapshot.toString();
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).thenApply(ignored -> {
+            List<SystemSnapshot.ProcessSnapshot> results = new ArrayList<>();
+            for (CompletableFuture<SystemSnapshot.ProcessSnapshot> future : futures) {
+                results.add(future.join());
+            }
+            return new SystemSnapshot(collectedBy, results, elapsedMs(start));
+        });
+    }
+    
+    private static long elapsedMs(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
     }
     
     /**
@@ -188,6 +317,7 @@ public class SnapshotManager {
      * Obtém a porta de snapshot para um processo
      */
     public static int getSnapshotPort(String processName) {
-        return PROCESS_SNAPSHOT_PORTS.getOrDefault(processName, SNAPSHOT_PORT_BASE);
+        RegisteredProcess registered = PROCESS_SNAPSHOT_PORTS.get(processName);
+        return registered != null ? registered.port : SNAPSHOT_PORT_BASE;
     }
 }
\ No newline at end of file
@@ -0,0 +1,155 @@
+package br.com.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resultado estruturado de uma coleta de snapshot do sistema
+ * Contém uma entrada por processo consultado, inclusive os que não responderam no prazo
+ */
+public class SystemSnapshot {
+
+    /**
+     * Situação da coleta de um processo
+     */
+    public enum Status {
+        OK,
+        UNAVAILABLE,
+        TIMEOUT,
+        INVALID_RESPONSE,
+        NOT_FOUND
+    }
+
+    /**
+     * Snapshot de um único processo
+     */
+    public static class ProcessSnapshot {
+        private final String processName;
+        private final int group;
+        private final Status status;
+        private final String info;
+        private final long latencyMs;
+
+        public ProcessSnapshot(String processName, int group, Status status, String info, long latencyMs) {
+            this.processName = processName;
+            this.group = group;
+            this.status = status;
+            this.info = info;
+            this.latencyMs = latencyMs;
+        }
+
+        public String getProcessName() {
+            return processName;
+        }
+
+        public int getGroup() {
+            return group;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        /**
+         * Informação devolvida pelo processo (status OK) ou descrição do erro
+         */
+        public String getInfo() {
+            return info;
+        }
+
+        public long getLatencyMs() {
+            return latencyMs;
+        }
+
+        public boolean isOk() {
+            return status == Status.OK;
+        }
+
+        /**
+         * Linha no formato usado pelo relatório texto
+         */
+        public String describe() {
+            switch (status) {
+                case OK:
+                    return info;
+                case NOT_FOUND:
+                    return processName + ": PROCESSO NÃO ENCONTRADO";
+                case INVALID_RESPONSE:
+                    return processName + ": RESPOSTA INVÁLIDA";
+                case TIMEOUT:
+                    return processName + ": SEM RESPOSTA NO PRAZO (" + latencyMs + " ms)";
+                default:
+                    return processName + ": INDISPONÍVEL (" + info + ")";
+            }
+        }
+    }
+
+    private final String collectedBy;
+    private final List<ProcessSnapshot> processes;
+    private final long durationMs;
+
+    public SystemSnapshot(String collectedBy, List<ProcessSnapshot> processes, long durationMs) {
+        this.collectedBy = collectedBy;
+        this.processes = Collections.unmodifiableList(new ArrayList<>(processes));
+        this.durationMs = durationMs;
+    }
+
+    public String getCollectedBy() {
+        return collectedBy;
+    }
+
+    public List<ProcessSnapshot> getProcesses() {
+        return processes;
+    }
+
+    public List<ProcessSnapshot> getGroup(int group) {
+        List<ProcessSnapshot> result = new ArrayList<>();
+        for (ProcessSnapshot process : processes) {
+            if (process.getGroup() == group) {
+                result.add(process);
+            }
+        }
+        return result;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    public int getRespondedCount() {
+        int count = 0;
+        for (ProcessSnapshot process : processes) {
+            if (process.isOk()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Relatório colorido no formato exibido no terminal do supercoordenador
+     */
+    public String format() {
+        StringBuilder snapshot = new StringBuilder();
+        snapshot.append("\n").append(TerminalColors.successMessage("=== SNAPSHOT DO SISTEMA DISTRIBUÍDO ===")).append("\n");
+        snapshot.append(TerminalColors.warningMessage("Coletado por: " + collectedBy)).append("\n\n");
+
+        snapshot.append(TerminalColors.multicastMessage("--- GRUPO 1 (Processos Normais) ---")).append("\n");
+        for (ProcessSnapshot process : getGroup(1)) {
+            snapshot.append("• ").append(process.describe()).append("\n");
+        }
+
+        snapshot.append("\n");
+
+        snapshot.append(TerminalColors.multicastMessage("--- GRUPO 2 (Processos RMI) ---")).append("\n");
+        for (ProcessSnapshot process : getGroup(2)) {
+            snapshot.append("• ").append(process.describe()).append("\n");
+        }
+
+        snapshot.append("\n").append(TerminalColors.warningMessage(
+            getRespondedCount() + "/" + processes.size() + " processos responderam em " + durationMs + " ms"));
+        snapshot.append("\n").append(TerminalColors.successMessage("=== FIM DO SNAPSHOT ==="));
+        return snapshot.toString();
+    }
+}
@@ -0,0 +1,439 @@
+package br.com.utils;
+
+import br.com.models.Mensagem;
+import br.com.models.TipoMensagem;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Transporte de mensagens baseado em Selector (NIO) para os processos do grupo 1
+ * Um pequeno número fixo de loops de eventos atende todas as conexões, de modo que
+ * a quantidade de conexões não determina mais a quantidade de threads
+ */
+public class TransporteNio {
+
+    private static final int TAMANHO_BUFFER_INICIAL = 8 * 1024;
+
+    /**
+     * Manipulador chamado para cada mensagem decodificada
+     * Executa na thread do loop de eventos, portanto não deve bloquear
+     */
+    public interface ManipuladorMensagem {
+        void processar(Mensagem mensagem, CanalMensagem canal);
+    }
+
+    private final String nomeProcesso;
+    private final int porta;
+    private final ManipuladorMensagem manipulador;
+    private final LoopEventos[] loops;
+    private final AtomicInteger proximoLoop = new AtomicInteger();
+    private final Set<ConexaoNio> conexoes = ConcurrentHashMap.newKeySet();
+    private ServerSocketChannel servidor;
+    private volatile InterceptadorCanais interceptador;
+    private volatile boolean ativo = false;
+
+    public TransporteNio(String nomeProcesso, int porta, ManipuladorMensagem manipulador) {
+        this(nomeProcesso, porta, manipulador, Math.max(1, Math.min(2, Runtime.getRuntime().availableProcessors() / 2)));
+    }
+
+    public TransporteNio(String nomeProcesso, int porta, ManipuladorMensagem manipulador, int quantidadeLoops) {
+        this.nomeProcesso = nomeProcesso;
+        this.porta = porta;
+        this.manipulador = manipulador;
+        this.loops = new LoopEventos[quantidadeLoops];
+    }
+
+    /**
+     * Abre a porta do servidor e inicia os loops de eventos
+     */
+    public void iniciar() throws IOException {
+        if (ativo) {
+            return;
+        }
+
+        for (int i = 0; i < loops.length; i++) {
+            loops[i] = new LoopEventos(Selector.open());
+        }
+
+        servidor = ServerSocketChannel.open();
+        servidor.bind(new InetSocketAddress(porta));
+        servidor.configureBlocking(false);
+        ativo = true;
+
+        // O primeiro loop também é responsável por aceitar novas conexões
+        loops[0].executar(() -> {
+            try {
+                servidor.register(loops[0].selector, SelectionKey.OP_ACCEPT);
+            } catch (ClosedChannelException e) {
+                System.err.println(TerminalColors.errorMessage("[ERRO] Erro ao registrar servidor: " + e.getMessage()));
+            }
+        });
+
+        for (int i = 0; i < loops.length; i++) {
+            Thread thread = new Thread(loops[i], "TransporteNio-" + nomeProcesso + "-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        System.out.println(TerminalColors.successMessage("[SERVIDOR] " + nomeProcesso + " iniciado na porta " + porta
+                + " (" + loops.length + " loop(s) de eventos)"));
+    }
+
+    /**
+     * Fecha o servidor e todas as conexões abertas
+     */
+    public void parar() {
+        ativo = false;
+        try {
+            if (servidor != null) {
+                servidor.close();
+            }
+        } catch (IOException e) {
+            System.err.println(TerminalColors.errorMessage("[ERRO] Erro ao fechar servidor: " + e.getMessage()));
+        }
+        for (LoopEventos loop : loops) {
+            if (loop != null) {
+                loop.selector.wakeup();
+            }
+        }
+    }
+
+    public int getPorta() {
+        return porta;
+    }
+
+    /**
+     * Instala o interceptador (ex.: SnapshotDistribuido); deve ser chamado antes de iniciar
+     */
+    public void setInterceptador(InterceptadorCanais interceptador) {
+        this.interceptador = interceptador;
+    }
+
+    /**
+     * Conexões aceitas que ainda estão abertas
+     */
+    public Collection<CanalMensagem> getCanais() {
+        return Collections.unmodifiableSet(conexoes);
+    }
+
+    private void aceitar() {
+        try {
+            SocketChannel canal;
+            while ((canal = servidor.accept()) != null) {
+                canal.configureBlocking(false);
+                canal.socket().setTcpNoDelay(true);
+                LoopEventos loop = loops[Math.floorMod(proximoLoop.getAndIncrement(), loops.length)];
+                ConexaoNio conexao = new ConexaoNio(canal, loop);
+                InterceptadorCanais interceptador = this.interceptador;
+                if (interceptador != null) {
+                    Lock trava = interceptador.getTravaEnvio().writeLock();
+                    trava.lock();
+                    try {
+                        conexoes.add(conexao);
+                        interceptador.canalAberto(conexao);
+                    } finally {
+                        trava.unlock();
+                    }
+                } else {
+                    conexoes.add(conexao);
+                }
+                loop.executar(conexao::registrar);
+            }
+        } catch (IOException e) {
+            if (ativo) {
+                System.err.println(TerminalColors.errorMessage("[ERRO] Erro ao aceitar conexão: " + e.getMessage()));
+            }
+        }
+    }
+
+    /**
+     * Loop de eventos: uma thread, um Selector, várias conexões
+     */
+    private class LoopEventos implements Runnable {
+
+        private final Selector selector;
+        private final Queue<Runnable> tarefas = new ConcurrentLinkedQueue<>();
+        private volatile Thread thread;
+
+        LoopEventos(Selector selector) {
+            this.selector = selector;
+        }
+
+        /**
+         * Agenda uma tarefa para rodar na thread do loop
+         */
+        void executar(Runnable tarefa) {
+            if (Thread.currentThread() == thread) {
+                tarefa.run();
+                return;
+            }
+            tarefas.add(tarefa);
+            selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            thread = Thread.currentThread();
+            while (ativo) {
+                try {
+                    selector.select();
+
+                    Runnable tarefa;
+                    while ((tarefa = tarefas.poll()) != null) {
+                        tarefa.run();
+                    }
+
+                    Iterator<SelectionKey> chaves = selector.selectedKeys().iterator();
+                    while (chaves.hasNext()) {
+                        SelectionKey chave = chaves.next();
+                        chaves.remove();
+
+                        if (!chave.isValid()) {
+                            continue;
+                        }
+                        if (chave.isAcceptable()) {
+                            aceitar();
+                            continue;
+                        }
+
+                        ConexaoNio conexao = (ConexaoNio) chave.attachment();
+                        if (chave.isReadable()) {
+                            conexao.ler();
+                        }
+                        if (chave.isValid() && chave.isWritable()) {
+                            conexao.escreverPendentes();
+                        }
+                    }
+                } catch (IOException e) {
+                    if (ativo) {
+                        System.err.println(TerminalColors.errorMessage("[ERRO] Erro no loop de eventos: " + e.getMessage()));
+                    }
+                }
+            }
+
+            for (SelectionKey chave : selector.keys()) {
+                if (chave.attachment() instanceof ConexaoNio) {
+                    ((ConexaoNio) chave.attachment()).fechar();
+                }
+            }
+            try {
+                selector.close();
+            } catch (IOException e) {
+                // Ignora erro ao fechar selector
+            }
+        }
+    }
+
+    /**
+     * Conexão aceita pelo servidor; leitura e escrita acontecem sempre no seu loop
+     */
+    private class ConexaoNio implements CanalMensagem {
+
+        private final SocketChannel canal;
+        private final LoopEventos loop;
+        private final Queue<ByteBuffer> escritaPendente = new ArrayDeque<>();
+        private final AtomicBoolean fechada = new AtomicBoolean(false);
+        private ByteBuffer entrada = ByteBuffer.allocate(TAMANHO_BUFFER_INICIAL);
+        private SelectionKey chave;
+
+        ConexaoNio(SocketChannel canal, LoopEventos loop) {
+            this.canal = canal;
+            this.loop = loop;
+        }
+
+        void registrar() {
+            try {
+                int interesse = escritaPendente.isEmpty()
+                        ? SelectionKey.OP_READ
+                        : SelectionKey.OP_READ | SelectionKey.OP_WRITE;
+                chave = canal.register(loop.selector, interesse, this);
+            } catch (ClosedChannelException e) {
+                fechar();
+            }
+        }
+
+        void ler() {
+            try {
+                int lidos = canal.read(entrada);
+                if (lidos < 0) {
+                    fechar();
+                    return;
+                }
+
+                entrada.flip();
+                while (entrada.remaining() >= FramesMensagem.TAMANHO_CABECALHO) {
+                    int tamanho = entrada.getInt(entrada.position());
+                    FramesMensagem.validarTamanho(tamanho);
+
+                    if (entrada.remaining() < FramesMensagem.TAMANHO_CABECALHO + tamanho) {
+                        break;
+                    }
+
+                    entrada.position(entrada.position() + FramesMensagem.TAMANHO_CABECALHO);
+                    byte[] conteudo = new byte[tamanho];
+                    entrada.get(conteudo);
+                    despachar(FramesMensagem.decodificar(conteudo));
+                }
+                entrada.compact();
+                garantirCapacidade();
+            } catch (IOException e) {
+                System.err.println(TerminalColors.errorMessage("[ERRO] Erro na comunicação: " + e.getMessage()));
+                fechar();
+            }
+        }
+
+        /**
+         * Aumenta o buffer quando o próximo frame não cabe no espaço atual
+         */
+        private void garantirCapacidade() throws IOException {
+            if (entrada.position() < FramesMensagem.TAMANHO_CABECALHO) {
+                return;
+            }
+            int tamanho = entrada.getInt(0);
+            FramesMensagem.validarTamanho(tamanho);
+            int necessario = FramesMensagem.TAMANHO_CABECALHO + tamanho;
+            if (necessario > entrada.capacity()) {
+                ByteBuffer maior = ByteBuffer.allocate(necessario);
+                entrada.flip();
+                maior.put(entrada);
+                entrada = maior;
+            }
+        }
+
+        private void despachar(Mensagem mensagem) {
+            if (CanalSocket.isSonda(mensagem)) {
+                responderSonda(mensagem);
+                return;
+            }
+            InterceptadorCanais interceptador = TransporteNio.this.interceptador;
+            try {
+                if (interceptador != null) {
+                    interceptador.mensagemRecebida(this, mensagem, () -> manipulador.processar(mensagem, this));
+                } else {
+                    manipulador.processar(mensagem, this);
+                }
+            } catch (RuntimeException e) {
+                System.err.println(TerminalColors.errorMessage("[ERRO] Erro ao processar mensagem: " + e.getMessage()));
+            }
+        }
+
+        /**
+         * PONG da sonda de liveness do PoolConexoes, do próprio laço: não é tráfego da aplicação,
+         * então não passa pelo manipulador nem espera a trava do snapshot
+         */
+        private void responderSonda(Mensagem sonda) {
+            Mensagem pong = new Mensagem();
+            pong.setIdMensagem(UUID.randomUUID());
+            pong.setIdMensagemOrigem(sonda.getIdMensagem());
+            pong.setTipoMensagem(TipoMensagem.PONG);
+            pong.setConteudoMensagem(sonda.getConteudoMensagem());
+            pong.setProcessoRemetente(nomeProcesso);
+            try {
+                enfileirar(frame(pong));
+            } catch (IOException e) {
+                fechar();
+            }
+        }
+
+        private ByteBuffer frame(Mensagem mensagem) throws IOException {
+            byte[] conteudo = FramesMensagem.codificar(mensagem);
+            ByteBuffer frame = ByteBuffer.allocate(FramesMensagem.TAMANHO_CABECALHO + conteudo.length);
+            frame.putInt(conteudo.length).put(conteudo).flip();
+            return frame;
+        }
+
+        @Override
+        public void enviar(Mensagem mensagem) throws IOException {
+            if (!canal.isOpen()) {
+                throw new IOException("Conexão fechada");
+            }
+            ByteBuffer frame = frame(mensagem);
+            InterceptadorCanais interceptador = TransporteNio.this.interceptador;
+            if (interceptador == null) {
+                enfileirar(frame);
+                return;
+            }
+            // A ordem de enfileiramento é a ordem do canal; o snapshot não pode ficar no meio
+            Lock trava = interceptador.getTravaEnvio().readLock();
+            trava.lock();
+            try {
+                enfileirar(frame);
+            } finally {
+                trava.unlock();
+            }
+        }
+
+        private void enfileirar(ByteBuffer frame) {
+            loop.executar(() -> {
+                escritaPendente.add(frame);
+                escreverPendentes();
+            });
+        }
+
+        void escreverPendentes() {
+            try {
+                ByteBuffer frame;
+                while ((frame = escritaPendente.peek()) != null) {
+                    canal.write(frame);
+                    if (frame.hasRemaining()) {
+                        break;
+                    }
+                    escritaPendente.poll();
+                }
+                if (chave != null && chave.isValid()) {
+                    int interesse = escritaPendente.isEmpty()
+                            ? SelectionKey.OP_READ
+                            : SelectionKey.OP_READ | SelectionKey.OP_WRITE;
+                    chave.interestOps(interesse);
+                }
+            } catch (IOException e) {
+                System.err.println(TerminalColors.errorMessage("[ERRO] Erro ao enviar resposta: " + e.getMessage()));
+                fechar();
+            }
+        }
+
+        @Override
+        public boolean isAberto() {
+            return canal.isOpen();
+        }
+
+        @Override
+        public void fechar() {
+            if (chave != null) {
+                chave.cancel();
+            }
+            escritaPendente.clear();
+            try {
+                canal.close();
+            } catch (IOException e) {
+                // Ignora erro ao fechar canal
+            }
+            if (fechada.compareAndSet(false, true)) {
+                conexoes.remove(this);
+                InterceptadorCanais interceptador = TransporteNio.this.interceptador;
+                if (interceptador != null) {
+                    interceptador.canalFechado(this);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package br.com.grupo1;
+
+import br.com.models.ConexaoOutrosProcessos;
+import br.com.models.Mensagem;
+import br.com.models.Processo;
+import br.com.utils.CanalMensagem;
+import br.com.utils.PoolConexoes;
+import br.com.utils.TransporteNio;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Saída planejada do líder do grupo 1 com processos em localhost: TransporteNio, PoolConexoes e
+ * ControleLideranca de verdade, a partir da opção 0 do menu (encerrar). Sem heartbeat gRPC: o
+ * tempo sem líder vai do pedido de saída até todos os processos que ficam seguirem o sucessor
+ */
+class TransferenciaLiderancaTest {
+
+    private static final int PROCESSOS = 5;
+    private static final long TIMEOUT_TRANSFERENCIA_MS = 3000;
+    // Metade da concessão do HeartbeatManager (8 x 250 ms): uma queda nunca fica abaixo dela,
+    // porque os seguidores só elegem depois que a concessão expira
+    private static final long LIMITE_SEM_LIDER_MS = 1000;
+
+    private final Map<Integer, No> nos = new TreeMap<>();
+
+    /**
+     * Um processo do grupo 1 sem menu nem gRPC: o transporte e o pool entregam as mensagens ao
+     * ControleLideranca, como processarMensagemRecebida; o Ouvinte só registra as trocas
+     */
+    private static final class No implements ControleLideranca.Ouvinte {
+        final Processo processo;
+        final ControleLideranca controle;
+        final TransporteNio transporte;
+        PoolConexoes pool;
+        volatile boolean assumiu;
+        volatile boolean deixou;
+        volatile boolean saiu;
+
+        No(int id, int porta) {
+            processo = new Processo(UUID.randomUUID(), nome(id), 0, id * 10, porta, false, null);
+            controle = new ControleLideranca(processo, nome(PROCESSOS), TIMEOUT_TRANSFERENCIA_MS, this);
+            transporte = new TransporteNio(processo.getNomeProcesso(), porta, this::receber, 1);
+        }
+
+        void conectar() {
+            pool = new PoolConexoes(processo.getNomeProcesso(), processo.getConexaoOutrosProcessos(), this::receber);
+            controle.setPoolConexoes(pool);
+            pool.iniciar();
+        }
+
+        void parar() {
+            if (pool != null) {
+                pool.parar();
+            }
+            transporte.parar();
+        }
+
+        void receber(Mensagem mensagem, CanalMensagem canal) {
+            try {
+                controle.processar(mensagem, canal);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        String lider() {
+            return controle.getLiderAtual();
+        }
+
+        @Override
+        public void assumiu(long termo) {
+            assumiu = true;
+        }
+
+        @Override
+        public void deixou() {
+            deixou = true;
+        }
+
+        @Override
+        public void seguir(String lider, long termo) {
+        }
+
+        @Override
+        public boolean concessaoValida(String lider) {
+            return false;
+        }
+    }
+
+    @AfterEach
+    void finalizar() {
+        for (No no : nos.values()) {
+            no.parar();
+        }
+    }
+
+    /**
+     * O líder passa a liderança ao processo de maior parâmetro e sai: todos os que ficam seguem
+     * o sucessor antes de LIMITE_SEM_LIDER_MS
+     */
+    @Test
+    void sucessorAssumeAntesDaConcessaoExpirar() throws Exception {
+        subir();
+        No lider = nos.get(PROCESSOS);
+
+        long inicio = System.nanoTime();
+        lider.controle.encerrar(() -> lider.saiu = true);
+        assertTrue(lider.saiu, "a saída roda depois da transferência");
+        nos.remove(PROCESSOS).parar();
+
+        long limite = System.currentTimeMillis() + TIMEOUT_TRANSFERENCIA_MS;
+        while (!todosSeguem(nome(PROCESSOS - 1)) && System.currentTimeMillis() < limite) {
+            Thread.sleep(1);
+        }
+        long semLiderMs = (System.nanoTime() - inicio) / 1_000_000;
+        assertTrue(todosSeguem(nome(PROCESSOS - 1)), "o grupo não convergiu para " + nome(PROCESSOS - 1));
+        assertTrue(semLiderMs < LIMITE_SEM_LIDER_MS, "tempo sem líder: " + semLiderMs + " ms");
+        assertEquals(lider.controle.getCoordenadorEleicao().getTermo(), nos.get(PROCESSOS - 1).controle.getCoordenadorEleicao().getTermoLider());
+        assertTrue(nos.get(PROCESSOS - 1).assumiu, "o sucessor assume pelo Ouvinte");
+        assertTrue(lider.deixou, "o líder que saiu para o heartbeat de líder");
+    }
+
+    /**
+     * Um candidato que já conhece um líder de termo maior responde LIDERANCA_RECUSADA e a
+     * liderança vai para o próximo, também dentro de LIMITE_SEM_LIDER_MS
+     */
+    @Test
+    void recusaPassaAoProximoCandidato() throws Exception {
+        subir();
+        No lider = nos.get(PROCESSOS);
+        No recusa = nos.get(PROCESSOS - 1);
+        recusa.controle.getCoordenadorEleicao().liderDefinido(nome(PROCESSOS), 10);
+
+        long inicio = System.nanoTime();
+        assertEquals(nome(PROCESSOS - 2), lider.controle.transferirLideranca());
+        long semLiderMs = (System.nanoTime() - inicio) / 1_000_000;
+        assertEquals(nome(PROCESSOS - 2), nos.get(PROCESSOS - 2).lider());
+        assertEquals(nome(PROCESSOS), recusa.lider());
+        assertFalse(recusa.assumiu);
+        assertTrue(semLiderMs < LIMITE_SEM_LIDER_MS, "tempo sem líder: " + semLiderMs + " ms");
+    }
+
+    /**
+     * Sobe os processos com o de maior parâmetro como líder do termo 1 e espera todas as conexões
+     */
+    private void subir() throws Exception {
+        List<Integer> portas = portasLivres(PROCESSOS);
+        for (int id = 1; id <= PROCESSOS; id++) {
+            No no = new No(id, portas.get(id - 1));
+            for (int outro = 1; outro <= PROCESSOS; outro++) {
+                if (outro != id) {
+                    ConexaoOutrosProcessos conexao = new ConexaoOutrosProcessos();
+                    conexao.setNomeProcesso(nome(outro));
+                    conexao.setParametroEleicao(outro * 10);
+                    conexao.setPorta(portas.get(outro - 1));
+                    no.processo.getConexaoOutrosProcessos().add(conexao);
+                }
+            }
+            no.controle.getCoordenadorEleicao().liderDefinido(nome(PROCESSOS), 1);
+            nos.put(id, no);
+            no.transporte.iniciar();
+        }
+        for (No no : nos.values()) {
+            no.conectar();
+        }
+
+        long limite = System.currentTimeMillis() + 10000;
+        while (!todosConectados() && System.currentTimeMillis() < limite) {
+            Thread.sleep(20);
+        }
+        assertTrue(todosConectados(), "o pool não conectou todos os processos");
+    }
+
+    private boolean todosConectados() {
+        for (No no : nos.values()) {
+            for (ConexaoOutrosProcessos conexao : no.processo.getConexaoOutrosProcessos()) {
+                if (!conexao.isConectado()) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private boolean todosSeguem(String lider) {
+        for (No no : nos.values()) {
+            if (!lider.equals(no.lider())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static List<Integer> portasLivres(int quantidade) throws IOException {
+        List<ServerSocket> reservas = new ArrayList<>();
+        List<Integer> portas = new ArrayList<>();
+        try {
+            for (int i = 0; i < quantidade; i++) {
+                ServerSocket reserva = new ServerSocket(0);
+                reservas.add(reserva);
+                portas.add(reserva.getLocalPort());
+            }
+        } finally {
+            for (ServerSocket reserva : reservas) {
+                reserva.close();
+            }
+        }
+        return portas;
+    }
+
+    private static String nome(int id) {
+        return "Processo" + id;
+    }
+}
@@ -0,0 +1,206 @@
+package br.com.grupo2;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Anel do grupo 2 com dezenas de membros em localhost, montado a partir da visão de membros
+ * Sobe um GerenciadorEleicaoSocket por membro (cada um com sua própria visão), em portas
+ * escolhidas pelo sistema. Só a camada de anel e eleição: nada de RMI nem multicast
+ */
+class AnelMembrosDinamicosTest {
+
+    private static final int MEMBROS = 50;
+    private static final long PRAZO_ELEICAO_MS = 30000;
+
+    private final Map<Integer, No> nos = new TreeMap<>();
+
+    /**
+     * Um membro simulado: a visão dele, o gerenciador de eleição e o último líder definido
+     */
+    private static final class No implements GerenciadorEleicaoSocket.Participante {
+        final int id;
+        final MembrosAnel visao;
+        GerenciadorEleicaoSocket eleicao;
+        volatile CompletableFuture<Integer> lider = new CompletableFuture<>();
+
+        No(int id, MembrosAnel visao) {
+            this.id = id;
+            this.visao = visao;
+        }
+
+        void iniciar() {
+            eleicao = new GerenciadorEleicaoSocket(id, id * 10, visao, this);
+        }
+
+        @Override
+        public int getLiderAtual() {
+            // Sem líder conhecido: cada rodada força uma eleição nova
+            return -1;
+        }
+
+        @Override
+        public void definirNovoLider(int novoLider) {
+            lider.complete(novoLider);
+        }
+
+        @Override
+        public void anunciarLiderViaMulticast(int novoLider) {
+        }
+    }
+
+    @AfterEach
+    void finalizar() {
+        for (No no : nos.values()) {
+            no.eleicao.finalizar();
+        }
+    }
+
+    /**
+     * Eleição no anel completo, entrada de um membro em execução e saída de um membro junto
+     * com a queda de outro que não avisou
+     */
+    @Test
+    void anelSegueAVisaoDeMembros() throws Exception {
+        List<MembrosAnel.Membro> membros = membrosEmPortasLivres(MEMBROS + 1);
+        subir(membros.subList(0, MEMBROS));
+        assertEquals(MEMBROS, eleger(nos.get(1)), "anel completo com " + MEMBROS + " membros");
+
+        // Entrada em execução: cada visão recebe o novo membro, como faz entrarNoAnel via RMI
+        MembrosAnel.Membro membroNovo = membros.get(MEMBROS);
+        No noNovo = new No(membroNovo.getId(), new MembrosAnel(membros));
+        noNovo.iniciar();
+        for (No no : nos.values()) {
+            no.visao.entrar(membroNovo);
+        }
+        nos.put(noNovo.id, noNovo);
+        aguardarPortas();
+        assertEquals(noNovo.id, eleger(nos.get(1)), "entrada de ProcessoRMI" + noNovo.id);
+
+        // Saída ordenada do novo membro e queda silenciosa de um membro do meio do anel
+        derrubar(noNovo);
+        nos.remove(noNovo.id);
+        for (No no : nos.values()) {
+            no.visao.sair(noNovo.id);
+        }
+        derrubar(nos.get(MEMBROS / 2));
+        assertEquals(MEMBROS, eleger(nos.get(1)), "saída de ProcessoRMI" + noNovo.id + " e queda de ProcessoRMI" + MEMBROS / 2);
+    }
+
+    /**
+     * Derruba os membros 2, 3, ... e elege duas vezes depois de cada queda: com a lista de
+     * sucessores vivos a primeira eleição tenta o recém-caído no máximo uma vez e a segunda
+     * não tenta nenhum membro caído
+     */
+    @Test
+    void quedasAcumuladasCustamUmaConexaoFalhaCada() throws Exception {
+        subir(membrosEmPortasLivres(MEMBROS));
+        for (int k = 1; k <= 5; k++) {
+            derrubar(nos.get(1 + k));
+            for (int rodada = 1; rodada <= 2; rodada++) {
+                long antes = conexoesFalhas();
+                assertEquals(MEMBROS, eleger(nos.get(1)), k + " membro(s) caído(s), eleição " + rodada);
+                long falhas = conexoesFalhas() - antes;
+                long limite = rodada == 1 ? 1 : 0;
+                assertTrue(falhas <= limite, "conexões de eleição falhas: " + falhas + " (máximo " + limite + ")");
+            }
+        }
+    }
+
+    /**
+     * Um membro por porta de eleição livre; a porta RMI não é usada aqui
+     */
+    private static List<MembrosAnel.Membro> membrosEmPortasLivres(int quantidade) throws IOException {
+        List<ServerSocket> reservas = new ArrayList<>();
+        List<MembrosAnel.Membro> membros = new ArrayList<>();
+        try {
+            for (int id = 1; id <= quantidade; id++) {
+                ServerSocket reserva = new ServerSocket(0);
+                reservas.add(reserva);
+                membros.add(new MembrosAnel.Membro(id, "localhost", 0, reserva.getLocalPort()));
+            }
+        } finally {
+            for (ServerSocket reserva : reservas) {
+                reserva.close();
+            }
+        }
+        return membros;
+    }
+
+    private void subir(List<MembrosAnel.Membro> membros) throws InterruptedException {
+        for (MembrosAnel.Membro membro : membros) {
+            nos.put(membro.getId(), new No(membro.getId(), new MembrosAnel(membros)));
+        }
+        for (No no : nos.values()) {
+            no.iniciar();
+        }
+        aguardarPortas();
+    }
+
+    /**
+     * Inicia a eleição em iniciador e devolve o líder que volta para ele
+     */
+    private static int eleger(No iniciador) throws Exception {
+        iniciador.lider = new CompletableFuture<>();
+        iniciador.eleicao.iniciarEleicao();
+        return iniciador.lider.get(PRAZO_ELEICAO_MS, TimeUnit.MILLISECONDS);
+    }
+
+    private long conexoesFalhas() {
+        long total = 0;
+        for (No no : nos.values()) {
+            total += no.eleicao.getConexoesFalhas();
+        }
+        return total;
+    }
+
+    /**
+     * O servidor de eleição sobe em segundo plano; espera até todos aceitarem conexão
+     */
+    private void aguardarPortas() throws InterruptedException {
+        List<No> pendentes = new ArrayList<>(nos.values());
+        long limite = System.currentTimeMillis() + 10000;
+        while (!pendentes.isEmpty() && System.currentTimeMillis() < limite) {
+            pendentes.removeIf(no -> aceita(no.visao.get(no.id)));
+            if (!pendentes.isEmpty()) {
+                Thread.sleep(50);
+            }
+        }
+        assertTrue(pendentes.isEmpty(), "membros sem servidor de eleição: " + pendentes.size());
+    }
+
+    /**
+     * Finaliza o membro e espera a porta de eleição recusar conexões; o close do ServerSocket
+     * com uma thread parada no accept só libera a porta um instante depois
+     */
+    private static void derrubar(No no) throws InterruptedException {
+        no.eleicao.finalizar();
+        long limite = System.currentTimeMillis() + 5000;
+        while (aceita(no.visao.get(no.id)) && System.currentTimeMillis() < limite) {
+            Thread.sleep(20);
+        }
+    }
+
+    private static boolean aceita(MembrosAnel.Membro membro) {
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(membro.getHost(), membro.getPortaEleicao()), 200);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
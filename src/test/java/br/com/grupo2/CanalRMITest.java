@@ -0,0 +1,216 @@
+package br.com.grupo2;
+
+import br.com.models.Mensagem;
+import br.com.models.TipoMensagem;
+import br.com.utils.CanalMensagem;
+import br.com.utils.InterceptadorCanais;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Fila do CanalRMI com várias threads enviando: limite exato, contador nunca negativo
+ * e nenhuma mensagem esquecida na fila
+ */
+class CanalRMITest {
+
+    private static final int THREADS = 8;
+
+    private final List<AutoCloseable> recursos = new ArrayList<>();
+
+    @AfterEach
+    void fechar() throws Exception {
+        for (AutoCloseable recurso : recursos) {
+            recurso.close();
+        }
+    }
+
+    /**
+     * O destino aceita a conexão e nunca responde: a primeira entrega fica presa e a fila
+     * enche. Exatamente LIMITE_FILA vagas são concedidas, por mais threads que disputem
+     */
+    @Test
+    void limiteDaFilaValeComEnviosConcorrentes() throws Exception {
+        ServerSocket mudo = new ServerSocket(0);
+        List<Socket> aceitas = new CopyOnWriteArrayList<>();
+        Thread aceitador = new Thread(() -> {
+            try {
+                while (true) {
+                    aceitas.add(mudo.accept());
+                }
+            } catch (Exception e) {
+                // Servidor fechado no fim do teste
+            }
+        });
+        aceitador.setDaemon(true);
+        aceitador.start();
+        recursos.add(() -> {
+            mudo.close();
+            for (Socket socket : aceitas) {
+                socket.close();
+            }
+        });
+
+        CanalRMI canal = canal(mudo.getLocalPort());
+        int tentativas = CanalRMI.LIMITE_FILA * 2;
+        List<CompletableFuture<Void>> futuros = enviarConcorrente(canal, tentativas);
+
+        int recusadas = 0;
+        for (CompletableFuture<Void> futuro : futuros) {
+            if (futuro.isCompletedExceptionally()) {
+                recusadas++;
+                ExecutionException erro = assertThrows(ExecutionException.class, futuro::get);
+                assertTrue(erro.getCause().getMessage().contains("cheia"));
+            }
+        }
+        assertEquals(tentativas - CanalRMI.LIMITE_FILA, recusadas);
+        assertEquals(CanalRMI.LIMITE_FILA, canal.getPendentes());
+
+        // Fechar recusa o que estava na fila; só o lote preso na chamada remota continua reservado
+        canal.fechar();
+        int naEntrega = 0;
+        for (CompletableFuture<Void> futuro : futuros) {
+            if (!futuro.isDone()) {
+                naEntrega++;
+            }
+        }
+        assertEquals(naEntrega, canal.getPendentes());
+        assertTrue(naEntrega <= CanalRMI.LOTE_MAXIMO);
+    }
+
+    /**
+     * Destino fora do ar: todo lote falha, cada envio recebe a falha e o contador volta a
+     * zero sem nunca ficar negativo
+     */
+    @Test
+    void contadorNuncaFicaNegativo() throws Exception {
+        int porta;
+        try (ServerSocket livre = new ServerSocket(0)) {
+            porta = livre.getLocalPort();
+        }
+        CanalRMI canal = canal(porta);
+
+        AtomicInteger menor = new AtomicInteger();
+        Thread amostrador = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                menor.accumulateAndGet(canal.getPendentes(), Math::min);
+            }
+        });
+        amostrador.setDaemon(true);
+        amostrador.start();
+        try {
+            List<CompletableFuture<Void>> futuros = enviarConcorrente(canal, 4000);
+            CompletableFuture.allOf(futuros.toArray(new CompletableFuture<?>[0]))
+                    .handle((ok, erro) -> null).get(30, TimeUnit.SECONDS);
+            for (CompletableFuture<Void> futuro : futuros) {
+                assertTrue(futuro.isCompletedExceptionally());
+            }
+        } finally {
+            amostrador.interrupt();
+            amostrador.join();
+        }
+        assertEquals(0, menor.get());
+        assertEquals(0, canal.getPendentes());
+    }
+
+    /**
+     * Envio depois de fechar é recusado e não deixa vaga reservada nem mensagem na fila
+     */
+    @Test
+    void envioComCanalFechadoNaoFicaNaFila() throws Exception {
+        CanalRMI canal = canal(1);
+        canal.fechar();
+        ExecutionException erro = assertThrows(ExecutionException.class,
+                () -> canal.enviarAssincrono(mensagem(0)).get(5, TimeUnit.SECONDS));
+        assertTrue(erro.getCause() instanceof RemoteException);
+        assertEquals(0, canal.getPendentes());
+    }
+
+    private CanalRMI canal(int portaRmi) {
+        MembrosAnel membros = new MembrosAnel(List.of(new MembrosAnel.Membro(2, "localhost", portaRmi, 1)));
+        RegistroStubsRMI stubs = new RegistroStubsRMI(membros);
+        CanalRMI canal = new CanalRMI(1, 2, stubs, new Interceptador());
+        recursos.add(canal::fechar);
+        recursos.add(stubs::fechar);
+        return canal;
+    }
+
+    /**
+     * THREADS threads enviam juntas; devolve os futuros na ordem em que foram criados
+     */
+    private static List<CompletableFuture<Void>> enviarConcorrente(CanalRMI canal, int total) throws Exception {
+        List<CompletableFuture<Void>> futuros = new CopyOnWriteArrayList<>();
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int inicio = t;
+            Thread thread = new Thread(() -> {
+                try {
+                    largada.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = inicio; i < total; i += THREADS) {
+                    futuros.add(canal.enviarAssincrono(mensagem(i)));
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        largada.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return futuros;
+    }
+
+    private static Mensagem mensagem(int numero) {
+        Mensagem mensagem = new Mensagem();
+        mensagem.setTipoMensagem(TipoMensagem.INTERACAO);
+        mensagem.setProcessoRemetente("ProcessoRMI1");
+        mensagem.setConteudoMensagem("m" + numero);
+        return mensagem;
+    }
+
+    /**
+     * Só a trava de envio; nenhum snapshot em andamento
+     */
+    private static final class Interceptador implements InterceptadorCanais {
+        private final ReadWriteLock trava = new ReentrantReadWriteLock();
+
+        @Override
+        public void canalAberto(CanalMensagem canal) {
+        }
+
+        @Override
+        public void canalFechado(CanalMensagem canal) {
+        }
+
+        @Override
+        public void mensagemRecebida(CanalMensagem canal, Mensagem mensagem, Runnable entregar) {
+            entregar.run();
+        }
+
+        @Override
+        public ReadWriteLock getTravaEnvio() {
+            return trava;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package br.com.grupo2;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Sobrecarga da fila de um destino: o trabalhador fica preso numa chamada enquanto a fila enche,
+ * e só tarefas despachadas com DESCARTAR_MAIS_ANTIGA podem ceder o lugar
+ */
+class DespachanteRMITest {
+
+    private static final String DESTINO = "ProcessoRMI1";
+
+    private final DespachanteRMI despachante = new DespachanteRMI("teste", 2);
+    private final CountDownLatch liberar = new CountDownLatch(1);
+
+    @AfterEach
+    void fechar() {
+        liberar.countDown();
+        despachante.fechar();
+    }
+
+    /**
+     * Um heartbeat novo descarta o heartbeat pendente, nunca a saída que está na frente dele
+     */
+    @Test
+    void heartbeatDescartaSoOutroHeartbeat() throws Exception {
+        ocuparTrabalhador();
+        CompletableFuture<String> saida = despachante.despachar(DESTINO, DespachanteRMI.Sobrecarga.REJEITAR, () -> "saida");
+        CompletableFuture<String> antigo = heartbeat("antigo");
+        CompletableFuture<String> novo = heartbeat("novo");
+
+        assertTrue(rejeitado(antigo), "o heartbeat antigo deveria ter sido descartado");
+        liberar.countDown();
+        assertEquals("saida", saida.get(5, TimeUnit.SECONDS));
+        assertEquals("novo", novo.get(5, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Com a fila cheia só de chamadas não descartáveis, o heartbeat novo é recusado e elas ficam
+     */
+    @Test
+    void heartbeatRecusadoSemNadaDescartavel() throws Exception {
+        ocuparTrabalhador();
+        CompletableFuture<String> saida = despachante.despachar(DESTINO, DespachanteRMI.Sobrecarga.REJEITAR, () -> "saida");
+        CompletableFuture<String> entrada = despachante.despachar(DESTINO, DespachanteRMI.Sobrecarga.REJEITAR, () -> "entrada");
+        CompletableFuture<String> batida = heartbeat("batida");
+
+        assertTrue(rejeitado(batida), "o heartbeat deveria ter sido recusado");
+        assertFalse(saida.isDone());
+        liberar.countDown();
+        assertEquals("saida", saida.get(5, TimeUnit.SECONDS));
+        assertEquals("entrada", entrada.get(5, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Prende o único trabalhador do destino até liberar; a tarefa já saiu da fila quando ele começa
+     */
+    private void ocuparTrabalhador() throws InterruptedException {
+        CountDownLatch iniciou = new CountDownLatch(1);
+        despachante.despachar(DESTINO, DespachanteRMI.Sobrecarga.REJEITAR, () -> {
+            iniciou.countDown();
+            return liberar.await(10, TimeUnit.SECONDS);
+        });
+        assertTrue(iniciou.await(5, TimeUnit.SECONDS));
+    }
+
+    private CompletableFuture<String> heartbeat(String valor) {
+        return despachante.despachar(DESTINO, DespachanteRMI.Sobrecarga.DESCARTAR_MAIS_ANTIGA, () -> valor);
+    }
+
+    private static boolean rejeitado(CompletableFuture<?> futuro) throws InterruptedException {
+        try {
+            futuro.get(5, TimeUnit.SECONDS);
+            return false;
+        } catch (ExecutionException e) {
+            return e.getCause() instanceof RejectedExecutionException;
+        } catch (TimeoutException e) {
+            return false;
+        }
+    }
+}
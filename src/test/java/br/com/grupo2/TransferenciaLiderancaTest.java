@@ -0,0 +1,150 @@
+package br.com.grupo2;
+
+import br.com.models.Mensagem;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.rmi.RemoteException;
+import java.rmi.registry.LocateRegistry;
+import java.rmi.registry.Registry;
+import java.rmi.server.UnicastRemoteObject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Saída planejada do líder do grupo 2 com membros ProcessoRMIBase em localhost, cada um no seu
+ * registry RMI: finalizar, transferirLideranca, assumirLideranca e o anúncio NOVO_LIDER por
+ * multicast de verdade. O tempo sem líder vai do pedido de saída até todos os membros que
+ * ficam seguirem o sucessor na época seguinte
+ */
+class TransferenciaLiderancaTest {
+
+    private static final int MEMBROS = 4;
+    // Ids fora do anel padrão: a saída dos membros não mexe no registro de snapshot de ProcessoRMI1-3
+    private static final int PRIMEIRO_ID = 11;
+    // Metade da concessão: uma queda nunca fica abaixo dela, porque os seguidores só elegem
+    // depois que a concessão do líder expira
+    private static final long LIMITE_SEM_LIDER_MS = ProcessoRMIBase.DURACAO_CONCESSAO_MS / 2;
+    private static final long PRAZO_CONVERGENCIA_MS = 10000;
+
+    private final Map<Integer, Membro> membros = new TreeMap<>();
+    private final List<Registry> registries = new ArrayList<>();
+
+    /**
+     * Membro do anel sem menu nem mensagens próprias; escuta o multicast do grupo como os
+     * ProcessoRMI de verdade
+     */
+    private static final class Membro extends ProcessoRMIBase {
+        private volatile boolean finalizado;
+
+        Membro(int id, MembrosAnel visao) throws IOException {
+            super(id, visao);
+            multicastManager.iniciarEscuta("ProcessoRMI" + id);
+        }
+
+        @Override
+        protected void processarMensagemEspecifica(Mensagem mensagem) {
+        }
+
+        @Override
+        public void finalizar() {
+            if (!finalizado) {
+                finalizado = true;
+                super.finalizar();
+            }
+        }
+    }
+
+    @AfterEach
+    void finalizar() throws Exception {
+        for (Membro membro : membros.values()) {
+            membro.finalizar();
+            UnicastRemoteObject.unexportObject(membro, true);
+        }
+        for (Registry registry : registries) {
+            UnicastRemoteObject.unexportObject(registry, true);
+        }
+    }
+
+    /**
+     * O líder sai pelo finalizar: o membro de maior id assume na época seguinte e todos os que
+     * ficam passam a segui-lo antes de LIMITE_SEM_LIDER_MS
+     */
+    @Test
+    void sucessorAssumeAntesDaConcessaoExpirar() throws Exception {
+        subir();
+        int idLider = PRIMEIRO_ID + MEMBROS - 1;
+        int idSucessor = idLider - 1;
+        Membro lider = membros.get(idLider);
+        for (Membro membro : membros.values()) {
+            assertEquals(idLider, membro.liderAtual);
+        }
+        long epoca = lider.getEpocaLider() + 1;
+
+        long inicio = System.nanoTime();
+        Thread saida = new Thread(lider::finalizar);
+        saida.start();
+
+        long limite = System.currentTimeMillis() + PRAZO_CONVERGENCIA_MS;
+        while (!todosSeguem(idSucessor, epoca, idLider) && System.currentTimeMillis() < limite) {
+            Thread.sleep(1);
+        }
+        long semLiderMs = (System.nanoTime() - inicio) / 1_000_000;
+        saida.join();
+
+        assertTrue(todosSeguem(idSucessor, epoca, idLider), "o anel não convergiu para ProcessoRMI" + idSucessor);
+        assertTrue(semLiderMs < LIMITE_SEM_LIDER_MS, "tempo sem líder: " + semLiderMs + " ms");
+        assertEquals(idSucessor, lider.liderAtual, "o líder que saiu registra o sucessor");
+    }
+
+    /**
+     * Um membro por registry e porta de eleição livres, todos com a mesma visão inicial
+     */
+    private void subir() throws Exception {
+        List<MembrosAnel.Membro> visao = new ArrayList<>();
+        List<ServerSocket> reservas = new ArrayList<>();
+        try {
+            for (int id = PRIMEIRO_ID; id < PRIMEIRO_ID + MEMBROS; id++) {
+                ServerSocket rmi = new ServerSocket(0);
+                ServerSocket eleicao = new ServerSocket(0);
+                reservas.add(rmi);
+                reservas.add(eleicao);
+                visao.add(new MembrosAnel.Membro(id, "localhost", rmi.getLocalPort(), eleicao.getLocalPort()));
+            }
+        } finally {
+            for (ServerSocket reserva : reservas) {
+                reserva.close();
+            }
+        }
+
+        for (MembrosAnel.Membro membro : visao) {
+            Registry registry = LocateRegistry.createRegistry(membro.getPortaRmi());
+            registries.add(registry);
+            Membro processo = new Membro(membro.getId(), new MembrosAnel(visao));
+            membros.put(membro.getId(), processo);
+            registry.rebind(membro.getNome(), processo);
+        }
+    }
+
+    /**
+     * Todos os membros, menos o que saiu, seguem o sucessor na época da transferência
+     */
+    private boolean todosSeguem(int sucessor, long epoca, int saiu) throws RemoteException {
+        for (Membro membro : membros.values()) {
+            if (membro.getProcessoId() == saiu) {
+                continue;
+            }
+            if (membro.liderAtual != sucessor || membro.getEpocaLider() != epoca) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
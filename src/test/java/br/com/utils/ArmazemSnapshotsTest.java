@@ -0,0 +1,141 @@
+package br.com.utils;
+
+import br.com.models.Mensagem;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Armazém de snapshots em um arquivo temporário: deltas reconstruídos em ordem, persistência
+ * na ordem de captura e registro incompleto descartado ao reabrir
+ */
+class ArmazemSnapshotsTest {
+
+    private Path diretorio;
+    private Path arquivo;
+    private final RelogioLamport relogio = new RelogioLamport();
+    private final JournalMensagens recebidas = new JournalMensagens(64);
+    private final JournalMensagens enviadas = new JournalMensagens(64);
+    private ArmazemSnapshots armazem;
+
+    @BeforeEach
+    void abrir() throws IOException {
+        diretorio = Files.createTempDirectory("snapshots");
+        arquivo = diretorio.resolve("Processo1.snapshots");
+        armazem = new ArmazemSnapshots("Processo1", arquivo, relogio, recebidas, enviadas);
+    }
+
+    @AfterEach
+    void apagar() throws IOException {
+        armazem.fechar();
+        Files.deleteIfExists(arquivo);
+        Files.deleteIfExists(diretorio);
+    }
+
+    /**
+     * Cada snapshot guarda só o que entrou desde o anterior; reconstruir reaplica todos os deltas
+     */
+    @Test
+    void reconstroiCadaSnapshotAPartirDosDeltas() throws IOException {
+        receber("r0", "r1");
+        enviar("e0");
+        relogio.merge(10);
+        armazem.capturar("s1");
+        armazem.persistir("s1", Collections.singletonMap("Processo2", Arrays.asList("em trânsito")), true);
+
+        receber("r2");
+        armazem.capturar("s2");
+        armazem.persistir("s2", Collections.emptyMap(), false);
+
+        ArmazemSnapshots.EstadoReconstruido s1 = armazem.reconstruir("s1");
+        assertEquals(1, s1.getDeltasAplicados());
+        assertEquals(11, s1.getClock());
+        assertEquals(Arrays.asList("r0", "r1"), conteudos(s1.getRecebidas()));
+        assertEquals(Arrays.asList("e0"), conteudos(s1.getEnviadas()));
+        assertEquals(Arrays.asList("em trânsito"), s1.getCanais().get("Processo2"));
+        assertTrue(s1.isCompleto());
+
+        ArmazemSnapshots.EstadoReconstruido s2 = armazem.reconstruir("s2");
+        assertEquals(2, s2.getDeltasAplicados());
+        assertEquals(Arrays.asList("r0", "r1", "r2"), conteudos(s2.getRecebidas()));
+        assertEquals(Arrays.asList("e0"), conteudos(s2.getEnviadas()));
+        assertTrue(s2.getCanais().isEmpty());
+        assertFalse(s2.isCompleto());
+    }
+
+    /**
+     * Um snapshot que termina antes do anterior espera por ele: os registros saem na ordem de captura
+     */
+    @Test
+    void persisteNaOrdemDeCaptura() throws IOException {
+        receber("r0");
+        armazem.capturar("s1");
+        receber("r1");
+        armazem.capturar("s2");
+
+        armazem.persistir("s2", Collections.emptyMap(), true);
+        assertTrue(armazem.getIds().isEmpty(), "s2 não pode ser gravado antes de s1");
+
+        armazem.persistir("s1", Collections.emptyMap(), true);
+        assertEquals(Arrays.asList("s1", "s2"), armazem.getIds());
+        assertEquals(Arrays.asList("r0"), conteudos(armazem.reconstruir("s1").getRecebidas()));
+        assertEquals(Arrays.asList("r0", "r1"), conteudos(armazem.reconstruir("s2").getRecebidas()));
+    }
+
+    @Test
+    void reabrirDescartaRegistroIncompleto() throws IOException {
+        receber("r0");
+        armazem.capturar("s1");
+        armazem.persistir("s1", Collections.emptyMap(), true);
+        armazem.fechar();
+        long tamanhoValido = Files.size(arquivo);
+
+        // Processo derrubado no meio do próximo registro: cabeçalho anuncia mais bytes do que existem
+        Files.write(arquivo, new byte[] {0, 0, 1, 0, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        armazem = new ArmazemSnapshots("Processo1", arquivo, relogio, recebidas, enviadas);
+        assertEquals(Arrays.asList("s1"), armazem.getIds());
+        assertEquals(tamanhoValido, Files.size(arquivo));
+        assertEquals(Arrays.asList("r0"), conteudos(armazem.reconstruir("s1").getRecebidas()));
+    }
+
+    private void receber(String... conteudos) {
+        for (String conteudo : conteudos) {
+            recebidas.add(mensagem(conteudo));
+        }
+    }
+
+    private void enviar(String... conteudos) {
+        for (String conteudo : conteudos) {
+            enviadas.add(mensagem(conteudo));
+        }
+    }
+
+    private static Mensagem mensagem(String conteudo) {
+        Mensagem mensagem = new Mensagem();
+        mensagem.setProcessoRemetente("Processo1");
+        mensagem.setConteudoMensagem(conteudo);
+        return mensagem;
+    }
+
+    private static List<String> conteudos(List<Mensagem> mensagens) {
+        List<String> lidas = new ArrayList<>();
+        for (Mensagem mensagem : mensagens) {
+            lidas.add(mensagem.getConteudoMensagem());
+        }
+        return lidas;
+    }
+}
@@ -0,0 +1,115 @@
+package br.com.utils;
+
+import br.com.models.Mensagem;
+import br.com.models.TipoMensagem;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Ida e volta do codec binário e frames malformados, que devem falhar com IOException
+ * em vez de produzir uma mensagem pela metade
+ */
+class CodecBinarioMensagemTest {
+
+    private final CodecBinarioMensagem codec = new CodecBinarioMensagem();
+
+    @Test
+    void idaEVoltaComTodosOsCampos() throws IOException {
+        Mensagem original = new Mensagem();
+        original.setIdMensagem(UUID.randomUUID());
+        original.setIdMensagemOrigem(UUID.randomUUID());
+        original.setDataMensagem(LocalDateTime.of(2024, 5, 17, 13, 45, 2, 123_456_789));
+        original.setClockMensagem(-42);
+        original.setProcessoRemetente("Processo2");
+        original.setProcessoDestinatario("ProcessoRMI7");
+        original.setTipoMensagem(TipoMensagem.values()[TipoMensagem.values().length - 1]);
+        original.setConteudoMensagem("eleição — época 3 ✓");
+        original.setTermoEleicao(1L << 40);
+
+        assertMesmosCampos(original, codec.decodificar(codec.codificar(original)));
+    }
+
+    /**
+     * Campos opcionais ausentes voltam nulos; data anterior a 1970 usa divisão com piso
+     */
+    @Test
+    void idaEVoltaComCamposAusentes() throws IOException {
+        Mensagem original = new Mensagem();
+        original.setDataMensagem(LocalDateTime.of(1969, 12, 31, 23, 59, 59, 1));
+        original.setClockMensagem(Long.MAX_VALUE);
+
+        Mensagem decodificada = codec.decodificar(codec.codificar(original));
+        assertMesmosCampos(original, decodificada);
+        assertNull(decodificada.getIdMensagem());
+        assertNull(decodificada.getTipoMensagem());
+        assertNull(decodificada.getConteudoMensagem());
+        assertEquals(0L, decodificada.getTermoEleicao());
+    }
+
+    @Test
+    void todoPrefixoDeUmFrameEhRecusado() throws IOException {
+        Mensagem original = new Mensagem();
+        original.setIdMensagem(UUID.randomUUID());
+        original.setProcessoRemetente("Processo1");
+        original.setProcessoDestinatario("ProcessoRMI9");
+        original.setTipoMensagem(TipoMensagem.values()[0]);
+        original.setConteudoMensagem("conteúdo");
+        byte[] frame = codec.codificar(original);
+
+        for (int tamanho = 0; tamanho < frame.length; tamanho++) {
+            byte[] prefixo = Arrays.copyOf(frame, tamanho);
+            assertThrows(IOException.class, () -> codec.decodificar(prefixo));
+        }
+    }
+
+    @Test
+    void versaoDesconhecida() {
+        assertThrows(IOException.class, () -> codec.decodificar(new byte[] {2, 0, 0, 0, 0}));
+    }
+
+    @Test
+    void tipoForaDoEnum() {
+        // presença só com tipo | clock 0 | remetente nulo | destinatário nulo | ordinal 200
+        assertThrows(IOException.class, () -> codec.decodificar(new byte[] {1, 1 << 2, 0, 0, 0, (byte) 200}));
+    }
+
+    @Test
+    void identificadorForaDaTabela() {
+        assertThrows(IOException.class, () -> codec.decodificar(new byte[] {1, 0, 0, 100, 0}));
+    }
+
+    @Test
+    void varintSemFim() {
+        byte[] frame = new byte[12];
+        Arrays.fill(frame, (byte) 0xFF);
+        frame[0] = 1;
+        frame[1] = 0;
+        assertThrows(IOException.class, () -> codec.decodificar(frame));
+    }
+
+    @Test
+    void textoMaiorQueOFrame() {
+        // presença só com conteúdo, texto anunciando 50 bytes com apenas 1 presente
+        assertThrows(IOException.class, () -> codec.decodificar(new byte[] {1, 1 << 3, 0, 0, 0, 50, 'a'}));
+    }
+
+    private static void assertMesmosCampos(Mensagem esperada, Mensagem atual) {
+        assertEquals(esperada.getIdMensagem(), atual.getIdMensagem());
+        assertEquals(esperada.getIdMensagemOrigem(), atual.getIdMensagemOrigem());
+        assertEquals(esperada.getDataMensagem(), atual.getDataMensagem());
+        assertEquals(esperada.getClockMensagem(), atual.getClockMensagem());
+        assertEquals(esperada.getProcessoRemetente(), atual.getProcessoRemetente());
+        assertEquals(esperada.getProcessoDestinatario(), atual.getProcessoDestinatario());
+        assertEquals(esperada.getTipoMensagem(), atual.getTipoMensagem());
+        assertEquals(esperada.getConteudoMensagem(), atual.getConteudoMensagem());
+        assertEquals(esperada.getTermoEleicao(), atual.getTermoEleicao());
+    }
+}
@@ -0,0 +1,109 @@
+package br.com.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Concessão do líder: expiração única sem renovação e fencing pela época. Concessões de 0 ms
+ * expiram na hora e as de um minuto não expiram durante o teste, então nada depende de sleep
+ */
+class ConcessaoLiderTest {
+
+    private static final long LONGA_MS = 60_000;
+
+    @Test
+    void renovadaDentroDoPrazoContinuaValida() {
+        ConcessaoLider concessao = new ConcessaoLider(LONGA_MS);
+        assertFalse(concessao.isValida(), "sem renovação não há concessão");
+        assertTrue(concessao.renovar("Processo3", 1));
+
+        assertTrue(concessao.isValida());
+        assertNull(concessao.verificarExpiracao());
+        assertTrue(concessao.getRestanteMs() > 0);
+    }
+
+    /**
+     * Sem renovação a concessão expira uma única vez e só volta a valer com nova renovação
+     */
+    @Test
+    void expiraUmaVezEDesarma() {
+        ConcessaoLider concessao = new ConcessaoLider(0);
+        concessao.renovar("Processo3", 1);
+
+        assertFalse(concessao.isValida());
+        assertEquals("Processo3", concessao.verificarExpiracao());
+        assertNull(concessao.verificarExpiracao(), "a mesma expiração não pode abrir duas eleições");
+        assertFalse(concessao.isArmada());
+        assertEquals(0L, concessao.getRestanteMs());
+
+        concessao.renovar("Processo3", 1);
+        assertEquals("Processo3", concessao.verificarExpiracao());
+    }
+
+    @Test
+    void prolongarSoValeParaOLiderDaConcessao() {
+        ConcessaoLider concessao = new ConcessaoLider(0);
+        concessao.renovar("Processo3", 1);
+        concessao.verificarExpiracao();
+
+        concessao.prolongar("Processo2");
+        assertFalse(concessao.isArmada());
+        concessao.prolongar("Processo3");
+        assertTrue(concessao.isArmada());
+    }
+
+    @Test
+    void suspensaNaoExpira() {
+        ConcessaoLider concessao = new ConcessaoLider(0);
+        concessao.renovar("Processo3", 1);
+        concessao.suspender();
+        assertNull(concessao.verificarExpiracao());
+    }
+
+    /**
+     * Um líder de época anterior não renova nem troca o líder; uma época maior troca e avisa
+     */
+    @Test
+    void epocaAntigaERejeitada() {
+        ConcessaoLider concessao = new ConcessaoLider(LONGA_MS);
+        List<String> trocas = new ArrayList<>();
+        concessao.setAoTrocarLider((lider, epoca) -> trocas.add(lider + "@" + epoca));
+
+        assertTrue(concessao.renovar("Processo3", 2));
+        assertFalse(concessao.renovar("Processo2", 1));
+        assertEquals("Processo3", concessao.getLider());
+        assertEquals(2L, concessao.getEpoca());
+
+        assertTrue(concessao.renovar("Processo3", 2), "o mesmo líder renova na mesma época");
+        assertTrue(concessao.renovar("Processo2", 3));
+        assertEquals("Processo2", concessao.getLider());
+        assertEquals(Arrays.asList("Processo3@2", "Processo2@3"), trocas);
+    }
+
+    /**
+     * Dois líderes na mesma época: vence o maior id (Processo10 passa de Processo9), o outro é rejeitado
+     */
+    @Test
+    void mesmaEpocaDesempataPeloMaiorId() {
+        ConcessaoLider concessao = new ConcessaoLider(LONGA_MS);
+        List<String> trocas = new ArrayList<>();
+        concessao.setAoTrocarLider((lider, epoca) -> trocas.add(lider + "@" + epoca));
+
+        concessao.renovar("Processo9", 4);
+        assertFalse(concessao.renovar("Processo2", 4));
+        assertEquals("Processo9", concessao.getLider());
+
+        assertTrue(concessao.renovar("Processo10", 4));
+        assertEquals("Processo10", concessao.getLider());
+        assertFalse(concessao.renovar("Processo9", 4));
+        assertEquals(Arrays.asList("Processo9@4", "Processo10@4"), trocas);
+    }
+}
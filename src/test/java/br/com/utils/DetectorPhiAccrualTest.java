@@ -0,0 +1,90 @@
+package br.com.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Detector phi-accrual com relógio controlado pelo teste: heartbeats a cada segundo exato e
+ * phi calculado em instantes escolhidos depois do último
+ */
+class DetectorPhiAccrualTest {
+
+    private static final long INTERVALO_MS = 1000;
+    private static final String PROCESSO = "Processo1";
+
+    private final DetectorPhiAccrual detector = new DetectorPhiAccrual(
+            DetectorPhiAccrual.JANELA_PADRAO, DetectorPhiAccrual.LIMIAR_PADRAO, 100, 0, INTERVALO_MS);
+
+    @Test
+    void processoNuncaVistoTemPhiZero() {
+        assertEquals(0.0, detector.phi("Processo9", 0));
+    }
+
+    /**
+     * Com intervalos fixos a média é 1000 ms e o desvio fica no mínimo de 100 ms: phi sobe com o
+     * tempo desde o último heartbeat e cruza o limiar entre 1500 e 1600 ms
+     */
+    @Test
+    void phiSobeComOTempoECruzaOLimiar() {
+        long ultimo = batidas(10);
+
+        double anterior = -1;
+        for (long decorrido = 0; decorrido <= 3000; decorrido += 100) {
+            double phi = detector.phi(PROCESSO, ultimo + ms(decorrido));
+            assertTrue(phi >= anterior, "phi caiu em " + decorrido + " ms: " + phi + " < " + anterior);
+            anterior = phi;
+        }
+
+        assertTrue(detector.phi(PROCESSO, ultimo + ms(INTERVALO_MS)) < 1.0, "no intervalo esperado phi é baixo");
+        assertTrue(detector.phi(PROCESSO, ultimo + ms(1500)) < detector.getLimiar());
+        assertTrue(detector.phi(PROCESSO, ultimo + ms(1600)) > detector.getLimiar());
+    }
+
+    @Test
+    void heartbeatNovoDerrubaPhi() {
+        long ultimo = batidas(10);
+        long atrasado = ultimo + ms(2000);
+        assertTrue(detector.phi(PROCESSO, atrasado) > detector.getLimiar());
+
+        detector.heartbeat(PROCESSO, atrasado);
+        assertTrue(detector.phi(PROCESSO, atrasado) < 1.0);
+    }
+
+    /**
+     * Intervalos irregulares alargam a distribuição: o mesmo atraso suspeita menos
+     */
+    @Test
+    void variacaoMaiorToleraAtrasoMaior() {
+        DetectorPhiAccrual irregular = new DetectorPhiAccrual(
+                DetectorPhiAccrual.JANELA_PADRAO, DetectorPhiAccrual.LIMIAR_PADRAO, 100, 0, INTERVALO_MS);
+        long agora = 0;
+        irregular.heartbeat(PROCESSO, agora);
+        for (int i = 0; i < 10; i++) {
+            agora += ms(i % 2 == 0 ? 500 : 1500);
+            irregular.heartbeat(PROCESSO, agora);
+        }
+        long ultimo = batidas(10);
+
+        assertTrue(irregular.phi(PROCESSO, agora + ms(1600)) < detector.phi(PROCESSO, ultimo + ms(1600)));
+        assertTrue(irregular.phi(PROCESSO, agora + ms(1600)) < irregular.getLimiar());
+    }
+
+    /**
+     * Heartbeats do processo a cada INTERVALO_MS a partir de 0; devolve o instante do último
+     */
+    private long batidas(int quantidade) {
+        long agora = 0;
+        detector.heartbeat(PROCESSO, agora);
+        for (int i = 0; i < quantidade; i++) {
+            agora += ms(INTERVALO_MS);
+            detector.heartbeat(PROCESSO, agora);
+        }
+        return agora;
+    }
+
+    private static long ms(long milissegundos) {
+        return milissegundos * 1_000_000L;
+    }
+}
@@ -0,0 +1,118 @@
+package br.com.utils;
+
+import br.com.models.Mensagem;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Ordem de leitura do journal: cursores devolvem as mensagens em memória na ordem de inserção,
+ * e o segmento mapeado devolve as sobrescritas na mesma ordem
+ */
+class JournalMensagensTest {
+
+    private Path arquivo;
+
+    @AfterEach
+    void apagar() throws IOException {
+        if (arquivo != null) {
+            Files.deleteIfExists(arquivo);
+        }
+    }
+
+    @Test
+    void capacidadeArredondadaParaPotenciaDeDois() {
+        assertEquals(8, new JournalMensagens(5).getCapacidade());
+        assertEquals(8, new JournalMensagens(8).getCapacidade());
+    }
+
+    @Test
+    void cursoresSeguemAOrdemDeInsercao() {
+        JournalMensagens journal = new JournalMensagens(4);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(i, journal.add(mensagem(i)));
+        }
+        assertEquals(Arrays.asList("m0", "m1", "m2"), conteudos(journal.iterator()));
+        assertEquals(Arrays.asList("m1", "m2"), conteudos(journal.cursorDesde(1)));
+        assertEquals(Arrays.asList("m1"), conteudos(journal.cursorEntre(1, 2)));
+    }
+
+    /**
+     * Depois de dar a volta só as 4 mais novas ficam em memória, ainda da mais antiga para a
+     * mais nova; pedir uma sequência já sobrescrita começa da primeira disponível
+     */
+    @Test
+    void bufferCheioMantemAsMaisNovasEmOrdem() {
+        JournalMensagens journal = new JournalMensagens(4);
+        for (int i = 0; i < 10; i++) {
+            journal.add(mensagem(i));
+        }
+        assertEquals(4, journal.size());
+        assertEquals(10, journal.getTotalAdicionadas());
+        assertEquals(Arrays.asList("m6", "m7", "m8", "m9"), conteudos(journal.iterator()));
+        assertEquals(Arrays.asList("m6", "m7"), conteudos(journal.cursorEntre(2, 8)));
+        assertEquals(Arrays.asList("m9"), conteudos(journal.cursorDesde(9)));
+    }
+
+    @Test
+    void segmentoDevolveAsSobrescritasEmOrdem() throws IOException {
+        arquivo = Files.createTempFile("journal", ".journal");
+        JournalMensagens.SegmentoMapeado segmento = JournalMensagens.SegmentoMapeado.abrir(arquivo, 64 * 1024);
+        JournalMensagens journal = new JournalMensagens(4, segmento);
+        for (int i = 0; i < 10; i++) {
+            journal.add(mensagem(i));
+        }
+
+        List<String> derramadas = new ArrayList<>();
+        segmento.percorrer(mensagem -> derramadas.add(mensagem.getConteudoMensagem()));
+        assertEquals(Arrays.asList("m0", "m1", "m2", "m3", "m4", "m5"), derramadas);
+        assertEquals(0, segmento.getDescartadas());
+    }
+
+    /**
+     * Segmento pequeno demais: as que não cabem são contadas e as que cabem mantêm a ordem
+     */
+    @Test
+    void segmentoCheioDescartaAsExcedentes() throws IOException {
+        arquivo = Files.createTempFile("journal", ".journal");
+        JournalMensagens.SegmentoMapeado segmento = JournalMensagens.SegmentoMapeado.abrir(arquivo, 128);
+        JournalMensagens journal = new JournalMensagens(1, segmento);
+        for (int i = 0; i < 20; i++) {
+            journal.add(mensagem(i));
+        }
+
+        List<String> derramadas = new ArrayList<>();
+        segmento.percorrer(mensagem -> derramadas.add(mensagem.getConteudoMensagem()));
+        assertTrue(!derramadas.isEmpty() && segmento.getDescartadas() > 0);
+        assertEquals(19, derramadas.size() + segmento.getDescartadas());
+        for (int i = 0; i < derramadas.size(); i++) {
+            assertEquals("m" + i, derramadas.get(i));
+        }
+    }
+
+    private static Mensagem mensagem(int i) {
+        Mensagem mensagem = new Mensagem();
+        mensagem.setProcessoRemetente("Processo1");
+        mensagem.setClockMensagem(i);
+        mensagem.setConteudoMensagem("m" + i);
+        return mensagem;
+    }
+
+    private static List<String> conteudos(Iterator<Mensagem> cursor) {
+        List<String> lidas = new ArrayList<>();
+        while (cursor.hasNext()) {
+            lidas.add(cursor.next().getConteudoMensagem());
+        }
+        return lidas;
+    }
+}
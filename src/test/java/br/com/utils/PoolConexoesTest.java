@@ -0,0 +1,111 @@
+package br.com.utils;
+
+import br.com.models.ConexaoOutrosProcessos;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Sonda de liveness do PoolConexoes contra um processo vivo e contra uma conexão meio aberta
+ */
+class PoolConexoesTest {
+
+    private static final TransporteNio.ManipuladorMensagem IGNORAR = (mensagem, canal) -> { };
+
+    /**
+     * Um TransporteNio de verdade responde às sondas: o canal ocioso continua o mesmo
+     */
+    @Test
+    void canalOciosoComProcessoVivoNaoReconecta() throws Exception {
+        int porta = portaLivre();
+        TransporteNio transporte = new TransporteNio("Remoto", porta, IGNORAR, 1);
+        transporte.iniciar();
+        ConexaoOutrosProcessos conexao = conexao(porta);
+        PoolConexoes pool = new PoolConexoes("Local", List.of(conexao), IGNORAR);
+        try {
+            pool.iniciar();
+            CanalSocket primeiro = esperarCanal(conexao);
+
+            // Duas verificações com sonda e mais o prazo da resposta
+            Thread.sleep(5500);
+            assertSame(primeiro, conexao.getCanal());
+            assertTrue(primeiro.isAberto());
+            assertTrue(primeiro.getInativoMs() < 5000, "o PONG das sondas conta como tráfego recebido");
+        } finally {
+            pool.parar();
+            transporte.parar();
+        }
+    }
+
+    /**
+     * O outro lado aceita a conexão e nunca responde (como um host que caiu sem fechar o TCP):
+     * a sonda expira, o canal é fechado e o pool reconecta sem esperar o keepalive do sistema
+     */
+    @Test
+    void conexaoMeioAbertaEDetectadaEReconectada() throws Exception {
+        List<Socket> aceitas = new CopyOnWriteArrayList<>();
+        try (ServerSocket mudo = new ServerSocket(0)) {
+            Thread aceitador = new Thread(() -> {
+                try {
+                    while (true) {
+                        aceitas.add(mudo.accept());
+                    }
+                } catch (IOException e) {
+                    // Servidor fechado no fim do teste
+                }
+            });
+            aceitador.setDaemon(true);
+            aceitador.start();
+
+            ConexaoOutrosProcessos conexao = conexao(mudo.getLocalPort());
+            PoolConexoes pool = new PoolConexoes("Local", List.of(conexao), IGNORAR);
+            try {
+                pool.iniciar();
+                CanalSocket primeiro = esperarCanal(conexao);
+
+                long limite = System.currentTimeMillis() + 10000;
+                while (aceitas.size() < 2 && System.currentTimeMillis() < limite) {
+                    Thread.sleep(50);
+                }
+                assertTrue(aceitas.size() >= 2, "o pool deveria ter reconectado depois da sonda sem resposta");
+                assertFalse(primeiro.isAberto());
+            } finally {
+                pool.parar();
+                for (Socket socket : aceitas) {
+                    socket.close();
+                }
+            }
+        }
+    }
+
+    private static ConexaoOutrosProcessos conexao(int porta) {
+        ConexaoOutrosProcessos conexao = new ConexaoOutrosProcessos();
+        conexao.setNomeProcesso("Remoto");
+        conexao.setPorta(porta);
+        return conexao;
+    }
+
+    private static CanalSocket esperarCanal(ConexaoOutrosProcessos conexao) throws InterruptedException {
+        long limite = System.currentTimeMillis() + 3000;
+        while (!conexao.isConectado() && System.currentTimeMillis() < limite) {
+            Thread.sleep(10);
+        }
+        assertNotNull(conexao.getCanal(), "o pool não conectou");
+        return conexao.getCanal();
+    }
+
+    private static int portaLivre() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
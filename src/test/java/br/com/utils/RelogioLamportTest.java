@@ -0,0 +1,125 @@
+package br.com.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Estresse do RelogioLamport: várias threads fazendo tick() e merge() ao mesmo tempo
+ */
+class RelogioLamportTest {
+
+    private static final int THREADS = 8;
+    private static final int OPERACOES = 200_000;
+
+    @Test
+    void tickComecaDoValorInicial() {
+        RelogioLamport relogio = new RelogioLamport(41);
+        assertEquals(42, relogio.tick());
+        assertEquals(42, relogio.getValor());
+    }
+
+    @Test
+    void mergeFicaUmAcimaDoMaiorValor() {
+        RelogioLamport relogio = new RelogioLamport(5);
+        assertEquals(11, relogio.merge(10), "remoto maior: max(5, 10) + 1");
+        assertEquals(12, relogio.merge(3), "remoto menor: max(11, 3) + 1");
+        assertEquals(13, relogio.merge(12), "remoto igual: max(12, 12) + 1");
+        assertEquals(13, relogio.getValor());
+    }
+
+    @Test
+    void ticksConcorrentesNaoSePerdem() throws InterruptedException {
+        RelogioLamport relogio = new RelogioLamport();
+        executar(() -> {
+            for (int i = 0; i < OPERACOES; i++) {
+                relogio.tick();
+            }
+        });
+        assertEquals((long) THREADS * OPERACOES, relogio.getValor());
+    }
+
+    /**
+     * Cada valor devolvido precisa ser maior que o anterior na mesma thread e maior que o remoto
+     */
+    @Test
+    void tickEMergeMisturadosSaoMonotonicos() throws InterruptedException {
+        RelogioLamport relogio = new RelogioLamport();
+        AtomicLong violacoes = new AtomicLong();
+
+        executar(() -> {
+            ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+            long anterior = 0;
+            for (int i = 0; i < OPERACOES; i++) {
+                long novo;
+                if (aleatorio.nextBoolean()) {
+                    novo = relogio.tick();
+                } else {
+                    long remoto = relogio.getValor() + aleatorio.nextInt(-8, 8);
+                    novo = relogio.merge(remoto);
+                    if (novo <= remoto) {
+                        violacoes.incrementAndGet();
+                    }
+                }
+                if (novo <= anterior) {
+                    violacoes.incrementAndGet();
+                }
+                anterior = novo;
+            }
+        });
+
+        assertEquals(0, violacoes.get());
+    }
+
+    /**
+     * O laço CAS do merge: com o mesmo remoto em todas as threads, só o primeiro merge pula
+     * para remoto + 1 e cada um dos demais avança exatamente uma unidade, sem valores repetidos
+     */
+    @Test
+    void mergesConcorrentesNaoRepetemValores() throws InterruptedException {
+        long remoto = 1_000;
+        int operacoes = OPERACOES / 4;
+        RelogioLamport relogio = new RelogioLamport();
+        Set<Long> vistos = ConcurrentHashMap.newKeySet();
+        AtomicLong repetidos = new AtomicLong();
+
+        executar(() -> {
+            for (int i = 0; i < operacoes; i++) {
+                long novo = relogio.merge(remoto);
+                if (novo <= remoto || !vistos.add(novo)) {
+                    repetidos.incrementAndGet();
+                }
+            }
+        });
+
+        assertEquals(0, repetidos.get());
+        assertEquals(remoto + (long) THREADS * operacoes, relogio.getValor());
+        assertTrue(vistos.contains(remoto + 1));
+    }
+
+    private static void executar(Runnable tarefa) throws InterruptedException {
+        CountDownLatch largada = new CountDownLatch(1);
+        CountDownLatch fim = new CountDownLatch(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            new Thread(() -> {
+                try {
+                    largada.await();
+                    tarefa.run();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    fim.countDown();
+                }
+            }).start();
+        }
+        largada.countDown();
+        fim.await();
+    }
+}
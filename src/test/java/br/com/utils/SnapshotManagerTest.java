@@ -0,0 +1,69 @@
+package br.com.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.ServerSocket;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A coleta do sistema consulta os processos com porta de snapshot registrada
+ */
+class SnapshotManagerTest {
+
+    /**
+     * Um membro extra do grupo 2 numa porta qualquer entra na coleta e sai dela ao se desregistrar
+     */
+    @Test
+    void coletaConsultaProcessosRegistrados() throws Exception {
+        String nome = "ProcessoRMI42";
+        SnapshotManager manager = new SnapshotManager(nome, 2, portaLivre(), () -> nome + " - Clock: 7");
+        try {
+            manager.startSnapshotServer();
+            assertTrue(SnapshotManager.getRegisteredProcesses().contains(nome));
+
+            SystemSnapshot.ProcessSnapshot resultado = esperarOk(nome);
+            assertEquals(2, resultado.getGroup());
+            assertEquals(nome + " - Clock: 7", resultado.getInfo());
+        } finally {
+            manager.stopSnapshotServer();
+            SnapshotManager.unregisterProcess(nome);
+        }
+
+        assertFalse(SnapshotManager.getRegisteredProcesses().contains(nome));
+        for (SystemSnapshot.ProcessSnapshot processo : SnapshotManager.collectSystemSnapshot("teste", 500, null).getProcesses()) {
+            assertFalse(processo.getProcessName().equals(nome));
+        }
+    }
+
+    /**
+     * O servidor sobe em outra thread; repete a coleta até ele aceitar
+     */
+    private static SystemSnapshot.ProcessSnapshot esperarOk(String nome) throws InterruptedException {
+        SystemSnapshot.ProcessSnapshot encontrado = null;
+        long limite = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < limite) {
+            for (SystemSnapshot.ProcessSnapshot processo : SnapshotManager.collectSystemSnapshot("teste", 500, null).getProcesses()) {
+                if (processo.getProcessName().equals(nome)) {
+                    encontrado = processo;
+                }
+            }
+            if (encontrado != null && encontrado.getStatus() == SystemSnapshot.Status.OK) {
+                return encontrado;
+            }
+            Thread.sleep(50);
+        }
+        assertNotNull(encontrado, "processo registrado fora da coleta");
+        assertEquals(SystemSnapshot.Status.OK, encontrado.getStatus());
+        return encontrado;
+    }
+
+    private static int portaLivre() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}